@@ -0,0 +1,32 @@
+package uz.pravaimtihon.bench;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Benchmarklar uchun PostgreSQL ulanishi.
+ * <p>
+ * Jadvallar alohida {@code bench} sxemasida yaratiladi — ilova ma'lumotlariga tegilmaydi.
+ * Default'lar docker-compose'dagi lokal baza bilan bir xil; boshqa baza uchun:
+ * {@code -Dbench.jdbc.url=... -Dbench.jdbc.user=... -Dbench.jdbc.password=...}
+ * (JMH fork'lariga {@code -jvmArgsAppend} orqali).
+ */
+public final class BenchDatabase {
+
+    public static final String SCHEMA = "bench";
+
+    private BenchDatabase() {
+    }
+
+    /** Bitta ulanish — o'lchovga ulanish hovuzi (pool) xarajati kirmaydi. */
+    public static SingleConnectionDataSource open() {
+        String url = System.getProperty("bench.jdbc.url",
+                "jdbc:postgresql://localhost:5432/prava_online_db?currentSchema=" + SCHEMA);
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url,
+                System.getProperty("bench.jdbc.user", "prava_user"),
+                System.getProperty("bench.jdbc.password", "prava_password"),
+                true);
+        new JdbcTemplate(dataSource).execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        return dataSource;
+    }
+}
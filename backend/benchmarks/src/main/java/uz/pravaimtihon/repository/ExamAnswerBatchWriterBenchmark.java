@@ -0,0 +1,120 @@
+package uz.pravaimtihon.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import uz.pravaimtihon.bench.BenchDatabase;
+import uz.pravaimtihon.repository.ExamAnswerBatchWriter.NewAnswer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imtihon boshlanishidagi {@code exam_answers} yozuvi: {@link ExamAnswerBatchWriter}
+ * (bitta multi-values {@code INSERT ... RETURNING}) va avvalgi yo'l — Hibernate
+ * IDENTITY bilan har bir qator uchun alohida {@code INSERT ... RETURNING id}.
+ * <p>
+ * Lokal bazada round-trip arzon; tarmoq orqali ulangan bazada farq kattaroq bo'ladi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExamAnswerBatchWriterBenchmark {
+
+    /** Hibernate'ning {@code ExamAnswer} uchun insert'i — ustunlar entity tartibida. */
+    private static final String SINGLE_ROW_INSERT =
+            "INSERT INTO exam_answers (answered_at, correct_option_index, created_at, created_by, deleted, " +
+            "deleted_at, deleted_by, exam_session_id, is_correct, question_id, question_order, " +
+            "selected_option_index, time_spent_seconds, updated_at, updated_by, version) " +
+            "VALUES (NULL, ?, ?, 'system', false, NULL, NULL, ?, NULL, ?, ?, NULL, NULL, ?, 'system', 0) " +
+            "RETURNING id";
+
+    @Param({"20", "100"})
+    public int questions;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private ExamAnswerBatchWriter writer;
+    private List<NewAnswer> answers;
+    private long sessionId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = BenchDatabase.open();
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS exam_answers");
+        jdbc.execute("CREATE TABLE exam_answers (" +
+                " id BIGSERIAL PRIMARY KEY," +
+                " exam_session_id BIGINT NOT NULL," +
+                " question_id BIGINT NOT NULL," +
+                " question_order INTEGER NOT NULL," +
+                " selected_option_index INTEGER," +
+                " correct_option_index INTEGER NOT NULL," +
+                " is_correct BOOLEAN," +
+                " answered_at TIMESTAMP," +
+                " time_spent_seconds BIGINT," +
+                " created_at TIMESTAMP NOT NULL," +
+                " created_by VARCHAR(100)," +
+                " updated_at TIMESTAMP," +
+                " updated_by VARCHAR(100)," +
+                " deleted BOOLEAN NOT NULL," +
+                " deleted_at TIMESTAMP," +
+                " deleted_by VARCHAR(100)," +
+                " version BIGINT)");
+        jdbc.execute("CREATE INDEX idx_answer_session ON exam_answers(exam_session_id)");
+        jdbc.execute("CREATE INDEX idx_answer_question ON exam_answers(question_id)");
+        jdbc.execute("CREATE INDEX idx_answer_updated ON exam_answers(updated_at)");
+
+        writer = new ExamAnswerBatchWriter(jdbc);
+        answers = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            answers.add(new NewAnswer(1000L + i, i + 1, i % 4));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbc.execute("TRUNCATE exam_answers");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbc.execute("DROP TABLE IF EXISTS exam_answers");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<Long> batchInsert() {
+        return writer.insertAll(++sessionId, answers);
+    }
+
+    @Benchmark
+    public List<Long> rowByRowInsert() {
+        long session = ++sessionId;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ids = new ArrayList<>(answers.size());
+        for (NewAnswer answer : answers) {
+            ids.add(jdbc.queryForObject(SINGLE_ROW_INSERT, Long.class,
+                    answer.correctOptionIndex(), now, session, answer.questionId(), answer.questionOrder(), now));
+        }
+        return ids;
+    }
+}
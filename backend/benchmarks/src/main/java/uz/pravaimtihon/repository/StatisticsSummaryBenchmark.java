@@ -0,0 +1,186 @@
+package uz.pravaimtihon.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import uz.pravaimtihon.bench.BenchDatabase;
+import uz.pravaimtihon.dto.request.StatisticsFilterRequest;
+import uz.pravaimtihon.repository.ExamSessionStatisticsRepository.Summary;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistika xulosasi 1M sessiya ustida: {@link ExamSessionStatisticsRepository#summary}
+ * (SQL agregatsiya) va avvalgi yo'l — barcha sessiyalarni {@code started_at} bo'yicha
+ * yuklab, filtr va agregatni Java'da hisoblash.
+ * <p>
+ * Avvalgi yo'l bu yerda yengil record'lar bilan taqlid qilinadi (Hibernate entity'lari,
+ * lazy-proxy'lar va persistence context yo'q) — ya'ni uning haqiqiy narxining quyi chegarasi.
+ * Ma'lumotlar {@code bench} sxemasida {@code generate_series} bilan bir marta yaratiladi
+ * va keyingi ishga tushirishlarda qayta ishlatiladi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StatisticsSummaryBenchmark {
+
+    private static final int SESSIONS = 1_000_000;
+
+    /** Eski {@code findAll(Sort.by("startedAt"))} o'qigan ustunlar (mavzu — paket yoki bilet orqali). */
+    private static final String LOAD_ALL =
+            "SELECT s.user_id, s.status, s.is_passed, s.total_questions, s.correct_count, s.wrong_count," +
+            " s.percentage, s.started_at, s.finished_at, p.topic_id AS package_topic, t.topic_id AS ticket_topic" +
+            " FROM exam_sessions s" +
+            " LEFT JOIN exam_packages p ON p.id = s.package_id" +
+            " LEFT JOIN tickets t ON t.id = s.ticket_id" +
+            " ORDER BY s.started_at";
+
+    private record Session(long userId, String status, Boolean isPassed, Integer totalQuestions,
+                           Integer correctCount, Integer wrongCount, Double percentage,
+                           LocalDateTime startedAt, LocalDateTime finishedAt,
+                           Long packageTopic, Long ticketTopic) {
+    }
+
+    /** Avvalgi Java yo'lidagi xulosaning asosiy maydonlari. */
+    public record LegacySummary(long total, long completed, long passed, long totalQuestions, long correct,
+                                double average, double best, double worst, double median, long totalTime) {
+    }
+
+    /** all — filtrsiz (admin dashboard), topic — bitta mavzu. */
+    @Param({"all", "topic"})
+    public String filter;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private ExamSessionStatisticsRepository repository;
+    private StatisticsFilterRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = BenchDatabase.open();
+        jdbc = new JdbcTemplate(dataSource);
+        if (!dataReady()) {
+            generate();
+        }
+        repository = new ExamSessionStatisticsRepository(new NamedParameterJdbcTemplate(dataSource));
+        request = "topic".equals(filter)
+                ? StatisticsFilterRequest.builder().topicId(3L).build()
+                : new StatisticsFilterRequest();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public Summary sqlAggregation() {
+        return repository.summary(repository.filterOf(request));
+    }
+
+    @Benchmark
+    public LegacySummary loadAllAndAggregateInJava() {
+        List<Session> sessions = jdbc.query(LOAD_ALL, (rs, rowNum) -> {
+            Timestamp startedAt = rs.getTimestamp("started_at");
+            Timestamp finishedAt = rs.getTimestamp("finished_at");
+            return new Session(
+                    rs.getLong("user_id"),
+                    rs.getString("status"),
+                    rs.getObject("is_passed", Boolean.class),
+                    rs.getObject("total_questions", Integer.class),
+                    rs.getObject("correct_count", Integer.class),
+                    rs.getObject("wrong_count", Integer.class),
+                    rs.getObject("percentage", Double.class),
+                    startedAt != null ? startedAt.toLocalDateTime() : null,
+                    finishedAt != null ? finishedAt.toLocalDateTime() : null,
+                    rs.getObject("package_topic", Long.class),
+                    rs.getObject("ticket_topic", Long.class));
+        });
+
+        Long topicId = request.getTopicId();
+        List<Session> filtered = sessions.stream()
+                .filter(s -> topicId == null || topicId.equals(s.packageTopic()) || topicId.equals(s.ticketTopic()))
+                .toList();
+
+        long completed = filtered.stream().filter(s -> "COMPLETED".equals(s.status())).count();
+        long passed = filtered.stream().filter(s -> s.isPassed() != null && s.isPassed()).count();
+        long totalQuestions = filtered.stream().mapToLong(s -> s.totalQuestions() != null ? s.totalQuestions() : 0).sum();
+        long correct = filtered.stream().mapToLong(s -> s.correctCount() != null ? s.correctCount() : 0).sum();
+        List<Double> scores = filtered.stream()
+                .filter(s -> s.percentage() != null)
+                .map(Session::percentage)
+                .sorted()
+                .toList();
+        double average = scores.stream().mapToDouble(d -> d).average().orElse(0.0);
+        long totalTime = filtered.stream()
+                .mapToLong(s -> s.startedAt() != null && s.finishedAt() != null
+                        ? Duration.between(s.startedAt(), s.finishedAt()).getSeconds() : 0)
+                .sum();
+
+        return new LegacySummary(filtered.size(), completed, passed, totalQuestions, correct, average,
+                scores.isEmpty() ? 0.0 : scores.get(scores.size() - 1),
+                scores.isEmpty() ? 0.0 : scores.get(0),
+                scores.isEmpty() ? 0.0 : scores.get(scores.size() / 2),
+                totalTime);
+    }
+
+    private boolean dataReady() {
+        Boolean exists = jdbc.queryForObject("SELECT to_regclass('exam_sessions') IS NOT NULL", Boolean.class);
+        return Boolean.TRUE.equals(exists)
+                && jdbc.queryForObject("SELECT COUNT(*) FROM exam_sessions", Long.class) == SESSIONS;
+    }
+
+    /** 20 paket, 60 bilet (10 mavzu), 50k foydalanuvchi, ~2 yil davomida 1M sessiya. */
+    private void generate() {
+        jdbc.execute("DROP TABLE IF EXISTS exam_sessions, exam_packages, tickets");
+        jdbc.execute("CREATE TABLE exam_packages (id BIGINT PRIMARY KEY, topic_id BIGINT)");
+        jdbc.execute("CREATE TABLE tickets (id BIGINT PRIMARY KEY, topic_id BIGINT)");
+        jdbc.execute("CREATE TABLE exam_sessions (" +
+                " id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, package_id BIGINT, ticket_id BIGINT," +
+                " status VARCHAR(20) NOT NULL, is_passed BOOLEAN, total_questions INTEGER," +
+                " correct_count INTEGER, wrong_count INTEGER, percentage DOUBLE PRECISION," +
+                " started_at TIMESTAMP, finished_at TIMESTAMP)");
+        jdbc.execute("INSERT INTO exam_packages SELECT g, 1 + g % 10 FROM generate_series(1, 20) g");
+        jdbc.execute("INSERT INTO tickets SELECT g, 1 + g % 10 FROM generate_series(1, 60) g");
+        jdbc.execute("INSERT INTO exam_sessions" +
+                " SELECT g, 1 + g % 50000," +
+                " CASE WHEN g % 3 = 1 THEN 1 + g % 20 END," +
+                " CASE WHEN g % 3 = 2 THEN 1 + g % 60 END," +
+                " x.status," +
+                " CASE WHEN x.status = 'IN_PROGRESS' THEN NULL ELSE x.pct >= 90 END," +
+                " 20," +
+                " CASE WHEN x.status = 'IN_PROGRESS' THEN NULL ELSE (x.pct / 5)::int END," +
+                " CASE WHEN x.status = 'IN_PROGRESS' THEN NULL ELSE 20 - (x.pct / 5)::int END," +
+                " CASE WHEN x.status = 'IN_PROGRESS' THEN NULL ELSE x.pct END," +
+                " TIMESTAMP '2023-01-01' + g * INTERVAL '1 minute'," +
+                " CASE WHEN x.status = 'IN_PROGRESS' THEN NULL" +
+                "   ELSE TIMESTAMP '2023-01-01' + g * INTERVAL '1 minute' + (300 + g % 900) * INTERVAL '1 second' END" +
+                " FROM generate_series(1, " + SESSIONS + ") g," +
+                " LATERAL (SELECT (ARRAY['COMPLETED','COMPLETED','COMPLETED','IN_PROGRESS','ABANDONED','EXPIRED'])" +
+                "   [1 + g % 6] AS status, ((g * 37) % 21) * 5.0 AS pct) x");
+        jdbc.execute("CREATE INDEX idx_session_user_started ON exam_sessions(user_id, started_at DESC NULLS LAST, id DESC)");
+        jdbc.execute("CREATE INDEX idx_session_package ON exam_sessions(package_id)");
+        jdbc.execute("CREATE INDEX idx_session_ticket ON exam_sessions(ticket_id)");
+        jdbc.execute("ANALYZE exam_sessions");
+    }
+}
@@ -0,0 +1,102 @@
+package uz.pravaimtihon.security;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uz.pravaimtihon.enums.AcceptLanguage;
+import uz.pravaimtihon.enums.Role;
+
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtAuthenticationFilter} ning har so'rovdagi token ishi (foydalanuvchini yuklashsiz):
+ * <ul>
+ *   <li>{@code legacy} — avvalgi filter: {@code isDownloadToken}, {@code extractUsername},
+ *       {@code isTokenValid} har biri tokenni qayta parse va HMAC-tekshirardi (jami 4 marta);</li>
+ *   <li>{@code parseOnce} — joriy filter, kesh o'chirilgan: bitta parse;</li>
+ *   <li>{@code parseOnceCached} — joriy filter, bir klientning takroriy so'rovlari: parse keshdan.</li>
+ * </ul>
+ * Avvalgi filter har so'rovda INFO log ham yozardi — bu yerda log narxi o'lchanmaydi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private JwtTokenProvider uncached;
+    private JwtTokenProvider cached;
+    private CustomUserDetails user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        uncached = provider(0);
+        cached = provider(10_000);
+        user = new CustomUserDetails(42L, "+998901234567", "{noop}secret", Role.USER, AcceptLanguage.UZL,
+                true, false, null);
+        token = cached.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        JwtTokenProvider provider = uncached;
+        if (provider.isDownloadToken(token)) {
+            return false;
+        }
+        String subject = provider.extractUsername(token);
+        return subject != null && provider.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public boolean parseOnce() {
+        return filter(uncached);
+    }
+
+    @Benchmark
+    public boolean parseOnceCached() {
+        return filter(cached);
+    }
+
+    /** JwtAuthenticationFilter.doFilterInternal'dagi tartib. */
+    private boolean filter(JwtTokenProvider provider) {
+        Claims claims = provider.parseClaims(token);
+        if (provider.isDownloadToken(claims)) {
+            return false;
+        }
+        return claims.getSubject() != null && provider.isTokenValid(claims, user);
+    }
+
+    /** Spring'siz: {@code @Value} maydonlari qo'lda to'ldiriladi, keyin {@code @PostConstruct}. */
+    private static JwtTokenProvider provider(long claimsCacheSize) throws ReflectiveOperationException {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        set(provider, "secretKey", Base64.getEncoder().encodeToString(
+                "benchmark-only-secret-key-of-at-least-48-bytes!!".getBytes()));
+        set(provider, "accessTokenExpiration", 86_400_000L);
+        set(provider, "refreshTokenExpiration", 2_592_000_000L);
+        set(provider, "downloadTokenExpiration", 300_000L);
+        set(provider, "issuer", "prava-online");
+        set(provider, "claimsCacheSize", claimsCacheSize);
+        provider.validateConfiguration();
+        return provider;
+    }
+
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
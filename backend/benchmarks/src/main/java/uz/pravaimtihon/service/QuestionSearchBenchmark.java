@@ -0,0 +1,214 @@
+package uz.pravaimtihon.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import uz.pravaimtihon.bench.BenchDatabase;
+import uz.pravaimtihon.dto.response.exam.LocalizedText;
+import uz.pravaimtihon.dto.response.exam.QuestionResponse;
+import uz.pravaimtihon.service.QuestionBankSnapshot.CachedQuestion;
+import uz.pravaimtihon.service.QuestionBankSnapshot.Snapshot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin savol qidiruvining kechikishi:
+ * <ul>
+ *   <li>{@code trigramIndex} — {@link QuestionSearchIndex} (joriy yo'l);</li>
+ *   <li>{@code likeScanInMemory} — avvalgi {@code LOWER(col) LIKE '%q%'} ning xotiradagi
+ *       ekvivalenti (bazasiz, ya'ni uning quyi chegarasi);</li>
+ *   <li>{@code postgresLike} — avvalgi so'rovning o'zi ({@code app.questions.search.index-enabled=false}):
+ *       sahifa + {@code COUNT}, PostgreSQL kerak.</li>
+ * </ul>
+ * Savollar 4 tilda parallel lug'atdan tasodifiy (lekin qayta takrorlanadigan) gaplar.
+ * LIKE yozuvlar farqini bilmaydi — kirillcha so'rov lotin matnni topmaydi; natija soni emas, vaqt o'lchanadi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionSearchBenchmark {
+
+    private static final String[] UZL = {"yo'l", "belgisi", "svetofor", "haydovchi", "chorraha", "tezlik",
+            "piyoda", "o'tish", "transport", "vositasi", "to'xtash", "burilish", "ustunlik", "avtomobil",
+            "harakat", "qoidasi", "chiziq", "bekat", "ogohlantiruvchi", "taqiqlovchi"};
+    private static final String[] UZC = {"йўл", "белгиси", "светофор", "ҳайдовчи", "чорраҳа", "тезлик",
+            "пиёда", "ўтиш", "транспорт", "воситаси", "тўхташ", "бурилиш", "устунлик", "автомобил",
+            "ҳаракат", "қоидаси", "чизиқ", "бекат", "огоҳлантирувчи", "тақиқловчи"};
+    private static final String[] EN = {"road", "sign", "traffic light", "driver", "intersection", "speed",
+            "pedestrian", "crossing", "transport", "vehicle", "stopping", "turn", "priority", "car",
+            "movement", "rule", "line", "station", "warning", "prohibitory"};
+    private static final String[] RU = {"дорога", "знак", "светофор", "водитель", "перекресток", "скорость",
+            "пешеход", "переход", "транспорт", "средство", "остановка", "поворот", "приоритет", "автомобиль",
+            "движение", "правило", "линия", "станция", "предупреждающий", "запрещающий"};
+
+    private static final int PAGE_SIZE = 20;
+
+    /** Bazasiz nusxa: {@link QuestionSearchIndex} faqat {@code current()} ni chaqiradi. */
+    private static final class FixedQuestionBank extends QuestionBankSnapshot {
+
+        private final Snapshot snapshot;
+
+        FixedQuestionBank(Snapshot snapshot) {
+            super(null, null, null);
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public Snapshot current() {
+            return snapshot;
+        }
+    }
+
+    private record Texts(long id, String uzl, String uzc, String en, String ru) {
+    }
+
+    @Param({"2000", "20000"})
+    public int questions;
+
+    @Param({"belgisi", "yo'l belgisi", "светофор"})
+    public String query;
+
+    private List<Texts> texts;
+    private QuestionSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        texts = generate(questions);
+        Map<Long, CachedQuestion> cached = new HashMap<>();
+        long[] ids = new long[texts.size()];
+        for (int i = 0; i < texts.size(); i++) {
+            Texts t = texts.get(i);
+            QuestionResponse template = QuestionResponse.builder()
+                    .id(t.id())
+                    .text(LocalizedText.of(t.uzl(), t.uzc(), t.en(), t.ru()))
+                    .build();
+            cached.put(t.id(), new CachedQuestion(t.id(), 1 + t.id() % 10, 0, template));
+            ids[i] = t.id();
+        }
+        Snapshot snapshot = new Snapshot(1, cached, ids, Map.of(), LocalDateTime.now());
+        index = new QuestionSearchIndex(new FixedQuestionBank(snapshot));
+        index.search(query, null, 0, PAGE_SIZE); // indeks shu yerda quriladi
+    }
+
+    @Benchmark
+    public QuestionSearchIndex.Result trigramIndex() {
+        return index.search(query, null, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public QuestionSearchIndex.Result likeScanInMemory() {
+        String needle = query.toLowerCase();
+        List<Long> page = new ArrayList<>(PAGE_SIZE);
+        int total = 0;
+        for (Texts t : texts) {
+            if (t.uzl().toLowerCase().contains(needle)
+                    || t.uzc().toLowerCase().contains(needle)
+                    || t.en().toLowerCase().contains(needle)
+                    || t.ru().toLowerCase().contains(needle)) {
+                if (total++ < PAGE_SIZE) {
+                    page.add(t.id());
+                }
+            }
+        }
+        return new QuestionSearchIndex.Result(page, total);
+    }
+
+    @Benchmark
+    public QuestionSearchIndex.Result postgresLike(PostgresState db) {
+        List<Long> page = db.jdbc.queryForList("SELECT q.id" + PostgresState.LIKE_WHERE +
+                " ORDER BY q.id LIMIT " + PAGE_SIZE, Long.class, query, query, query, query);
+        Integer total = db.jdbc.queryForObject("SELECT COUNT(*)" + PostgresState.LIKE_WHERE,
+                Integer.class, query, query, query, query);
+        return new QuestionSearchIndex.Result(page, total != null ? total : 0);
+    }
+
+    /** Faqat {@code postgresLike} ishlaganda yaratiladi. */
+    @State(Scope.Benchmark)
+    public static class PostgresState {
+
+        /** QuestionRepository.searchQuestions ning SQL ko'rinishi. */
+        static final String LIKE_WHERE = " FROM questions q WHERE q.deleted = false AND q.is_active = true AND" +
+                " (LOWER(q.text_uzl) LIKE LOWER(CONCAT('%', ?, '%'))" +
+                " OR LOWER(q.text_uzc) LIKE LOWER(CONCAT('%', ?, '%'))" +
+                " OR LOWER(q.text_en) LIKE LOWER(CONCAT('%', ?, '%'))" +
+                " OR LOWER(q.text_ru) LIKE LOWER(CONCAT('%', ?, '%')))";
+
+        private SingleConnectionDataSource dataSource;
+        private JdbcTemplate jdbc;
+
+        @Setup(Level.Trial)
+        public void setUp(QuestionSearchBenchmark benchmark) {
+            dataSource = BenchDatabase.open();
+            jdbc = new JdbcTemplate(dataSource);
+            jdbc.execute("DROP TABLE IF EXISTS questions");
+            jdbc.execute("CREATE TABLE questions (id BIGINT PRIMARY KEY, topic_id BIGINT," +
+                    " text_uzl TEXT, text_uzc TEXT, text_en TEXT, text_ru TEXT," +
+                    " is_active BOOLEAN NOT NULL, deleted BOOLEAN NOT NULL)");
+            jdbc.execute("CREATE INDEX idx_question_topic ON questions(topic_id)");
+            jdbc.execute("CREATE INDEX idx_question_deleted ON questions(deleted)");
+            jdbc.execute("CREATE INDEX idx_question_active ON questions(is_active)");
+            List<Object[]> rows = new ArrayList<>(benchmark.texts.size());
+            for (Texts t : benchmark.texts) {
+                rows.add(new Object[]{t.id(), 1 + t.id() % 10, t.uzl(), t.uzc(), t.en(), t.ru()});
+            }
+            jdbc.batchUpdate("INSERT INTO questions VALUES (?, ?, ?, ?, ?, ?, true, false)", rows);
+            jdbc.execute("ANALYZE questions");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            jdbc.execute("DROP TABLE IF EXISTS questions");
+            dataSource.destroy();
+        }
+    }
+
+    /** Har savol — 6..14 so'zli gap, 4 tilda bir xil so'zlar ketma-ketligi. */
+    private static List<Texts> generate(int count) {
+        Random random = new Random(7);
+        List<Texts> result = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            int words = 6 + random.nextInt(9);
+            StringBuilder uzl = new StringBuilder();
+            StringBuilder uzc = new StringBuilder();
+            StringBuilder en = new StringBuilder();
+            StringBuilder ru = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                int k = random.nextInt(UZL.length);
+                String sep = w == 0 ? "" : " ";
+                uzl.append(sep).append(UZL[k]);
+                uzc.append(sep).append(UZC[k]);
+                en.append(sep).append(EN[k]);
+                ru.append(sep).append(RU[k]);
+            }
+            result.add(new Texts(i, capitalize(uzl) + "?", capitalize(uzc) + "?",
+                    capitalize(en) + "?", capitalize(ru) + "?"));
+        }
+        return result;
+    }
+
+    private static String capitalize(StringBuilder sentence) {
+        sentence.setCharAt(0, Character.toUpperCase(sentence.charAt(0)));
+        return sentence.toString();
+    }
+}
@@ -3,10 +3,12 @@ package uz.pravaimtihon.backup;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -18,18 +20,25 @@ import uz.pravaimtihon.backup.dto.BackupJobStatus.JobType;
 import uz.pravaimtihon.backup.dto.ClearOptions;
 import uz.pravaimtihon.backup.dto.ImportOptions;
 import uz.pravaimtihon.backup.service.BackupJobRegistry;
+import uz.pravaimtihon.backup.service.ExamSessionExportService;
 import uz.pravaimtihon.backup.service.ProductionBackupService;
 import uz.pravaimtihon.backup.service.ProductionRestoreService;
 import uz.pravaimtihon.dto.response.ApiResponse;
+import uz.pravaimtihon.exception.BusinessException;
 import uz.pravaimtihon.security.JwtTokenProvider;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Backup va Restore endpointlari.
@@ -37,11 +46,16 @@ import java.util.Map;
  * <pre>
  * ── EXPORT ──────────────────────────────────────────────────────────────────
  * POST /api/v1/admin/backup/export              → async job ishga tushiradi
+ *                                                 (?incrementalFrom={backupId} → faqat o'zgarishlar)
  * GET  /api/v1/admin/backup/export/{jobId}      → holat JSON
  * GET  /api/v1/admin/backup/export/{jobId}/download → ZIP yuklab olish
  *
+ * ── ANALYTICS ───────────────────────────────────────────────────────────────
+ * GET  /api/v1/admin/backup/exam-sessions       → sessiya + javoblar NDJSON/CSV oqimi
+ *
  * ── IMPORT ──────────────────────────────────────────────────────────────────
  * POST /api/v1/admin/backup/import              → ZIP yuklaydi, restore ishga tushiradi
+ * POST /api/v1/admin/backup/import/chain        → to'liq backup + incremental deltalar ketma-ket
  * GET  /api/v1/admin/backup/import/{jobId}      → restore holati
  *
  * ── CLEAR ───────────────────────────────────────────────────────────────────
@@ -66,6 +80,7 @@ public class BackupController {
 
     private final ProductionBackupService  backupService;
     private final ProductionRestoreService restoreService;
+    private final ExamSessionExportService examExportService;
     private final BackupJobRegistry        jobRegistry;
     private final JwtTokenProvider         jwtTokenProvider;
 
@@ -101,6 +116,9 @@ public class BackupController {
             @Parameter(description = "Shifrlash paroli (encrypt=true bo'lsa majburiy)")
             @RequestParam(required = false) String password,
 
+            @Parameter(description = "Oldingi backup ID (to'liq yoki incremental): faqat undan keyin o'zgargan qatorlar va yangi fayllar")
+            @RequestParam(required = false) String incrementalFrom,
+
             @AuthenticationPrincipal UserDetails user) {
 
         if (encrypt && (password == null || password.isBlank())) {
@@ -108,10 +126,17 @@ public class BackupController {
                     .body(ApiResponse.error("encrypt=true bo'lsa password majburiy"));
         }
 
+        String parentBackupId = incrementalFrom != null && !incrementalFrom.isBlank() ? incrementalFrom.trim() : null;
+        if (parentBackupId != null && backupService.findManifest(parentBackupId).isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Oldingi backup manifesti topilmadi: " + parentBackupId));
+        }
+
         BackupJobStatus job = jobRegistry.create(JobType.EXPORT, user.getUsername());
-        backupService.startExport(job.getJobId(), encrypt, password);
+        backupService.startExport(job.getJobId(), encrypt, password, parentBackupId);
 
-        log.info("[BACKUP] Export initiated by={} jobId={}", user.getUsername(), job.getJobId());
+        log.info("[BACKUP] Export initiated by={} jobId={} incrementalFrom={}",
+                user.getUsername(), job.getJobId(), parentBackupId);
 
         return ResponseEntity.accepted().body(ApiResponse.success("Backup ishga tushirildi", Map.of(
                 "jobId",   job.getJobId(),
@@ -156,6 +181,93 @@ public class BackupController {
         };
     }
 
+    // ════════════════════════════════════════════════════════════════════════
+    // ANALYTICS EXPORT — sessiyalar va javoblar oqimi
+    // ════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Imtihon sessiyalari va javoblarini tahlil uchun oqim sifatida yozadi.
+     * Job/temp fayl yo'q: keyset sahifalar to'g'ridan-to'g'ri response'ga boradi,
+     * server xotirasi natija hajmiga bog'liq emas.
+     */
+    @GetMapping("/exam-sessions")
+    @Operation(
+            summary = "Imtihon sessiyalari + javoblar eksporti (NDJSON/CSV)",
+            description = """
+                    NDJSON: har qatorda bitta sessiya, answers massivi bilan.
+                    CSV: har qatorda bitta javob, sessiya ustunlari takrorlanadi.
+                    Filtrlar started_at sanasi, rejim (TICKET|PACKAGE|MARATHON) va mavzu bo'yicha.
+                    """
+    )
+    public void exportExamSessions(
+            @Parameter(description = "ndjson | csv")
+            @RequestParam(defaultValue = "ndjson") String format,
+
+            @Parameter(description = "Natijani gzip bilan siqish (.gz fayl)")
+            @RequestParam(defaultValue = "false") boolean gzip,
+
+            @Parameter(description = "started_at >= shu sana (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+
+            @Parameter(description = "started_at <= shu sana (yyyy-MM-dd, kun oxirigacha)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+
+            @Parameter(description = "TICKET | PACKAGE | MARATHON")
+            @RequestParam(required = false) String mode,
+
+            @Parameter(description = "Mavzu ID (paket yoki bilet mavzusi)")
+            @RequestParam(required = false) Long topicId,
+
+            @AuthenticationPrincipal UserDetails user,
+            HttpServletResponse response) throws IOException {
+
+        ExamSessionExportService.Format fmt = switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson", "jsonl" -> ExamSessionExportService.Format.NDJSON;
+            case "csv"             -> ExamSessionExportService.Format.CSV;
+            default -> throw new BusinessException("error.export.format.invalid");
+        };
+        String modeKey = mode != null && !mode.isBlank() ? mode.trim().toUpperCase(Locale.ROOT) : null;
+        if (modeKey != null && !ExamSessionExportService.MODES.contains(modeKey)) {
+            throw new BusinessException("error.export.mode.invalid");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException("error.export.date.range.invalid");
+        }
+
+        ExamSessionExportService.Filter filter = new ExamSessionExportService.Filter(
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                modeKey,
+                topicId);
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        String filename  = "exam-sessions-" + timestamp
+                + (fmt == ExamSessionExportService.Format.CSV ? ".csv" : ".ndjson")
+                + (gzip ? ".gz" : "");
+
+        response.setContentType(gzip ? "application/gzip"
+                : fmt == ExamSessionExportService.Format.CSV ? "text/csv;charset=UTF-8"
+                : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store, private");
+        response.setHeader("X-Accel-Buffering", "no");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        log.info("[EXPORT] Exam session export by={} format={} gzip={} filter={}",
+                user.getUsername(), fmt, gzip, filter);
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream gz = new GZIPOutputStream(out, 65536)) {
+                examExportService.export(filter, fmt, gz);
+            }
+        } else {
+            examExportService.export(filter, fmt, out);
+            out.flush();
+        }
+    }
+
     // ════════════════════════════════════════════════════════════════════════
     // IMPORT
     // ════════════════════════════════════════════════════════════════════════
@@ -200,20 +312,9 @@ public class BackupController {
 
             @AuthenticationPrincipal UserDetails user) throws IOException {
 
-        if (file.isEmpty()) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("Fayl bo'sh"));
-        }
-
-        String originalName = file.getOriginalFilename();
-        if (originalName == null || !originalName.toLowerCase().endsWith(".zip")) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("Faqat .zip fayl qabul qilinadi"));
-        }
-
-        if (file.getSize() > MAX_IMPORT_SIZE_BYTES) {
-            long sizeMB = file.getSize() / 1024 / 1024;
-            long maxMB  = MAX_IMPORT_SIZE_BYTES / 1024 / 1024;
-            return ResponseEntity.badRequest().body(ApiResponse.error(
-                    "Fayl hajmi juda katta: " + sizeMB + "MB. Maksimal: " + maxMB + "MB"));
+        String uploadError = validateUpload(file);
+        if (uploadError != null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(uploadError));
         }
 
         // ImportOptions yaratish
@@ -245,6 +346,76 @@ public class BackupController {
         )));
     }
 
+    /**
+     * To'liq backup va undan keyingi incremental deltalarni bitta job'da tiklaydi.
+     * Fayllar tartibi: avval to'liq backup, so'ng deltalar yaratilgan tartibda —
+     * har delta oldingi arxivning backupId siga bog'langanligi tekshiriladi.
+     */
+    @PostMapping(value = "/import/chain", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "To'liq backup + incremental deltalarni restore qilish",
+            description = """
+                    files: to'liq backup ZIP va uning deltalari (yaratilgan tartibda).
+                    forceReplace faqat birinchi arxivga qo'llanadi; deltalardagi qatorlar upsert qilinadi.
+                    Selective import: /import dagi import* parametrlari bu yerda ham ishlaydi.
+                    """
+    )
+    public ResponseEntity<ApiResponse<Map<String, Object>>> startChainImport(
+            @Parameter(description = "Backup ZIP fayllari (har biri max 10GB)")
+            @RequestPart("files") List<MultipartFile> files,
+
+            @Parameter(description = "Mavjud ma'lumotlarni o'chirib to'liq restore (EHTIYOT!)")
+            @RequestParam(defaultValue = "false") boolean forceReplace,
+
+            @Parameter(description = "Shifrlangan backup paroli (zanjirdagi barcha arxivlar uchun)")
+            @RequestParam(required = false) String password,
+
+            @ModelAttribute ImportOptions options,
+
+            @AuthenticationPrincipal UserDetails user) throws IOException {
+
+        if (files == null || files.isEmpty()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Fayl bo'sh"));
+        }
+        for (MultipartFile file : files) {
+            String uploadError = validateUpload(file);
+            if (uploadError != null) {
+                return ResponseEntity.badRequest().body(ApiResponse.error(uploadError));
+            }
+        }
+
+        List<String> tempZips = new ArrayList<>(files.size());
+        long totalBytes = 0;
+        BackupJobStatus job;
+        try {
+            for (MultipartFile file : files) {
+                Path tempZip = Files.createTempFile("prava-import-", ".zip");
+                tempZips.add(tempZip.toString());
+                file.transferTo(tempZip.toFile());
+                totalBytes += file.getSize();
+            }
+
+            job = jobRegistry.create(JobType.IMPORT, user.getUsername());
+            restoreService.startRestoreChain(job.getJobId(), tempZips, forceReplace, password, options);
+        } catch (IOException | RuntimeException e) {
+            // restore ishga tushmadi — yozilgan ZIP'larni startRestoreChain tozalamaydi
+            for (String tempZip : tempZips) {
+                Files.deleteIfExists(Path.of(tempZip));
+            }
+            throw e;
+        }
+
+        log.info("[RESTORE] Chain import initiated by={} jobId={} force={} archives={} size={}KB",
+                user.getUsername(), job.getJobId(), forceReplace, files.size(), totalBytes / 1024);
+
+        return ResponseEntity.accepted().body(ApiResponse.success("Restore ishga tushirildi", Map.of(
+                "jobId",    job.getJobId(),
+                "status",   job.getState(),
+                "archives", files.size(),
+                "message",  "GET /api/v1/admin/backup/import/" + job.getJobId() + " orqali kuzating"
+        )));
+    }
+
     @GetMapping("/import/{jobId}")
     @Operation(summary = "Restore holati")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getImportStatus(
@@ -333,6 +504,25 @@ public class BackupController {
 
     // ─── Helpers ────────────────────────────────────────────────────────────
 
+    /** Yuklangan backup faylini tekshiradi; xato bo'lsa foydalanuvchiga xabar, aks holda null. */
+    private String validateUpload(MultipartFile file) {
+        if (file.isEmpty()) {
+            return "Fayl bo'sh";
+        }
+
+        String originalName = file.getOriginalFilename();
+        if (originalName == null || !originalName.toLowerCase().endsWith(".zip")) {
+            return "Faqat .zip fayl qabul qilinadi";
+        }
+
+        if (file.getSize() > MAX_IMPORT_SIZE_BYTES) {
+            long sizeMB = file.getSize() / 1024 / 1024;
+            long maxMB  = MAX_IMPORT_SIZE_BYTES / 1024 / 1024;
+            return "Fayl hajmi juda katta: " + sizeMB + "MB. Maksimal: " + maxMB + "MB";
+        }
+        return null;
+    }
+
     /**
      * ⚡ Tezkor backup ZIP yuklash:
      *  - FileSystemResource (Spring buffer'siz to'g'ridan-to'g'ri stream)
@@ -350,7 +540,8 @@ public class BackupController {
         }
 
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-        String filename  = "prava-backup-" + timestamp + ".zip";
+        boolean incremental = job.getManifest() != null && job.getManifest().isIncremental();
+        String filename  = (incremental ? "prava-backup-incr-" : "prava-backup-") + timestamp + ".zip";
         long size = job.getFileSizeBytes() > 0 ? job.getFileSizeBytes() : Files.size(tempFile);
 
         Resource resource = new FileSystemResource(tempFile);
@@ -385,6 +576,10 @@ public class BackupController {
             map.put("downloadUrl",  "/api/v1/admin/backup/export/" + job.getJobId() + "/download");
             if (job.getManifest() != null) {
                 map.put("backupId", job.getManifest().getBackupId());
+                map.put("backupType", job.getManifest().getBackupType());
+                if (job.getManifest().getParentBackupId() != null) {
+                    map.put("parentBackupId", job.getManifest().getParentBackupId());
+                }
                 map.put("entities", job.getManifest().getEntities().entrySet().stream()
                         .collect(java.util.stream.Collectors.toMap(
                                 Map.Entry::getKey,
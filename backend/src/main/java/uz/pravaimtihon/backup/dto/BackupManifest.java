@@ -1,18 +1,24 @@
 package uz.pravaimtihon.backup.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Backup ZIP ichidagi manifest.json fayl strukturasi.
  * Barcha entity, fayl va checksum ma'lumotlarini saqlaydi.
  * Restore paytida schema va integrity validatsiya uchun ishlatiladi.
+ * <p>
+ * Incremental backup'lar zanjir hosil qiladi: har biri {@code parentBackupId} orqali
+ * oldingisiga bog'lanadi va faqat undan keyin o'zgargan qatorlar/yangi fayllarni saqlaydi.
  */
 @Data
 @NoArgsConstructor
@@ -35,6 +41,27 @@ public class BackupManifest {
     /** Ilovaning build versiyasi (agar mavjud bo'lsa). */
     private String appVersion;
 
+    /** FULL yoki INCREMENTAL. Eski backup'larda yo'q — FULL deb qabul qilinadi. */
+    private BackupType backupType = BackupType.FULL;
+
+    /** INCREMENTAL: zanjirdagi oldingi backup (to'liq yoki incremental) ID si. */
+    private String parentBackupId;
+
+    /** Zanjirdagi o'rni: 0 — to'liq backup, 1..N — deltalar. */
+    private int chainSequence;
+
+    /**
+     * Har jadval uchun high-water mark (backup snapshot'idagi MAX qiymatlar).
+     * Keyingi incremental backup shu nuqtadan keyin o'zgargan qatorlarni oladi.
+     */
+    private Map<String, Watermark> watermarks = new LinkedHashMap<>();
+
+    /**
+     * INCREMENTAL: kaliti yo'q (join) jadvallar to'liq eksport qilinadi —
+     * restore paytida mavjud qatorlar o'chirilib, shu nusxa bilan almashtiriladi.
+     */
+    private List<String> replacedTables = new ArrayList<>();
+
     /**
      * Har bir entity uchun zip path, row count va SHA-256 checksum.
      * Key: tableName (masalan "topics", "users").
@@ -56,8 +83,26 @@ public class BackupManifest {
     /** null yoki "AES-256-GCM" */
     private String encryptionAlgorithm;
 
+    @JsonIgnore
+    public boolean isIncremental() {
+        return backupType == BackupType.INCREMENTAL;
+    }
+
     // ─── Nested DTOs ────────────────────────────────────────────────────────
 
+    public enum BackupType { FULL, INCREMENTAL }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Watermark {
+        /** MAX(updated_at) — jadvalda updated_at bo'lmasa yoki bo'sh bo'lsa null. */
+        private LocalDateTime updatedAt;
+
+        /** MAX(id) — jadval bo'sh bo'lsa null. */
+        private Long maxId;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -94,11 +139,13 @@ public class BackupManifest {
         private long size;
         /** sha256:HEX shaklida — restore vaqtida fayl mazmunini tekshirish uchun. */
         private String checksum;
+        /** Oxirgi o'zgartirilgan vaqt (epoch ms) — incremental backup o'zgarmagan faylni qayta xeshlamaydi. */
+        private Long modifiedAt;
     }
 
     // ── Helper ───────────────────────────────────────────────────────────────
-    public void addMediaFile(String relativePath, long size, String checksum) {
+    public void addMediaFile(String relativePath, long size, String checksum, Long modifiedAt) {
         if (this.media == null) this.media = new MediaInfo();
-        this.media.getFiles().put(relativePath, new MediaFileEntry(size, checksum));
+        this.media.getFiles().put(relativePath, new MediaFileEntry(size, checksum, modifiedAt));
     }
 }
@@ -0,0 +1,362 @@
+package uz.pravaimtihon.backup.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.pravaimtihon.util.AnswerSheetCodec;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Tahlil uchun imtihon sessiyalari va javoblarini oqimli eksport qilish (NDJSON yoki CSV).
+ *
+ * <h3>Xotira konstant:</h3>
+ * <ul>
+ *   <li>Sessiyalar {@link ProductionBackupService} dagi kabi keyset sahifalar bilan o'qiladi
+ *       ({@code WHERE s.id > :lastId ORDER BY s.id LIMIT 1000}) — OFFSET yo'q</li>
+ *   <li>Har sahifa javoblari bitta {@code IN (...)} so'rov bilan olinadi, ixchamlangan
+ *       sessiyalarniki esa {@code answer_sheet} dan ({@link AnswerSheetCodec}) dekodlanadi</li>
+ *   <li>Sahifa yozilgach tashlab yuboriladi — natija to'g'ridan-to'g'ri response oqimiga boradi</li>
+ * </ul>
+ *
+ * <h3>Formatlar:</h3>
+ * <ul>
+ *   <li><b>NDJSON</b> — har qatorda bitta sessiya, {@code answers} massivi ichida</li>
+ *   <li><b>CSV</b> — har qatorda bitta javob, sessiya ustunlari takrorlanadi
+ *       (javobsiz sessiya — javob ustunlari bo'sh bitta qator)</li>
+ * </ul>
+ *
+ * Butun eksport bitta REPEATABLE_READ read-only tranzaksiyada — izchil snapshot, lock yo'q.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExamSessionExportService {
+
+    private static final int PAGE_SIZE = 1000;
+
+    /** Rejim — ExamRollupService bilan bir xil tasnif. */
+    private static final String MODE_EXPR =
+            "CASE WHEN s.ticket_id IS NOT NULL THEN 'TICKET' " +
+            "WHEN s.package_id IS NOT NULL THEN 'PACKAGE' ELSE 'MARATHON' END";
+
+    private static final String TOPIC_EXPR = "COALESCE(p.topic_id, t.topic_id)";
+
+    private static final String SELECT_SESSIONS =
+            "SELECT s.id, s.user_id, s.package_id, s.ticket_id, " + TOPIC_EXPR + " AS topic_id, " +
+            MODE_EXPR + " AS mode, s.status, s.language, s.started_at, s.finished_at, " +
+            "s.duration_minutes, s.total_questions, s.answered_count, s.correct_count, s.wrong_count, " +
+            "s.score, s.percentage, s.is_passed, s.answer_sheet " +
+            "FROM exam_sessions s " +
+            "LEFT JOIN exam_packages p ON p.id = s.package_id " +
+            "LEFT JOIN tickets t ON t.id = s.ticket_id " +
+            "WHERE s.deleted = false AND s.id > ?";
+
+    private static final String SELECT_ANSWERS =
+            "SELECT exam_session_id, question_id, question_order, selected_option_index, " +
+            "correct_option_index, is_correct, answered_at, time_spent_seconds " +
+            "FROM exam_answers WHERE exam_session_id IN (%s) " +
+            "ORDER BY exam_session_id, question_order";
+
+    private static final String[] CSV_HEADER = {
+            "session_id", "user_id", "mode", "package_id", "ticket_id", "topic_id", "status", "language",
+            "started_at", "finished_at", "duration_minutes", "total_questions", "answered_count",
+            "correct_count", "wrong_count", "score", "percentage", "is_passed",
+            "question_id", "question_order", "selected_option_index", "correct_option_index",
+            "is_correct", "answered_at", "time_spent_seconds"
+    };
+
+    public static final Set<String> MODES = Set.of("TICKET", "PACKAGE", "MARATHON");
+
+    private final JdbcTemplate               jdbcTemplate;
+    private final ObjectMapper               objectMapper;
+    private final PlatformTransactionManager txManager;
+
+    public enum Format { NDJSON, CSV }
+
+    /**
+     * Eksport filtri. Barcha maydonlar ixtiyoriy; {@code from} — shu jumladan, {@code to} — shu jumladan emas
+     * ({@code started_at} bo'yicha).
+     */
+    public record Filter(LocalDateTime from, LocalDateTime to, String mode, Long topicId) {}
+
+    /**
+     * Filtrga mos sessiyalarni {@code out} ga yozadi. Oqim yopilmaydi.
+     *
+     * @return yozilgan sessiyalar soni
+     */
+    public long export(Filter filter, Format format, OutputStream out) throws IOException {
+        long t0 = System.currentTimeMillis();
+        long[] count = {0};
+        IOException[] error = {null};
+
+        TransactionTemplate roTx = new TransactionTemplate(txManager);
+        roTx.setReadOnly(true);
+        roTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        roTx.executeWithoutResult(status -> {
+            try {
+                SessionWriter writer = format == Format.CSV
+                        ? new CsvWriter(out)
+                        : new NdjsonWriter(objectMapper.createGenerator(out));
+                long lastId = 0;
+                while (true) {
+                    List<SessionRow> page = loadPage(filter, lastId);
+                    if (page.isEmpty()) break;
+
+                    Map<Long, List<AnswerSheetCodec.Entry>> answers = loadAnswers(page);
+                    for (SessionRow row : page) {
+                        writer.write(row, answers.getOrDefault(row.id, List.of()));
+                    }
+                    writer.flush();
+                    count[0] += page.size();
+                    lastId = page.get(page.size() - 1).id;
+                    if (page.size() < PAGE_SIZE) break;
+                }
+                writer.flush();
+            } catch (IOException e) {
+                error[0] = e;
+            }
+        });
+
+        if (error[0] != null) throw error[0];
+
+        log.info("[EXPORT] Exam sessions exported: format={} rows={} filter={} duration={}ms",
+                format, count[0], filter, System.currentTimeMillis() - t0);
+        return count[0];
+    }
+
+    // ─── Reads ──────────────────────────────────────────────────────────────
+
+    private List<SessionRow> loadPage(Filter filter, long lastId) {
+        StringBuilder sql = new StringBuilder(SELECT_SESSIONS);
+        List<Object> args = new ArrayList<>();
+        args.add(lastId);
+        if (filter.from() != null) {
+            sql.append(" AND s.started_at >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND s.started_at < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        if (filter.mode() != null) {
+            sql.append(" AND ").append(MODE_EXPR).append(" = ?");
+            args.add(filter.mode());
+        }
+        if (filter.topicId() != null) {
+            sql.append(" AND ").append(TOPIC_EXPR).append(" = ?");
+            args.add(filter.topicId());
+        }
+        sql.append(" ORDER BY s.id LIMIT ?");
+        args.add(PAGE_SIZE);
+
+        List<SessionRow> rows = new ArrayList<>(PAGE_SIZE);
+        jdbcTemplate.query(sql.toString(), rs -> {
+            rows.add(SessionRow.from(rs));
+        }, args.toArray());
+        return rows;
+    }
+
+    /**
+     * Sahifa javoblari: ixchamlangan sessiyalar — {@code answer_sheet} dan,
+     * qolganlari — bitta {@code exam_answers} so'rovidan.
+     */
+    private Map<Long, List<AnswerSheetCodec.Entry>> loadAnswers(List<SessionRow> page) {
+        Map<Long, List<AnswerSheetCodec.Entry>> bySession = new HashMap<>(page.size() * 2);
+        List<Long> rowSessionIds = new ArrayList<>();
+        for (SessionRow row : page) {
+            if (row.answerSheet != null) {
+                bySession.put(row.id, AnswerSheetCodec.decode(row.answerSheet));
+            } else {
+                rowSessionIds.add(row.id);
+            }
+        }
+        if (rowSessionIds.isEmpty()) {
+            return bySession;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(rowSessionIds.size(), "?"));
+        jdbcTemplate.query(String.format(SELECT_ANSWERS, placeholders), rs -> {
+            Timestamp answeredAt = rs.getTimestamp("answered_at");
+            bySession.computeIfAbsent(rs.getLong("exam_session_id"), k -> new ArrayList<>())
+                    .add(new AnswerSheetCodec.Entry(
+                            rs.getLong("question_id"),
+                            rs.getInt("question_order"),
+                            rs.getObject("selected_option_index", Integer.class),
+                            rs.getObject("correct_option_index", Integer.class),
+                            rs.getObject("is_correct", Boolean.class),
+                            answeredAt != null ? answeredAt.toLocalDateTime() : null,
+                            rs.getObject("time_spent_seconds", Long.class)));
+        }, rowSessionIds.toArray());
+        return bySession;
+    }
+
+    // ─── Writers ────────────────────────────────────────────────────────────
+
+    private interface SessionWriter {
+        void write(SessionRow row, List<AnswerSheetCodec.Entry> answers) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class NdjsonWriter implements SessionWriter {
+        private final JsonGenerator gen;
+
+        NdjsonWriter(JsonGenerator gen) {
+            this.gen = gen;
+            gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            gen.setRootValueSeparator(null); // qatorlar orasida faqat '\n'
+        }
+
+        @Override
+        public void write(SessionRow row, List<AnswerSheetCodec.Entry> answers) throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("sessionId", row.id);
+            gen.writeNumberField("userId", row.userId);
+            gen.writeStringField("mode", row.mode);
+            gen.writeObjectField("packageId", row.packageId);
+            gen.writeObjectField("ticketId", row.ticketId);
+            gen.writeObjectField("topicId", row.topicId);
+            gen.writeStringField("status", row.status);
+            gen.writeStringField("language", row.language);
+            gen.writeStringField("startedAt", str(row.startedAt));
+            gen.writeStringField("finishedAt", str(row.finishedAt));
+            gen.writeObjectField("durationMinutes", row.durationMinutes);
+            gen.writeObjectField("totalQuestions", row.totalQuestions);
+            gen.writeObjectField("answeredCount", row.answeredCount);
+            gen.writeObjectField("correctCount", row.correctCount);
+            gen.writeObjectField("wrongCount", row.wrongCount);
+            gen.writeObjectField("score", row.score);
+            gen.writeObjectField("percentage", row.percentage);
+            gen.writeObjectField("isPassed", row.isPassed);
+
+            gen.writeArrayFieldStart("answers");
+            for (AnswerSheetCodec.Entry a : answers) {
+                gen.writeStartObject();
+                gen.writeObjectField("questionId", a.questionId());
+                gen.writeObjectField("questionOrder", a.questionOrder());
+                gen.writeObjectField("selectedOptionIndex", a.selectedOptionIndex());
+                gen.writeObjectField("correctOptionIndex", a.correctOptionIndex());
+                gen.writeObjectField("isCorrect", a.isCorrect());
+                gen.writeStringField("answeredAt", str(a.answeredAt()));
+                gen.writeObjectField("timeSpentSeconds", a.timeSpentSeconds());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            gen.flush();
+        }
+    }
+
+    private static final class CsvWriter implements SessionWriter {
+        private final Writer out;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536);
+            writeLine(CSV_HEADER);
+        }
+
+        @Override
+        public void write(SessionRow row, List<AnswerSheetCodec.Entry> answers) throws IOException {
+            if (answers.isEmpty()) {
+                writeLine(row.csvColumns(null));
+                return;
+            }
+            for (AnswerSheetCodec.Entry a : answers) {
+                writeLine(row.csvColumns(a));
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                out.write(escape(values[i]));
+            }
+            out.write("\r\n");
+        }
+
+        private static String escape(Object value) {
+            if (value == null) return "";
+            String s = value.toString();
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+                return s;
+            }
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String str(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    // ─── Row ────────────────────────────────────────────────────────────────
+
+    private record SessionRow(long id, long userId, String mode, Long packageId, Long ticketId, Long topicId,
+                              String status, String language, LocalDateTime startedAt, LocalDateTime finishedAt,
+                              Integer durationMinutes, Integer totalQuestions, Integer answeredCount,
+                              Integer correctCount, Integer wrongCount, Integer score, Double percentage,
+                              Boolean isPassed, byte[] answerSheet) {
+
+        static SessionRow from(ResultSet rs) throws SQLException {
+            Timestamp startedAt = rs.getTimestamp("started_at");
+            Timestamp finishedAt = rs.getTimestamp("finished_at");
+            return new SessionRow(
+                    rs.getLong("id"),
+                    rs.getLong("user_id"),
+                    rs.getString("mode"),
+                    rs.getObject("package_id", Long.class),
+                    rs.getObject("ticket_id", Long.class),
+                    rs.getObject("topic_id", Long.class),
+                    rs.getString("status"),
+                    rs.getString("language"),
+                    startedAt != null ? startedAt.toLocalDateTime() : null,
+                    finishedAt != null ? finishedAt.toLocalDateTime() : null,
+                    rs.getObject("duration_minutes", Integer.class),
+                    rs.getObject("total_questions", Integer.class),
+                    rs.getObject("answered_count", Integer.class),
+                    rs.getObject("correct_count", Integer.class),
+                    rs.getObject("wrong_count", Integer.class),
+                    rs.getObject("score", Integer.class),
+                    rs.getObject("percentage", Double.class),
+                    rs.getObject("is_passed", Boolean.class),
+                    rs.getBytes("answer_sheet"));
+        }
+
+        Object[] csvColumns(AnswerSheetCodec.Entry a) {
+            return new Object[]{
+                    id, userId, mode, packageId, ticketId, topicId, status, language,
+                    startedAt, finishedAt, durationMinutes, totalQuestions, answeredCount,
+                    correctCount, wrongCount, score, percentage, isPassed,
+                    a != null ? a.questionId() : null,
+                    a != null ? a.questionOrder() : null,
+                    a != null ? a.selectedOptionIndex() : null,
+                    a != null ? a.correctOptionIndex() : null,
+                    a != null ? a.isCorrect() : null,
+                    a != null ? a.answeredAt() : null,
+                    a != null ? a.timeSpentSeconds() : null
+            };
+        }
+    }
+}
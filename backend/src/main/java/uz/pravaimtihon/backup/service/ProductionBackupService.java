@@ -4,7 +4,9 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -12,8 +14,12 @@ import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 import uz.pravaimtihon.backup.dto.BackupJobStatus;
 import uz.pravaimtihon.backup.dto.BackupManifest;
+import uz.pravaimtihon.backup.dto.BackupManifest.BackupType;
 import uz.pravaimtihon.backup.dto.BackupManifest.EntityInfo;
+import uz.pravaimtihon.backup.dto.BackupManifest.MediaFileEntry;
+import uz.pravaimtihon.backup.dto.BackupManifest.Watermark;
 import uz.pravaimtihon.config.StorageProperties;
+import uz.pravaimtihon.service.impl.ImageVariantService;
 
 import javax.crypto.Cipher;
 import javax.crypto.CipherOutputStream;
@@ -26,14 +32,36 @@ import java.net.InetAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.stream.Stream;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -45,10 +73,16 @@ import java.util.zip.ZipOutputStream;
  * <ul>
  *   <li>@Transactional(readOnly=true) – PostgreSQL MVCC snapshot, hech qanday table lock yo'q</li>
  *   <li>Paginated JDBC reads (1000 row/page) – memory spike yo'q</li>
+ *   <li>Parallel rejim – har jadval alohida worker/ulanishda, umumiy
+ *       {@code pg_export_snapshot()} snapshot'idan vaqtinchalik faylga yoziladi,
+ *       so'ng ZIP'ga yig'iladi ({@code app.backup.export-parallelism})</li>
  *   <li>Streaming ZipOutputStream → temp file – HTTP response buffer to'lmaydi</li>
  *   <li>Dedicated "backup-executor" thread pool – web thread pool bloklanmaydi</li>
  *   <li>Optional AES-256-GCM encryption – backup fayli shifrlanishi mumkin</li>
  *   <li>SHA-256 checksums per entity + global – integrity validation</li>
+ *   <li>Incremental rejim – oldingi backup manifestidagi high-water mark'lardan
+ *       ({@code updated_at}/{@code id}) keyin o'zgargan qatorlar va yangi/o'zgargan media
+ *       fayllar yoziladi; manifestlar {@code app.backup.manifest-dir} da zanjir sifatida saqlanadi</li>
  * </ul>
  *
  * <h3>ZIP tuzilmasi:</h3>
@@ -89,6 +123,31 @@ public class ProductionBackupService {
 
     private static final int    PAGE_SIZE   = 1000;
     private static final String BACKUP_VER  = "2.0";
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f]+-[0-9A-Fa-f]+(-[0-9]+)?");
+
+    private static final Pattern BACKUP_ID   = Pattern.compile("[0-9a-fA-F-]{36}");
+
+    /**
+     * Incremental filtr uchun zaxira oralig'i: watermark'dan oldin boshlangan, lekin backup
+     * snapshot'idan keyin commit bo'lgan tranzaksiyalar o'tkazib yuborilmasligi uchun.
+     * Takroran olingan qatorlar restore'da upsert bilan zararsiz qayta yoziladi.
+     */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(5);
+
+    /**
+     * {@code updated_at} ustuni yo'q, lekin qatorlari joyida yangilanadigan jadvallar
+     * (token revoke, kod tasdiqlash). {@code id > maxId} filtri bu o'zgarishlarni ko'rmaydi —
+     * incremental'da to'liq olinadi va restore'da join jadvallar kabi almashtiriladi.
+     */
+    private static final Set<String> MUTABLE_WITHOUT_UPDATED_AT = Set.of("refresh_tokens", "verification_codes");
+
+    /** Parallel eksport worker'lari soni: 0 — avtomatik (min(CPU, 4)), 1 — ketma-ket. */
+    @Value("${app.backup.export-parallelism:0}")
+    private int exportParallelism;
+
+    /** Tugagan backup manifestlari saqlanadigan papka — incremental zanjir shu yerdan o'qiladi. */
+    @Value("${app.backup.manifest-dir:./backups/manifests}")
+    private String manifestDir;
 
     // ─── Entity export descriptors ──────────────────────────────────────────
 
@@ -99,9 +158,9 @@ public class ProductionBackupService {
             new EntityDescriptor("03_questions",            "questions",            false),
             new EntityDescriptor("04_question_options",     "question_options",     false),
             new EntityDescriptor("05_exam_packages",        "exam_packages",        false),
-            new EntityDescriptor("06_package_questions",    "package_questions",    true),
+            new EntityDescriptor("06_package_questions",    "package_questions",    true, "package_id", "question_id"),
             new EntityDescriptor("07_tickets",              "tickets",              false),
-            new EntityDescriptor("08_ticket_questions",     "ticket_questions",     true),
+            new EntityDescriptor("08_ticket_questions",     "ticket_questions",     true, "ticket_id", "question_order"),
             new EntityDescriptor("09_exam_sessions",        "exam_sessions",        false),
             new EntityDescriptor("10_exam_answers",         "exam_answers",         false),
             new EntityDescriptor("11_user_statistics",      "user_statistics",      false),
@@ -119,14 +178,16 @@ public class ProductionBackupService {
      * @param jobId     registry'dagi job ID
      * @param encrypt   ZIP ni AES-256-GCM bilan shifrlashmi
      * @param password  encrypt=true bo'lganda parol (null bo'lmasligi kerak)
+     * @param parentBackupId null — to'liq backup; aks holda shu backup'dan keyingi incremental delta
      */
     @Async("backupTaskExecutor")
-    public CompletableFuture<Void> startExport(String jobId, boolean encrypt, String password) {
+    public CompletableFuture<Void> startExport(String jobId, boolean encrypt, String password,
+                                               String parentBackupId) {
         BackupJobStatus job = jobRegistry.find(jobId)
                 .orElseThrow(() -> new IllegalArgumentException("Job not found: " + jobId));
 
         long t0 = System.currentTimeMillis();
-        log.info("[BACKUP] Export started: jobId={} encrypt={}", jobId, encrypt);
+        log.info("[BACKUP] Export started: jobId={} encrypt={} parent={}", jobId, encrypt, parentBackupId);
         job.markRunning("Initializing");
 
         Path tempFile = null;
@@ -134,12 +195,14 @@ public class ProductionBackupService {
             tempFile = Files.createTempFile("prava-backup-", ".zip");
 
             BackupManifest manifest = initManifest(jobId, job.getRequestedBy());
+            ExportPlan plan = planExport(manifest, parentBackupId);
 
             if (encrypt && password != null && !password.isEmpty()) {
-                exportEncrypted(tempFile, manifest, job, password);
+                exportEncrypted(tempFile, manifest, job, password, plan);
             } else {
-                exportToZip(Files.newOutputStream(tempFile), manifest, job);
+                exportToZip(Files.newOutputStream(tempFile), manifest, job, plan);
             }
+            saveManifest(manifest);
 
             long sizeBytes = Files.size(tempFile);
             job.setTempFilePath(tempFile.toString());
@@ -163,26 +226,20 @@ public class ProductionBackupService {
 
     // ─── Core export ────────────────────────────────────────────────────────
 
-    private void exportToZip(OutputStream out, BackupManifest manifest, BackupJobStatus job) throws Exception {
+    private void exportToZip(OutputStream out, BackupManifest manifest, BackupJobStatus job,
+                             ExportPlan plan) throws Exception {
         try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(out, 65536))) {
             zos.setLevel(Deflater.BEST_SPEED);
 
             // 1. Entity ma'lumotlarini eksport qilish
-            for (int i = 0; i < ENTITIES.length; i++) {
-                EntityDescriptor desc = ENTITIES[i];
-                int pct = 5 + (int) (i * 70.0 / ENTITIES.length);
-                job.updateProgress(pct, "Exporting " + desc.tableName);
-
-                String zipPath = "data/" + desc.filePrefix + ".json";
-                EntityInfo info = writeEntityToZip(zos, zipPath, desc);
-                manifest.getEntities().put(desc.tableName, info);
-
-                log.debug("[BACKUP] Exported table={} rows={}", desc.tableName, info.getRowCount());
+            int parallelism = resolveParallelism();
+            if (parallelism <= 1 || !exportEntitiesParallel(zos, manifest, job, parallelism, plan)) {
+                exportEntitiesSequential(zos, manifest, job, plan);
             }
 
             // 2. Media fayllarni eksport qilish
             job.updateProgress(80, "Exporting media files");
-            exportMediaFiles(zos, manifest, job);
+            exportMediaFiles(zos, manifest, job, plan);
 
             // 3. Manifest – oxirda (checksumlar to'liq bo'lganda)
             job.updateProgress(95, "Writing manifest");
@@ -191,6 +248,168 @@ public class ProductionBackupService {
         }
     }
 
+    private void exportEntitiesSequential(ZipOutputStream zos, BackupManifest manifest,
+                                          BackupJobStatus job, ExportPlan plan) throws Exception {
+        for (int i = 0; i < ENTITIES.length; i++) {
+            EntityDescriptor desc = ENTITIES[i];
+            int pct = 5 + (int) (i * 70.0 / ENTITIES.length);
+            job.updateProgress(pct, "Exporting " + desc.tableName);
+
+            String zipPath = "data/" + desc.filePrefix + ".json";
+            TableResult result = writeEntityToZip(zos, zipPath, desc, plan);
+            recordTable(manifest, desc, zipPath, result);
+        }
+    }
+
+    private void recordTable(BackupManifest manifest, EntityDescriptor desc, String zipPath, TableResult result) {
+        manifest.getEntities().put(desc.tableName,
+                new EntityInfo(zipPath, result.rowCount(), result.checksum(), desc.joinTable));
+        if (result.watermark() != null) {
+            manifest.getWatermarks().put(desc.tableName, result.watermark());
+        }
+        log.debug("[BACKUP] Exported table={} rows={}", desc.tableName, result.rowCount());
+    }
+
+    private int resolveParallelism() {
+        if (exportParallelism > 0) {
+            return Math.min(exportParallelism, ENTITIES.length);
+        }
+        return Math.min(Math.min(Runtime.getRuntime().availableProcessors(), 4), ENTITIES.length);
+    }
+
+    /**
+     * Parallel eksport: jadvallar alohida worker'larda bir vaqtda vaqtinchalik fayllarga yoziladi,
+     * keyin {@code ENTITIES} tartibida ZIP'ga ko'chiriladi.
+     * <p>
+     * Izchillik: koordinator ulanish REPEATABLE_READ tranzaksiyasida {@code pg_export_snapshot()}
+     * qiladi va barcha worker'lar tugaguncha ochiq turadi; har worker o'z tranzaksiyasini
+     * {@code SET TRANSACTION SNAPSHOT} bilan shu snapshot'ga bog'laydi — natija ketma-ket
+     * rejimdagidan ham izchilroq (barcha jadvallar bitta lahzadan).
+     *
+     * @return false — snapshot eksport qilib bo'lmadi (PostgreSQL emas), ketma-ket rejimga o'tiladi
+     */
+    private boolean exportEntitiesParallel(ZipOutputStream zos, BackupManifest manifest,
+                                           BackupJobStatus job, int parallelism,
+                                           ExportPlan plan) throws Exception {
+        Path workDir = Files.createTempDirectory("prava-backup-parts-");
+        List<TablePart> parts;
+        try {
+            try (Connection coordinator = jdbcTemplate.getDataSource().getConnection()) {
+                beginSnapshotTx(coordinator);
+                String snapshotId;
+                try (Statement st = coordinator.createStatement();
+                     var rs = st.executeQuery("SELECT pg_export_snapshot()")) {
+                    rs.next();
+                    snapshotId = rs.getString(1);
+                } catch (SQLException e) {
+                    log.warn("[BACKUP] pg_export_snapshot() unavailable ({}), falling back to sequential export",
+                            e.getMessage());
+                    coordinator.rollback();
+                    return false;
+                }
+                if (snapshotId == null || !SNAPSHOT_ID.matcher(snapshotId).matches()) {
+                    throw new IllegalStateException("Unexpected snapshot id: " + snapshotId);
+                }
+
+                log.info("[BACKUP] Parallel export: workers={} snapshot={}", parallelism, snapshotId);
+                try {
+                    parts = exportTableParts(job, snapshotId, workDir, parallelism, plan);
+                } finally {
+                    coordinator.rollback();
+                }
+            }
+
+            // Vaqtinchalik fayllarni tartib bilan ZIP'ga yig'ish
+            job.updateProgress(65, "Assembling ZIP");
+            for (TablePart part : parts) {
+                String zipPath = "data/" + part.desc().filePrefix + ".json";
+                zos.putNextEntry(new ZipEntry(zipPath));
+                Files.copy(part.file(), zos);
+                zos.closeEntry();
+                Files.deleteIfExists(part.file());
+
+                recordTable(manifest, part.desc(), zipPath, part.result());
+            }
+            return true;
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    private List<TablePart> exportTableParts(BackupJobStatus job, String snapshotId, Path workDir,
+                                             int parallelism, ExportPlan plan) throws Exception {
+        AtomicInteger threadSeq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "backup-table-" + threadSeq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            AtomicInteger done = new AtomicInteger();
+            // Katta jadvallar odatda ro'yxat oxirida — ularni birinchi boshlaymiz
+            List<EntityDescriptor> order = new ArrayList<>(List.of(ENTITIES));
+            Collections.reverse(order);
+
+            List<Future<TablePart>> futures = new ArrayList<>(order.size());
+            for (EntityDescriptor desc : order) {
+                futures.add(pool.submit(() -> {
+                    TablePart part = exportTablePart(desc, snapshotId, workDir, plan);
+                    int pct = 5 + (int) (done.incrementAndGet() * 60.0 / ENTITIES.length);
+                    job.updateProgress(pct, "Exported " + desc.tableName);
+                    return part;
+                }));
+            }
+
+            List<TablePart> parts = new ArrayList<>(futures.size());
+            for (Future<TablePart> f : futures) {
+                try {
+                    parts.add(f.get());
+                } catch (ExecutionException e) {
+                    futures.forEach(other -> other.cancel(true));
+                    throw e.getCause() instanceof Exception ex ? ex : e;
+                }
+            }
+            parts.sort(Comparator.comparing(p -> p.desc().filePrefix));
+            return parts;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Bitta jadvalni umumiy snapshot'dan o'z ulanishida vaqtinchalik faylga yozadi. */
+    private TablePart exportTablePart(EntityDescriptor desc, String snapshotId, Path workDir,
+                                      ExportPlan plan) throws Exception {
+        Path file = workDir.resolve(desc.filePrefix + ".json");
+        try (Connection conn = jdbcTemplate.getDataSource().getConnection()) {
+            beginSnapshotTx(conn);
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                }
+                JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(conn, true));
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 65536)) {
+                    return new TablePart(desc, file, writeTableJson(jdbc, out, desc, plan));
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
+    private static void beginSnapshotTx(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        conn.setReadOnly(true);
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {}
+    }
+
     /**
      * Bitta jadvalning barcha qatorlarini paginated holda ZIP entry'ga yozadi.
      * <p>
@@ -201,14 +420,12 @@ public class ProductionBackupService {
      * TeeOutputStream orqali bir vaqtda ZIP va DigestOutputStream'ga yoziladi
      * (memory'ga bufferlanmaydi).
      */
-    private EntityInfo writeEntityToZip(ZipOutputStream zos, String zipPath,
-                                        EntityDescriptor desc) throws Exception {
+    private TableResult writeEntityToZip(ZipOutputStream zos, String zipPath,
+                                         EntityDescriptor desc, ExportPlan plan) throws Exception {
         ZipEntry entry = new ZipEntry(zipPath);
         zos.putNextEntry(entry);
 
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        TeeOutputStream tee  = new TeeOutputStream(zos, new DigestOutputStream(digest));
-        int[] rowCount       = {0};
+        TableResult[] result = {null};
         Exception[] error    = {null};
 
         // REPEATABLE_READ: har bir jadval uchun alohida snapshot – no table locks
@@ -216,18 +433,8 @@ public class ProductionBackupService {
         roTx.setReadOnly(true);
         roTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
         roTx.executeWithoutResult(status -> {
-            try (JsonGenerator gen = objectMapper.createGenerator(tee)) {
-                gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
-                gen.writeStartArray();
-
-                if (desc.joinTable) {
-                    writeJoinTable(gen, desc.tableName, rowCount);
-                } else {
-                    writeRegularTable(gen, desc.tableName, rowCount);
-                }
-
-                gen.writeEndArray();
-                gen.flush();
+            try {
+                result[0] = writeTableJson(jdbcTemplate, zos, desc, plan);
             } catch (Exception e) {
                 error[0] = e;
             }
@@ -237,24 +444,65 @@ public class ProductionBackupService {
 
         zos.closeEntry();
 
-        String checksum = "sha256:" + HexFormat.of().formatHex(digest.digest());
-        return new EntityInfo(zipPath, rowCount[0], checksum, desc.joinTable);
+        return result[0];
     }
 
-    private void writeRegularTable(JsonGenerator gen, String table, int[] counter) throws Exception {
+    /**
+     * Jadvalni JSON massiv sifatida {@code target} ga yozadi; TeeOutputStream orqali
+     * bir vaqtda SHA-256 hisoblanadi (memory'ga bufferlanmaydi).
+     * Watermark ham shu snapshot ichida o'qiladi — keyingi incremental aynan shu nuqtadan boshlanadi.
+     */
+    private TableResult writeTableJson(JdbcTemplate jdbc, OutputStream target,
+                                       EntityDescriptor desc, ExportPlan plan) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        TeeOutputStream tee  = new TeeOutputStream(target, new DigestOutputStream(digest));
+        int[] rowCount       = {0};
+
+        try (JsonGenerator gen = objectMapper.createGenerator(tee)) {
+            gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            gen.writeStartArray();
+
+            if (desc.joinTable) {
+                writeJoinTable(jdbc, gen, desc.tableName, desc.keyColumns, rowCount);
+            } else {
+                writeRegularTable(jdbc, gen, desc.tableName, plan.filter(desc.tableName), rowCount);
+            }
+
+            gen.writeEndArray();
+            gen.flush();
+        }
+
+        Watermark watermark = desc.joinTable ? null : readWatermark(jdbc, desc.tableName, plan);
+        return new TableResult(rowCount[0], "sha256:" + HexFormat.of().formatHex(digest.digest()), watermark);
+    }
+
+    private static Watermark readWatermark(JdbcTemplate jdbc, String table, ExportPlan plan) {
+        boolean hasUpdatedAt = plan.updatedAtTables().contains(table);
+        Map<String, Object> max = jdbc.queryForMap("SELECT MAX(id) AS max_id"
+                + (hasUpdatedAt ? ", MAX(updated_at) AS max_updated_at" : "") + " FROM " + table);
+        Object maxId     = max.get("max_id");
+        Object maxUpdate = max.get("max_updated_at");
+        return new Watermark(
+                maxUpdate instanceof Timestamp ts ? ts.toLocalDateTime() : null,
+                maxId instanceof Number n ? n.longValue() : null);
+    }
+
+    private void writeRegularTable(JdbcTemplate jdbc, JsonGenerator gen, String table,
+                                   TableFilter filter, int[] counter) throws Exception {
         // ⚡ Keyset pagination (OFFSET o'rniga): katta jadvallar uchun ancha tezroq.
         // OFFSET 50000 LIMIT 1000 — PostgreSQL har safar 50000 qatorni skanlaydi (O(n²)).
         // WHERE id > lastId — har sahifa konstant vaqt (O(n)), index'dan to'g'ridan foydalanadi.
+        String where     = filter.where() != null ? " WHERE (" + filter.where() + ")" : "";
+        String firstPage = "SELECT * FROM " + table + where + " ORDER BY id LIMIT ?";
+        String nextPage  = "SELECT * FROM " + table + (where.isEmpty() ? " WHERE" : where + " AND")
+                + " id > ? ORDER BY id LIMIT ?";
         Long lastId = null;
         while (true) {
             List<Map<String, Object>> rows;
             if (lastId == null) {
-                rows = jdbcTemplate.queryForList(
-                        "SELECT * FROM " + table + " ORDER BY id LIMIT ?", PAGE_SIZE);
+                rows = jdbc.queryForList(firstPage, filter.args(PAGE_SIZE));
             } else {
-                rows = jdbcTemplate.queryForList(
-                        "SELECT * FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?",
-                        lastId, PAGE_SIZE);
+                rows = jdbc.queryForList(nextPage, filter.args(lastId, PAGE_SIZE));
             }
             if (rows.isEmpty()) break;
 
@@ -273,12 +521,23 @@ public class ProductionBackupService {
         }
     }
 
-    private void writeJoinTable(JsonGenerator gen, String table, int[] counter) throws Exception {
-        int offset = 0;
+    /**
+     * Bog'lanish jadvali — composite kalit bo'yicha keyset: {@code WHERE (k1, k2) > (?, ?)}.
+     * OFFSET kabi oldingi sahifalarni qayta skanlamaydi (PK index'dan o'qiladi).
+     */
+    private void writeJoinTable(JdbcTemplate jdbc, JsonGenerator gen, String table,
+                                String[] keyColumns, int[] counter) throws Exception {
+        String keys      = String.join(", ", keyColumns);
+        String firstPage = "SELECT * FROM " + table + " ORDER BY " + keys + " LIMIT ?";
+        String nextPage  = "SELECT * FROM " + table + " WHERE (" + keys + ") > ("
+                + String.join(", ", Collections.nCopies(keyColumns.length, "?"))
+                + ") ORDER BY " + keys + " LIMIT ?";
+
+        Object[] args = null;
         while (true) {
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
-                    "SELECT * FROM " + table + " ORDER BY 1, 2 LIMIT ? OFFSET ?",
-                    PAGE_SIZE, offset);
+            List<Map<String, Object>> rows = args == null
+                    ? jdbc.queryForList(firstPage, PAGE_SIZE)
+                    : jdbc.queryForList(nextPage, args);
             if (rows.isEmpty()) break;
 
             for (Map<String, Object> row : rows) {
@@ -286,10 +545,137 @@ public class ProductionBackupService {
             }
             counter[0] += rows.size();
             if (rows.size() < PAGE_SIZE) break;
-            offset += PAGE_SIZE;
+
+            Map<String, Object> last = rows.get(rows.size() - 1);
+            args = new Object[keyColumns.length + 1];
+            for (int i = 0; i < keyColumns.length; i++) {
+                args[i] = last.get(keyColumns[i]);
+            }
+            args[keyColumns.length] = PAGE_SIZE;
+        }
+    }
+
+    // ─── Incremental plan & manifest chain ──────────────────────────────────
+
+    /**
+     * Eksport rejasini tuzadi. To'liq backup uchun filtr yo'q; incremental uchun har jadval
+     * oldingi manifest watermark'idan keyin o'zgargan qatorlar bilan cheklanadi:
+     * <ul>
+     *   <li>{@code updated_at} + {@code id} — {@code updated_at > hwm OR id > maxId}</li>
+     *   <li>faqat {@code id} — {@code id > maxId} (faqat qo'shiladigan jadvallar)</li>
+     *   <li>kalitsiz (join) va {@link #MUTABLE_WITHOUT_UPDATED_AT} jadvallar — to'liq, restore'da almashtiriladi</li>
+     * </ul>
+     * Hard delete qilingan qatorlar deltaga tushmaydi — zanjirni vaqti-vaqti bilan
+     * to'liq backup bilan yangilash kerak. Istisno: compaction o'chirgan {@code exam_answers}
+     * qatorlari restore'da {@code answer_sheet} bo'yicha tozalanadi.
+     */
+    private ExportPlan planExport(BackupManifest manifest, String parentBackupId) {
+        Set<String> updatedAtTables = loadUpdatedAtTables();
+        if (parentBackupId == null) {
+            return new ExportPlan(Map.of(), updatedAtTables, null);
+        }
+
+        BackupManifest parent = findManifest(parentBackupId)
+                .orElseThrow(() -> new IllegalArgumentException("Parent backup manifest not found: " + parentBackupId));
+        manifest.setBackupType(BackupType.INCREMENTAL);
+        manifest.setParentBackupId(parent.getBackupId());
+        manifest.setChainSequence(parent.getChainSequence() + 1);
+
+        Map<String, TableFilter> filters = new HashMap<>();
+        for (EntityDescriptor desc : ENTITIES) {
+            Watermark hwm = parent.getWatermarks() != null ? parent.getWatermarks().get(desc.tableName) : null;
+            if (desc.joinTable || MUTABLE_WITHOUT_UPDATED_AT.contains(desc.tableName)) {
+                manifest.getReplacedTables().add(desc.tableName);
+            } else if (hwm != null) {
+                long maxId = hwm.getMaxId() != null ? hwm.getMaxId() : 0L;
+                if (hwm.getUpdatedAt() != null && updatedAtTables.contains(desc.tableName)) {
+                    filters.put(desc.tableName, new TableFilter("updated_at > ? OR id > ?",
+                            Timestamp.valueOf(hwm.getUpdatedAt().minus(WATERMARK_OVERLAP)), maxId));
+                } else {
+                    filters.put(desc.tableName, new TableFilter("id > ?", maxId));
+                }
+            }
+            // hwm yo'q (eski manifest yoki yangi jadval) — jadval to'liq olinadi, upsert bilan tiklanadi
+        }
+
+        log.info("[BACKUP] Incremental plan: parent={} seq={} filtered={} replaced={}",
+                parent.getBackupId(), manifest.getChainSequence(), filters.keySet(), manifest.getReplacedTables());
+        return new ExportPlan(filters, updatedAtTables, cumulativeMediaIndex(parent));
+    }
+
+    private Set<String> loadUpdatedAtTables() {
+        try {
+            return new HashSet<>(jdbcTemplate.queryForList("""
+                    SELECT table_name FROM information_schema.columns
+                    WHERE table_schema = current_schema() AND column_name = 'updated_at'
+                    """, String.class));
+        } catch (Exception e) {
+            log.warn("[BACKUP] Could not read column catalog, watermarks will use id only: {}", e.getMessage());
+            return Set.of();
+        }
+    }
+
+    /**
+     * Zanjir bo'ylab (to'liq backup'gacha) media fayllar indeksini yig'adi:
+     * to'liq backup ro'yxati ustiga har delta qo'shgan/o'zgartirgan fayllar yoziladi.
+     */
+    private Map<String, MediaFileEntry> cumulativeMediaIndex(BackupManifest parent) {
+        Deque<BackupManifest> chain = new ArrayDeque<>();
+        Set<String> seen = new HashSet<>();
+        BackupManifest current = parent;
+        while (true) {
+            if (!seen.add(current.getBackupId())) {
+                throw new IllegalStateException("Backup chain has a cycle at " + current.getBackupId());
+            }
+            chain.push(current);
+            if (!current.isIncremental()) break;
+            String id = current.getParentBackupId();
+            current = findManifest(id)
+                    .orElseThrow(() -> new IllegalStateException("Backup chain broken: manifest not found for " + id));
+        }
+
+        Map<String, MediaFileEntry> index = new HashMap<>();
+        for (BackupManifest m : chain) { // push() — boshida to'liq backup
+            if (m.getMedia() != null && m.getMedia().getFiles() != null) {
+                index.putAll(m.getMedia().getFiles());
+            }
+        }
+        return index;
+    }
+
+    /** Saqlangan backup manifestini qaytaradi (incremental zanjir uchun). */
+    public Optional<BackupManifest> findManifest(String backupId) {
+        if (backupId == null || !BACKUP_ID.matcher(backupId).matches()) {
+            return Optional.empty();
+        }
+        Path file = manifestStore().resolve(backupId + ".json");
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(file.toFile(), BackupManifest.class));
+        } catch (IOException e) {
+            log.warn("[BACKUP] Could not read stored manifest {}: {}", backupId, e.getMessage());
+            return Optional.empty();
         }
     }
 
+    private void saveManifest(BackupManifest manifest) {
+        try {
+            Path store = manifestStore();
+            Files.createDirectories(store);
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(store.resolve(manifest.getBackupId() + ".json").toFile(), manifest);
+        } catch (IOException e) {
+            log.warn("[BACKUP] Could not store manifest {} — incremental backups cannot chain from it: {}",
+                    manifest.getBackupId(), e.getMessage());
+        }
+    }
+
+    private Path manifestStore() {
+        return Path.of(manifestDir).toAbsolutePath().normalize();
+    }
+
     // ─── Media files ────────────────────────────────────────────────────────
 
     /**
@@ -299,10 +685,12 @@ public class ProductionBackupService {
      *       Bu fayllar har deploy'da qaytadan build qilinadi, backup'ga kiritilsa
      *       arxiv hajmi keraksiz GB-larga oshib ketadi. Aktivatsiya kodlari
      *       va license generator bunga bog'liq emas.</li>
+     *   <li><b>variants</b> — rasmlarning kichraytirilgan nusxalari; asl rasmdan
+     *       qayta yaratiladi.</li>
      * </ul>
      */
     private static final java.util.Set<String> MEDIA_SKIP_DIRS =
-            java.util.Set.of("installers");
+            java.util.Set.of("installers", ImageVariantService.VARIANTS_DIR);
 
     private static boolean isUnderSkipDir(Path uploadsDir, Path file) {
         Path rel = uploadsDir.relativize(file);
@@ -312,7 +700,7 @@ public class ProductionBackupService {
     }
 
     private void exportMediaFiles(ZipOutputStream zos, BackupManifest manifest,
-                                  BackupJobStatus job) throws IOException, NoSuchAlgorithmException {
+                                  BackupJobStatus job, ExportPlan plan) throws IOException, NoSuchAlgorithmException {
         if (!"local".equalsIgnoreCase(storageProperties.getType())) {
             log.info("[BACKUP] Storage type is '{}'; skipping file copy (URLs preserved in data).",
                     storageProperties.getType());
@@ -329,6 +717,8 @@ public class ProductionBackupService {
         int[] count          = {0};
         long[] totalBytes    = {0};
         int[] skippedCount   = {0};
+        int[] unchangedCount = {0};
+        Map<String, MediaFileEntry> previous = plan.mediaIndex();
 
         log.info("[BACKUP] Media export start (skip-dirs: {})", MEDIA_SKIP_DIRS);
 
@@ -349,6 +739,21 @@ public class ProductionBackupService {
                     .forEach(file -> {
                         try {
                             String relative = uploadsDir.relativize(file).toString().replace('\\', '/');
+                            long modifiedAt = Files.getLastModifiedTime(file).toMillis();
+
+                            // Incremental: o'lcham+vaqt mos bo'lsa xeshlanmaydi; vaqt o'zgargan bo'lsa
+                            // mazmun solishtiriladi — faqat yangi/o'zgargan fayllar deltaga tushadi
+                            if (previous != null) {
+                                MediaFileEntry prev = previous.get(relative);
+                                if (prev != null
+                                        && ((prev.getSize() == Files.size(file)
+                                                && Objects.equals(prev.getModifiedAt(), modifiedAt))
+                                            || Objects.equals(prev.getChecksum(), sha256(file)))) {
+                                    unchangedCount[0]++;
+                                    return;
+                                }
+                            }
+
                             ZipEntry entry  = new ZipEntry("files/" + relative);
                             zos.putNextEntry(entry);
 
@@ -369,7 +774,7 @@ public class ProductionBackupService {
 
                             // Per-file checksum manifestga (restore tekshirish uchun)
                             String fileChecksum = "sha256:" + HexFormat.of().formatHex(fileDigest.digest());
-                            manifest.addMediaFile(relative, fileSize, fileChecksum);
+                            manifest.addMediaFile(relative, fileSize, fileChecksum, modifiedAt);
 
                             count[0]++;
                             totalBytes[0] += fileSize;
@@ -381,14 +786,14 @@ public class ProductionBackupService {
             log.warn("[BACKUP] Media file walk failed: {}", e.getMessage());
         }
 
-        BackupManifest.MediaInfo info = new BackupManifest.MediaInfo();
+        // addMediaFile() to'ldirgan per-file ro'yxat saqlanib qoladi — incremental indeks shunga tayanadi
+        BackupManifest.MediaInfo info = manifest.getMedia();
         info.setFileCount(count[0]);
         info.setTotalBytes(totalBytes[0]);
         info.setChecksum("sha256:" + HexFormat.of().formatHex(digest.digest()));
-        manifest.setMedia(info);
 
-        log.info("[BACKUP] Media exported: count={} totalKB={} (skipped {} files in {})",
-                count[0], totalBytes[0] / 1024, skippedCount[0], MEDIA_SKIP_DIRS);
+        log.info("[BACKUP] Media exported: count={} totalKB={} unchanged={} (skipped {} files in {})",
+                count[0], totalBytes[0] / 1024, unchangedCount[0], skippedCount[0], MEDIA_SKIP_DIRS);
     }
 
     // ─── Manifest ───────────────────────────────────────────────────────────
@@ -429,7 +834,7 @@ public class ProductionBackupService {
     // ─── AES-256-GCM encryption ─────────────────────────────────────────────
 
     private void exportEncrypted(Path outFile, BackupManifest manifest,
-                                 BackupJobStatus job, String password) throws Exception {
+                                 BackupJobStatus job, String password, ExportPlan plan) throws Exception {
         SecureRandom rng  = new SecureRandom();
         byte[] salt       = new byte[16];
         byte[] iv         = new byte[12];
@@ -453,7 +858,7 @@ public class ProductionBackupService {
 
             // Encrypted ZIP stream
             try (CipherOutputStream cos = new CipherOutputStream(fileOut, cipher)) {
-                exportToZip(cos, manifest, job);
+                exportToZip(cos, manifest, job, plan);
             }
         }
     }
@@ -467,7 +872,49 @@ public class ProductionBackupService {
 
     // ─── Helpers ────────────────────────────────────────────────────────────
 
-    record EntityDescriptor(String filePrefix, String tableName, boolean joinTable) {}
+    private static String sha256(Path file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buf = new byte[65536];
+            int n;
+            while ((n = in.read(buf)) > 0) digest.update(buf, 0, n);
+        }
+        return "sha256:" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** {@code keyColumns} — bog'lanish jadvallarining composite kaliti (keyset sahifalash uchun). */
+    record EntityDescriptor(String filePrefix, String tableName, boolean joinTable, String... keyColumns) {}
+
+    /** Bitta jadval JSON natijasi: qatorlar soni, SHA-256 va watermark (join jadvallarda null). */
+    record TableResult(int rowCount, String checksum, Watermark watermark) {}
+
+    /** Incremental filtr: {@code where} null — jadval to'liq. */
+    record TableFilter(String where, Object... params) {
+        static final TableFilter ALL = new TableFilter(null);
+
+        Object[] args(Object... tail) {
+            Object[] all = Arrays.copyOf(params, params.length + tail.length);
+            System.arraycopy(tail, 0, all, params.length, tail.length);
+            return all;
+        }
+    }
+
+    /**
+     * Bitta eksport rejasi.
+     *
+     * @param filters         jadval → incremental filtr (yo'q bo'lsa to'liq)
+     * @param updatedAtTables {@code updated_at} ustuni bor jadvallar
+     * @param mediaIndex      zanjirdagi ma'lum fayllar (to'liq backup'da null)
+     */
+    record ExportPlan(Map<String, TableFilter> filters, Set<String> updatedAtTables,
+                      Map<String, MediaFileEntry> mediaIndex) {
+        TableFilter filter(String table) {
+            return filters.getOrDefault(table, TableFilter.ALL);
+        }
+    }
+
+    /** Parallel rejimda vaqtinchalik faylga yozilgan jadval. */
+    record TablePart(EntityDescriptor desc, Path file, TableResult result) {}
 
     /** Bir vaqtda ikki OutputStreamga yozuvchi minimal TeeOutputStream. */
     static class TeeOutputStream extends OutputStream {
@@ -6,6 +6,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,8 @@ import uz.pravaimtihon.backup.dto.BackupManifest.EntityInfo;
 import uz.pravaimtihon.backup.dto.ClearOptions;
 import uz.pravaimtihon.backup.dto.ImportOptions;
 import uz.pravaimtihon.config.StorageProperties;
+import uz.pravaimtihon.service.ExamRollupService;
+import uz.pravaimtihon.service.QuestionBankSnapshot;
 
 import javax.crypto.Cipher;
 import javax.crypto.CipherInputStream;
@@ -26,12 +31,18 @@ import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.sql.*;
 import java.util.stream.Stream;
 import java.security.MessageDigest;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.time.LocalDateTime;
@@ -50,6 +61,9 @@ import java.time.format.DateTimeParseException;
  *   <li>Savepoint fallback – batch xatoda qator-qatorga tushadi, har bir qator savepoint ichida</li>
  *   <li>Sequence reset – import tugagandan so'ng barcha PostgreSQL sequence'lari yangilanadi</li>
  *   <li>Selective import – ImportOptions orqali faqat kerakli jadvallarni import qilish</li>
+ *   <li>COPY fast path – JSON {@code COPY FROM STDIN} orqali staging jadvalga oqadi, so'ng
+ *       {@code INSERT ... SELECT ... ON CONFLICT} bilan birlashtiriladi; mustaqil jadvallar
+ *       parallel tiklanadi ({@code app.backup.restore-copy-enabled}, {@code restore-parallelism})</li>
  *   <li>AES-256-GCM decryption – shifrlangan backup'ni ochish</li>
  * </ul>
  *
@@ -57,6 +71,8 @@ import java.time.format.DateTimeParseException;
  * <ul>
  *   <li><b>MERGE</b> (default) – mavjud ID'lar o'tkazib yuboriladi (ON CONFLICT DO NOTHING)</li>
  *   <li><b>FORCE</b> – barcha jadvallar TRUNCATE CASCADE qilinib qaytadan to'ldiriladi</li>
+ *   <li><b>INCREMENTAL</b> – delta arxiv: qatorlar upsert qilinadi, join jadvallar almashtiriladi;
+ *       {@link #startRestoreChain} to'liq backup + N deltani zanjir tartibida tiklaydi</li>
  * </ul>
  */
 @Slf4j
@@ -69,6 +85,8 @@ public class ProductionRestoreService {
     private final StorageProperties          storageProperties;
     private final BackupJobRegistry          jobRegistry;
     private final PlatformTransactionManager txManager;
+    private final ExamRollupService          examRollupService;
+    private final QuestionBankSnapshot       questionBank;
 
     private static final String SUPPORTED_VERSION = "2.0";
 
@@ -78,6 +96,18 @@ public class ProductionRestoreService {
      */
     private static final int STREAM_BATCH_SIZE = 10_000;
 
+    private static final int COPY_BUFFER_SIZE = 65536;
+
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {};
+
+    /** COPY fast path: false — har doim batch INSERT yo'li ishlatiladi. */
+    @Value("${app.backup.restore-copy-enabled:true}")
+    private boolean restoreCopyEnabled;
+
+    /** COPY rejimida parallel worker'lar soni: 0 — avtomatik (min(CPU, 4)), 1 — ketma-ket. */
+    @Value("${app.backup.restore-parallelism:0}")
+    private int restoreParallelism;
+
     // TRUNCATE tartibi: foreign key'lar teskari tartibda tozalanadi
     private static final String[] TRUNCATE_ORDER = {
             "user_package_access", "payments",
@@ -97,6 +127,14 @@ public class ProductionRestoreService {
             "payments", "user_package_access",
     };
 
+    /** Tozalanganda {@link QuestionBankSnapshot} qayta qurilishini talab qiladigan jadvallar. */
+    private static final Set<String> QUESTION_BANK_TABLES = Set.of("topics", "questions", "question_options");
+
+    private static final String SKIPPED_BY_OPTIONS = "skipped by ImportOptions";
+
+    /** bytea ustunlar — backup JSON'da Base64 satr ko'rinishida. */
+    private static final Set<String> BINARY_COLUMNS = Set.of("answer_sheet");
+
     // ─── Public API ─────────────────────────────────────────────────────────
 
     /**
@@ -114,39 +152,67 @@ public class ProductionRestoreService {
                                                 boolean forceReplace,
                                                 String password,
                                                 ImportOptions options) {
+        return startRestoreChain(jobId, List.of(zipFilePath), forceReplace, password, options);
+    }
+
+    /**
+     * To'liq backup va uning incremental deltalarini ketma-ket tiklaydi.
+     * Har delta manifestidagi {@code parentBackupId} oldingi arxivning ID siga mos kelishi shart.
+     * forceReplace faqat birinchi (to'liq) arxivga qo'llanadi; deltalar upsert bilan qo'shiladi.
+     *
+     * @param zipFilePaths yuklangan arxivlar — to'liq backup birinchi, so'ng deltalar yaratilgan tartibda
+     */
+    @Async("backupTaskExecutor")
+    public CompletableFuture<Void> startRestoreChain(String jobId,
+                                                     List<String> zipFilePaths,
+                                                     boolean forceReplace,
+                                                     String password,
+                                                     ImportOptions options) {
         BackupJobStatus job = jobRegistry.find(jobId)
                 .orElseThrow(() -> new IllegalArgumentException("Job not found: " + jobId));
 
         ImportOptions effectiveOptions = (options != null) ? options : ImportOptions.all();
 
         long t0 = System.currentTimeMillis();
-        log.info("[RESTORE] Started: jobId={} force={}", jobId, forceReplace);
+        log.info("[RESTORE] Started: jobId={} force={} archives={}", jobId, forceReplace, zipFilePaths.size());
         job.markRunning("Extracting backup");
 
-        Path tempDir = null;
+        Map<String, TableImportResult> totals = new LinkedHashMap<>();
+        String previousBackupId = null;
         try {
-            tempDir = Files.createTempDirectory("prava-restore-");
-            extractZip(Path.of(zipFilePath), tempDir, password);
-
-            job.updateProgress(10, "Validating backup");
-            BackupManifest manifest = readManifest(tempDir);
-            validateManifest(manifest, tempDir);
-
-            job.updateProgress(20, "Restoring database");
-            Map<String, TableImportResult> results = restoreDatabase(manifest, tempDir, forceReplace, job, effectiveOptions);
-            job.setTableResults(results);
+            for (int n = 0; n < zipFilePaths.size(); n++) {
+                Path tempDir = null;
+                try {
+                    tempDir = Files.createTempDirectory("prava-restore-");
+                    extractZip(Path.of(zipFilePaths.get(n)), tempDir, password);
+
+                    job.updateProgress(10, "Validating backup");
+                    BackupManifest manifest = readManifest(tempDir);
+                    validateManifest(manifest, tempDir);
+                    validateChainLink(manifest, previousBackupId, forceReplace && n == 0);
+
+                    job.updateProgress(20, "Restoring database");
+                    Map<String, TableImportResult> results =
+                            restoreDatabase(manifest, tempDir, forceReplace && n == 0, job, effectiveOptions);
+                    mergeResults(totals, results);
+                    job.setTableResults(totals);
+
+                    if (effectiveOptions.isImportMedia()) {
+                        job.updateProgress(90, "Restoring media files");
+                        restoreMediaFiles(tempDir, job);
+                    } else {
+                        log.info("[RESTORE] Media import skipped (importMedia=false)");
+                    }
+                    previousBackupId = manifest.getBackupId();
+                } finally {
+                    deleteTempDir(tempDir);
+                }
+            }
 
             // Summary string (backward compat)
-            StringBuilder summary = buildSummaryString(results);
+            StringBuilder summary = buildSummaryString(totals);
             job.setRestoreSummary(summary.toString());
 
-            if (effectiveOptions.isImportMedia()) {
-                job.updateProgress(90, "Restoring media files");
-                restoreMediaFiles(tempDir, job);
-            } else {
-                log.info("[RESTORE] Media import skipped (importMedia=false)");
-            }
-
             job.markCompleted("Restore complete");
             log.info("[RESTORE] Completed: jobId={} duration={}ms", jobId, System.currentTimeMillis() - t0);
 
@@ -154,8 +220,9 @@ public class ProductionRestoreService {
             log.error("[RESTORE] Failed: jobId={}", jobId, e);
             job.markFailed(e.getMessage());
         } finally {
-            deleteTempDir(tempDir);
-            try { Files.deleteIfExists(Path.of(zipFilePath)); } catch (IOException ignored) {}
+            for (String zipFilePath : zipFilePaths) {
+                try { Files.deleteIfExists(Path.of(zipFilePath)); } catch (IOException ignored) {}
+            }
         }
 
         return CompletableFuture.completedFuture(null);
@@ -213,6 +280,13 @@ public class ProductionRestoreService {
             }
         }
 
+        if (clearedTables.contains("exam_sessions")) {
+            rebuildExamRollup();
+        }
+        if (clearedTables.stream().anyMatch(QUESTION_BANK_TABLES::contains)) {
+            refreshQuestionBank();
+        }
+
         if (options.isClearMedia()) {
             clearMediaFiles();
         }
@@ -303,6 +377,35 @@ public class ProductionRestoreService {
         log.info("[RESTORE] All checksums valid. Entities: {}", manifest.getEntities().size());
     }
 
+    /**
+     * Zanjir tekshiruvi: birinchi arxiv istalgan bo'lishi mumkin (delta allaqachon tiklangan
+     * bazaga qo'llanadi), keyingilari esa oldingi arxivning bevosita davomi bo'lishi shart.
+     */
+    private void validateChainLink(BackupManifest manifest, String previousBackupId, boolean truncate) {
+        if (previousBackupId == null) {
+            if (manifest.isIncremental() && truncate) {
+                throw new IllegalArgumentException(
+                        "Incremental backup cannot be restored with forceReplace: restore its base backup first");
+            }
+            if (manifest.isIncremental()) {
+                log.info("[RESTORE] Applying incremental backup id={} onto existing data (parent={})",
+                        manifest.getBackupId(), manifest.getParentBackupId());
+            }
+            return;
+        }
+        if (!manifest.isIncremental() || !previousBackupId.equals(manifest.getParentBackupId())) {
+            throw new IllegalArgumentException("Backup chain mismatch: " + manifest.getBackupId()
+                    + " expects parent " + manifest.getParentBackupId() + ", previous archive is " + previousBackupId);
+        }
+    }
+
+    private static void mergeResults(Map<String, TableImportResult> totals, Map<String, TableImportResult> results) {
+        results.forEach((table, r) -> totals.merge(table, r, (a, b) -> new TableImportResult(table,
+                a.getTotalRows() + b.getTotalRows(), a.getInserted() + b.getInserted(),
+                a.getSkipped() + b.getSkipped(), a.getFailed() + b.getFailed(),
+                b.getError() != null ? b.getError() : a.getError())));
+    }
+
     // ─── Database restore ───────────────────────────────────────────────────
 
     private Map<String, TableImportResult> restoreDatabase(BackupManifest manifest, Path dir,
@@ -310,6 +413,12 @@ public class ProductionRestoreService {
                                                            ImportOptions options) {
         Map<String, TableImportResult> results = new LinkedHashMap<>();
 
+        // Delta: o'zgargan qatorlar mavjudlarining ustidan yoziladi (upsert), join jadvallar almashtiriladi
+        boolean upsert       = force || manifest.isIncremental();
+        Set<String> replaced = manifest.isIncremental() && manifest.getReplacedTables() != null
+                ? new HashSet<>(manifest.getReplacedTables())
+                : Set.of();
+
         // 1. FORCE rejimi: avval truncate
         if (force) {
             TransactionTemplate truncateTx = new TransactionTemplate(txManager);
@@ -328,49 +437,30 @@ public class ProductionRestoreService {
 
         jdbcTemplate.execute("SET session_replication_role = 'replica'");
 
-        int totalRows    = 0;
-        int entityCount  = manifest.getEntities().size();
-        int i            = 0;
-        List<String> failedTables = new ArrayList<>();
-
         try {
-            for (Map.Entry<String, EntityInfo> entry : manifest.getEntities().entrySet()) {
-                String table    = entry.getKey();
-                EntityInfo info = entry.getValue();
-                Path dataFile   = dir.resolve(info.getZipPath());
-
-                // Selective import: ushbu jadval o'tkazib yuborilishini tekshirish
-                if (!options.isTableEnabled(table)) {
-                    log.info("[RESTORE] Skipping table={} (not in ImportOptions)", table);
-                    results.put(table, new TableImportResult(table, 0, 0, 0, 0, "skipped by ImportOptions"));
-                    i++;
-                    continue;
-                }
+            if (restoreCopyEnabled) {
+                restoreTablesWithCopy(manifest, dir, upsert, replaced, job, options, results);
+            } else {
+                int entityCount = manifest.getEntities().size();
+                int i           = 0;
+                for (Map.Entry<String, EntityInfo> entry : manifest.getEntities().entrySet()) {
+                    String table    = entry.getKey();
+                    EntityInfo info = entry.getValue();
+
+                    // Selective import: ushbu jadval o'tkazib yuborilishini tekshirish
+                    if (!options.isTableEnabled(table)) {
+                        log.info("[RESTORE] Skipping table={} (not in ImportOptions)", table);
+                        results.put(table, skippedResult(table));
+                        i++;
+                        continue;
+                    }
 
-                int pct = 25 + (int) (i * 60.0 / entityCount);
-                job.updateProgress(pct, "Inserting " + table);
+                    int pct = 25 + (int) (i * 60.0 / entityCount);
+                    job.updateProgress(pct, "Inserting " + table);
 
-                // ── Streaming insert: JSON faylni xotirada to'liq yuklamasdan qayta ishlash ──
-                // readJsonArray() o'rniga streamingInsert() ishlatiladi — 1000 MB faylda OOM yo'q.
-                final int[] counters = {0, 0, 0, 0}; // [totalRows, inserted, skipped, failed]
-                String errorMsg = null;
-                try {
-                    int[] res = streamingInsert(dataFile, table, info.isJoinTable(), force);
-                    counters[0] = res[0]; // totalRows
-                    counters[1] = res[1]; // inserted
-                    counters[2] = res[2]; // skipped
-                    counters[3] = res[3]; // failed
-                } catch (Exception tableEx) {
-                    log.error("[RESTORE] Table {} streaming failed: {}", table, tableEx.getMessage());
-                    failedTables.add(table);
-                    errorMsg = tableEx.getMessage();
+                    results.put(table, restoreTable(table, info, dir, upsert, replaced.contains(table), false));
+                    i++;
                 }
-                results.put(table, new TableImportResult(table, counters[0],
-                        counters[1], counters[2], counters[3], errorMsg));
-                totalRows += counters[0];
-                i++;
-                log.info("[RESTORE] Table={} total={} inserted={} skipped={} failed={}",
-                        table, counters[0], counters[1], counters[2], counters[3]);
             }
         } catch (Exception e) {
             throw new RuntimeException("DB restore failed: " + e.getMessage(), e);
@@ -382,6 +472,15 @@ public class ProductionRestoreService {
             }
         }
 
+        int totalRows = 0;
+        List<String> failedTables = new ArrayList<>();
+        for (TableImportResult r : results.values()) {
+            totalRows += r.getTotalRows();
+            if (r.getError() != null && !SKIPPED_BY_OPTIONS.equals(r.getError())) {
+                failedTables.add(r.getTableName());
+            }
+        }
+
         if (!failedTables.isEmpty()) {
             log.warn("[RESTORE] Completed with {} failed tables: {}", failedTables.size(), failedTables);
         }
@@ -391,9 +490,339 @@ public class ProductionRestoreService {
         job.updateProgress(87, "Resetting sequences");
         resetSequences(results);
 
+        if (manifest.isIncremental()) {
+            dropCompactedAnswerRows();
+        }
+        rebuildExamRollup();
+        refreshQuestionBank();
+
         return results;
     }
 
+    /**
+     * Compaction {@code exam_answers} qatorlarini hard delete qiladi — delta bu o'chirishni olib
+     * kelmaydi, faqat {@code answer_sheet} bilan yangilangan sessiyani. Base + deltadan keyin
+     * ixchamlangan sessiyalarning eski qatorlari o'chiriladi (compaction ularni qayta tanlamaydi).
+     */
+    private void dropCompactedAnswerRows() {
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM exam_answers a USING exam_sessions s " +
+                "WHERE a.exam_session_id = s.id AND s.answer_sheet IS NOT NULL");
+        if (deleted > 0) {
+            log.info("[RESTORE] Removed {} exam_answers rows of compacted sessions", deleted);
+        }
+    }
+
+    /**
+     * daily_exam_rollup exam_sessions dan hosila — restore/tozalashdan keyin qayta quriladi.
+     * Xato bo'lsa log qilinadi; keyingi ishga tushishda avtomatik tuzatiladi.
+     */
+    private void rebuildExamRollup() {
+        try {
+            examRollupService.rebuild();
+        } catch (Exception e) {
+            log.warn("[RESTORE] Exam rollup rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Savollar banki snapshot'i (va undan quriladigan qidiruv indeksi) savol ID'larini xotirada
+     * ushlaydi — restore/tozalashdan keyin darhol qayta quriladi, aks holda imtihonlar 15 daqiqagacha
+     * o'chirilgan yoki qayta raqamlangan savollarni tanlaydi.
+     */
+    private void refreshQuestionBank() {
+        try {
+            questionBank.markDirty();
+        } catch (Exception e) {
+            log.warn("[RESTORE] Question bank refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bitta jadvalni tiklaydi; xato jadval natijasiga yoziladi — restore to'xtatilmaydi.
+     *
+     * @param upsert  true — mavjud ID'lar yangilanadi (force yoki incremental)
+     * @param replace true — jadval avval tozalanadi (incremental join jadvallar)
+     * @param useCopy true — COPY fast path (xato bo'lsa batch INSERT'ga qaytadi)
+     */
+    private TableImportResult restoreTable(String table, EntityInfo info, Path dir,
+                                           boolean upsert, boolean replace, boolean useCopy) {
+        Path dataFile = dir.resolve(info.getZipPath());
+
+        // ── Streaming insert: JSON faylni xotirada to'liq yuklamasdan qayta ishlash ──
+        // readJsonArray() o'rniga streamingInsert() ishlatiladi — 1000 MB faylda OOM yo'q.
+        int[] counters  = {0, 0, 0, 0}; // [totalRows, inserted, skipped, failed]
+        String errorMsg = null;
+        try {
+            if (useCopy) {
+                counters = copyInsert(dataFile, table, info.isJoinTable(), upsert, replace);
+            } else {
+                if (replace) clearForReplace(table);
+                counters = streamingInsert(dataFile, table, info.isJoinTable(), upsert);
+            }
+        } catch (Exception tableEx) {
+            log.error("[RESTORE] Table {} streaming failed: {}", table, tableEx.getMessage());
+            errorMsg = tableEx.getMessage();
+        }
+        log.info("[RESTORE] Table={} total={} inserted={} skipped={} failed={}",
+                table, counters[0], counters[1], counters[2], counters[3]);
+        return new TableImportResult(table, counters[0], counters[1], counters[2], counters[3], errorMsg);
+    }
+
+    /** Incremental delta'dagi to'liq nusxa bilan almashtiriladigan jadvalni tozalaydi. */
+    private void clearForReplace(String table) {
+        int deleted = jdbcTemplate.update("DELETE FROM " + table);
+        log.info("[RESTORE] Replacing table={} (deleted {} existing rows)", table, deleted);
+    }
+
+    private static TableImportResult skippedResult(String table) {
+        return new TableImportResult(table, 0, 0, 0, 0, SKIPPED_BY_OPTIONS);
+    }
+
+    // ─── COPY fast path ─────────────────────────────────────────────────────
+
+    /**
+     * Jadvallarni FK bog'liqlik to'lqinlari bo'yicha tiklaydi: bir to'lqindagi jadvallar
+     * bir-biriga bog'liq emas va parallel worker'larda (har biri o'z ulanishida) yuklanadi;
+     * keyingi to'lqin oldingisi tugagach boshlanadi.
+     */
+    private void restoreTablesWithCopy(BackupManifest manifest, Path dir, boolean upsert,
+                                       Set<String> replaced, BackupJobStatus job, ImportOptions options,
+                                       Map<String, TableImportResult> results) throws Exception {
+        Map<String, TableImportResult> done = new HashMap<>();
+        List<String> tables = new ArrayList<>();
+        for (String table : manifest.getEntities().keySet()) {
+            if (options.isTableEnabled(table)) {
+                tables.add(table);
+            } else {
+                log.info("[RESTORE] Skipping table={} (not in ImportOptions)", table);
+                done.put(table, skippedResult(table));
+            }
+        }
+
+        List<List<String>> waves = dependencyWaves(tables);
+        int parallelism = resolveRestoreParallelism(tables.size());
+        log.info("[RESTORE] COPY restore: tables={} waves={} workers={}", tables.size(), waves.size(), parallelism);
+
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger threadSeq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "restore-table-" + threadSeq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (List<String> wave : waves) {
+                Map<String, Future<TableImportResult>> futures = new LinkedHashMap<>();
+                for (String table : wave) {
+                    EntityInfo info = manifest.getEntities().get(table);
+                    futures.put(table, pool.submit(() -> {
+                        TableImportResult r = restoreTable(table, info, dir, upsert, replaced.contains(table), true);
+                        int pct = 25 + (int) (finished.incrementAndGet() * 60.0 / Math.max(tables.size(), 1));
+                        job.updateProgress(pct, "Restored " + table);
+                        return r;
+                    }));
+                }
+                for (Map.Entry<String, Future<TableImportResult>> f : futures.entrySet()) {
+                    done.put(f.getKey(), f.getValue().get());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Natijalar manifest tartibida
+        for (String table : manifest.getEntities().keySet()) {
+            results.put(table, done.get(table));
+        }
+    }
+
+    /**
+     * TRUNCATE_ORDER ning teskarisi (ota jadvallar avval) bo'yicha to'lqinlar quradi.
+     * Jadval faqat o'zidan oldin keladigan va FK orqali bog'langan jadvallar tugagach yuklanadi.
+     * FK katalogini o'qib bo'lmasa — har jadval alohida to'lqin (ketma-ket).
+     */
+    private List<List<String>> dependencyWaves(List<String> tables) {
+        List<String> restoreOrder = new ArrayList<>(Arrays.asList(TRUNCATE_ORDER));
+        Collections.reverse(restoreOrder);
+
+        List<String> ordered = new ArrayList<>(tables);
+        ordered.sort(Comparator.comparingInt(t -> {
+            int idx = restoreOrder.indexOf(t);
+            return idx < 0 ? Integer.MAX_VALUE : idx;
+        }));
+
+        Map<String, Set<String>> parents;
+        try {
+            parents = loadForeignKeyParents();
+        } catch (Exception e) {
+            log.warn("[RESTORE] Could not read FK catalog, restoring tables sequentially: {}", e.getMessage());
+            List<List<String>> sequential = new ArrayList<>();
+            ordered.forEach(t -> sequential.add(List.of(t)));
+            return sequential;
+        }
+
+        Map<String, Integer> level = new HashMap<>();
+        List<List<String>> waves = new ArrayList<>();
+        for (String table : ordered) {
+            int lvl = 0;
+            for (String parent : parents.getOrDefault(table, Set.of())) {
+                Integer parentLvl = level.get(parent);
+                if (parentLvl != null && !parent.equals(table)) {
+                    lvl = Math.max(lvl, parentLvl + 1);
+                }
+            }
+            level.put(table, lvl);
+            while (waves.size() <= lvl) waves.add(new ArrayList<>());
+            waves.get(lvl).add(table);
+        }
+        return waves;
+    }
+
+    /** child jadval → u FK orqali murojaat qiladigan jadvallar. */
+    private Map<String, Set<String>> loadForeignKeyParents() {
+        Map<String, Set<String>> parents = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT conrelid::regclass::text AS child, confrelid::regclass::text AS parent
+                FROM pg_constraint WHERE contype = 'f'
+                """, rs -> {
+            parents.computeIfAbsent(rs.getString("child"), k -> new HashSet<>()).add(rs.getString("parent"));
+        });
+        return parents;
+    }
+
+    private int resolveRestoreParallelism(int tableCount) {
+        int workers = restoreParallelism > 0
+                ? restoreParallelism
+                : Math.min(Runtime.getRuntime().availableProcessors(), 4);
+        return Math.max(1, Math.min(workers, tableCount));
+    }
+
+    /**
+     * COPY fast path; COPY yoki merge xato bersa tranzaksiya orqaga qaytariladi va jadval
+     * odatiy batch INSERT yo'li ({@link #streamingInsert}) bilan qayta yuklanadi.
+     */
+    private int[] copyInsert(Path dataFile, String table, boolean joinTable,
+                             boolean force, boolean replace) throws Exception {
+        try {
+            return copyMerge(dataFile, table, joinTable, force, replace);
+        } catch (Exception copyEx) {
+            log.warn("[RESTORE] COPY failed for table={}, falling back to batch insert: {}",
+                    table, copyEx.getMessage());
+            if (replace) clearForReplace(table);
+            return streamingInsert(dataFile, table, joinTable, force);
+        }
+    }
+
+    /**
+     * JSON massivni CSV ko'rinishida {@code COPY FROM STDIN} bilan vaqtinchalik staging jadvalga
+     * oqizadi va bitta {@code INSERT ... SELECT ... ON CONFLICT} bilan asosiy jadvalga qo'shadi.
+     * Hammasi o'z ulanishidagi bitta tranzaksiyada — xatoda hech narsa yozilmaydi.
+     *
+     * @return int[4] = {totalRows, inserted, skipped, failed}
+     */
+    private int[] copyMerge(Path dataFile, String table, boolean joinTable,
+                            boolean force, boolean replace) throws Exception {
+        try (Connection conn = jdbcTemplate.getDataSource().getConnection();
+             JsonParser parser = objectMapper.createParser(dataFile.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                log.warn("[RESTORE] Expected JSON array in file: {}", dataFile.getFileName());
+                return new int[]{0, 0, 0, 0};
+            }
+            if (parser.nextToken() == JsonToken.END_ARRAY) {
+                if (replace) clearForReplace(table);
+                return new int[]{0, 0, 0, 0};
+            }
+            Map<String, Object> first = objectMapper.readValue(parser, ROW_TYPE);
+            List<String> columns = new ArrayList<>(first.keySet());
+            String colList = String.join(", ", columns);
+            String staging = "restore_stage_" + table;
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("SET LOCAL session_replication_role = 'replica'");
+                    st.execute("CREATE TEMP TABLE " + staging + " (LIKE " + table
+                            + " INCLUDING DEFAULTS) ON COMMIT DROP");
+                }
+
+                int total = 0;
+                PGCopyOutputStream copy = new PGCopyOutputStream(conn.unwrap(PGConnection.class),
+                        "COPY " + staging + " (" + colList + ") FROM STDIN WITH (FORMAT csv)", COPY_BUFFER_SIZE);
+                try {
+                    Writer out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+                    writeCsvRow(out, columns, first);
+                    total++;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        writeCsvRow(out, columns, objectMapper.readValue(parser, ROW_TYPE));
+                        total++;
+                    }
+                    out.flush();
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) copy.cancelCopy();
+                }
+
+                String conflict = (force && !joinTable) ? buildUpsertClause(columns) : "ON CONFLICT DO NOTHING";
+                int inserted;
+                try (Statement st = conn.createStatement()) {
+                    if (replace) {
+                        st.executeUpdate("DELETE FROM " + table);
+                    }
+                    inserted = st.executeUpdate("INSERT INTO " + table + " (" + colList + ") SELECT "
+                            + colList + " FROM " + staging + " " + conflict);
+                }
+                conn.commit();
+
+                log.info("[RESTORE] COPY table={} total={} inserted={} skipped={}",
+                        table, total, inserted, total - inserted);
+                return new int[]{total, inserted, total - inserted, 0};
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /** Bitta qatorni CSV (COPY FORMAT csv) ko'rinishida yozadi: NULL — bo'sh, matn — qo'shtirnoqda. */
+    private void writeCsvRow(Writer out, List<String> columns, Map<String, Object> row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) out.write(',');
+            Object value = copyValue(columns.get(i), row.get(columns.get(i)));
+            if (value == null) continue;
+            if (value instanceof String s) {
+                out.write('"');
+                out.write(s.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value.toString());
+            }
+        }
+        out.write('\n');
+    }
+
+    /**
+     * {@link #convertValue} ning COPY uchun matnli ekvivalenti: bytea — {@code \x} hex,
+     * offset'li timestamp — JDBC yo'lidagi kabi JVM zonasidagi mahalliy vaqtga o'tkaziladi.
+     */
+    private Object copyValue(String column, Object value) throws IOException {
+        if (value == null || value instanceof Number || value instanceof Boolean) return value;
+        if (!(value instanceof String s)) return objectMapper.writeValueAsString(value);
+
+        if (BINARY_COLUMNS.contains(column)) {
+            return "\\x" + HexFormat.of().formatHex(Base64.getDecoder().decode(s));
+        }
+        try {
+            return OffsetDateTime.parse(s).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime().toString();
+        } catch (DateTimeParseException ignored) {}
+        return s;
+    }
+
+    // ─── Batch INSERT path ──────────────────────────────────────────────────
+
     private void truncateAllTables() {
         for (String table : TRUNCATE_ORDER) {
             try {
@@ -424,7 +853,7 @@ public class ProductionRestoreService {
         try {
             int[][] batchResults = jdbcTemplate.batchUpdate(sql, rows, 1000, (ps, row) -> {
                 for (int i = 0; i < columns.size(); i++) {
-                    ps.setObject(i + 1, convertValue(row.get(columns.get(i))));
+                    ps.setObject(i + 1, convertValue(columns.get(i), row.get(columns.get(i))));
                 }
             });
             // ON CONFLICT DO NOTHING: inserted rows = 1, skipped rows = 0
@@ -458,7 +887,7 @@ public class ProductionRestoreService {
         try {
             int[][] batchResults = jdbcTemplate.batchUpdate(sql, rows, 1000, (ps, row) -> {
                 for (int i = 0; i < columns.size(); i++) {
-                    ps.setObject(i + 1, convertValue(row.get(columns.get(i))));
+                    ps.setObject(i + 1, convertValue(columns.get(i), row.get(columns.get(i))));
                 }
             });
             int inserted = 0;
@@ -495,7 +924,7 @@ public class ProductionRestoreService {
                     Savepoint sp = conn.setSavepoint();
                     try {
                         for (int i = 0; i < columns.size(); i++) {
-                            ps.setObject(i + 1, convertValue(row.get(columns.get(i))));
+                            ps.setObject(i + 1, convertValue(columns.get(i), row.get(columns.get(i))));
                         }
                         int affected = ps.executeUpdate();
                         conn.releaseSavepoint(sp);
@@ -535,9 +964,14 @@ public class ProductionRestoreService {
      * Jackson schemarsiz Map'ga o'qiganda barcha timestamp qiymatlarini
      * String deb deserialize qiladi. PostgreSQL timestamp ustuniga Timestamp berish kerak.
      */
-    private Object convertValue(Object value) {
+    private Object convertValue(String column, Object value) {
         if (!(value instanceof String s)) return value;
 
+        // bytea ustunlar: Jackson byte[] ni Base64 satr sifatida yozadi
+        if (BINARY_COLUMNS.contains(column)) {
+            return Base64.getDecoder().decode(s);
+        }
+
         // "2026-02-20T15:24:57.288+00:00" — timezone offset bilan (ISO-8601)
         try {
             return Timestamp.from(OffsetDateTime.parse(s).toInstant());
@@ -751,7 +1185,7 @@ public class ProductionRestoreService {
         StringBuilder sb = new StringBuilder();
         int totalFailed = 0;
         for (TableImportResult r : results.values()) {
-            if (r.getError() != null && !"skipped by ImportOptions".equals(r.getError())) {
+            if (r.getError() != null && !SKIPPED_BY_OPTIONS.equals(r.getError())) {
                 sb.append(r.getTableName()).append(": FAILED (").append(r.getError()).append(")\n");
                 totalFailed++;
             } else {
@@ -40,4 +40,22 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Rasm nusxalarini (resize) yaratish uchun kichik pool.
+     * Navbat to'lsa vazifa rad etiladi — keyingi so'rov qayta navbatga qo'yadi,
+     * so'rov esa shu orada asl rasm bilan javob oladi.
+     */
+    @Bean(name = "imageVariantExecutor")
+    public ThreadPoolTaskExecutor imageVariantExecutor(StorageProperties storageProperties) {
+        int threads = Math.max(1, storageProperties.getImageVariants().getThreads());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("image-variant-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.initialize();
+        return executor;
+    }
+}
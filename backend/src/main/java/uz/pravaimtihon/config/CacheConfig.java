@@ -141,14 +141,10 @@ public class CacheConfig {
         // qolib ketardi.
         // ══════════════════════════════════════════════════════════════════
 
-        // Fayl baytlari — hajm bo'yicha cheklangan (taxminan ~64 MB gacha)
-        cacheManager.registerCustomCache("fileCache",
-                Caffeine.newBuilder()
-                        .maximumWeight(64L * 1024 * 1024)
-                        .<Object, Object>weigher((k, v) -> (v instanceof byte[] b) ? b.length : 1024)
-                        .expireAfterAccess(30, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+        // `fileCache` (fayl baytlari, ~64 MB) olib tashlandi: media endi
+        // MediaFileServer orqali diskdan sendfile/transferTo bilan uzatiladi,
+        // takroriy so'rovlar esa ETag → 304 bilan yopiladi. OS page cache
+        // heap'dagi nusxadan arzonroq.
 
         cacheManager.registerCustomCache("contentTypeCache",
                 Caffeine.newBuilder()
@@ -81,4 +81,24 @@ public class ExamProperties {
      * Marathon mode maximum questions.
      */
     private Integer marathonMaxQuestions = 100;
+
+    // ============================================
+    // ANSWER SHEET (compact storage)
+    // ============================================
+
+    /**
+     * Tugagan sessiyalar javoblarini exam_answers qatorlaridan
+     * exam_sessions.answer_sheet ga ko'chirish (fon job).
+     */
+    private Boolean compactAnswerSheets = false;
+
+    /**
+     * Sessiya tugaganidan keyin necha soat o'tgach ixchamlanadi.
+     */
+    private Integer answerSheetCompactAfterHours = 24;
+
+    /**
+     * Bitta tranzaksiyada ixchamlanadigan sessiyalar soni.
+     */
+    private Integer answerSheetCompactBatchSize = 200;
 }
@@ -0,0 +1,31 @@
+package uz.pravaimtihon.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uz.pravaimtihon.security.ratelimit.InMemoryRateLimiter;
+import uz.pravaimtihon.security.ratelimit.JdbcRateLimiter;
+import uz.pravaimtihon.security.ratelimit.RateLimiter;
+
+/**
+ * Rate limiter saqlash joyini tanlash:
+ * {@code memory} — bitta instansiya (default), {@code jdbc} — instansiyalar orasida umumiy.
+ */
+@Configuration
+@Slf4j
+public class RateLimiterConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(
+            @Value("${app.security.rate-limit.store:memory}") String store,
+            @Value("${app.security.rate-limit.max-tracked-keys:50000}") int maxTrackedKeys,
+            JdbcTemplate jdbcTemplate) {
+        RateLimiter limiter = "jdbc".equalsIgnoreCase(store)
+                ? new JdbcRateLimiter(jdbcTemplate)
+                : new InMemoryRateLimiter(maxTrackedKeys);
+        log.info("Rate limiter store: {}", limiter.getStoreType());
+        return limiter;
+    }
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Storage Configuration Properties
  * Maps to app.storage.* in application.yml
@@ -18,6 +20,7 @@ public class StorageProperties {
     private S3 s3 = new S3();
     private Cloudinary cloudinary = new Cloudinary();
     private boolean fallbackToLocal = true; // Auto fallback to local if primary fails
+    private ImageVariants imageVariants = new ImageVariants();
 
     /**
      * Local Storage Configuration
@@ -50,4 +53,15 @@ public class StorageProperties {
         private String apiSecret;
         private String baseUrl;
     }
-}
\ No newline at end of file
+
+    /**
+     * Savol rasmlarining kichraytirilgan nusxalari (?w=) — uploads/variants/ ostida
+     */
+    @Data
+    public static class ImageVariants {
+        private boolean enabled = true;
+        private List<Integer> widths = List.of(320, 640, 1024);
+        private int threads = 2;        // CPU'ni imtihon so'rovlaridan olib qo'ymaslik uchun kam
+        private float jpegQuality = 0.82f;
+    }
+}
@@ -74,7 +74,8 @@ public class AdminDashboardController {
             @Parameter(description = "uzl|uzc|en|ru")
             @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
 
-        DashboardStatsResponse response = statisticsService.getDashboardStats(language);
+        DashboardStatsResponse response = statisticsService.withLiveCounters(
+                statisticsService.getDashboardStats(language));
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
@@ -130,6 +131,31 @@ public class AdminDashboardController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * ✅ Recent exams — keyset (cursor) pagination
+     * GET /api/v1/admin/dashboard/recent-exams/cursor?size=20&cursor=...
+     */
+    @GetMapping("/recent-exams/cursor")
+    @Operation(summary = "Get recent exams with cursor pagination", description = "Multi-language: UZL, UZC, EN, RU")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ExamSessionResponse>>> getRecentExamsCursor(
+            @Parameter(description = "nextCursor from previous page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Page size", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+
+            @Parameter(description = "Include total count", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+
+            @Parameter(description = "uzl|uzc|en|ru")
+            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
+
+        CursorPageResponse<ExamSessionResponse> response =
+                statisticsService.getRecentExamsCursor(cursor, size, includeTotal, language);
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     /**
      * ✅ Get user exam history by user ID (Admin view)
      * GET /api/v1/admin/dashboard/user/{userId}/exams?page=0&size=20
@@ -166,6 +192,33 @@ public class AdminDashboardController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * ✅ User exam history — keyset (cursor) pagination (Admin view)
+     * GET /api/v1/admin/dashboard/user/{userId}/exams/cursor?size=20&cursor=...
+     */
+    @GetMapping("/user/{userId}/exams/cursor")
+    @Operation(summary = "Get user exam history with cursor pagination (Admin)", description = "Multi-language: UZL, UZC, EN, RU")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ExamSessionResponse>>> getUserExamHistoryCursor(
+            @PathVariable Long userId,
+
+            @Parameter(description = "nextCursor from previous page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Page size", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+
+            @Parameter(description = "Include total count", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+
+            @Parameter(description = "uzl|uzc|en|ru")
+            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
+
+        CursorPageResponse<ExamSessionResponse> response =
+                statisticsService.getUserExamHistoryCursor(userId, cursor, size, includeTotal, language);
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     /**
      * ✅ Get user statistics by user ID (Admin view)
      * GET /api/v1/admin/dashboard/user/{userId}/statistics
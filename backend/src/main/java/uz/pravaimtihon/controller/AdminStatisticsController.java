@@ -16,6 +16,7 @@ import uz.pravaimtihon.enums.AcceptLanguage;
 import uz.pravaimtihon.service.ComprehensiveStatisticsService;
 import uz.pravaimtihon.service.DeviceManagementService;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -201,7 +202,7 @@ public class AdminStatisticsController {
             @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
 
         StatisticsFilterRequest filter = StatisticsFilterRequest.builder()
-                .fromDate(LocalDateTime.now().minusDays(7))
+                .fromDate(LocalDate.now().minusDays(7).atStartOfDay())
                 .includeDetails(true)
                 .includeTrend(true)
                 .build();
@@ -217,7 +218,7 @@ public class AdminStatisticsController {
             @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
 
         StatisticsFilterRequest filter = StatisticsFilterRequest.builder()
-                .fromDate(LocalDateTime.now().minusDays(30))
+                .fromDate(LocalDate.now().minusDays(30).atStartOfDay())
                 .includeDetails(true)
                 .includeTrend(true)
                 .build();
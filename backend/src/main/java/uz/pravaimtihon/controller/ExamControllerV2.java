@@ -15,6 +15,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import uz.pravaimtihon.dto.request.*;
 import uz.pravaimtihon.dto.response.ApiResponse;
+import uz.pravaimtihon.dto.response.CursorPageResponse;
 import uz.pravaimtihon.dto.response.ExamStartResponse;
 import uz.pravaimtihon.dto.response.PageResponse;
 import uz.pravaimtihon.dto.response.exam.*;
@@ -413,6 +414,29 @@ public class ExamControllerV2 {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * Imtihon tarixi — keyset (cursor) sahifalash.
+     * Birinchi sahifa uchun {@code cursor} berilmaydi, keyingisi uchun javobdagi {@code nextCursor} yuboriladi.
+     */
+    @GetMapping("/history/cursor")
+    @Operation(
+            summary = "Imtihon tarixi (cursor)",
+            description = "O'tgan imtihonlar, startedAt bo'yicha kamayish tartibida. OFFSET'siz; jami son faqat includeTotal=true bo'lsa."
+    )
+    public ResponseEntity<ApiResponse<CursorPageResponse<ExamHistoryResponse>>> getExamHistoryCursor(
+            @Parameter(description = "Oldingi javobdagi nextCursor")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Sahifa hajmi", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+
+            @Parameter(description = "Jami sonni ham qaytarish", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        CursorPageResponse<ExamHistoryResponse> response = examService.getExamHistoryCursor(cursor, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     // ============================================
     // 10. STATUS BO'YICHA TARIX
     // ============================================
@@ -4,22 +4,14 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import uz.pravaimtihon.dto.mapper.ExamResponseMapper;
-import uz.pravaimtihon.dto.response.ApiResponse;
-import uz.pravaimtihon.dto.response.exam.ExamResponse;
-import uz.pravaimtihon.dto.response.exam.QuestionResponse;
-import uz.pravaimtihon.entity.Question;
-import uz.pravaimtihon.repository.QuestionRepository;
-
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import uz.pravaimtihon.service.GuestExamPool;
 
 /**
  * Guest (autentifikatsiyasiz) foydalanuvchilar uchun bepul imtihon.
@@ -32,12 +24,7 @@ import java.util.List;
 @Tag(name = "Public", description = "Autentifikatsiyasiz umumiy endpointlar")
 public class GuestExamController {
 
-    private final QuestionRepository questionRepository;
-    private final ExamResponseMapper mapper;
-
-    private static final int GUEST_QUESTION_COUNT = 20;
-    private static final int GUEST_DURATION_MINUTES = 20;
-    private static final int GUEST_PASSING_SCORE = 90;
+    private final GuestExamPool guestExamPool;
 
     /**
      * Guest imtihon uchun 20 ta tasodifiy savol qaytaradi.
@@ -49,8 +36,8 @@ public class GuestExamController {
             summary = "Guest imtihon savollar",
             description = "Autentifikatsiyasiz 20 ta tasodifiy savol. To'g'ri javoblar ham qaytariladi."
     )
-    public ResponseEntity<ApiResponse<ExamResponse>> getGuestExam() {
-        log.debug("Guest exam so'rovi — bazadan tasodifiy savollar yuklanmoqda");
+    public ResponseEntity<byte[]> getGuestExam(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
         // ⚠️ AUDIT — PERFORMANCE: avval bu yerda
         // `findRandomQuestionsWithOptions(PageRequest...)` chaqirilardi.
@@ -60,54 +47,59 @@ public class GuestExamController {
         // bajarardi. Bu endpoint AUTENTIFIKATSIYASIZ ochiq — ya'ni har qanday
         // kishi takroriy so'rov bilan serverni xotiradan mahrum qila olardi.
         //
-        // Endi ikki bosqich: (1) DB tomonda random + LIMIT bilan faqat ID'lar,
-        // (2) o'sha ID'lar uchun variantlar bitta so'rovda.
-        List<Long> ids = questionRepository.findRandomQuestionIds(
-                PageRequest.of(0, GUEST_QUESTION_COUNT)
-        );
+        // Keyinroq `ORDER BY RANDOM()` + LIMIT va har so'rovda Jackson
+        // serializatsiya bor edi. Endi javob GuestExamPool'dagi oldindan
+        // tayyorlangan JSON baytlaridan biri — DB ham, Jackson ham ishlamaydi.
+        GuestExamPool.PooledExam exam = guestExamPool.next();
 
-        List<Question> available = ids.isEmpty()
-                ? List.of()
-                : questionRepository.findByIdsWithOptions(ids);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
 
-        if (available.isEmpty()) {
-            log.warn("Guest exam: bazada faol savollar topilmadi");
-            return ResponseEntity.ok(ApiResponse.success(
-                    ExamResponse.builder()
-                            .totalQuestions(0)
-                            .durationMinutes(GUEST_DURATION_MINUTES)
-                            .passingScore(GUEST_PASSING_SCORE)
-                            .isVisibleMode(true)
-                            .isMarathonMode(false)
-                            .questions(List.of())
-                            .build()
-            ));
+        // Tayyor gzip — Tomcat Content-Encoding bor javobni qayta siqmaydi
+        if (acceptsGzip(acceptEncoding)) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(exam.gzip());
         }
+        return response.body(exam.json());
+    }
 
-        // ID'lar allaqachon DB tomonda tasodifiy tanlangan; bu yerdagi shuffle
-        // faqat `IN (:ids)` natijasining tartibini aralashtirish uchun.
-        List<Question> selected = new ArrayList<>(available);
-        Collections.shuffle(selected);
-        if (selected.size() > GUEST_QUESTION_COUNT) {
-            selected = selected.subList(0, GUEST_QUESTION_COUNT);
+    /**
+     * {@code Accept-Encoding} tokenlari bo'yicha: {@code gzip} (yoki {@code *}) {@code q>0} bilan
+     * qabul qilinadimi. Aniq {@code gzip} tokeni {@code *} dan ustun; {@code gzip;q=0} — rad.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
         }
+        Boolean wildcard = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim();
+            boolean accepted = qualityOf(parts) > 0;
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
 
-        // Visible mode = true: to'g'ri javoblar va tushuntirishlar qaytariladi
-        List<QuestionResponse> questions = mapper.toQuestionResponses(selected, true);
-
-        LocalDateTime now = LocalDateTime.now();
-        ExamResponse response = ExamResponse.builder()
-                .totalQuestions(questions.size())
-                .durationMinutes(GUEST_DURATION_MINUTES)
-                .passingScore(GUEST_PASSING_SCORE)
-                .startedAt(now)
-                .expiresAt(now.plusMinutes(GUEST_DURATION_MINUTES))
-                .isVisibleMode(true)
-                .isMarathonMode(false)
-                .questions(questions)
-                .build();
-
-        log.debug("Guest exam: {} ta savol qaytarildi", questions.size());
-        return ResponseEntity.ok(ApiResponse.success(response));
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
     }
 }
@@ -139,6 +139,20 @@ public class PackageController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/admin/cursor")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    @Operation(summary = "Barcha paketlar (admin, cursor)", description = "orderIndex bo'yicha, OFFSET'siz. Multi-language: UZL, UZC, EN, RU")
+    public ResponseEntity<ApiResponse<CursorPageResponse<PackageResponse>>> getAllPackagesAdminCursor(
+            @Parameter(description = "nextCursor from previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include total count") @RequestParam(defaultValue = "false") boolean includeTotal,
+            @Parameter(description = "uzl|uzc|en|ru") @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
+
+        CursorPageResponse<PackageResponse> response =
+                packageService.getAllPackagesAdminCursor(cursor, size, includeTotal, language);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping("/free")
     @Operation(summary = "Get free packages", description = "Multi-language: UZL, UZC, EN, RU")
     public ResponseEntity<ApiResponse<PageResponse<PackageResponse>>> getFreePackages(
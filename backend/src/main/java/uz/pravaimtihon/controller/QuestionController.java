@@ -12,17 +12,26 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import uz.pravaimtihon.dto.request.BulkQuestionRequest;
 import uz.pravaimtihon.dto.request.QuestionRequest;
 import uz.pravaimtihon.dto.response.*;
 import uz.pravaimtihon.enums.AcceptLanguage;
+import uz.pravaimtihon.exception.BusinessException;
+import uz.pravaimtihon.exception.ResourceNotFoundException;
 import uz.pravaimtihon.service.MessageService;
+import uz.pravaimtihon.service.impl.QuestionImportService;
 import uz.pravaimtihon.service.impl.QuestionService;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -38,6 +47,7 @@ public class QuestionController {
 
     private final QuestionService questionService;
     private final MessageService messageService;
+    private final QuestionImportService questionImportService;
 
     @PostMapping(consumes = {"application/json"})
     @Operation(
@@ -201,6 +211,51 @@ public class QuestionController {
                         response));
     }
 
+    @PostMapping(value = "/bulk/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Bulk import questions from file (async)",
+            description = "JSON massiv, {\"questions\": [...]} yoki NDJSON (.ndjson/.jsonl). topicId o'rniga topicCode ham bo'lishi mumkin. Holat: GET /bulk/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<QuestionImportJobStatus>> bulkImportFile(
+            @RequestPart("file") MultipartFile file,
+            @AuthenticationPrincipal UserDetails user,
+            @Parameter(description = "uzl|uzc|en|ru") @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) throws IOException {
+
+        if (file.isEmpty()) {
+            throw new BusinessException("validation.file.empty");
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "questions.json";
+        String lower = fileName.toLowerCase();
+        boolean ndjson = lower.endsWith(".ndjson") || lower.endsWith(".jsonl");
+
+        Path tempFile = Files.createTempFile("prava-questions-", ndjson ? ".ndjson" : ".json");
+        QuestionImportJobStatus job = null;
+        try {
+            file.transferTo(tempFile.toFile());
+            job = questionImportService.createJob(user.getUsername(), fileName);
+            questionImportService.runJob(job.getJobId(), tempFile, ndjson, language);
+        } catch (IOException | RuntimeException e) {
+            // job ishga tushmadi (yozish xatosi yoki executor rad etdi) — fayl job'ning finally'siga yetmaydi
+            Files.deleteIfExists(tempFile);
+            if (job != null) {
+                job.markFailed(e.getMessage());
+            }
+            throw e;
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(messageService.getMessage("success.question.import.started", language), job));
+    }
+
+    @GetMapping("/bulk/jobs/{jobId}")
+    @Operation(summary = "Bulk import job status")
+    public ResponseEntity<ApiResponse<QuestionImportJobStatus>> getBulkImportJob(
+            @PathVariable String jobId,
+            @Parameter(description = "uzl|uzc|en|ru") @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
+
+        QuestionImportJobStatus job = questionImportService.findJob(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("error.question.import.job.not.found"));
+        return ResponseEntity.ok(ApiResponse.success(messageService.getMessage("success.question.import.status", language), job));
+    }
+
     @PatchMapping("/{id}/toggle")
     @Operation(summary = "Toggle question status")
     public ResponseEntity<ApiResponse<Void>> toggleStatus(
@@ -6,6 +6,8 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,9 +29,10 @@ import uz.pravaimtihon.repository.ExamSessionRepository;
 import uz.pravaimtihon.repository.QuestionRepository;
 import uz.pravaimtihon.security.SecurityUtils;
 import uz.pravaimtihon.service.MessageService;
-import uz.pravaimtihon.service.impl.CachedFileService;
 import uz.pravaimtihon.service.impl.FileService;
 import uz.pravaimtihon.service.impl.FileStorageManager;
+import uz.pravaimtihon.service.impl.ImageVariantService;
+import uz.pravaimtihon.service.impl.MediaFileServer;
 
 import java.net.URLConnection;
 import java.net.URLEncoder;
@@ -59,7 +62,8 @@ public class SecureFileController {
     private final FileStorageManager fileStorageManager;
     private final ExamSessionRepository examSessionRepository;
     private final MessageService messageService;
-    private final CachedFileService cachedFileService;
+    private final MediaFileServer mediaFileServer;
+    private final ImageVariantService imageVariantService;
 
     @Value("${app.storage.local.upload-dir:uploads}")
     private String uploadDir;
@@ -383,21 +387,27 @@ public class SecureFileController {
                     description = "Fayl o'qishda xatolik"
             )
     })
-    public ResponseEntity<Resource> getQuestionImage(
+    public void getQuestionImage(
             @PathVariable String filename,
+            @Parameter(description = "Kerakli eni (px) — eng yaqin kichraytirilgan nusxa qaytariladi")
+            @RequestParam(required = false) Integer w,
             @Parameter(description = "uzl|uzc|en|ru")
-            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
+            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language,
+            HttpServletRequest request,
+            HttpServletResponse response) {
 
         try {
             // Validate filename
             if (filename.contains("..") || filename.contains("/") || filename.contains("\\")) {
                 log.warn("⚠️ Invalid filename attempt: {}", filename);
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
             }
 
             Long userId = SecurityUtils.getCurrentUserId();
             if (userId == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
             }
 
             // Admin/SuperAdmin har doim ko'rishi mumkin
@@ -410,27 +420,21 @@ public class SecureFileController {
 
                 if (!hasActiveExam) {
                     log.warn("⚠️ User {} tried to access question image without active exam", userId);
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                    return;
                 }
             }
 
-            // Use cached file service
-            byte[] fileData = cachedFileService.getCachedFile("questions", filename);
-            ByteArrayResource resource = new ByteArrayResource(fileData);
-            String contentType = cachedFileService.getContentType("questions", filename);
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CACHE_CONTROL, "private, max-age=3600")
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .header("X-Content-Type-Options", "nosniff")
-                    .header("Content-Security-Policy", "default-src 'none'; sandbox")
-                    .contentLength(fileData.length)
-                    .body(resource);
+            // Diskdan oqim bilan (sendfile), ETag/304 va Range bilan
+            String folder = imageVariantService.resolveFolder("questions", filename, w);
+            mediaFileServer.serve(folder, filename, "private, max-age=3600",
+                    "inline; filename=\"" + filename + "\"", request, response);
 
         } catch (Exception e) {
             log.error("❌ Error reading question image: {}", filename, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -440,28 +444,31 @@ public class SecureFileController {
 
     @GetMapping("/profiles/{filename:.+}")
     @Operation(summary = "Get profile image (public)")
-    public ResponseEntity<Resource> getProfileImage(
+    public void getProfileImage(
             @PathVariable String filename,
             @Parameter(description = "uzl|uzc|en|ru")
-            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
-        return getPublicFile("profiles", filename, language);
+            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        getPublicFile("profiles", filename, request, response);
     }
 
     @GetMapping("/general/{filename:.+}")
     @Operation(summary = "Get general file (public)")
-    public ResponseEntity<Resource> getGeneralFile(
+    public void getGeneralFile(
             @PathVariable String filename,
             @Parameter(description = "uzl|uzc|en|ru")
-            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
-        return getPublicFile("general", filename, language);
+            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        getPublicFile("general", filename, request, response);
     }
 
     /**
      * Installer faylini to'g'ridan-to'g'ri STREAMING bilan yuboradi.
      *
-     * <p>MUHIM: {@link #getPublicFile} ni ISHLATMAYDI — u butun faylni {@code byte[]}
-     * ga yuklaydi, 200-300 MB installer uchun {@code OutOfMemoryError} beradi.
-     * Bu metod {@link FileSystemResource} orqali chunklab yuboring.</p>
+     * <p>Bu metod {@link FileSystemResource} orqali chunklab yuboradi va
+     * {@code ?name=} bilan yuklab olish nomini beradi.</p>
      */
     @GetMapping("/installers/{filename:.+}")
     @Operation(summary = "Installer faylini streaming bilan yuklab olish (public, chunked)")
@@ -569,37 +576,32 @@ public class SecureFileController {
                 .body(resource);
     }
 
-    private ResponseEntity<Resource> getPublicFile(String folder, String filename, AcceptLanguage language) {
+    private void getPublicFile(String folder, String filename,
+                               HttpServletRequest request, HttpServletResponse response) {
         try {
             if (filename.contains("..")) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
             }
 
             List<String> allowedFolders = Arrays.asList("profiles", "general");
             if (!allowedFolders.contains(folder)) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
             }
 
-            byte[] fileData = cachedFileService.getCachedFile(folder, filename);
-            ByteArrayResource resource = new ByteArrayResource(fileData);
-            String contentType = cachedFileService.getContentType(folder, filename);
-
             // AUDIT: bu endpoint autentifikatsiyasiz ochiq va faylni sayt
-            // origin'ida uzatadi. Himoya qatlamlari:
+            // origin'ida uzatadi. Himoya qatlamlari (MediaFileServer qo'yadi):
             //  - nosniff: brauzer content-type'ni "taxmin qilib" HTML/JS deb
             //    talqin qilmasligi uchun;
             //  - CSP sandbox: agar baribir HTML/SVG uzatilsa, skript bajarilmaydi.
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CACHE_CONTROL, "public, max-age=86400")
-                    .header("X-Content-Type-Options", "nosniff")
-                    .header("Content-Security-Policy", "default-src 'none'; sandbox")
-                    .contentLength(fileData.length)
-                    .body(resource);
+            mediaFileServer.serve(folder, filename, "public, max-age=86400", null, request, response);
 
         } catch (Exception e) {
             log.error("❌ Error reading file: {}/{}", folder, filename, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 }
\ No newline at end of file
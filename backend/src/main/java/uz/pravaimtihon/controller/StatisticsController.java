@@ -154,6 +154,31 @@ public class StatisticsController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/leaderboard/global/me")
+    @Operation(summary = "Get my position in global leaderboard", description = "O'rnim va yuqori/pastdagi `window` tadan qator")
+    public ResponseEntity<ApiResponse<LeaderboardPositionResponse>> getMyGlobalLeaderboardPosition(
+            @Parameter(description = "Neighbours above/below (max 50)") @RequestParam(defaultValue = "5") int window,
+            @org.springframework.security.core.annotation.AuthenticationPrincipal
+            uz.pravaimtihon.security.CustomUserDetails principal) {
+
+        Long currentUserId = principal != null ? principal.getId() : null;
+        LeaderboardPositionResponse response = statisticsService.getMyLeaderboardPosition(null, window, currentUserId);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/leaderboard/{topic}/me")
+    @Operation(summary = "Get my position in topic leaderboard", description = "O'rnim va yuqori/pastdagi `window` tadan qator")
+    public ResponseEntity<ApiResponse<LeaderboardPositionResponse>> getMyLeaderboardPosition(
+            @PathVariable String topic,
+            @Parameter(description = "Neighbours above/below (max 50)") @RequestParam(defaultValue = "5") int window,
+            @org.springframework.security.core.annotation.AuthenticationPrincipal
+            uz.pravaimtihon.security.CustomUserDetails principal) {
+
+        Long currentUserId = principal != null ? principal.getId() : null;
+        LeaderboardPositionResponse response = statisticsService.getMyLeaderboardPosition(topic, window, currentUserId);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     // ============================================
     // Admin Statistics
     // ============================================
@@ -165,7 +190,8 @@ public class StatisticsController {
             @Parameter(description = "uzl|uzc|en|ru")
             @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
 
-        DashboardStatsResponse response = statisticsService.getDashboardStats(language);
+        DashboardStatsResponse response = statisticsService.withLiveCounters(
+                statisticsService.getDashboardStats(language));
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
@@ -210,6 +236,21 @@ public class StatisticsController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/exams/recent/cursor")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    @Operation(summary = "Get recent exams with cursor pagination", description = "Multi-language: UZL, UZC, EN, RU")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ExamSessionResponse>>> getRecentExamsCursor(
+            @Parameter(description = "nextCursor from previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include total count") @RequestParam(defaultValue = "false") boolean includeTotal,
+            @Parameter(description = "uzl|uzc|en|ru")
+            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
+
+        CursorPageResponse<ExamSessionResponse> response =
+                statisticsService.getRecentExamsCursor(cursor, size, includeTotal, language);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     // ============================================
     // My Exam History - With Pagination
     // ============================================
@@ -231,6 +272,20 @@ public class StatisticsController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/me/exams/cursor")
+    @Operation(summary = "Get my exam history with cursor pagination", description = "Multi-language: UZL, UZC, EN, RU")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ExamSessionResponse>>> getMyExamHistoryCursor(
+            @Parameter(description = "nextCursor from previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Include total count") @RequestParam(defaultValue = "false") boolean includeTotal,
+            @Parameter(description = "uzl|uzc|en|ru")
+            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
+
+        CursorPageResponse<ExamSessionResponse> response =
+                statisticsService.getMyExamHistoryCursor(cursor, size, includeTotal, language);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping("/me/exams/topic/{topic}")
     @Operation(summary = "Get my exams by topic with pagination", description = "Multi-language: UZL, UZC, EN, RU")
     public ResponseEntity<ApiResponse<PageResponse<ExamSessionResponse>>> getMyExamsByTopic(
@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -12,16 +13,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import uz.pravaimtihon.dto.response.ApiResponse;
-import uz.pravaimtihon.dto.response.DatabaseBackupResponse;
 import uz.pravaimtihon.dto.response.LogResponse;
 import uz.pravaimtihon.dto.response.ServerInfoResponse;
 import uz.pravaimtihon.service.impl.DatabaseBackupService;
 import uz.pravaimtihon.service.impl.SystemMonitorService;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * System Monitor Controller - Server ma'lumotlari va log boshqaruvi
@@ -121,21 +123,31 @@ public class SystemMonitorController {
     @GetMapping("/logs/download")
     @Operation(
             summary = "Log faylni yuklab olish",
-            description = "Log faylni to'liq yuklab olish"
+            description = "Log faylni to'liq yuklab olish (oqim bilan, gzip=true — .log.gz)"
     )
-    public ResponseEntity<byte[]> downloadLogs() throws IOException {
-        log.info("Log download requested");
-        byte[] logContent = systemMonitorService.downloadLogs();
+    public void downloadLogs(
+            @Parameter(description = "gzip bilan siqish")
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        log.info("Log download requested: gzip={}", gzip);
 
         String filename = "prava-online-logs-" +
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")) +
-                ".log";
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.TEXT_PLAIN)
-                .contentLength(logContent.length)
-                .body(logContent);
+                (gzip ? ".log.gz" : ".log");
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setHeader("X-Accel-Buffering", "no");
+        response.setContentType(gzip ? "application/gzip" : MediaType.TEXT_PLAIN_VALUE);
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream gz = new GZIPOutputStream(out, 65536)) {
+                systemMonitorService.writeLogs(gz);
+            }
+        } else {
+            systemMonitorService.writeLogs(out);
+            out.flush();
+        }
     }
 
     /**
@@ -196,10 +208,12 @@ public class SystemMonitorController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Backup muvaffaqiyatli yaratildi"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Faqat SUPER_ADMIN")
     })
-    public ResponseEntity<ApiResponse<DatabaseBackupResponse>> getBackup() {
+    public void getBackup(HttpServletResponse response) throws IOException {
         log.info("Database backup requested");
-        DatabaseBackupResponse backup = databaseBackupService.createFullBackup();
-        return ResponseEntity.ok(ApiResponse.success("Database backup muvaffaqiyatli yaratildi", backup));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("X-Accel-Buffering", "no");
+        databaseBackupService.writeFullBackup(response.getOutputStream(), "Database backup muvaffaqiyatli yaratildi");
     }
 
     /**
@@ -211,17 +225,17 @@ public class SystemMonitorController {
             summary = "Database backup yuklab olish",
             description = "Barcha ma'lumotlarni JSON fayl sifatida yuklab olish"
     )
-    public ResponseEntity<ApiResponse<DatabaseBackupResponse>> downloadBackup() {
+    public void downloadBackup(HttpServletResponse response) throws IOException {
         log.info("Database backup download requested");
-        DatabaseBackupResponse backup = databaseBackupService.createFullBackup();
 
         String filename = "prava-backup-" +
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")) +
                 ".json";
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(ApiResponse.success("Database backup", backup));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("X-Accel-Buffering", "no");
+        databaseBackupService.writeFullBackup(response.getOutputStream(), "Database backup");
     }
 }
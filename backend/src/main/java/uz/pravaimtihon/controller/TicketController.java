@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import uz.pravaimtihon.dto.request.TicketCreateRequest;
 import uz.pravaimtihon.dto.request.TicketStartRequest;
 import uz.pravaimtihon.dto.response.ApiResponse;
+import uz.pravaimtihon.dto.response.CursorPageResponse;
 import uz.pravaimtihon.dto.response.PageResponse;
 import uz.pravaimtihon.dto.response.exam.ExamResponse;
 import uz.pravaimtihon.dto.response.exam.TicketResponse;
@@ -134,6 +135,29 @@ public class TicketController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * Barcha biletlar ro'yxati (keyset / cursor sahifalash).
+     */
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'USER')")
+    @Operation(
+            summary = "Barcha biletlar (cursor)",
+            description = "Faol biletlar ticketNumber bo'yicha. OFFSET'siz; jami son faqat includeTotal=true bo'lsa."
+    )
+    public ResponseEntity<ApiResponse<CursorPageResponse<TicketResponse>>> getAllTicketsCursor(
+            @Parameter(description = "Oldingi javobdagi nextCursor")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Sahifa hajmi", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+
+            @Parameter(description = "Jami sonni ham qaytarish", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        CursorPageResponse<TicketResponse> response = ticketService.getAllTicketsCursor(cursor, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     /**
      * Barcha biletlar ro'yxati (pagination bilan).
      */
@@ -19,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 import uz.pravaimtihon.dto.request.CreateUserRequest;
 import uz.pravaimtihon.dto.request.UpdateUserRequest;
 import uz.pravaimtihon.dto.response.ApiResponse;
+import uz.pravaimtihon.dto.response.CursorPageResponse;
 import uz.pravaimtihon.dto.response.UserResponse;
 import uz.pravaimtihon.enums.AcceptLanguage;
 import uz.pravaimtihon.enums.Role;
@@ -101,6 +102,26 @@ public class UserManagementController {
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    @Operation(summary = "Get all users (cursor)",
+            description = "Same filters as GET /admin/users, newest first by createdAt. No OFFSET; total only when includeTotal=true")
+    public ResponseEntity<ApiResponse<CursorPageResponse<UserResponse>>> getAllUsersCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) Boolean isActive,
+            @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
+
+        CursorPageResponse<UserResponse> users = userManagementService.getAllUsersCursor(
+                cursor, size, includeTotal, search, role, isActive, language
+        );
+
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
+
     @GetMapping("/admins")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     @Operation(summary = "Get all admins", description = "Only SUPER_ADMIN can view all admins")
@@ -14,6 +14,7 @@ import uz.pravaimtihon.enums.AcceptLanguage;
 import uz.pravaimtihon.service.ComprehensiveStatisticsService;
 import uz.pravaimtihon.service.DeviceManagementService;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -188,7 +189,7 @@ public class UserStatisticsController {
             @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
 
         StatisticsFilterRequest filter = StatisticsFilterRequest.builder()
-                .fromDate(LocalDateTime.now().minusDays(7))
+                .fromDate(LocalDate.now().minusDays(7).atStartOfDay())
                 .includeDetails(true)
                 .includeTrend(true)
                 .build();
@@ -204,7 +205,7 @@ public class UserStatisticsController {
             @RequestHeader(value = "Accept-Language", defaultValue = "uzl") AcceptLanguage language) {
 
         StatisticsFilterRequest filter = StatisticsFilterRequest.builder()
-                .fromDate(LocalDateTime.now().minusDays(30))
+                .fromDate(LocalDate.now().minusDays(30).atStartOfDay())
                 .includeDetails(true)
                 .includeTrend(true)
                 .build();
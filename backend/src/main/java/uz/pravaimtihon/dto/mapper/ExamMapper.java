@@ -54,6 +54,15 @@ public interface ExamMapper {
      * Map ExamSession to ExamResultResponse with language
      */
     default ExamResultResponse toResultResponse(ExamSession session, AcceptLanguage language) {
+        return toResultResponse(session, session != null ? session.getAnswers() : null, language);
+    }
+
+    /**
+     * Map ExamSession to ExamResultResponse with explicitly loaded answers
+     * (ixchamlangan sessiyalar uchun — AnswerSheetService.loadAnswers natijasi)
+     */
+    default ExamResultResponse toResultResponse(ExamSession session, List<ExamAnswer> answers,
+                                                AcceptLanguage language) {
         if (session == null) {
             return null;
         }
@@ -78,7 +87,7 @@ public interface ExamMapper {
                 .startedAt(session.getStartedAt())
                 .finishedAt(session.getFinishedAt())
                 .durationSeconds(session.getDurationSeconds())
-                .answerDetails(mapExamAnswersToDetails(session.getAnswers(), targetLanguage))
+                .answerDetails(mapExamAnswersToDetails(answers, targetLanguage))
                 .build();
     }
 
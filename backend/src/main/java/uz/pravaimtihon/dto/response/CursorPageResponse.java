@@ -0,0 +1,47 @@
+package uz.pravaimtihon.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) sahifa. Keyingi sahifa uchun {@code nextCursor} ni
+ * {@code ?cursor=} sifatida qaytarish kerak; {@code hasNext=false} — oxirgi sahifa.
+ * {@code totalElements} faqat {@code includeTotal=true} bo'lganda hisoblanadi.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private Integer size;
+    private String nextCursor;
+    private Boolean hasNext;
+    private Long totalElements;
+
+    /**
+     * {@code size + 1} ta o'qilgan qatordan sahifa yasaydi: ortiqcha qator bo'lsa —
+     * keyingi sahifa bor va kursor oxirgi ko'rsatilgan qatordan olinadi.
+     */
+    public static <E, T> CursorPageResponse<T> of(List<E> rows, int size,
+                                                  Function<E, String> cursorOf,
+                                                  Function<E, T> mapper,
+                                                  Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        return CursorPageResponse.<T>builder()
+                .content(pageRows.stream().map(mapper).toList())
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null)
+                .totalElements(totalElements)
+                .build();
+    }
+}
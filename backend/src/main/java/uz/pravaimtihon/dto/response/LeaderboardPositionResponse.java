@@ -0,0 +1,18 @@
+package uz.pravaimtihon.dto.response;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaderboardPositionResponse {
+    /** null — foydalanuvchi reytingda yo'q */
+    private Integer rank;
+    private Integer totalParticipants;
+    private List<LeaderboardEntryResponse> neighbours;
+}
@@ -0,0 +1,74 @@
+package uz.pravaimtihon.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fon rejimidagi savollar importi holati (BackupJobStatus kabi).
+ * Import oqimi yozadi, admin panel so'rovlari o'qiydi — maydonlar volatile.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuestionImportJobStatus {
+
+    public enum JobState { PENDING, RUNNING, COMPLETED, FAILED }
+
+    /** Javobda saqlanadigan xatolar soni chegarasi */
+    public static final int MAX_ERRORS = 500;
+
+    private final String jobId;
+    private final String requestedBy;
+    private final String fileName;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private volatile JobState state = JobState.PENDING;
+    private volatile int progressPercent = 0;
+    private volatile String phase = "Queued";
+    private volatile LocalDateTime completedAt;
+    private volatile String error;
+
+    private volatile int processed;
+    private volatile int imported;
+    private volatile int duplicates;
+    private volatile int failed;
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+
+    public QuestionImportJobStatus(String jobId, String requestedBy, String fileName) {
+        this.jobId = jobId;
+        this.requestedBy = requestedBy;
+        this.fileName = fileName;
+    }
+
+    public void markRunning(String phase) {
+        this.state = JobState.RUNNING;
+        this.phase = phase;
+    }
+
+    public void updateProgress(int percent, String phase) {
+        this.progressPercent = percent;
+        this.phase = phase;
+    }
+
+    public void markCompleted(String phase) {
+        this.state = JobState.COMPLETED;
+        this.progressPercent = 100;
+        this.phase = phase;
+        this.completedAt = LocalDateTime.now();
+    }
+
+    public void markFailed(String errorMsg) {
+        this.state = JobState.FAILED;
+        this.error = errorMsg;
+        this.completedAt = LocalDateTime.now();
+    }
+
+    public void addError(String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+    }
+}
@@ -57,4 +57,7 @@ public class ServerInfoResponse {
 
     // Database Info
     private Map<String, Object> databaseInfo;
+
+    // Principal cache (JWT filter) hit/miss
+    private Map<String, Object> principalCache;
 }
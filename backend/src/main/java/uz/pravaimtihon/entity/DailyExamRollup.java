@@ -0,0 +1,69 @@
+package uz.pravaimtihon.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Kunlik imtihon faolligi yig'indisi (started_at sanasi bo'yicha).
+ * ExamRollupService sessiya yaratilganda va tugaganda inkremental yangilaydi.
+ * Paket/bilet/mavzu bo'lmasa — 0 (unique kalit NULL'larni teng deb bilmaydi).
+ */
+@Entity
+@Table(name = "daily_exam_rollup",
+    uniqueConstraints = @UniqueConstraint(name = "uq_rollup_key",
+            columnNames = {"day", "user_id", "mode", "package_id", "ticket_id", "topic_id"}),
+    indexes = {
+        @Index(name = "idx_rollup_day", columnList = "day"),
+        @Index(name = "idx_rollup_user_day", columnList = "user_id, day")
+    })
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class DailyExamRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** PACKAGE, TICKET yoki MARATHON */
+    @Column(name = "mode", nullable = false, length = 10)
+    private String mode;
+
+    @Column(name = "package_id", nullable = false)
+    private Long packageId;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Column(name = "topic_id", nullable = false)
+    private Long topicId;
+
+    @Column(name = "started_count", nullable = false)
+    private Long startedCount;
+
+    @Column(name = "total_questions", nullable = false)
+    private Long totalQuestions;
+
+    @Column(name = "finished_count", nullable = false)
+    private Long finishedCount;
+
+    @Column(name = "passed_count", nullable = false)
+    private Long passedCount;
+
+    /** COMPLETED, lekin o'tmagan */
+    @Column(name = "failed_count", nullable = false)
+    private Long failedCount;
+
+    @Column(name = "correct_count", nullable = false)
+    private Long correctCount;
+
+    /** Foizlar yig'indisi; o'rtacha = sum_percentage / started_count */
+    @Column(name = "sum_percentage", nullable = false)
+    private Double sumPercentage;
+}
@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "exam_answers", indexes = {
         @Index(name = "idx_answer_session", columnList = "exam_session_id"),
-        @Index(name = "idx_answer_question", columnList = "question_id")
+        @Index(name = "idx_answer_question", columnList = "question_id"),
+        @Index(name = "idx_answer_updated", columnList = "updated_at")
 })
 @Getter
 @Setter
@@ -16,7 +16,8 @@ import java.util.Set;
         @Index(name = "idx_package_topic", columnList = "topic_id"),
         @Index(name = "idx_package_deleted_active", columnList = "deleted, is_active"),
         @Index(name = "idx_package_topic_active_deleted", columnList = "topic_id, is_active, deleted"),
-        @Index(name = "idx_package_created_at", columnList = "created_at")
+        @Index(name = "idx_package_created_at", columnList = "created_at"),
+        @Index(name = "idx_package_order_id", columnList = "order_index, id")
 })
 @Getter
 @Setter
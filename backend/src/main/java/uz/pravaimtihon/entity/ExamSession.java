@@ -18,7 +18,10 @@ import java.util.List;
         @Index(name = "idx_session_user", columnList = "user_id"),
         @Index(name = "idx_session_package", columnList = "package_id"),
         @Index(name = "idx_session_status", columnList = "status"),
-        @Index(name = "idx_session_started", columnList = "started_at")
+        @Index(name = "idx_session_started", columnList = "started_at"),
+        @Index(name = "idx_session_user_started", columnList = "user_id, started_at DESC NULLS LAST, id DESC"),
+        @Index(name = "idx_session_status_started", columnList = "status, started_at DESC NULLS LAST, id DESC"),
+        @Index(name = "idx_session_updated", columnList = "updated_at")
 })
 @Getter
 @Setter
@@ -90,6 +93,13 @@ public class ExamSession extends BaseEntity {
     @Column(name = "last_saved_at")
     private LocalDateTime lastSavedAt;
 
+    /**
+     * Ixcham javob varag'i (AnswerSheetCodec). To'ldirilgan bo'lsa, sessiyaning
+     * {@code exam_answers} qatorlari o'chirilgan — javoblarni AnswerSheetService orqali o'qing.
+     */
+    @Column(name = "answer_sheet")
+    private byte[] answerSheet;
+
     // ✅ FIXED: Proper cascade and fetch settings
     @OneToMany(mappedBy = "examSession", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("questionOrder ASC")
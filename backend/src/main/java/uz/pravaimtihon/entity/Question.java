@@ -82,13 +82,13 @@ public class Question extends BaseEntity {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
-    // Statistics
+    // Statistics — faqat QuestionUsageAggregator yangilaydi (UPDATE ... + ?)
     @Builder.Default
-    @Column(name = "times_used")
+    @Column(name = "times_used", updatable = false)
     private Long timesUsed = 0L;
 
     @Builder.Default
-    @Column(name = "times_answered_correctly")
+    @Column(name = "times_answered_correctly", updatable = false)
     private Long timesAnsweredCorrectly = 0L;
 
     // Relationships with proper cascade
@@ -133,7 +133,8 @@ public class Question extends BaseEntity {
     }
 
     /**
-     * Record answer statistics
+     * Record answer statistics (in-memory only — the columns are not updatable
+     * through JPA; persisted counters go through QuestionUsageAggregator)
      */
     public void recordAnswer(boolean correct) {
         this.timesUsed = (this.timesUsed == null ? 0 : this.timesUsed) + 1;
@@ -0,0 +1,37 @@
+package uz.pravaimtihon.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Umumiy (bir nechta instansiya uchun) rate-limit holati — JdbcRateLimiter.
+ * Har (scope, kalit) uchun faqat GCRA TAT'i (mikrosekund, epoch) saqlanadi.
+ */
+@Entity
+@Table(name = "rate_limit_state", indexes = {
+        @Index(name = "idx_rate_limit_tat", columnList = "tat")
+})
+@IdClass(RateLimitState.Key.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class RateLimitState {
+
+    @Id
+    @Column(name = "scope", length = 20)
+    private String scope;
+
+    /** IP yoki JWT subject */
+    @Id
+    @Column(name = "client_key", length = 255)
+    private String clientKey;
+
+    @Column(name = "tat", nullable = false)
+    private Long tat;
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String scope;
+        private String clientKey;
+    }
+}
@@ -19,7 +19,8 @@ import java.util.List;
         @Index(name = "idx_ticket_package", columnList = "package_id"),
         @Index(name = "idx_ticket_topic", columnList = "topic_id"),
         @Index(name = "idx_ticket_active", columnList = "is_active"),
-        @Index(name = "idx_ticket_number", columnList = "ticket_number")
+        @Index(name = "idx_ticket_number", columnList = "ticket_number"),
+        @Index(name = "idx_ticket_number_id", columnList = "ticket_number, id")
 })
 @Getter
 @Setter
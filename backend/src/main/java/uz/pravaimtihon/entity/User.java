@@ -24,7 +24,8 @@ import java.util.List;
         @Index(name = "idx_user_active", columnList = "is_active"),
         @Index(name = "idx_user_google_id", columnList = "google_id"),
         @Index(name = "idx_user_telegram_id", columnList = "telegram_id"),
-        @Index(name = "idx_user_oauth_provider", columnList = "oauth_provider")
+        @Index(name = "idx_user_oauth_provider", columnList = "oauth_provider"),
+        @Index(name = "idx_user_created_id", columnList = "created_at DESC, id DESC")
 })
 @Getter
 @Setter
@@ -0,0 +1,95 @@
+package uz.pravaimtihon.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uz.pravaimtihon.security.SecurityUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sessiya yaratilganda {@code exam_answers} qatorlarini bitta so'rovda yozadi.
+ * <p>
+ * {@code BaseEntity} {@code GenerationType.IDENTITY} ishlatgani uchun Hibernate
+ * bu insert'larni batch qila olmaydi ({@code hibernate.jdbc.batch_size} e'tiborsiz
+ * qoladi) — 100 savollik imtihon = 100 ta round-trip. Bu yerda bitta
+ * multi-values {@code INSERT ... RETURNING id} ishlatiladi: bitta round-trip,
+ * ID'lar esa tartib bo'yicha qaytadi.
+ * <p>
+ * Joriy (JPA) tranzaksiya ulanishida ishlaydi. Yozilgan qatorlar persistence
+ * context'ga kirmaydi — ularni sessiya kolleksiyasiga qo'shmang.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExamAnswerBatchWriter {
+
+    /** Bitta so'rovdagi maksimal qatorlar (PostgreSQL parametr limiti 32767). */
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO exam_answers (exam_session_id, question_id, question_order, " +
+            "correct_option_index, created_at, created_by, updated_at, updated_by, deleted, version) VALUES ";
+
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?, false, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Yoziladigan bitta javob qatori. */
+    public record NewAnswer(Long questionId, int questionOrder, Integer correctOptionIndex) {}
+
+    /**
+     * @return yaratilgan qatorlarning ID'lari — {@code answers} tartibida
+     */
+    public List<Long> insertAll(Long sessionId, List<NewAnswer> answers) {
+        List<Long> ids = new ArrayList<>(answers.size());
+        if (answers.isEmpty()) {
+            return ids;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String createdBy = currentAuditor();
+
+        for (int from = 0; from < answers.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<NewAnswer> chunk = answers.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, answers.size()));
+            ids.addAll(insertChunk(sessionId, chunk, now, createdBy));
+        }
+        return ids;
+    }
+
+    private List<Long> insertChunk(Long sessionId, List<NewAnswer> chunk, Timestamp now, String createdBy) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + chunk.size() * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_PLACEHOLDER);
+        }
+        // VALUES tartibi saqlanadi — RETURNING ham shu tartibda qaytaradi
+        sql.append(" RETURNING id");
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            int p = 1;
+            for (NewAnswer answer : chunk) {
+                ps.setLong(p++, sessionId);
+                ps.setLong(p++, answer.questionId());
+                ps.setInt(p++, answer.questionOrder());
+                ps.setObject(p++, answer.correctOptionIndex());
+                ps.setTimestamp(p++, now);
+                ps.setString(p++, createdBy);
+                ps.setTimestamp(p++, now);
+                ps.setString(p++, createdBy);
+            }
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /** AuditConfig'dagi auditorProvider bilan bir xil qiymat. */
+    private static String currentAuditor() {
+        var user = SecurityUtils.getCurrentUser();
+        return user != null ? user.getUsername() : "system";
+    }
+}
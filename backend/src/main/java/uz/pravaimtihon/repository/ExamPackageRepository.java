@@ -22,6 +22,20 @@ public interface ExamPackageRepository extends JpaRepository<ExamPackage, Long>
 
     Page<ExamPackage> findByDeletedFalse(Pageable pageable);
 
+    /** Keyset sahifalash (admin): (order_index, id) ASC, {@code PageRequest.of(0, size + 1)} — faqat LIMIT. */
+    @Query("SELECT p FROM ExamPackage p WHERE p.deleted = false " +
+            "ORDER BY p.orderIndex ASC, p.id ASC")
+    List<ExamPackage> findNotDeletedFirst(Pageable limit);
+
+    @Query("SELECT p FROM ExamPackage p WHERE p.deleted = false " +
+            "AND (p.orderIndex > :orderIndex OR (p.orderIndex = :orderIndex AND p.id > :id)) " +
+            "ORDER BY p.orderIndex ASC, p.id ASC")
+    List<ExamPackage> findNotDeletedAfter(@Param("orderIndex") Integer orderIndex,
+                                          @Param("id") Long id,
+                                          Pageable limit);
+
+    long countByDeletedFalse();
+
     Page<ExamPackage> findByTopicAndDeletedFalseAndIsActiveTrue(Topic topic, Pageable pageable);
 
     Page<ExamPackage> findByIsFreeAndDeletedFalseAndIsActiveTrue(Boolean isFree, Pageable pageable);
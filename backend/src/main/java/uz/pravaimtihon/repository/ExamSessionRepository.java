@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import uz.pravaimtihon.entity.ExamSession;
 import uz.pravaimtihon.enums.ExamStatus;
+import uz.pravaimtihon.util.KeysetCursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -38,6 +39,68 @@ public interface ExamSessionRepository extends JpaRepository<ExamSession, Long>
 
     Page<ExamSession> findByUserIdOrderByStartedAtDesc(Long userId, Pageable pageable);
 
+    // ============================================
+    // Keyset sahifalash — (started_at DESC NULLS LAST, id DESC), OFFSET va COUNT'siz.
+    // Pageable faqat LIMIT uchun: PageRequest.of(0, size + 1).
+    // idx_session_user_started / idx_session_status_started bilan (V11).
+    // started_at NULL qatorlar oxirida keladi; ular ichida kursor faqat id bo'yicha davom etadi.
+    // ============================================
+
+    @Query("SELECT es FROM ExamSession es WHERE es.user.id = :userId " +
+            "ORDER BY es.startedAt DESC NULLS LAST, es.id DESC")
+    List<ExamSession> findHistoryFirst(@Param("userId") Long userId, Pageable limit);
+
+    @Query("SELECT es FROM ExamSession es WHERE es.user.id = :userId " +
+            "AND (es.startedAt < :startedAt OR (es.startedAt = :startedAt AND es.id < :id) OR es.startedAt IS NULL) " +
+            "ORDER BY es.startedAt DESC NULLS LAST, es.id DESC")
+    List<ExamSession> findHistoryAfter(@Param("userId") Long userId,
+                                       @Param("startedAt") LocalDateTime startedAt,
+                                       @Param("id") Long id,
+                                       Pageable limit);
+
+    @Query("SELECT es FROM ExamSession es WHERE es.user.id = :userId " +
+            "AND es.startedAt IS NULL AND es.id < :id " +
+            "ORDER BY es.id DESC")
+    List<ExamSession> findHistoryAfterUnstarted(@Param("userId") Long userId,
+                                                @Param("id") Long id,
+                                                Pageable limit);
+
+    /** Kursor kaliti NULL bo'lsa (oxirgi qator boshlanmagan sessiya) — faqat NULL qatorlar ichida davom etadi. */
+    default List<ExamSession> findHistoryAfter(Long userId, KeysetCursor after, Pageable limit) {
+        LocalDateTime startedAt = after.nullableTimeKey();
+        return startedAt != null
+                ? findHistoryAfter(userId, startedAt, after.id(), limit)
+                : findHistoryAfterUnstarted(userId, after.id(), limit);
+    }
+
+    @Query("SELECT es FROM ExamSession es WHERE es.status = :status " +
+            "ORDER BY es.startedAt DESC NULLS LAST, es.id DESC")
+    List<ExamSession> findByStatusFirst(@Param("status") ExamStatus status, Pageable limit);
+
+    @Query("SELECT es FROM ExamSession es WHERE es.status = :status " +
+            "AND (es.startedAt < :startedAt OR (es.startedAt = :startedAt AND es.id < :id) OR es.startedAt IS NULL) " +
+            "ORDER BY es.startedAt DESC NULLS LAST, es.id DESC")
+    List<ExamSession> findByStatusAfter(@Param("status") ExamStatus status,
+                                        @Param("startedAt") LocalDateTime startedAt,
+                                        @Param("id") Long id,
+                                        Pageable limit);
+
+    @Query("SELECT es FROM ExamSession es WHERE es.status = :status " +
+            "AND es.startedAt IS NULL AND es.id < :id " +
+            "ORDER BY es.id DESC")
+    List<ExamSession> findByStatusAfterUnstarted(@Param("status") ExamStatus status,
+                                                 @Param("id") Long id,
+                                                 Pageable limit);
+
+    default List<ExamSession> findByStatusAfter(ExamStatus status, KeysetCursor after, Pageable limit) {
+        LocalDateTime startedAt = after.nullableTimeKey();
+        return startedAt != null
+                ? findByStatusAfter(status, startedAt, after.id(), limit)
+                : findByStatusAfterUnstarted(status, after.id(), limit);
+    }
+
+    long countByUserId(Long userId);
+
     Page<ExamSession> findByUserIdAndStatusOrderByStartedAtDesc(
             Long userId, ExamStatus status, Pageable pageable);
 
@@ -213,24 +276,24 @@ public interface ExamSessionRepository extends JpaRepository<ExamSession, Long>
     // ============================================
 
     /**
-     * Eng ko'p ishlatiladigan paketlar.
+     * Eng ko'p ishlatiladigan paketlar. {@code List} qaytadi — Pageable faqat LIMIT beradi, COUNT so'rovi yo'q.
      */
     @Query("SELECT es.examPackage.id, COUNT(es) as cnt " +
             "FROM ExamSession es " +
             "WHERE es.examPackage IS NOT NULL " +
             "GROUP BY es.examPackage.id " +
             "ORDER BY cnt DESC")
-    Page<Object[]> findMostUsedPackages(Pageable pageable);
+    List<Object[]> findMostUsedPackages(Pageable pageable);
 
     /**
-     * Eng ko'p ishlatiladigan biletlar.
+     * Eng ko'p ishlatiladigan biletlar. {@code List} qaytadi — COUNT so'rovi yo'q.
      */
     @Query("SELECT es.ticket.id, COUNT(es) as cnt " +
             "FROM ExamSession es " +
             "WHERE es.ticket IS NOT NULL " +
             "GROUP BY es.ticket.id " +
             "ORDER BY cnt DESC")
-    Page<Object[]> findMostUsedTickets(Pageable pageable);
+    List<Object[]> findMostUsedTickets(Pageable pageable);
 
     /**
      * Bugungi faol foydalanuvchilar soni.
@@ -249,4 +312,25 @@ public interface ExamSessionRepository extends JpaRepository<ExamSession, Long>
      */
     @Query("SELECT COUNT(es) FROM ExamSession es WHERE es.examPackage IS NULL AND es.ticket IS NULL")
     long countMarathonSessions();
-}
\ No newline at end of file
+
+    /**
+     * Ixchamlanmagan tugagan sessiyalar (AnswerSheetService uchun).
+     */
+    @Query("SELECT es.id FROM ExamSession es " +
+            "WHERE es.answerSheet IS NULL " +
+            "AND es.status IN ('COMPLETED', 'EXPIRED', 'ABANDONED') " +
+            "AND es.finishedAt < :before " +
+            "ORDER BY es.id")
+    List<Long> findIdsToCompact(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Statistika batafsil ro'yxati uchun: paket/bilet va ularning mavzulari bilan.
+     */
+    @Query("SELECT es FROM ExamSession es " +
+            "LEFT JOIN FETCH es.examPackage ep " +
+            "LEFT JOIN FETCH ep.topic " +
+            "LEFT JOIN FETCH es.ticket t " +
+            "LEFT JOIN FETCH t.topic " +
+            "WHERE es.id IN :ids")
+    List<ExamSession> findAllWithRelationsByIdIn(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,458 @@
+package uz.pravaimtihon.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uz.pravaimtihon.dto.request.StatisticsFilterRequest;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ComprehensiveStatisticsService uchun SQL tomonidagi agregatsiya.
+ * <p>
+ * Avval barcha {@code ExamSession} lar heap'ga yuklanib, Java stream'larda
+ * filter/guruhlash qilinardi. Endi filter {@code WHERE} ga, agregatlar esa
+ * {@code COUNT(*) FILTER (...)} / {@code GROUP BY} ga o'tkazilgan —
+ * bazadan faqat tayyor natija qatorlari qaytadi.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExamSessionStatisticsRepository {
+
+    private static final String FROM =
+            " FROM exam_sessions s" +
+            " LEFT JOIN exam_packages p ON p.id = s.package_id" +
+            " LEFT JOIN tickets t ON t.id = s.ticket_id";
+
+    private static final String PASSED = "s.is_passed = true";
+    private static final String COMPLETED = "s.status = 'COMPLETED'";
+    private static final String MARATHON = "s.package_id IS NULL AND s.ticket_id IS NULL";
+    /** Sessiya mavzusi: avval paket, keyin bilet — ExamRollupService.upsert / REBUILD bilan bir xil qoida. */
+    private static final String TOPIC = "COALESCE(p.topic_id, t.topic_id)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /** Filter'dan qurilgan WHERE sharti va parametrlari. */
+    public record Filter(String where, MapSqlParameterSource params) {}
+
+    public record Summary(long total, long completed, long inProgress, long abandoned, long expired,
+                          long passed, long totalQuestions, long correct, long wrong,
+                          Double averageScore, Double bestScore, Double worstScore, Double medianScore,
+                          long totalTimeSeconds,
+                          long marathonTotal, long marathonPassed, long marathonCompleted,
+                          Double marathonAverageScore, long marathonQuestions, long marathonCorrect) {}
+
+    public record Streaks(int current, int longest) {}
+
+    public record TimeWindows(long today, long yesterday, long thisWeek, long lastWeek,
+                              long thisMonth, long lastMonth,
+                              Double averageToday, Double averageThisWeek, Double averageThisMonth) {}
+
+    /** Bitta guruh (bilet / paket / mavzu) bo'yicha agregatlar. */
+    public record Group(Long id, long total, long passed, long completed,
+                        Double averageScore, Double bestScore,
+                        long totalQuestions, long correct, LocalDateTime lastStartedAt) {}
+
+    public record Day(LocalDate date, long total, long passed, long failed,
+                      Double averageScore, long totalQuestions, long correct) {}
+
+    /** Admin dashboard hisoblagichlari — bitta so'rovda. */
+    public record Dashboard(long totalUsers, long totalQuestions, long totalPackages, long totalTickets,
+                            long totalExams, long completed, long inProgress, long passed,
+                            Double averageScore, long today, long thisWeek, long thisMonth,
+                            long activeUsersToday, long ticketExams, long marathonExams) {}
+
+    public Filter filterOf(StatisticsFilterRequest request) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (request.getUserId() != null) {
+            where.append(" AND s.user_id = :userId");
+            params.addValue("userId", request.getUserId());
+        }
+        if (request.getPackageId() != null) {
+            where.append(" AND s.package_id = :packageId");
+            params.addValue("packageId", request.getPackageId());
+        }
+        if (request.getTicketId() != null) {
+            where.append(" AND s.ticket_id = :ticketId");
+            params.addValue("ticketId", request.getTicketId());
+        }
+        if (request.getTopicId() != null) {
+            where.append(" AND ").append(TOPIC).append(" = :topicId");
+            params.addValue("topicId", request.getTopicId());
+        }
+        switch (request.getMode()) {
+            case MARATHON -> where.append(" AND ").append(MARATHON);
+            case TICKET -> where.append(" AND s.ticket_id IS NOT NULL");
+            case PACKAGE -> where.append(" AND s.package_id IS NOT NULL AND s.ticket_id IS NULL");
+            default -> { }
+        }
+        // started_at NULL bo'lgan sessiyalar sana filtridan o'tadi (avvalgi xatti-harakat)
+        if (request.getFromDate() != null) {
+            where.append(" AND (s.started_at IS NULL OR s.started_at >= :fromDate)");
+            params.addValue("fromDate", Timestamp.valueOf(request.getFromDate()));
+        }
+        if (request.getToDate() != null) {
+            where.append(" AND (s.started_at IS NULL OR s.started_at <= :toDate)");
+            params.addValue("toDate", Timestamp.valueOf(request.getToDate()));
+        }
+        if (request.getCompletedOnly()) {
+            where.append(" AND ").append(COMPLETED);
+        }
+        if (request.getPassedOnly()) {
+            where.append(" AND ").append(PASSED);
+        }
+        return new Filter(where.toString(), params);
+    }
+
+    public Summary summary(Filter filter) {
+        String sql = "SELECT" +
+                " COUNT(*) AS total," +
+                " COUNT(*) FILTER (WHERE " + COMPLETED + ") AS completed," +
+                " COUNT(*) FILTER (WHERE s.status = 'IN_PROGRESS') AS in_progress," +
+                " COUNT(*) FILTER (WHERE s.status = 'ABANDONED') AS abandoned," +
+                " COUNT(*) FILTER (WHERE s.status = 'EXPIRED') AS expired," +
+                " COUNT(*) FILTER (WHERE " + PASSED + ") AS passed," +
+                " COALESCE(SUM(s.total_questions), 0) AS total_questions," +
+                " COALESCE(SUM(s.correct_count), 0) AS correct," +
+                " COALESCE(SUM(s.wrong_count), 0) AS wrong," +
+                " AVG(s.percentage) AS avg_score," +
+                " MAX(s.percentage) AS best_score," +
+                " MIN(s.percentage) AS worst_score," +
+                // DESC — juft sonda yuqori o'rta qiymat, avvalgi sorted.get(n / 2) bilan bir xil
+                " PERCENTILE_DISC(0.5) WITHIN GROUP (ORDER BY s.percentage DESC) AS median_score," +
+                " COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (s.finished_at - s.started_at)))), 0) AS total_time," +
+                " COUNT(*) FILTER (WHERE " + MARATHON + ") AS m_total," +
+                " COUNT(*) FILTER (WHERE " + MARATHON + " AND " + PASSED + ") AS m_passed," +
+                " COUNT(*) FILTER (WHERE " + MARATHON + " AND " + COMPLETED + ") AS m_completed," +
+                " AVG(s.percentage) FILTER (WHERE " + MARATHON + ") AS m_avg_score," +
+                " COALESCE(SUM(s.total_questions) FILTER (WHERE " + MARATHON + "), 0) AS m_questions," +
+                " COALESCE(SUM(s.correct_count) FILTER (WHERE " + MARATHON + "), 0) AS m_correct" +
+                FROM + filter.where();
+
+        return jdbc.queryForObject(sql, filter.params(), (rs, rowNum) -> new Summary(
+                rs.getLong("total"),
+                rs.getLong("completed"),
+                rs.getLong("in_progress"),
+                rs.getLong("abandoned"),
+                rs.getLong("expired"),
+                rs.getLong("passed"),
+                rs.getLong("total_questions"),
+                rs.getLong("correct"),
+                rs.getLong("wrong"),
+                getDouble(rs, "avg_score"),
+                getDouble(rs, "best_score"),
+                getDouble(rs, "worst_score"),
+                getDouble(rs, "median_score"),
+                rs.getLong("total_time"),
+                rs.getLong("m_total"),
+                rs.getLong("m_passed"),
+                rs.getLong("m_completed"),
+                getDouble(rs, "m_avg_score"),
+                rs.getLong("m_questions"),
+                rs.getLong("m_correct")));
+    }
+
+    /**
+     * Tugatilgan sessiyalar (eng yangisidan) bo'yicha ketma-ket o'tishlar:
+     * joriy — oxirgi muvaffaqiyatsizlikkacha, eng uzun — "gaps and islands".
+     */
+    public Streaks streaks(Filter filter) {
+        String sql = "WITH c AS (" +
+                " SELECT (s.is_passed IS TRUE) AS ok," +
+                " ROW_NUMBER() OVER (ORDER BY s.finished_at DESC NULLS LAST, s.id DESC) AS rn" +
+                FROM + filter.where() + " AND " + COMPLETED +
+                "), g AS (" +
+                " SELECT ok, rn - ROW_NUMBER() OVER (PARTITION BY ok ORDER BY rn) AS grp FROM c" +
+                ")" +
+                " SELECT" +
+                " (SELECT COUNT(*) FROM c WHERE rn < COALESCE((SELECT MIN(rn) FROM c WHERE NOT ok)," +
+                "   (SELECT COUNT(*) + 1 FROM c))) AS current_streak," +
+                " (SELECT COALESCE(MAX(cnt), 0) FROM (SELECT COUNT(*) AS cnt FROM g WHERE ok GROUP BY grp) x)" +
+                " AS longest_streak";
+
+        return jdbc.queryForObject(sql, filter.params(), (rs, rowNum) ->
+                new Streaks(rs.getInt("current_streak"), rs.getInt("longest_streak")));
+    }
+
+    public TimeWindows timeWindows(Filter filter, LocalDateTime todayStart) {
+        MapSqlParameterSource params = new MapSqlParameterSource(filter.params().getValues())
+                .addValue("todayStart", Timestamp.valueOf(todayStart))
+                .addValue("yesterdayStart", Timestamp.valueOf(todayStart.minusDays(1)))
+                .addValue("weekStart", Timestamp.valueOf(todayStart.minusDays(7)))
+                .addValue("lastWeekStart", Timestamp.valueOf(todayStart.minusDays(14)))
+                .addValue("monthStart", Timestamp.valueOf(todayStart.minusDays(30)))
+                .addValue("lastMonthStart", Timestamp.valueOf(todayStart.minusDays(60)));
+
+        String sql = "SELECT" +
+                " COUNT(*) FILTER (WHERE s.started_at > :todayStart) AS today," +
+                " COUNT(*) FILTER (WHERE s.started_at > :yesterdayStart AND s.started_at < :todayStart) AS yesterday," +
+                " COUNT(*) FILTER (WHERE s.started_at > :weekStart) AS this_week," +
+                " COUNT(*) FILTER (WHERE s.started_at > :lastWeekStart AND s.started_at < :weekStart) AS last_week," +
+                " COUNT(*) FILTER (WHERE s.started_at > :monthStart) AS this_month," +
+                " COUNT(*) FILTER (WHERE s.started_at > :lastMonthStart AND s.started_at < :monthStart) AS last_month," +
+                " AVG(s.percentage) FILTER (WHERE s.started_at > :todayStart) AS avg_today," +
+                " AVG(s.percentage) FILTER (WHERE s.started_at > :weekStart) AS avg_week," +
+                " AVG(s.percentage) FILTER (WHERE s.started_at > :monthStart) AS avg_month" +
+                FROM + filter.where();
+
+        return jdbc.queryForObject(sql, params, (rs, rowNum) -> new TimeWindows(
+                rs.getLong("today"),
+                rs.getLong("yesterday"),
+                rs.getLong("this_week"),
+                rs.getLong("last_week"),
+                rs.getLong("this_month"),
+                rs.getLong("last_month"),
+                getDouble(rs, "avg_today"),
+                getDouble(rs, "avg_week"),
+                getDouble(rs, "avg_month")));
+    }
+
+    /**
+     * Batafsil ro'yxat uchun bitta sahifa sessiya ID'lari ({@code started_at DESC}).
+     */
+    public List<Long> findPageIds(Filter filter, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource(filter.params().getValues())
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+        return jdbc.queryForList("SELECT s.id" + FROM + filter.where() +
+                " ORDER BY s.started_at DESC, s.id DESC LIMIT :limit OFFSET :offset", params, Long.class);
+    }
+
+    public List<Group> groupByTicket(Filter filter) {
+        return groupBy(filter, "s.ticket_id", "s.ticket_id IS NOT NULL");
+    }
+
+    public List<Group> groupByPackage(Filter filter) {
+        return groupBy(filter, "s.package_id", "s.package_id IS NOT NULL AND s.ticket_id IS NULL");
+    }
+
+    /** Mavzu — paket mavzusi, bo'lmasa bilet mavzusi. */
+    public List<Group> groupByTopic(Filter filter) {
+        return groupBy(filter, TOPIC, TOPIC + " IS NOT NULL");
+    }
+
+    public List<Day> dailyTrend(Filter filter, LocalDateTime from) {
+        MapSqlParameterSource params = new MapSqlParameterSource(filter.params().getValues())
+                .addValue("trendFrom", Timestamp.valueOf(from));
+
+        String sql = "SELECT CAST(s.started_at AS date) AS day," +
+                " COUNT(*) AS total," +
+                " COUNT(*) FILTER (WHERE " + PASSED + ") AS passed," +
+                " COUNT(*) FILTER (WHERE " + COMPLETED + " AND s.is_passed IS NOT TRUE) AS failed," +
+                " AVG(s.percentage) AS avg_score," +
+                " COALESCE(SUM(s.total_questions), 0) AS total_questions," +
+                " COALESCE(SUM(s.correct_count), 0) AS correct" +
+                FROM + filter.where() + " AND s.started_at >= :trendFrom" +
+                " GROUP BY CAST(s.started_at AS date)";
+
+        return jdbc.query(sql, params, (rs, rowNum) -> new Day(
+                rs.getDate("day").toLocalDate(),
+                rs.getLong("total"),
+                rs.getLong("passed"),
+                rs.getLong("failed"),
+                getDouble(rs, "avg_score"),
+                rs.getLong("total_questions"),
+                rs.getLong("correct")));
+    }
+
+    // ============================================
+    // daily_exam_rollup (ExamRollupService)
+    // ============================================
+
+    /**
+     * Rollup bilan javob berib bo'ladigan filter'mi: rollup kun bo'yicha va
+     * faqat barcha sessiyalarni saqlaydi — completedOnly/passedOnly, toDate va
+     * kun boshiga tushmaydigan fromDate uchun xom jadval ishlatiladi.
+     */
+    public boolean isRollupCompatible(StatisticsFilterRequest request) {
+        return !request.getCompletedOnly()
+                && !request.getPassedOnly()
+                && request.getToDate() == null
+                && (request.getFromDate() == null
+                    || request.getFromDate().toLocalTime().equals(LocalTime.MIDNIGHT));
+    }
+
+    public Filter rollupFilterOf(StatisticsFilterRequest request) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (request.getUserId() != null) {
+            where.append(" AND r.user_id = :userId");
+            params.addValue("userId", request.getUserId());
+        }
+        if (request.getPackageId() != null) {
+            where.append(" AND r.package_id = :packageId");
+            params.addValue("packageId", request.getPackageId());
+        }
+        if (request.getTicketId() != null) {
+            where.append(" AND r.ticket_id = :ticketId");
+            params.addValue("ticketId", request.getTicketId());
+        }
+        if (request.getTopicId() != null) {
+            where.append(" AND r.topic_id = :topicId");
+            params.addValue("topicId", request.getTopicId());
+        }
+        if (request.getMode() != StatisticsFilterRequest.ExamMode.ALL) {
+            where.append(" AND r.mode = :mode");
+            params.addValue("mode", request.getMode().name());
+        }
+        if (request.getFromDate() != null) {
+            where.append(" AND r.day >= :fromDay");
+            params.addValue("fromDay", Date.valueOf(request.getFromDate().toLocalDate()));
+        }
+        return new Filter(where.toString(), params);
+    }
+
+    public TimeWindows rollupTimeWindows(Filter filter, LocalDate today) {
+        MapSqlParameterSource params = new MapSqlParameterSource(filter.params().getValues())
+                .addValue("today", Date.valueOf(today))
+                .addValue("yesterday", Date.valueOf(today.minusDays(1)))
+                .addValue("weekStart", Date.valueOf(today.minusDays(7)))
+                .addValue("lastWeekStart", Date.valueOf(today.minusDays(14)))
+                .addValue("monthStart", Date.valueOf(today.minusDays(30)))
+                .addValue("lastMonthStart", Date.valueOf(today.minusDays(60)));
+
+        String sql = "SELECT" +
+                " COALESCE(SUM(r.started_count) FILTER (WHERE r.day = :today), 0) AS today," +
+                " COALESCE(SUM(r.started_count) FILTER (WHERE r.day = :yesterday), 0) AS yesterday," +
+                " COALESCE(SUM(r.started_count) FILTER (WHERE r.day >= :weekStart), 0) AS this_week," +
+                " COALESCE(SUM(r.started_count) FILTER (WHERE r.day >= :lastWeekStart AND r.day < :weekStart), 0) AS last_week," +
+                " COALESCE(SUM(r.started_count) FILTER (WHERE r.day >= :monthStart), 0) AS this_month," +
+                " COALESCE(SUM(r.started_count) FILTER (WHERE r.day >= :lastMonthStart AND r.day < :monthStart), 0) AS last_month," +
+                " SUM(r.sum_percentage) FILTER (WHERE r.day = :today)" +
+                "   / NULLIF(SUM(r.started_count) FILTER (WHERE r.day = :today), 0) AS avg_today," +
+                " SUM(r.sum_percentage) FILTER (WHERE r.day >= :weekStart)" +
+                "   / NULLIF(SUM(r.started_count) FILTER (WHERE r.day >= :weekStart), 0) AS avg_week," +
+                " SUM(r.sum_percentage) FILTER (WHERE r.day >= :monthStart)" +
+                "   / NULLIF(SUM(r.started_count) FILTER (WHERE r.day >= :monthStart), 0) AS avg_month" +
+                " FROM daily_exam_rollup r" + filter.where() + " AND r.day >= :lastMonthStart";
+
+        return jdbc.queryForObject(sql, params, (rs, rowNum) -> new TimeWindows(
+                rs.getLong("today"),
+                rs.getLong("yesterday"),
+                rs.getLong("this_week"),
+                rs.getLong("last_week"),
+                rs.getLong("this_month"),
+                rs.getLong("last_month"),
+                getDouble(rs, "avg_today"),
+                getDouble(rs, "avg_week"),
+                getDouble(rs, "avg_month")));
+    }
+
+    public List<Day> rollupDailyTrend(Filter filter, LocalDate from) {
+        MapSqlParameterSource params = new MapSqlParameterSource(filter.params().getValues())
+                .addValue("trendFrom", Date.valueOf(from));
+
+        String sql = "SELECT r.day," +
+                " SUM(r.started_count) AS total," +
+                " SUM(r.passed_count) AS passed," +
+                " SUM(r.failed_count) AS failed," +
+                " SUM(r.sum_percentage) / NULLIF(SUM(r.started_count), 0) AS avg_score," +
+                " SUM(r.total_questions) AS total_questions," +
+                " SUM(r.correct_count) AS correct" +
+                " FROM daily_exam_rollup r" + filter.where() + " AND r.day >= :trendFrom" +
+                " GROUP BY r.day";
+
+        return jdbc.query(sql, params, (rs, rowNum) -> new Day(
+                rs.getDate("day").toLocalDate(),
+                rs.getLong("total"),
+                rs.getLong("passed"),
+                rs.getLong("failed"),
+                getDouble(rs, "avg_score"),
+                rs.getLong("total_questions"),
+                rs.getLong("correct")));
+    }
+
+    private List<Group> groupBy(Filter filter, String key, String condition) {
+        String sql = "SELECT " + key + " AS group_id," +
+                " COUNT(*) AS total," +
+                " COUNT(*) FILTER (WHERE " + PASSED + ") AS passed," +
+                " COUNT(*) FILTER (WHERE " + COMPLETED + ") AS completed," +
+                " AVG(s.percentage) AS avg_score," +
+                " MAX(s.percentage) AS best_score," +
+                " COALESCE(SUM(s.total_questions), 0) AS total_questions," +
+                " COALESCE(SUM(s.correct_count), 0) AS correct," +
+                " MAX(s.started_at) AS last_started_at" +
+                FROM + filter.where() + " AND " + condition +
+                " GROUP BY " + key +
+                " ORDER BY total DESC";
+
+        List<Group> groups = new ArrayList<>();
+        jdbc.query(sql, filter.params(), rs -> {
+            Timestamp last = rs.getTimestamp("last_started_at");
+            groups.add(new Group(
+                    rs.getLong("group_id"),
+                    rs.getLong("total"),
+                    rs.getLong("passed"),
+                    rs.getLong("completed"),
+                    getDouble(rs, "avg_score"),
+                    getDouble(rs, "best_score"),
+                    rs.getLong("total_questions"),
+                    rs.getLong("correct"),
+                    last != null ? last.toLocalDateTime() : null));
+        });
+        return groups;
+    }
+
+    /**
+     * Dashboard uchun barcha sessiya hisoblagichlari {@code exam_sessions} ustidan bitta
+     * o'tishda, katalog sonlari esa skalyar subquery'lar bilan — jami bitta round-trip.
+     */
+    public Dashboard dashboard(LocalDateTime todayStart, LocalDateTime weekStart, LocalDateTime monthStart) {
+        String sql = "SELECT" +
+                " (SELECT COUNT(*) FROM users WHERE deleted = false AND is_active = true) AS users," +
+                " (SELECT COUNT(*) FROM questions WHERE deleted = false) AS questions," +
+                " (SELECT COUNT(*) FROM exam_packages WHERE deleted = false AND is_active = true) AS packages," +
+                " (SELECT COUNT(*) FROM tickets WHERE deleted = false AND is_active = true) AS tickets," +
+                " COUNT(*) AS total," +
+                " COUNT(*) FILTER (WHERE " + COMPLETED + ") AS completed," +
+                " COUNT(*) FILTER (WHERE s.status = 'IN_PROGRESS') AS in_progress," +
+                " COUNT(*) FILTER (WHERE " + COMPLETED + " AND " + PASSED + ") AS passed," +
+                " AVG(s.percentage) FILTER (WHERE " + COMPLETED + ") AS avg_score," +
+                " COUNT(*) FILTER (WHERE s.started_at > :today) AS today," +
+                " COUNT(*) FILTER (WHERE s.started_at > :week) AS week," +
+                " COUNT(*) FILTER (WHERE s.started_at > :month) AS month," +
+                " COUNT(DISTINCT s.user_id) FILTER (WHERE s.started_at > :today) AS users_today," +
+                " COUNT(*) FILTER (WHERE s.ticket_id IS NOT NULL) AS tickets_total," +
+                " COUNT(*) FILTER (WHERE " + MARATHON + ") AS marathon_total" +
+                " FROM exam_sessions s";
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("today", Timestamp.valueOf(todayStart))
+                .addValue("week", Timestamp.valueOf(weekStart))
+                .addValue("month", Timestamp.valueOf(monthStart));
+
+        return jdbc.queryForObject(sql, params, (rs, rowNum) -> new Dashboard(
+                rs.getLong("users"),
+                rs.getLong("questions"),
+                rs.getLong("packages"),
+                rs.getLong("tickets"),
+                rs.getLong("total"),
+                rs.getLong("completed"),
+                rs.getLong("in_progress"),
+                rs.getLong("passed"),
+                getDouble(rs, "avg_score"),
+                rs.getLong("today"),
+                rs.getLong("week"),
+                rs.getLong("month"),
+                rs.getLong("users_today"),
+                rs.getLong("tickets_total"),
+                rs.getLong("marathon_total")));
+    }
+
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
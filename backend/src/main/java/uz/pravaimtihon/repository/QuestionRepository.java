@@ -11,6 +11,7 @@ import uz.pravaimtihon.entity.Topic;
 import uz.pravaimtihon.enums.QuestionDifficulty;
 
 import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -154,7 +155,12 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     /**
      * Tasodifiy N ta faol savol ID'sini qaytaradi (DB tomonda LIMIT bilan).
      * Kolleksiya fetch yo'q — sahifalash SQL darajasida ishlaydi.
+     *
+     * @deprecated {@code ORDER BY RANDOM()} har chaqiruvda jadvalni to'liq
+     *             skan qilib saralaydi. O'rniga
+     *             {@code QuestionBankSnapshot.current().sampleIds(null, n)}.
      */
+    @Deprecated
     @Query("SELECT q.id FROM Question q " +
             "WHERE q.deleted = false AND q.isActive = true " +
             "ORDER BY FUNCTION('RANDOM')")
@@ -162,7 +168,10 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
 
     /**
      * Mavzu bo'yicha tasodifiy N ta faol savol ID'si (DB tomonda LIMIT bilan).
+     *
+     * @deprecated O'rniga {@code QuestionBankSnapshot.current().sampleIds(topicId, n)}.
      */
+    @Deprecated
     @Query("SELECT q.id FROM Question q " +
             "WHERE q.deleted = false AND q.isActive = true AND q.topic = :topic " +
             "ORDER BY FUNCTION('RANDOM')")
@@ -200,4 +209,31 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByIdsWithOptions(@Param("ids") List<Long> ids);
 
     @Query("SELECT q FROM Question q LEFT JOIN FETCH q.options WHERE q.id = :id AND q.deleted = false")
-    Optional<Question> findByIdWithOptions(@Param("id") Long id);}
\ No newline at end of file
+    Optional<Question> findByIdWithOptions(@Param("id") Long id);
+
+    /**
+     * Barcha faol savollar variantlari bilan — bitta so'rovda.
+     * Faqat {@code QuestionBankSnapshot} qayta qurilishi uchun.
+     */
+    @Query("SELECT DISTINCT q FROM Question q " +
+            "LEFT JOIN FETCH q.options " +
+            "WHERE q.deleted = false AND q.isActive = true")
+    List<Question> findAllActiveWithOptions();
+
+    /**
+     * ID'lar bo'yicha savollar variantlari bilan — nofaollari HAM qaytariladi.
+     * {@code QuestionBankSnapshot} qisman yangilanishi uchun.
+     */
+    @Query("SELECT DISTINCT q FROM Question q " +
+            "LEFT JOIN FETCH q.options " +
+            "WHERE q.id IN :ids")
+    List<Question> findAllByIdInWithOptions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * ID'lar bo'yicha savollar — soft-delete qilinganlari HAM (native so'rov
+     * {@code @SQLRestriction} ni chetlab o'tadi). Ixchamlangan sessiya tarixi
+     * o'chirilgan savol javoblarini yo'qotmasligi uchun.
+     */
+    @Query(value = "SELECT * FROM questions WHERE id IN (:ids)", nativeQuery = true)
+    List<Question> findAllByIdInIncludingDeleted(@Param("ids") Collection<Long> ids);
+}
\ No newline at end of file
@@ -18,6 +18,18 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
     Page<Ticket> findByDeletedFalseAndIsActiveTrue(Pageable pageable);
 
+    /** Keyset sahifalash: (ticket_number, id) ASC, {@code PageRequest.of(0, size + 1)} — faqat LIMIT. */
+    @Query("SELECT t FROM Ticket t WHERE t.deleted = false AND t.isActive = true " +
+            "ORDER BY t.ticketNumber ASC, t.id ASC")
+    List<Ticket> findActiveFirst(Pageable limit);
+
+    @Query("SELECT t FROM Ticket t WHERE t.deleted = false AND t.isActive = true " +
+            "AND (t.ticketNumber > :ticketNumber OR (t.ticketNumber = :ticketNumber AND t.id > :id)) " +
+            "ORDER BY t.ticketNumber ASC, t.id ASC")
+    List<Ticket> findActiveAfter(@Param("ticketNumber") Integer ticketNumber,
+                                 @Param("id") Long id,
+                                 Pageable limit);
+
     Page<Ticket> findByTopicIdAndDeletedFalseAndIsActiveTrue(Long topicId, Pageable pageable);
 
     Page<Ticket> findByExamPackageIdAndDeletedFalseAndIsActiveTrue(Long packageId, Pageable pageable);
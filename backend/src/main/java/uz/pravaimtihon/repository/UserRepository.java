@@ -58,9 +58,9 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      * Global device limit o'rnatish (faqat customized=false bo'lganlar uchun).
      */
     @Modifying
-    @Query("UPDATE User u SET u.maxDevices = :maxDevices " +
+    @Query("UPDATE User u SET u.maxDevices = :maxDevices, u.updatedAt = :now " +
             "WHERE u.deleted = false AND (u.deviceLimitCustomized = false OR u.deviceLimitCustomized IS NULL)")
-    int updateGlobalDeviceLimit(@Param("maxDevices") Integer maxDevices);
+    int updateGlobalDeviceLimit(@Param("maxDevices") Integer maxDevices, @Param("now") LocalDateTime now);
 
     /**
      * Customized bo'lmagan userlar sonini olish.
@@ -0,0 +1,47 @@
+package uz.pravaimtihon.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uz.pravaimtihon.config.ExamProperties;
+import uz.pravaimtihon.service.AnswerSheetService;
+
+/**
+ * Tugagan sessiyalar javoblarini ixcham formatga ko'chiradigan fon job.
+ * Tarixiy sessiyalar ham shu job orqali, partiyama-partiya migratsiya qilinadi.
+ * {@code app.exam.compact-answer-sheets=true} bo'lganda ishlaydi.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnswerSheetCompactionScheduler {
+
+    /** Bitta ishga tushishda maksimal partiyalar — DB'ni uzoq band qilmaslik uchun. */
+    private static final int MAX_BATCHES_PER_RUN = 50;
+
+    private final AnswerSheetService answerSheetService;
+    private final ExamProperties examProperties;
+
+    @Scheduled(fixedDelay = 900_000, initialDelay = 300_000) // 15 daqiqa
+    public void compactFinishedSessions() {
+        if (!Boolean.TRUE.equals(examProperties.getCompactAnswerSheets())) {
+            return;
+        }
+        try {
+            int total = 0;
+            for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+                int count = answerSheetService.compactBatch();
+                total += count;
+                if (count < examProperties.getAnswerSheetCompactBatchSize()) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("Scheduled job: {} ta sessiya javoblari ixchamlandi", total);
+            }
+        } catch (Exception e) {
+            log.error("Answer sheet compaction xatosi: {}", e.getMessage(), e);
+        }
+    }
+}
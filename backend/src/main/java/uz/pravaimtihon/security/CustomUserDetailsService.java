@@ -1,14 +1,28 @@
 package uz.pravaimtihon.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import uz.pravaimtihon.entity.User;
 import uz.pravaimtihon.repository.UserRepository;
+import uz.pravaimtihon.util.AfterCommitBuffer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +31,51 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    /** JWT filter uchun principal keshi TTL (0 — kesh o'chirilgan). */
+    @Value("${app.security.principal-cache-ttl-seconds:60}")
+    private long principalCacheTtlSeconds;
+
+    @Value("${app.security.principal-cache-size:10000}")
+    private long principalCacheSize;
+
+    /**
+     * JWT subject → principal. Avval har autentifikatsiyalangan so'rov (autosave,
+     * check-answer) {@code findByIdentifier} uchun alohida tranzaksiya ochardi.
+     * Rol/holat/parol o'zgarganda {@link #evictUser(Long)} bilan aniq tozalanadi;
+     * qolgan o'zgarishlar (til, profil) qisqa TTL ichida ko'rinadi.
+     */
+    private Cache<String, CustomUserDetails> principals;
+
+    /**
+     * userId → shu foydalanuvchi keshlangan identifikatorlar. {@link #evictUser(Long)} kalitlarni
+     * to'g'ridan-to'g'ri topadi. Har yuklashda qayta yoziladi va principal'lardan kech eskiradi.
+     */
+    private Cache<Long, Set<String>> identifiersById;
+
+    /** Har evict'da oshadi — evict bilan parallel yuklangan (eski) principal keshda qolmaydi. */
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AfterCommitBuffer<Long> evictAfterCommit =
+            new AfterCommitBuffer<>(userIds -> userIds.forEach(this::evictNow));
+
+    @PostConstruct
+    void initCache() {
+        if (principalCacheTtlSeconds > 0) {
+            principals = Caffeine.newBuilder()
+                    .maximumSize(principalCacheSize)
+                    .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                    .recordStats()
+                    .build();
+            identifiersById = Caffeine.newBuilder()
+                    .maximumSize(principalCacheSize)
+                    .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                    .build();
+        }
+    }
+
+    /**
+     * Login (AuthenticationManager) uchun — har doim bazadan, keshsiz.
+     */
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String identifier) throws UsernameNotFoundException {
@@ -33,4 +92,72 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return CustomUserDetails.from(user);
     }
+
+    /**
+     * JWT filter uchun — keshdan, bo'lmasa {@link #loadUserByUsername(String)}.
+     * Yuklash kalit bo'yicha atomik ({@code Cache.get(key, loader)}): bir vaqtdagi so'rovlar
+     * bitta yuklashni kutadi, {@code invalidate} esa tugallanmagan yuklashdan keyin ishlaydi.
+     */
+    public UserDetails loadCachedUser(String identifier) throws UsernameNotFoundException {
+        if (principals == null) {
+            return loadUserByUsername(identifier);
+        }
+        long seen = evictions.get();
+        CustomUserDetails details = principals.get(identifier, this::loadPrincipal);
+        if (evictions.get() != seen) {
+            // yuklash evict bilan kesishgan bo'lishi mumkin — keyingi so'rov bazadan o'qiydi
+            principals.invalidate(identifier);
+        }
+        return details;
+    }
+
+    /**
+     * Foydalanuvchining barcha keshlangan principal'larini o'chirish.
+     * Tranzaksiya ichida bo'lsa commit'dan keyin ham qayta o'chiriladi — commit'gacha
+     * parallel so'rov eski qatorni o'qib keshga qaytarib qo'ymasin.
+     */
+    public void evictUser(Long userId) {
+        if (principals == null || userId == null) {
+            return;
+        }
+        evictNow(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAfterCommit.add(userId);
+        }
+    }
+
+    /** System monitor uchun hit/miss ko'rsatkichlari. */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("enabled", principals != null);
+        if (principals == null) {
+            return info;
+        }
+        CacheStats stats = principals.stats();
+        info.put("size", principals.estimatedSize());
+        info.put("hits", stats.hitCount());
+        info.put("misses", stats.missCount());
+        info.put("hitRate", Math.round(stats.hitRate() * 1000) / 10.0);
+        info.put("evictions", stats.evictionCount());
+        info.put("ttlSeconds", principalCacheTtlSeconds);
+        return info;
+    }
+
+    private CustomUserDetails loadPrincipal(String identifier) {
+        CustomUserDetails details = (CustomUserDetails) loadUserByUsername(identifier);
+        identifiersById.asMap().compute(details.getId(), (id, identifiers) -> {
+            Set<String> set = identifiers != null ? identifiers : ConcurrentHashMap.newKeySet();
+            set.add(identifier);
+            return set;
+        });
+        return details;
+    }
+
+    private void evictNow(Long userId) {
+        evictions.incrementAndGet();
+        Set<String> identifiers = identifiersById.asMap().remove(userId);
+        if (identifiers != null) {
+            principals.invalidateAll(identifiers);
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package uz.pravaimtihon.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -84,29 +86,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
-        boolean isDownloadToken = jwtTokenProvider.isDownloadToken(jwt);
+        // Token bir marta parse va imzo-tekshiriladi; quyidagi barcha tekshiruvlar shu claims'dan
+        Claims claims;
+        try {
+            claims = jwtTokenProvider.parseClaims(jwt);
+        } catch (ExpiredJwtException e) {
+            log.debug("Expired JWT for: {}", requestPath);
+            filterChain.doFilter(request, response);
+            return;
+        } catch (Exception e) {
+            log.warn("Invalid JWT: {} - {}", e.getClass().getSimpleName(), e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean isDownloadToken = jwtTokenProvider.isDownloadToken(claims);
         if (fromQueryParam != isDownloadToken) {
             // Query-paramda faqat download-token, header'da faqat oddiy access-token qabul qilinadi.
             log.warn("Rejected JWT: query-param usage requires a download-scoped token (path={})", requestPath);
             filterChain.doFilter(request, response);
             return;
         }
-        log.debug("JWT token found, length: {}", jwt.length());
 
         try {
-            final String userIdentifier = jwtTokenProvider.extractUsername(jwt);
-            log.debug("Extracted username from token: {}", userIdentifier);
+            final String userIdentifier = claims.getSubject();
 
             // If token is valid and no authentication is set
             if (userIdentifier != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                log.debug("Loading user details for: {}", userIdentifier);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userIdentifier);
-                log.debug("User loaded successfully: {}", userDetails.getUsername());
-
-                if (jwtTokenProvider.isTokenValid(jwt, userDetails)) {
-                    log.debug("Token is valid for user: {}", userIdentifier);
+                UserDetails userDetails = userDetailsService.loadCachedUser(userIdentifier);
 
+                if (jwtTokenProvider.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -115,14 +124,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    log.info("User {} authenticated successfully", userIdentifier);
+                    log.debug("User {} authenticated", userIdentifier);
                 } else {
                     log.warn("Token validation failed for user: {}", userIdentifier);
                 }
             } else if (userIdentifier == null) {
                 log.warn("Could not extract username from token");
-            } else {
-                log.debug("User already authenticated");
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication: {} - {}", e.getClass().getSimpleName(), e.getMessage());
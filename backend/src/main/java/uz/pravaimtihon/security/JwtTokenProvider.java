@@ -1,6 +1,10 @@
 package uz.pravaimtihon.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -10,9 +14,14 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -37,6 +46,10 @@ public class JwtTokenProvider {
     @Value("${app.jwt.issuer}")
     private String issuer;
 
+    /** Tekshirilgan claims keshi hajmi (0 — kesh o'chirilgan). */
+    @Value("${app.jwt.claims-cache-size:10000}")
+    private long claimsCacheSize;
+
     private static final String CLAIM_TOKEN_TYPE = "typ";
     private static final String TOKEN_TYPE_DOWNLOAD = "download";
 
@@ -46,7 +59,28 @@ public class JwtTokenProvider {
      */
     @jakarta.annotation.PostConstruct
     void validateConfiguration() {
-        getSignInKey();
+        parser = Jwts.parser().verifyWith(getSignInKey()).build();
+        if (claimsCacheSize > 0) {
+            verifiedClaims = Caffeine.newBuilder()
+                    .maximumSize(claimsCacheSize)
+                    .expireAfter(new Expiry<String, Claims>() {
+                        @Override
+                        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                            return untilExpiration(claims);
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                            return untilExpiration(claims);
+                        }
+
+                        @Override
+                        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
         log.info("JWT konfiguratsiyasi tekshirildi (issuer={}, access-token TTL={} ms)",
                 issuer, accessTokenExpiration);
     }
@@ -77,13 +111,16 @@ public class JwtTokenProvider {
     /** Token "download" turidan ekanligini tekshiradi (asosiy access-token emas). */
     public boolean isDownloadToken(String token) {
         try {
-            String type = extractClaim(token, claims -> claims.get(CLAIM_TOKEN_TYPE, String.class));
-            return TOKEN_TYPE_DOWNLOAD.equals(type);
+            return isDownloadToken(parseClaims(token));
         } catch (Exception e) {
             return false;
         }
     }
 
+    public boolean isDownloadToken(Claims claims) {
+        return TOKEN_TYPE_DOWNLOAD.equals(claims.get(CLAIM_TOKEN_TYPE, String.class));
+    }
+
     // AUDIT: `generateRefreshToken(...)` OLIB TASHLANDI.
     // U hech qayerda ishlatilmasdi (haqiqiy refresh token AuthService'da
     // UUID sifatida yaratilib, DB'da rotate/revoke qilinadi), lekin xavfli
@@ -126,6 +163,19 @@ public class JwtTokenProvider {
         }
     }
 
+    /**
+     * Allaqachon tekshirilgan claims bo'yicha validatsiya — imzo qayta tekshirilmaydi.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        String username = claims.getSubject();
+        if (username == null || userDetails.getUsername() == null) {
+            return false;
+        }
+        Date expiration = claims.getExpiration();
+        return username.equals(userDetails.getUsername())
+                && expiration != null && expiration.after(new Date());
+    }
+
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -143,21 +193,67 @@ public class JwtTokenProvider {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Tokenni bir marta parse qilib, imzosini tekshirib claims qaytaradi.
+     * <p>
+     * Avval filter har so'rovda isDownloadToken / extractUsername / isTokenValid
+     * orqali bitta tokenni 3–4 marta parse va HMAC-tekshirardi. Endi filter
+     * natijani bir marta oladi, takroriy tokenlar esa (bitta klient ketma-ket
+     * so'rovlari) keshdan olinadi. Kesh kaliti — tokenning SHA-256 xeshi,
+     * yozuv tokenning {@code exp} vaqtida o'chadi; yaroqsiz token keshlanmaydi.
+     *
+     * @throws io.jsonwebtoken.JwtException imzo noto'g'ri, muddati o'tgan yoki buzilgan
+     */
+    public Claims parseClaims(String token) {
+        Cache<String, Claims> cache = verifiedClaims;
+        if (cache == null) {
+            return extractAllClaims(token);
+        }
+        String key = sha256(token);
+        Claims claims = cache.getIfPresent(key);
+        if (claims == null) {
+            claims = extractAllClaims(token);
+            cache.put(key, claims);
+        }
+        return claims;
+    }
+
     /**
      * ✅ FIXED: JJWT 0.12.3 uchun extractAllClaims
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey()) // verifyWith ishlatiladi
-                .build()
+        return parser
                 .parseSignedClaims(token)   // parseClaimsJws o'rniga
                 .getPayload();              // getBody o'rniga getPayload
     }
 
+    /** Thread-safe; kalit bilan birga startup'da bir marta quriladi. */
+    private JwtParser parser;
+
+    private Cache<String, Claims> verifiedClaims;
+
+    private static long untilExpiration(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return 0;
+        }
+        long millis = expiration.getTime() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
      * ✅ SecretKey generatsiyasi.
      * Kalit bir marta hisoblanadi va startup'da qat'iy tekshiriladi.
@@ -4,26 +4,31 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import uz.pravaimtihon.security.ratelimit.RateLimitScope;
+import uz.pravaimtihon.security.ratelimit.RateLimiter;
 
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * In-memory rate limiting filter for auth endpoints.
- * Tracks requests per IP address using a sliding window.
+ * Rate limiting filter for auth and other abuse-prone endpoints.
+ * Hisob {@link RateLimiter} SPI'da ({@code app.security.rate-limit.store}: memory | jdbc).
+ * Kredensial endpointlari — IP bo'yicha; token bilan kelgan so'rovlar — JWT subject bo'yicha.
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class RateLimitFilter extends OncePerRequestFilter {
 
+    private final RateLimiter rateLimiter;
+    private final JwtTokenProvider jwtTokenProvider;
+
     @Value("${app.security.rate-limit.enabled:true}")
     private boolean enabled;
 
@@ -34,17 +39,9 @@ public class RateLimitFilter extends OncePerRequestFilter {
     @Value("${app.security.rate-limit.auth-requests-per-minute:10}")
     private int authRequestsPerMinute;
 
-    /**
-     * AUDIT: bu map hech qachon tozalanmasdi. X-Forwarded-For soxtalashtirish
-     * bilan (pastga qarang) yoki oddiy IPv6 xilma-xilligi bilan cheksiz o'sib,
-     * OutOfMemoryError'ga olib kelishi mumkin edi. Endi hajmi cheklangan va
-     * eskirgan bucket'lar davriy ravishda tozalanadi.
-     */
-    private static final int MAX_TRACKED_KEYS = 50_000;
-    private static final long BUCKET_TTL_MS = 10 * 60_000L;
-
-    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
-    private volatile long lastSweep = System.currentTimeMillis();
+    /** Autentifikatsiyalangan foydalanuvchi uchun (IP emas, JWT subject bo'yicha). */
+    @Value("${app.security.rate-limit.user-requests-per-minute:200}")
+    private int userRequestsPerMinute;
 
     /** Parol/token qabul qiladigan, brute-force nishoni bo'lgan endpointlar. */
     private static boolean isCredentialEndpoint(String path) {
@@ -57,21 +54,6 @@ public class RateLimitFilter extends OncePerRequestFilter {
                 || path.startsWith("/api/v1/auth/telegram");
     }
 
-    /** Eskirgan bucket'larni tozalash (map cheksiz o'smasligi uchun). */
-    private void sweepIfNeeded(long now) {
-        if (now - lastSweep < 60_000L && buckets.size() < MAX_TRACKED_KEYS) {
-            return;
-        }
-        lastSweep = now;
-        buckets.entrySet().removeIf(e -> now - e.getValue().lastRefillTime > BUCKET_TTL_MS);
-        if (buckets.size() >= MAX_TRACKED_KEYS) {
-            // Oxirgi chora: bosim juda katta bo'lsa hammasini tashlaymiz —
-            // xotira tugab ilova qulashidan ko'ra yaxshiroq.
-            log.warn("Rate-limit bucket soni {} ga yetdi — map tozalanmoqda", buckets.size());
-            buckets.clear();
-        }
-    }
-
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                      HttpServletResponse response,
@@ -88,28 +70,36 @@ public class RateLimitFilter extends OncePerRequestFilter {
         // 200 req/min limiti amal qilardi — bu brute-force uchun deyarli
         // hech qanday to'siq emas edi. Endi kredensial bilan ishlaydigan
         // endpointlar uchun alohida, ancha qattiq bucket bor.
+        final RateLimitScope scope;
+        final String key;
         final int limit;
-        final String bucketKey;
         if (path.contains("telegram/token-login")) {
+            scope = RateLimitScope.TG_TOKEN_LOGIN;
+            key = clientIp;
             limit = 10;
-            bucketKey = clientIp + ":tg-token-login";
         } else if (path.contains("telegram/webhook")) {
+            scope = RateLimitScope.TG_WEBHOOK;
+            key = clientIp;
             limit = 30;
-            bucketKey = clientIp + ":tg-webhook";
         } else if (isCredentialEndpoint(path)) {
+            scope = RateLimitScope.AUTH;
+            key = clientIp;
             limit = authRequestsPerMinute;
-            bucketKey = clientIp + ":auth";
         } else {
-            limit = requestsPerMinute;
-            bucketKey = clientIp;
+            String subject = authenticatedSubject(request);
+            if (subject != null) {
+                scope = RateLimitScope.USER;
+                key = subject;
+                limit = userRequestsPerMinute;
+            } else {
+                scope = RateLimitScope.GENERAL;
+                key = clientIp;
+                limit = requestsPerMinute;
+            }
         }
 
-        sweepIfNeeded(System.currentTimeMillis());
-
-        TokenBucket bucket = buckets.computeIfAbsent(bucketKey, k -> new TokenBucket(limit));
-
-        if (!bucket.tryConsume()) {
-            log.warn("Rate limit exceeded for IP: {}", clientIp);
+        if (!rateLimiter.tryAcquire(scope, key, limit)) {
+            log.warn("Rate limit exceeded: scope={}, ip={}", scope, clientIp);
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType(MediaType.APPLICATION_JSON_VALUE);
             response.getWriter().write(
@@ -121,6 +111,22 @@ public class RateLimitFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Bearer token egasi (imzo tekshirilgan; JwtTokenProvider keshi tufayli qo'shimcha
+     * HMAC yo'q). Token yo'q yoki yaroqsiz bo'lsa — null, ya'ni IP bo'yicha hisoblanadi.
+     */
+    private String authenticatedSubject(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return jwtTokenProvider.parseClaims(authHeader.substring(7)).getSubject();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
@@ -170,45 +176,4 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
         return request.getRemoteAddr();
     }
-
-    /**
-     * Simple token bucket for rate limiting.
-     * Refills tokens based on elapsed time.
-     */
-    private static class TokenBucket {
-        private final int maxTokens;
-        private final AtomicInteger tokens;
-        private volatile long lastRefillTime;
-
-        TokenBucket(int maxTokens) {
-            this.maxTokens = maxTokens;
-            this.tokens = new AtomicInteger(maxTokens);
-            this.lastRefillTime = System.currentTimeMillis();
-        }
-
-        synchronized boolean tryConsume() {
-            refill();
-            if (tokens.get() > 0) {
-                tokens.decrementAndGet();
-                return true;
-            }
-            return false;
-        }
-
-        private void refill() {
-            long now = System.currentTimeMillis();
-            long elapsed = now - lastRefillTime;
-            if (elapsed > 60_000) {
-                tokens.set(maxTokens);
-                lastRefillTime = now;
-            } else {
-                int tokensToAdd = (int) (elapsed * maxTokens / 60_000);
-                if (tokensToAdd > 0) {
-                    int newTokens = Math.min(maxTokens, tokens.get() + tokensToAdd);
-                    tokens.set(newTokens);
-                    lastRefillTime = now;
-                }
-            }
-        }
-    }
 }
@@ -0,0 +1,103 @@
+package uz.pravaimtihon.security.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jarayon ichidagi rate limiter.
+ * <p>
+ * Har scope uchun {@value #STRIPES} ta bo'lak (stripe); har bo'lak — kalit →
+ * {@link AtomicLong} (TAT, nanosekund). So'rov yo'li: bitta map o'qish va
+ * bitta CAS — qulf ham, string qurish ham yo'q; yangi kalit uchungina
+ * bitta AtomicLong yaratiladi.
+ * <p>
+ * Avvalgi filter 50k kalitga yetganda butun map'ni tozalardi — hujum paytida
+ * barcha limitlar nollanardi. Endi har bo'lak alohida tozalanadi va faqat TAT'i
+ * o'tib ketgan (ya'ni to'liq to'lgan) kalitlar o'chiriladi. Tozalashdan keyin ham
+ * bo'lak to'la bo'lsa, yangi kalitlar scope'ning umumiy "overflow" bucket'ini
+ * bo'lishadi — limit yumshamaydi, qattiqlashadi.
+ */
+@Slf4j
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private static final int STRIPES = 16;
+    private static final long SWEEP_INTERVAL_NANOS = 60_000_000_000L;
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    /** nanoTime manfiy bo'lishi mumkin — vaqt shu nuqtadan hisoblanadi (0 = to'liq bucket). */
+    private static final long ORIGIN = System.nanoTime();
+
+    private final Stripe[][] stripes = new Stripe[RateLimitScope.values().length][STRIPES];
+    private final AtomicLong[] overflow = new AtomicLong[RateLimitScope.values().length];
+    private final int maxKeysPerStripe;
+
+    private static final class Stripe {
+        final Map<String, AtomicLong> tats = new ConcurrentHashMap<>();
+        volatile long lastSweep;
+    }
+
+    public InMemoryRateLimiter(int maxTrackedKeys) {
+        this.maxKeysPerStripe = Math.max(1, maxTrackedKeys / (STRIPES * RateLimitScope.values().length));
+        for (int s = 0; s < stripes.length; s++) {
+            overflow[s] = new AtomicLong();
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[s][i] = new Stripe();
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(RateLimitScope scope, String key, int permitsPerMinute) {
+        long now = System.nanoTime() - ORIGIN;
+        Stripe stripe = stripes[scope.ordinal()][(key.hashCode() & 0x7fffffff) % STRIPES];
+
+        AtomicLong tat = stripe.tats.get(key);
+        if (tat == null) {
+            sweepIfNeeded(stripe, now);
+            if (stripe.tats.size() >= maxKeysPerStripe) {
+                tat = overflow[scope.ordinal()];
+            } else {
+                tat = stripe.tats.computeIfAbsent(key, k -> new AtomicLong());
+            }
+        }
+        return consume(tat, now, permitsPerMinute);
+    }
+
+    @Override
+    public String getStoreType() {
+        return "memory";
+    }
+
+    /** GCRA: TAT'ni CAS bilan bitta interval oldinga suradi. */
+    static boolean consume(AtomicLong tat, long now, int permitsPerMinute) {
+        int permits = Math.max(1, permitsPerMinute);
+        long interval = NANOS_PER_MINUTE / permits;
+        long tolerance = interval * (permits - 1);
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            if (base - now > tolerance) {
+                return false;
+            }
+            if (tat.compareAndSet(current, base + interval)) {
+                return true;
+            }
+        }
+    }
+
+    private void sweepIfNeeded(Stripe stripe, long now) {
+        if (now - stripe.lastSweep < SWEEP_INTERVAL_NANOS && stripe.tats.size() < maxKeysPerStripe) {
+            return;
+        }
+        stripe.lastSweep = now;
+        // TAT o'tgan kalit = to'liq bucket; o'chirish limitni o'zgartirmaydi
+        stripe.tats.values().removeIf(tat -> tat.get() <= now);
+        if (stripe.tats.size() >= maxKeysPerStripe) {
+            log.warn("Rate-limit stripe is full ({} keys) — new clients share the overflow bucket",
+                    stripe.tats.size());
+        }
+    }
+}
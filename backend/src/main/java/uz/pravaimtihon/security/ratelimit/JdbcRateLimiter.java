@@ -0,0 +1,81 @@
+package uz.pravaimtihon.security.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.ResultSet;
+
+/**
+ * PostgreSQL'dagi umumiy holatli rate limiter — nginx ortida bir nechta
+ * instansiya ishlaganda limitlar birgalikda hisoblanadi.
+ * <p>
+ * Har so'rov — {@code rate_limit_state} ustida bitta atomar UPSERT (GCRA):
+ * ruxsat bo'lsa TAT suriladi va qator qaytadi, limit oshgan bo'lsa
+ * {@code WHERE} yangilanishni to'xtatadi va hech narsa qaytmaydi.
+ * Vaqt bazaning soatidan olinadi — instansiyalar soati farq qilsa ham mos.
+ * <p>
+ * Baza ishlamasa — so'rov o'tkaziladi (fail-open): rate limiter sabab
+ * butun API to'xtab qolmasligi kerak.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcRateLimiter implements RateLimiter {
+
+    private static final long MICROS_PER_MINUTE = 60_000_000L;
+
+    private static final String NOW_MICROS = "CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000000 AS BIGINT)";
+
+    /**
+     * EXCLUDED.tat = now + interval, ya'ni {@code EXCLUDED.tat - interval} — bazadagi "hozir".
+     * Parametrlar: scope, key, interval, interval, interval, interval, interval, tolerance.
+     */
+    private static final String ACQUIRE_SQL =
+            "INSERT INTO rate_limit_state AS r (scope, client_key, tat) " +
+            "VALUES (?, ?, " + NOW_MICROS + " + ?) " +
+            "ON CONFLICT (scope, client_key) DO UPDATE " +
+            "SET tat = GREATEST(r.tat, EXCLUDED.tat - ?) + ? " +
+            "WHERE GREATEST(r.tat, EXCLUDED.tat - ?) - (EXCLUDED.tat - ?) <= ? " +
+            "RETURNING r.tat";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile long lastErrorLog;
+
+    @Override
+    public boolean tryAcquire(RateLimitScope scope, String key, int permitsPerMinute) {
+        int permits = Math.max(1, permitsPerMinute);
+        long interval = MICROS_PER_MINUTE / permits;
+        long tolerance = interval * (permits - 1);
+        try {
+            Boolean allowed = jdbcTemplate.query(ACQUIRE_SQL, (ResultSetExtractor<Boolean>) ResultSet::next,
+                    scope.name(), key, interval, interval, interval, interval, interval, tolerance);
+            return Boolean.TRUE.equals(allowed);
+        } catch (Exception e) {
+            long now = System.currentTimeMillis();
+            if (now - lastErrorLog > 60_000L) {
+                lastErrorLog = now;
+                log.warn("Shared rate limiter unavailable, allowing requests: {}", e.getMessage());
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public String getStoreType() {
+        return "jdbc";
+    }
+
+    /** TAT'i o'tgan qatorlar to'liq bucket'ga teng — o'chirish xavfsiz. */
+    @Scheduled(fixedDelay = 5 * 60_000L, initialDelay = 5 * 60_000L)
+    public void purgeExpired() {
+        try {
+            int removed = jdbcTemplate.update("DELETE FROM rate_limit_state WHERE tat < " + NOW_MICROS);
+            log.debug("Rate-limit state purged: {}", removed);
+        } catch (Exception e) {
+            log.warn("Rate-limit state purge failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package uz.pravaimtihon.security.ratelimit;
+
+/**
+ * Limit turi. Har scope'ning kalitlari alohida saqlanadi — kalitga
+ * prefiks qo'shish (string birlashtirish) kerak emas.
+ */
+public enum RateLimitScope {
+    /** Telegram token-login (IP bo'yicha) */
+    TG_TOKEN_LOGIN,
+    /** Telegram webhook (IP bo'yicha) */
+    TG_WEBHOOK,
+    /** Parol/kod qabul qiladigan auth endpointlari (IP bo'yicha) */
+    AUTH,
+    /** Autentifikatsiyalangan so'rovlar (JWT subject bo'yicha) */
+    USER,
+    /** Qolgan himoyalangan endpointlar (IP bo'yicha) */
+    GENERAL
+}
@@ -0,0 +1,24 @@
+package uz.pravaimtihon.security.ratelimit;
+
+/**
+ * Rate limiter SPI.
+ * <p>
+ * Algoritm — GCRA (token bucket'ning bitta {@code long} holatli ko'rinishi):
+ * har kalit uchun faqat "nazariy keyingi ruxsat vaqti" (TAT) saqlanadi.
+ * Minutiga {@code permitsPerMinute} ta so'rov, shuncha hajmdagi burst bilan.
+ * TAT o'tib ketgan kalit to'liq to'lgan bucket'ga teng — uni o'chirish
+ * limitni "nollamaydi".
+ *
+ * @see InMemoryRateLimiter bitta instansiya uchun
+ * @see JdbcRateLimiter bir nechta instansiya (umumiy PostgreSQL holati)
+ */
+public interface RateLimiter {
+
+    /**
+     * @return true — so'rovga ruxsat; false — limit oshdi
+     */
+    boolean tryAcquire(RateLimitScope scope, String key, int permitsPerMinute);
+
+    /** Monitor/log uchun: "memory" yoki "jdbc". */
+    String getStoreType();
+}
@@ -0,0 +1,152 @@
+package uz.pravaimtihon.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uz.pravaimtihon.config.ExamProperties;
+import uz.pravaimtihon.entity.ExamAnswer;
+import uz.pravaimtihon.entity.ExamSession;
+import uz.pravaimtihon.entity.Question;
+import uz.pravaimtihon.repository.ExamAnswerRepository;
+import uz.pravaimtihon.repository.ExamSessionRepository;
+import uz.pravaimtihon.repository.QuestionRepository;
+import uz.pravaimtihon.util.AnswerSheetCodec;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sessiya javoblarini ikkala formatda ham o'qish va eski sessiyalarni ixchamlash.
+ * <p>
+ * Faol sessiya javoblari {@code exam_answers} qatorlarida turadi (submit/auto-save
+ * ularni yangilaydi). Sessiya tugagach fon job ({@link #compactBatch()}) javoblarni
+ * {@code exam_sessions.answer_sheet} ga yozib, qatorlarni o'chiradi.
+ * {@link #loadAnswers(ExamSession)} esa qaysi format bo'lishidan qat'i nazar bir xil
+ * {@code List<ExamAnswer>} qaytaradi — ExamResponseMapper o'zgarmaydi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnswerSheetService {
+
+    private static final String SELECT_ANSWERS =
+            "SELECT exam_session_id, question_id, question_order, selected_option_index, " +
+            "correct_option_index, is_correct, answered_at, time_spent_seconds " +
+            "FROM exam_answers WHERE exam_session_id IN (%s) " +
+            "ORDER BY exam_session_id, question_order";
+
+    private final ExamAnswerRepository answerRepository;
+    private final ExamSessionRepository sessionRepository;
+    private final QuestionRepository questionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExamProperties examProperties;
+
+    /**
+     * Sessiya javoblari {@code questionOrder} tartibida, savollar variantlari bilan.
+     * Ixcham formatdan tiklangan obyektlar persistence context'ga kirmaydi —
+     * ularni saqlamang. Keyinchalik soft-delete qilingan savollar ham tiklanadi:
+     * {@code exam_answers} yo'lidagi kabi javob tarixdan yo'qolmaydi.
+     */
+    @Transactional(readOnly = true)
+    public List<ExamAnswer> loadAnswers(ExamSession session) {
+        if (session.getAnswerSheet() == null) {
+            return answerRepository.findByExamSessionIdOrderByQuestionOrder(session.getId());
+        }
+
+        List<AnswerSheetCodec.Entry> entries = AnswerSheetCodec.decode(session.getAnswerSheet());
+        List<Long> questionIds = entries.stream().map(AnswerSheetCodec.Entry::questionId).toList();
+        Map<Long, Question> questions = questionIds.isEmpty() ? new HashMap<>()
+                : questionRepository.findAllByIdInWithOptions(questionIds).stream()
+                        .collect(Collectors.toMap(Question::getId, Function.identity()));
+
+        List<Long> deletedIds = questionIds.stream().filter(id -> !questions.containsKey(id)).toList();
+        if (!deletedIds.isEmpty()) {
+            for (Question q : questionRepository.findAllByIdInIncludingDeleted(deletedIds)) {
+                Hibernate.initialize(q.getOptions());
+                questions.put(q.getId(), q);
+            }
+        }
+
+        List<ExamAnswer> answers = new ArrayList<>(entries.size());
+        for (AnswerSheetCodec.Entry e : entries) {
+            answers.add(ExamAnswer.builder()
+                    .examSession(session)
+                    .question(questions.get(e.questionId()))
+                    .questionOrder(e.questionOrder())
+                    .selectedOptionIndex(e.selectedOptionIndex())
+                    .correctOptionIndex(e.correctOptionIndex())
+                    .isCorrect(e.isCorrect())
+                    .answeredAt(e.answeredAt())
+                    .timeSpentSeconds(e.timeSpentSeconds())
+                    .build());
+        }
+        return answers;
+    }
+
+    /**
+     * Bitta partiya tugagan sessiyani ixchamlaydi.
+     * <p>
+     * {@code version} oshiriladi — oldin yuklangan eski ExamSession obyekti
+     * saqlansa, {@code answer_sheet} ni null bilan ustidan yozmasdan
+     * OptimisticLock xatosi bilan to'xtaydi.
+     *
+     * @return ixchamlangan sessiyalar soni
+     */
+    @Transactional
+    public int compactBatch() {
+        LocalDateTime before = LocalDateTime.now()
+                .minusHours(examProperties.getAnswerSheetCompactAfterHours());
+        List<Long> sessionIds = sessionRepository.findIdsToCompact(
+                before, PageRequest.of(0, examProperties.getAnswerSheetCompactBatchSize()));
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<AnswerSheetCodec.Entry>> bySession = new LinkedHashMap<>();
+        sessionIds.forEach(id -> bySession.put(id, new ArrayList<>()));
+
+        String placeholders = String.join(", ", Collections.nCopies(sessionIds.size(), "?"));
+        jdbcTemplate.query(String.format(SELECT_ANSWERS, placeholders), rs -> {
+            Timestamp answeredAt = rs.getTimestamp("answered_at");
+            bySession.get(rs.getLong("exam_session_id")).add(new AnswerSheetCodec.Entry(
+                    rs.getLong("question_id"),
+                    rs.getInt("question_order"),
+                    rs.getObject("selected_option_index", Integer.class),
+                    rs.getObject("correct_option_index", Integer.class),
+                    rs.getObject("is_correct", Boolean.class),
+                    answeredAt != null ? answeredAt.toLocalDateTime() : null,
+                    rs.getObject("time_spent_seconds", Long.class)));
+        }, sessionIds.toArray());
+
+        Map<Long, byte[]> sheets = new HashMap<>();
+        bySession.forEach((id, entries) -> sheets.put(id, AnswerSheetCodec.encode(entries)));
+
+        // updated_at ham yangilanadi — incremental backup o'zgargan sessiyani ko'rishi uchun
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = sheets.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), now, e.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate(
+                "UPDATE exam_sessions SET answer_sheet = ?, updated_at = ?, version = version + 1 " +
+                "WHERE id = ? AND answer_sheet IS NULL", updates);
+
+        jdbcTemplate.update(
+                "DELETE FROM exam_answers WHERE exam_session_id IN (" + placeholders + ")",
+                sessionIds.toArray());
+
+        log.debug("Answer sheets compacted: sessions={}", sessionIds.size());
+        return sessionIds.size();
+    }
+}
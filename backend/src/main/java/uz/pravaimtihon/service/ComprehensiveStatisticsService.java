@@ -5,7 +5,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.pravaimtihon.dto.request.StatisticsFilterRequest;
@@ -14,14 +13,12 @@ import uz.pravaimtihon.dto.response.ComprehensiveStatisticsResponse.*;
 import uz.pravaimtihon.dto.response.exam.LocalizedText;
 import uz.pravaimtihon.entity.*;
 import uz.pravaimtihon.enums.AcceptLanguage;
-import uz.pravaimtihon.enums.ExamStatus;
 import uz.pravaimtihon.exception.BusinessException;
 import uz.pravaimtihon.exception.ResourceNotFoundException;
 import uz.pravaimtihon.repository.*;
 import uz.pravaimtihon.security.SecurityUtils;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -40,7 +37,8 @@ public class ComprehensiveStatisticsService {
     private final TicketRepository ticketRepository;
     private final TopicRepository topicRepository;
     private final UserRepository userRepository;
-    private final ExamAnswerRepository answerRepository;
+    private final ExamSessionStatisticsRepository statisticsRepository;
+    private final ExamRollupService rollupService;
 
     // ============================================
     // MAIN STATISTICS METHOD
@@ -57,35 +55,42 @@ public class ComprehensiveStatisticsService {
                 filter.getUserId(), filter.getPackageId(), filter.getTicketId(),
                 filter.getTopicId(), filter.getMode());
 
-        // Sessiyalarni filter bilan olish
-        List<ExamSession> sessions = fetchFilteredSessions(filter);
+        // Filter → SQL WHERE (sessiyalar heap'ga yuklanmaydi)
+        ExamSessionStatisticsRepository.Filter sqlFilter = statisticsRepository.filterOf(filter);
 
         // Filter info yaratish
         FilterInfo filterInfo = buildFilterInfo(filter, language);
 
-        // Summary statistika
-        SummaryStats summary = calculateSummary(sessions);
+        // Summary statistika (marathon agregatlari ham shu so'rovda)
+        ExamSessionStatisticsRepository.Summary summaryRow = statisticsRepository.summary(sqlFilter);
+        SummaryStats summary = calculateSummary(summaryRow, sqlFilter);
+
+        // Trend va davr statistikasi — imkon bo'lsa daily_exam_rollup'dan
+        ExamSessionStatisticsRepository.Filter rollupFilter =
+                rollupService.isReady() && statisticsRepository.isRollupCompatible(filter)
+                        ? statisticsRepository.rollupFilterOf(filter)
+                        : null;
 
         // Vaqt bo'yicha statistika
-        TimeBasedStats timeStats = calculateTimeStats(sessions);
+        TimeBasedStats timeStats = calculateTimeStats(sqlFilter, rollupFilter);
 
         // Batafsil ma'lumotlar
         List<ExamDetailItem> details = null;
         if (filter.getIncludeDetails()) {
-            details = buildExamDetails(sessions, filter, language);
+            details = buildExamDetails(sqlFilter, filter, language);
         }
 
         // Trend ma'lumotlari
         List<DailyTrendItem> trend = null;
         if (filter.getIncludeTrend()) {
-            trend = calculateDailyTrend(sessions);
+            trend = calculateDailyTrend(sqlFilter, rollupFilter);
         }
 
         // Breakdown ma'lumotlari
-        List<TicketBreakdownItem> ticketStats = buildTicketBreakdown(sessions, language);
-        List<PackageBreakdownItem> packageStats = buildPackageBreakdown(sessions, language);
-        List<TopicBreakdownItem> topicStats = buildTopicBreakdown(sessions, language);
-        MarathonBreakdownItem marathonStats = buildMarathonBreakdown(sessions);
+        List<TicketBreakdownItem> ticketStats = buildTicketBreakdown(sqlFilter);
+        List<PackageBreakdownItem> packageStats = buildPackageBreakdown(sqlFilter);
+        List<TopicBreakdownItem> topicStats = buildTopicBreakdown(sqlFilter);
+        MarathonBreakdownItem marathonStats = buildMarathonBreakdown(summaryRow);
 
         return ComprehensiveStatisticsResponse.builder()
                 .filter(filterInfo)
@@ -213,85 +218,6 @@ public class ComprehensiveStatisticsService {
     // PRIVATE HELPER METHODS
     // ============================================
 
-    private List<ExamSession> fetchFilteredSessions(StatisticsFilterRequest filter) {
-        // Barcha sessiyalarni olish va Java da filter qilish
-        // (Keyinchalik murakkab JPA Specification yoki QueryDSL ishlatish mumkin)
-
-        List<ExamSession> allSessions;
-
-        if (filter.getUserId() != null) {
-            allSessions = sessionRepository.findByUserIdOrderByStartedAtDesc(filter.getUserId());
-        } else {
-            allSessions = sessionRepository.findAll(Sort.by(Sort.Direction.DESC, "startedAt"));
-        }
-
-        return allSessions.stream()
-                .filter(s -> filterByPackage(s, filter.getPackageId()))
-                .filter(s -> filterByTicket(s, filter.getTicketId()))
-                .filter(s -> filterByTopic(s, filter.getTopicId()))
-                .filter(s -> filterByMode(s, filter.getMode()))
-                .filter(s -> filterByDateRange(s, filter.getFromDate(), filter.getToDate()))
-                .filter(s -> filterByCompleted(s, filter.getCompletedOnly()))
-                .filter(s -> filterByPassed(s, filter.getPassedOnly()))
-                .collect(Collectors.toList());
-    }
-
-    private boolean filterByPackage(ExamSession s, Long packageId) {
-        if (packageId == null) return true;
-        return s.getExamPackage() != null && s.getExamPackage().getId().equals(packageId);
-    }
-
-    private boolean filterByTicket(ExamSession s, Long ticketId) {
-        if (ticketId == null) return true;
-        return s.getTicket() != null && s.getTicket().getId().equals(ticketId);
-    }
-
-    private boolean filterByTopic(ExamSession s, Long topicId) {
-        if (topicId == null) return true;
-        // Package topic
-        if (s.getExamPackage() != null && s.getExamPackage().getTopic() != null
-                && s.getExamPackage().getTopic().getId().equals(topicId)) {
-            return true;
-        }
-        // Ticket topic
-        if (s.getTicket() != null && s.getTicket().getTopic() != null
-                && s.getTicket().getTopic().getId().equals(topicId)) {
-            return true;
-        }
-        return false;
-    }
-
-    private boolean filterByMode(ExamSession s, StatisticsFilterRequest.ExamMode mode) {
-        if (mode == null || mode == StatisticsFilterRequest.ExamMode.ALL) return true;
-
-        return switch (mode) {
-            case MARATHON -> s.getExamPackage() == null && s.getTicket() == null;
-            case TICKET -> s.getTicket() != null;
-            case PACKAGE -> s.getExamPackage() != null && s.getTicket() == null;
-            default -> true;
-        };
-    }
-
-    private boolean filterByDateRange(ExamSession s, LocalDateTime from, LocalDateTime to) {
-        if (from != null && s.getStartedAt() != null && s.getStartedAt().isBefore(from)) {
-            return false;
-        }
-        if (to != null && s.getStartedAt() != null && s.getStartedAt().isAfter(to)) {
-            return false;
-        }
-        return true;
-    }
-
-    private boolean filterByCompleted(ExamSession s, Boolean completedOnly) {
-        if (!completedOnly) return true;
-        return s.getStatus() == ExamStatus.COMPLETED;
-    }
-
-    private boolean filterByPassed(ExamSession s, Boolean passedOnly) {
-        if (!passedOnly) return true;
-        return s.getIsPassed() != null && s.getIsPassed();
-    }
-
     private FilterInfo buildFilterInfo(StatisticsFilterRequest filter, AcceptLanguage language) {
         FilterInfo.FilterInfoBuilder builder = FilterInfo.builder()
                 .mode(filter.getMode().name())
@@ -340,8 +266,9 @@ public class ComprehensiveStatisticsService {
         return builder.build();
     }
 
-    private SummaryStats calculateSummary(List<ExamSession> sessions) {
-        if (sessions.isEmpty()) {
+    private SummaryStats calculateSummary(ExamSessionStatisticsRepository.Summary row,
+                                          ExamSessionStatisticsRepository.Filter sqlFilter) {
+        if (row.total() == 0) {
             return SummaryStats.builder()
                     .totalExams(0L)
                     .completedExams(0L)
@@ -358,162 +285,74 @@ public class ComprehensiveStatisticsService {
                     .build();
         }
 
-        long total = sessions.size();
-        long completed = sessions.stream().filter(s -> s.getStatus() == ExamStatus.COMPLETED).count();
-        long inProgress = sessions.stream().filter(s -> s.getStatus() == ExamStatus.IN_PROGRESS).count();
-        long abandoned = sessions.stream().filter(s -> s.getStatus() == ExamStatus.ABANDONED).count();
-        long expired = sessions.stream().filter(s -> s.getStatus() == ExamStatus.EXPIRED).count();
-
-        long passed = sessions.stream().filter(s -> s.getIsPassed() != null && s.getIsPassed()).count();
+        long total = row.total();
+        long completed = row.completed();
+        long passed = row.passed();
         long failed = completed - passed;
         double passRate = completed > 0 ? (passed * 100.0 / completed) : 0.0;
 
-        long totalQuestions = sessions.stream().mapToLong(s -> s.getTotalQuestions() != null ? s.getTotalQuestions() : 0).sum();
-        long correctAnswers = sessions.stream().mapToLong(s -> s.getCorrectCount() != null ? s.getCorrectCount() : 0).sum();
-        long wrongAnswers = sessions.stream().mapToLong(s -> s.getWrongCount() != null ? s.getWrongCount() : 0).sum();
+        long totalQuestions = row.totalQuestions();
+        long correctAnswers = row.correct();
+        long wrongAnswers = row.wrong();
         long unanswered = totalQuestions - correctAnswers - wrongAnswers;
         double accuracy = totalQuestions > 0 ? (correctAnswers * 100.0 / totalQuestions) : 0.0;
 
-        List<Double> scores = sessions.stream()
-                .filter(s -> s.getPercentage() != null)
-                .map(ExamSession::getPercentage)
-                .sorted()
-                .toList();
-
-        double avgScore = scores.stream().mapToDouble(d -> d).average().orElse(0.0);
-        double bestScore = scores.isEmpty() ? 0.0 : scores.get(scores.size() - 1);
-        double worstScore = scores.isEmpty() ? 0.0 : scores.get(0);
-        double medianScore = scores.isEmpty() ? 0.0 : scores.get(scores.size() / 2);
+        double avgScore = orZero(row.averageScore());
 
-        long totalTime = sessions.stream()
-                .mapToLong(s -> s.getDurationSeconds() != null ? s.getDurationSeconds() : 0)
-                .sum();
+        long totalTime = row.totalTimeSeconds();
         double avgTimePerExam = total > 0 ? (totalTime * 1.0 / total) : 0.0;
         double avgTimePerQuestion = totalQuestions > 0 ? (totalTime * 1.0 / totalQuestions) : 0.0;
 
         // Streak (faqat completed uchun)
-        int currentStreak = 0;
-        int longestStreak = 0;
-        int tempStreak = 0;
-
-        List<ExamSession> completedSessions = sessions.stream()
-                .filter(s -> s.getStatus() == ExamStatus.COMPLETED)
-                .sorted(Comparator.comparing(ExamSession::getFinishedAt, Comparator.nullsLast(Comparator.reverseOrder())))
-                .toList();
-
-        for (ExamSession s : completedSessions) {
-            if (s.getIsPassed() != null && s.getIsPassed()) {
-                tempStreak++;
-                longestStreak = Math.max(longestStreak, tempStreak);
-            } else {
-                if (currentStreak == 0) {
-                    currentStreak = tempStreak;
-                }
-                tempStreak = 0;
-            }
-        }
-        if (currentStreak == 0) {
-            currentStreak = tempStreak;
-        }
+        ExamSessionStatisticsRepository.Streaks streaks = statisticsRepository.streaks(sqlFilter);
 
         return SummaryStats.builder()
                 .totalExams(total)
                 .completedExams(completed)
-                .inProgressExams(inProgress)
-                .abandonedExams(abandoned)
-                .expiredExams(expired)
+                .inProgressExams(row.inProgress())
+                .abandonedExams(row.abandoned())
+                .expiredExams(row.expired())
                 .passedExams(passed)
                 .failedExams(failed)
-                .passRate(Math.round(passRate * 100.0) / 100.0)
+                .passRate(round(passRate))
                 .totalQuestions(totalQuestions)
                 .correctAnswers(correctAnswers)
                 .wrongAnswers(wrongAnswers)
                 .unansweredQuestions(unanswered)
-                .accuracy(Math.round(accuracy * 100.0) / 100.0)
-                .averageScore(Math.round(avgScore * 100.0) / 100.0)
-                .bestScore(bestScore)
-                .worstScore(worstScore)
-                .medianScore(medianScore)
+                .accuracy(round(accuracy))
+                .averageScore(round(avgScore))
+                .bestScore(orZero(row.bestScore()))
+                .worstScore(orZero(row.worstScore()))
+                .medianScore(orZero(row.medianScore()))
                 .totalTimeSpentSeconds(totalTime)
-                .averageTimePerExamSeconds(Math.round(avgTimePerExam * 100.0) / 100.0)
-                .averageTimePerQuestionSeconds(Math.round(avgTimePerQuestion * 100.0) / 100.0)
-                .currentStreak(currentStreak)
-                .longestStreak(longestStreak)
+                .averageTimePerExamSeconds(round(avgTimePerExam))
+                .averageTimePerQuestionSeconds(round(avgTimePerQuestion))
+                .currentStreak(streaks.current())
+                .longestStreak(streaks.longest())
                 .build();
     }
 
-    private TimeBasedStats calculateTimeStats(List<ExamSession> sessions) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-        LocalDateTime yesterdayStart = todayStart.minusDays(1);
-        LocalDateTime weekStart = todayStart.minusDays(7);
-        LocalDateTime lastWeekStart = weekStart.minusDays(7);
-        LocalDateTime monthStart = todayStart.minusDays(30);
-        LocalDateTime lastMonthStart = monthStart.minusDays(30);
-
-        long today = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(todayStart))
-                .count();
-
-        long yesterday = sessions.stream()
-                .filter(s -> s.getStartedAt() != null
-                        && s.getStartedAt().isAfter(yesterdayStart)
-                        && s.getStartedAt().isBefore(todayStart))
-                .count();
-
-        long thisWeek = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(weekStart))
-                .count();
-
-        long lastWeek = sessions.stream()
-                .filter(s -> s.getStartedAt() != null
-                        && s.getStartedAt().isAfter(lastWeekStart)
-                        && s.getStartedAt().isBefore(weekStart))
-                .count();
-
-        long thisMonth = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(monthStart))
-                .count();
-
-        long lastMonth = sessions.stream()
-                .filter(s -> s.getStartedAt() != null
-                        && s.getStartedAt().isAfter(lastMonthStart)
-                        && s.getStartedAt().isBefore(monthStart))
-                .count();
-
-        double avgToday = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(todayStart))
-                .filter(s -> s.getPercentage() != null)
-                .mapToDouble(ExamSession::getPercentage)
-                .average().orElse(0.0);
-
-        double avgThisWeek = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(weekStart))
-                .filter(s -> s.getPercentage() != null)
-                .mapToDouble(ExamSession::getPercentage)
-                .average().orElse(0.0);
-
-        double avgThisMonth = sessions.stream()
-                .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(monthStart))
-                .filter(s -> s.getPercentage() != null)
-                .mapToDouble(ExamSession::getPercentage)
-                .average().orElse(0.0);
+    private TimeBasedStats calculateTimeStats(ExamSessionStatisticsRepository.Filter sqlFilter,
+                                              ExamSessionStatisticsRepository.Filter rollupFilter) {
+        ExamSessionStatisticsRepository.TimeWindows w = rollupFilter != null
+                ? statisticsRepository.rollupTimeWindows(rollupFilter, LocalDate.now())
+                : statisticsRepository.timeWindows(sqlFilter, LocalDate.now().atStartOfDay());
 
         return TimeBasedStats.builder()
-                .examsToday(today)
-                .examsYesterday(yesterday)
-                .examsThisWeek(thisWeek)
-                .examsLastWeek(lastWeek)
-                .examsThisMonth(thisMonth)
-                .examsLastMonth(lastMonth)
-                .averageScoreToday(Math.round(avgToday * 100.0) / 100.0)
-                .averageScoreThisWeek(Math.round(avgThisWeek * 100.0) / 100.0)
-                .averageScoreThisMonth(Math.round(avgThisMonth * 100.0) / 100.0)
+                .examsToday(w.today())
+                .examsYesterday(w.yesterday())
+                .examsThisWeek(w.thisWeek())
+                .examsLastWeek(w.lastWeek())
+                .examsThisMonth(w.thisMonth())
+                .examsLastMonth(w.lastMonth())
+                .averageScoreToday(round(orZero(w.averageToday())))
+                .averageScoreThisWeek(round(orZero(w.averageThisWeek())))
+                .averageScoreThisMonth(round(orZero(w.averageThisMonth())))
                 .build();
     }
 
     private List<ExamDetailItem> buildExamDetails(
-            List<ExamSession> sessions,
+            ExamSessionStatisticsRepository.Filter sqlFilter,
             StatisticsFilterRequest filter,
             AcceptLanguage language) {
 
@@ -521,9 +360,18 @@ public class ComprehensiveStatisticsService {
         int size = filter.getSize();
         int skip = page * size;
 
-        return sessions.stream()
-                .skip(skip)
-                .limit(size)
+        List<Long> ids = statisticsRepository.findPageIds(sqlFilter, skip, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Bitta so'rovda paket/bilet/mavzu bilan; tartib — ids bo'yicha
+        Map<Long, ExamSession> byId = sessionRepository.findAllWithRelationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ExamSession::getId, s -> s));
+
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .map(s -> buildExamDetailItem(s, language))
                 .toList();
     }
@@ -593,211 +441,140 @@ public class ComprehensiveStatisticsService {
         return builder.build();
     }
 
-    private List<TicketBreakdownItem> buildTicketBreakdown(List<ExamSession> sessions, AcceptLanguage language) {
-        return sessions.stream()
-                .filter(s -> s.getTicket() != null)
-                .collect(Collectors.groupingBy(s -> s.getTicket().getId()))
-                .entrySet().stream()
-                .map(entry -> {
-                    List<ExamSession> ticketSessions = entry.getValue();
-                    Ticket ticket = ticketSessions.get(0).getTicket();
-                    long total = ticketSessions.size();
-                    long passed = ticketSessions.stream()
-                            .filter(s -> s.getIsPassed() != null && s.getIsPassed()).count();
-                    double avg = ticketSessions.stream()
-                            .filter(s -> s.getPercentage() != null)
-                            .mapToDouble(ExamSession::getPercentage)
-                            .average().orElse(0.0);
-                    double best = ticketSessions.stream()
-                            .filter(s -> s.getPercentage() != null)
-                            .mapToDouble(ExamSession::getPercentage)
-                            .max().orElse(0.0);
-                    String lastAttempt = ticketSessions.stream()
-                            .map(ExamSession::getStartedAt)
-                            .filter(Objects::nonNull)
-                            .max(Comparator.naturalOrder())
-                            .map(dt -> dt.toLocalDate().toString())
-                            .orElse(null);
-                    return TicketBreakdownItem.builder()
-                            .ticketId(ticket.getId())
-                            .ticketNumber(ticket.getTicketNumber())
-                            .ticketName(LocalizedText.of(
-                                    ticket.getNameUzl(), ticket.getNameUzc(),
-                                    ticket.getNameEn(), ticket.getNameRu()))
-                            .totalExams(total)
-                            .passedExams(passed)
-                            .averageScore(Math.round(avg * 100.0) / 100.0)
-                            .bestScore(Math.round(best * 100.0) / 100.0)
-                            .lastAttemptDate(lastAttempt)
-                            .build();
+    private List<TicketBreakdownItem> buildTicketBreakdown(ExamSessionStatisticsRepository.Filter sqlFilter) {
+        List<ExamSessionStatisticsRepository.Group> groups = statisticsRepository.groupByTicket(sqlFilter);
+        Map<Long, Ticket> tickets = ticketRepository.findAllById(groupIds(groups)).stream()
+                .collect(Collectors.toMap(Ticket::getId, t -> t));
+
+        return groups.stream()
+                .map(g -> {
+                    Ticket ticket = tickets.get(g.id());
+                    TicketBreakdownItem.TicketBreakdownItemBuilder builder = TicketBreakdownItem.builder()
+                            .ticketId(g.id())
+                            .totalExams(g.total())
+                            .passedExams(g.passed())
+                            .averageScore(round(orZero(g.averageScore())))
+                            .bestScore(round(orZero(g.bestScore())))
+                            .lastAttemptDate(g.lastStartedAt() != null
+                                    ? g.lastStartedAt().toLocalDate().toString() : null);
+                    if (ticket != null) {
+                        builder.ticketNumber(ticket.getTicketNumber())
+                                .ticketName(LocalizedText.of(
+                                        ticket.getNameUzl(), ticket.getNameUzc(),
+                                        ticket.getNameEn(), ticket.getNameRu()));
+                    }
+                    return builder.build();
                 })
                 .sorted(Comparator.comparing(TicketBreakdownItem::getTicketNumber, Comparator.nullsLast(Comparator.naturalOrder())))
                 .toList();
     }
 
-    private List<PackageBreakdownItem> buildPackageBreakdown(List<ExamSession> sessions, AcceptLanguage language) {
-        return sessions.stream()
-                .filter(s -> s.getExamPackage() != null && s.getTicket() == null)
-                .collect(Collectors.groupingBy(s -> s.getExamPackage().getId()))
-                .entrySet().stream()
-                .map(entry -> {
-                    List<ExamSession> pkgSessions = entry.getValue();
-                    ExamPackage pkg = pkgSessions.get(0).getExamPackage();
-                    long total = pkgSessions.size();
-                    long passed = pkgSessions.stream()
-                            .filter(s -> s.getIsPassed() != null && s.getIsPassed()).count();
-                    long failed = pkgSessions.stream()
-                            .filter(s -> s.getStatus() == ExamStatus.COMPLETED)
-                            .count() - passed;
-                    double avg = pkgSessions.stream()
-                            .filter(s -> s.getPercentage() != null)
-                            .mapToDouble(ExamSession::getPercentage)
-                            .average().orElse(0.0);
-                    double best = pkgSessions.stream()
-                            .filter(s -> s.getPercentage() != null)
-                            .mapToDouble(ExamSession::getPercentage)
-                            .max().orElse(0.0);
+    private List<PackageBreakdownItem> buildPackageBreakdown(ExamSessionStatisticsRepository.Filter sqlFilter) {
+        List<ExamSessionStatisticsRepository.Group> groups = statisticsRepository.groupByPackage(sqlFilter);
+        Map<Long, ExamPackage> packages = packageRepository.findAllById(groupIds(groups)).stream()
+                .collect(Collectors.toMap(ExamPackage::getId, p -> p));
+
+        return groups.stream()
+                .map(g -> {
+                    ExamPackage pkg = packages.get(g.id());
                     return PackageBreakdownItem.builder()
-                            .packageId(pkg.getId())
-                            .packageName(LocalizedText.of(
+                            .packageId(g.id())
+                            .packageName(pkg != null ? LocalizedText.of(
                                     pkg.getNameUzl(), pkg.getNameUzc(),
-                                    pkg.getNameEn(), pkg.getNameRu()))
-                            .totalExams(total)
-                            .passedExams(passed)
-                            .failedExams(Math.max(0, failed))
-                            .averageScore(Math.round(avg * 100.0) / 100.0)
-                            .bestScore(Math.round(best * 100.0) / 100.0)
+                                    pkg.getNameEn(), pkg.getNameRu()) : null)
+                            .totalExams(g.total())
+                            .passedExams(g.passed())
+                            .failedExams(Math.max(0, g.completed() - g.passed()))
+                            .averageScore(round(orZero(g.averageScore())))
+                            .bestScore(round(orZero(g.bestScore())))
                             .build();
                 })
                 .toList();
     }
 
-    private List<TopicBreakdownItem> buildTopicBreakdown(List<ExamSession> sessions, AcceptLanguage language) {
-        // Topic ni session dan olish (package yoki ticket orqali)
-        Map<Long, List<ExamSession>> byTopic = new HashMap<>();
-        Map<Long, Topic> topicMap = new HashMap<>();
-
-        for (ExamSession s : sessions) {
-            Topic topic = null;
-            if (s.getExamPackage() != null && s.getExamPackage().getTopic() != null) {
-                topic = s.getExamPackage().getTopic();
-            } else if (s.getTicket() != null && s.getTicket().getTopic() != null) {
-                topic = s.getTicket().getTopic();
-            }
-            if (topic != null) {
-                byTopic.computeIfAbsent(topic.getId(), k -> new ArrayList<>()).add(s);
-                topicMap.putIfAbsent(topic.getId(), topic);
-            }
-        }
+    private List<TopicBreakdownItem> buildTopicBreakdown(ExamSessionStatisticsRepository.Filter sqlFilter) {
+        List<ExamSessionStatisticsRepository.Group> groups = statisticsRepository.groupByTopic(sqlFilter);
+        Map<Long, Topic> topics = topicRepository.findAllById(groupIds(groups)).stream()
+                .collect(Collectors.toMap(Topic::getId, t -> t));
 
-        return byTopic.entrySet().stream()
-                .map(entry -> {
-                    Topic topic = topicMap.get(entry.getKey());
-                    List<ExamSession> topicSessions = entry.getValue();
-                    long total = topicSessions.size();
-                    long passed = topicSessions.stream()
-                            .filter(s -> s.getIsPassed() != null && s.getIsPassed()).count();
-                    double avg = topicSessions.stream()
-                            .filter(s -> s.getPercentage() != null)
-                            .mapToDouble(ExamSession::getPercentage)
-                            .average().orElse(0.0);
-                    long totalQ = topicSessions.stream()
-                            .mapToLong(s -> s.getTotalQuestions() != null ? s.getTotalQuestions() : 0).sum();
-                    long correctA = topicSessions.stream()
-                            .mapToLong(s -> s.getCorrectCount() != null ? s.getCorrectCount() : 0).sum();
-                    double accuracy = totalQ > 0 ? (correctA * 100.0 / totalQ) : 0.0;
+        return groups.stream()
+                .map(g -> {
+                    Topic topic = topics.get(g.id());
+                    double accuracy = g.totalQuestions() > 0 ? (g.correct() * 100.0 / g.totalQuestions()) : 0.0;
                     return TopicBreakdownItem.builder()
-                            .topicId(topic.getId())
-                            .topicName(LocalizedText.of(
+                            .topicId(g.id())
+                            .topicName(topic != null ? LocalizedText.of(
                                     topic.getNameUzl(), topic.getNameUzc(),
-                                    topic.getNameEn(), topic.getNameRu()))
-                            .topicCode(topic.getCode())
-                            .totalExams(total)
-                            .passedExams(passed)
-                            .averageScore(Math.round(avg * 100.0) / 100.0)
-                            .accuracy(Math.round(accuracy * 100.0) / 100.0)
+                                    topic.getNameEn(), topic.getNameRu()) : null)
+                            .topicCode(topic != null ? topic.getCode() : null)
+                            .totalExams(g.total())
+                            .passedExams(g.passed())
+                            .averageScore(round(orZero(g.averageScore())))
+                            .accuracy(round(accuracy))
                             .build();
                 })
                 .toList();
     }
 
-    private MarathonBreakdownItem buildMarathonBreakdown(List<ExamSession> sessions) {
-        List<ExamSession> marathonSessions = sessions.stream()
-                .filter(s -> s.getExamPackage() == null && s.getTicket() == null)
-                .toList();
-
-        if (marathonSessions.isEmpty()) {
+    private MarathonBreakdownItem buildMarathonBreakdown(ExamSessionStatisticsRepository.Summary row) {
+        if (row.marathonTotal() == 0) {
             return null;
         }
 
-        long total = marathonSessions.size();
-        long passed = marathonSessions.stream()
-                .filter(s -> s.getIsPassed() != null && s.getIsPassed()).count();
-        long failed = marathonSessions.stream()
-                .filter(s -> s.getStatus() == ExamStatus.COMPLETED).count() - passed;
-        double avg = marathonSessions.stream()
-                .filter(s -> s.getPercentage() != null)
-                .mapToDouble(ExamSession::getPercentage)
-                .average().orElse(0.0);
-        long totalQ = marathonSessions.stream()
-                .mapToLong(s -> s.getTotalQuestions() != null ? s.getTotalQuestions() : 0).sum();
-        long correctA = marathonSessions.stream()
-                .mapToLong(s -> s.getCorrectCount() != null ? s.getCorrectCount() : 0).sum();
+        long totalQ = row.marathonQuestions();
+        long correctA = row.marathonCorrect();
         double accuracy = totalQ > 0 ? (correctA * 100.0 / totalQ) : 0.0;
 
         return MarathonBreakdownItem.builder()
-                .totalExams(total)
-                .passedExams(passed)
-                .failedExams(Math.max(0, failed))
-                .averageScore(Math.round(avg * 100.0) / 100.0)
+                .totalExams(row.marathonTotal())
+                .passedExams(row.marathonPassed())
+                .failedExams(Math.max(0, row.marathonCompleted() - row.marathonPassed()))
+                .averageScore(round(orZero(row.marathonAverageScore())))
                 .totalCorrectAnswers(correctA)
                 .totalQuestions(totalQ)
-                .accuracy(Math.round(accuracy * 100.0) / 100.0)
+                .accuracy(round(accuracy))
                 .build();
     }
 
-    private List<DailyTrendItem> calculateDailyTrend(List<ExamSession> sessions) {
+    private List<DailyTrendItem> calculateDailyTrend(ExamSessionStatisticsRepository.Filter sqlFilter,
+                                                     ExamSessionStatisticsRepository.Filter rollupFilter) {
         // Oxirgi 30 kun
         LocalDate today = LocalDate.now();
-        Map<LocalDate, List<ExamSession>> byDate = sessions.stream()
-                .filter(s -> s.getStartedAt() != null)
-                .filter(s -> s.getStartedAt().toLocalDate().isAfter(today.minusDays(30)))
-                .collect(Collectors.groupingBy(s -> s.getStartedAt().toLocalDate()));
+        LocalDate firstDay = today.minusDays(29);
+        List<ExamSessionStatisticsRepository.Day> days = rollupFilter != null
+                ? statisticsRepository.rollupDailyTrend(rollupFilter, firstDay)
+                : statisticsRepository.dailyTrend(sqlFilter, firstDay.atStartOfDay());
+        Map<LocalDate, ExamSessionStatisticsRepository.Day> byDate = days.stream()
+                .collect(Collectors.toMap(ExamSessionStatisticsRepository.Day::date, d -> d));
 
         List<DailyTrendItem> trend = new ArrayList<>();
         for (int i = 29; i >= 0; i--) {
             LocalDate date = today.minusDays(i);
-            List<ExamSession> daySessions = byDate.getOrDefault(date, Collections.emptyList());
-
-            long examCount = daySessions.size();
-            long passedCount = daySessions.stream()
-                    .filter(s -> s.getIsPassed() != null && s.getIsPassed())
-                    .count();
-            long failedCount = daySessions.stream()
-                    .filter(s -> s.getStatus() == ExamStatus.COMPLETED && (s.getIsPassed() == null || !s.getIsPassed()))
-                    .count();
-            double avgScore = daySessions.stream()
-                    .filter(s -> s.getPercentage() != null)
-                    .mapToDouble(ExamSession::getPercentage)
-                    .average().orElse(0.0);
-            long totalQ = daySessions.stream()
-                    .mapToLong(s -> s.getTotalQuestions() != null ? s.getTotalQuestions() : 0)
-                    .sum();
-            long correctA = daySessions.stream()
-                    .mapToLong(s -> s.getCorrectCount() != null ? s.getCorrectCount() : 0)
-                    .sum();
+            ExamSessionStatisticsRepository.Day day = byDate.get(date);
 
             trend.add(DailyTrendItem.builder()
                     .date(date.atStartOfDay())
-                    .examCount(examCount)
-                    .passedCount(passedCount)
-                    .failedCount(failedCount)
-                    .averageScore(Math.round(avgScore * 100.0) / 100.0)
-                    .totalQuestions(totalQ)
-                    .correctAnswers(correctA)
+                    .examCount(day != null ? day.total() : 0L)
+                    .passedCount(day != null ? day.passed() : 0L)
+                    .failedCount(day != null ? day.failed() : 0L)
+                    .averageScore(day != null ? round(orZero(day.averageScore())) : 0.0)
+                    .totalQuestions(day != null ? day.totalQuestions() : 0L)
+                    .correctAnswers(day != null ? day.correct() : 0L)
                     .build());
         }
 
         return trend;
     }
+
+    private static List<Long> groupIds(List<ExamSessionStatisticsRepository.Group> groups) {
+        return groups.stream().map(ExamSessionStatisticsRepository.Group::id).toList();
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
 }
@@ -13,6 +13,7 @@ import uz.pravaimtihon.exception.BusinessException;
 import uz.pravaimtihon.exception.ResourceNotFoundException;
 import uz.pravaimtihon.repository.RefreshTokenRepository;
 import uz.pravaimtihon.repository.UserRepository;
+import uz.pravaimtihon.security.CustomUserDetailsService;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,6 +29,7 @@ public class DeviceManagementService {
 
     private final UserRepository userRepository;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final CustomUserDetailsService userDetailsService;
 
     /**
      * Maksimal qurilmalar sonini o'rnatish (individual user uchun).
@@ -69,7 +71,7 @@ public class DeviceManagementService {
         }
 
         long customizedCount = userRepository.countCustomizedUsers();
-        int updatedCount = userRepository.updateGlobalDeviceLimit(maxDevices);
+        int updatedCount = userRepository.updateGlobalDeviceLimit(maxDevices, LocalDateTime.now());
 
         log.info("Global device limit set to {}. Updated {} users. {} users with custom limits unchanged.",
                 maxDevices, updatedCount, customizedCount);
@@ -130,6 +132,7 @@ public class DeviceManagementService {
         // Counter ni nolga tushirish
         user.setActiveDeviceCount(0);
         userRepository.save(user);
+        userDetailsService.evictUser(userId);
 
         log.info("All device sessions reset for user {}", userId);
     }
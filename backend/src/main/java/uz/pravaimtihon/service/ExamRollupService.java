@@ -0,0 +1,153 @@
+package uz.pravaimtihon.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.pravaimtihon.entity.ExamPackage;
+import uz.pravaimtihon.entity.ExamSession;
+import uz.pravaimtihon.entity.Ticket;
+import uz.pravaimtihon.enums.ExamStatus;
+
+import java.sql.Date;
+
+/**
+ * {@code daily_exam_rollup} jadvalini inkremental yuritish.
+ * <p>
+ * Kalit: (started_at sanasi, user, mode, paket, bilet, mavzu). Sessiya yaratilganda
+ * {@code started_count}/{@code total_questions}, tugaganda natija ustunlari qo'shiladi —
+ * shu tranzaksiyaning o'zida, shuning uchun rollback bo'lsa rollup ham qaytadi.
+ * Kalitda user borligi sababli "issiq" qator yo'q.
+ * <p>
+ * Ishga tushganda rollup {@code exam_sessions} bilan mos kelmasa (birinchi deploy,
+ * restore, tozalash) — bir marta to'liq qayta quriladi ({@link #rebuild()}).
+ * Qurilguncha {@link #isReady()} false — o'quvchilar xom jadvalga qaytadi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExamRollupService {
+
+    private static final String UPSERT =
+            "INSERT INTO daily_exam_rollup (day, user_id, mode, package_id, ticket_id, topic_id, " +
+            "started_count, total_questions, finished_count, passed_count, failed_count, " +
+            "correct_count, sum_percentage) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (day, user_id, mode, package_id, ticket_id, topic_id) DO UPDATE SET " +
+            "started_count = daily_exam_rollup.started_count + EXCLUDED.started_count, " +
+            "total_questions = daily_exam_rollup.total_questions + EXCLUDED.total_questions, " +
+            "finished_count = daily_exam_rollup.finished_count + EXCLUDED.finished_count, " +
+            "passed_count = daily_exam_rollup.passed_count + EXCLUDED.passed_count, " +
+            "failed_count = daily_exam_rollup.failed_count + EXCLUDED.failed_count, " +
+            "correct_count = daily_exam_rollup.correct_count + EXCLUDED.correct_count, " +
+            "sum_percentage = daily_exam_rollup.sum_percentage + EXCLUDED.sum_percentage";
+
+    private static final String REBUILD =
+            "INSERT INTO daily_exam_rollup (day, user_id, mode, package_id, ticket_id, topic_id, " +
+            "started_count, total_questions, finished_count, passed_count, failed_count, " +
+            "correct_count, sum_percentage) " +
+            "SELECT CAST(s.started_at AS date), s.user_id, " +
+            "CASE WHEN s.ticket_id IS NOT NULL THEN 'TICKET' " +
+            "     WHEN s.package_id IS NOT NULL THEN 'PACKAGE' ELSE 'MARATHON' END, " +
+            "COALESCE(s.package_id, 0), COALESCE(s.ticket_id, 0), COALESCE(p.topic_id, t.topic_id, 0), " +
+            "COUNT(*), COALESCE(SUM(s.total_questions), 0), " +
+            "COUNT(*) FILTER (WHERE s.status IN ('COMPLETED', 'EXPIRED')), " +
+            "COUNT(*) FILTER (WHERE s.is_passed = true), " +
+            "COUNT(*) FILTER (WHERE s.status = 'COMPLETED' AND s.is_passed IS NOT TRUE), " +
+            "COALESCE(SUM(s.correct_count), 0), COALESCE(SUM(s.percentage), 0) " +
+            "FROM exam_sessions s " +
+            "LEFT JOIN exam_packages p ON p.id = s.package_id " +
+            "LEFT JOIN tickets t ON t.id = s.ticket_id " +
+            "WHERE s.started_at IS NOT NULL " +
+            "GROUP BY 1, 2, 3, 4, 5, 6";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager txManager;
+    private final LiveExamCounters liveCounters;
+
+    private volatile boolean ready;
+
+    /** Rollup to'liq va o'qishga tayyor. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Yangi sessiya (start() va save() dan keyin). */
+    public void recordStarted(ExamSession session) {
+        liveCounters.onStarted(session.getUser() != null ? session.getUser().getId() : null);
+        upsert(session, 1, nz(session.getTotalQuestions()), 0, 0, 0, 0, 0.0);
+    }
+
+    /** Sessiya COMPLETED yoki EXPIRED holatiga o'tdi (natijalar hisoblangan). */
+    public void recordFinished(ExamSession session) {
+        liveCounters.onFinished();
+        boolean passed = Boolean.TRUE.equals(session.getIsPassed());
+        boolean failed = session.getStatus() == ExamStatus.COMPLETED && !passed;
+        upsert(session, 0, 0, 1, passed ? 1 : 0, failed ? 1 : 0,
+                nz(session.getCorrectCount()),
+                session.getPercentage() != null ? session.getPercentage() : 0.0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfNeeded() {
+        try {
+            Boolean consistent = jdbcTemplate.queryForObject(
+                    "SELECT (SELECT COALESCE(SUM(started_count), 0) FROM daily_exam_rollup) = " +
+                    "(SELECT COUNT(*) FROM exam_sessions WHERE started_at IS NOT NULL)", Boolean.class);
+            if (Boolean.TRUE.equals(consistent)) {
+                ready = true;
+                return;
+            }
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Exam rollup backfill skipped or failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rollup'ni {@code exam_sessions} dan to'liq qayta qurish.
+     * TRUNCATE qulfi tufayli parallel upsert'lar qurish tugaguncha kutadi —
+     * yangi sessiyalar na yo'qoladi, na ikki marta sanaladi.
+     */
+    public void rebuild() {
+        ready = false;
+        long t0 = System.currentTimeMillis();
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("TRUNCATE TABLE daily_exam_rollup");
+            jdbcTemplate.update(REBUILD);
+        });
+        ready = true;
+        log.info("Exam rollup rebuilt in {}ms", System.currentTimeMillis() - t0);
+    }
+
+    private void upsert(ExamSession session, long started, long questions, long finished,
+                        long passed, long failed, long correct, double percentage) {
+        if (session.getStartedAt() == null || session.getUser() == null) {
+            return;
+        }
+        ExamPackage pkg = session.getExamPackage();
+        Ticket ticket = session.getTicket();
+
+        String mode = ticket != null ? "TICKET" : pkg != null ? "PACKAGE" : "MARATHON";
+        long topicId = pkg != null && pkg.getTopic() != null ? pkg.getTopic().getId()
+                : ticket != null && ticket.getTopic() != null ? ticket.getTopic().getId()
+                : 0L;
+
+        jdbcTemplate.update(UPSERT,
+                Date.valueOf(session.getStartedAt().toLocalDate()),
+                session.getUser().getId(),
+                mode,
+                pkg != null ? pkg.getId() : 0L,
+                ticket != null ? ticket.getId() : 0L,
+                topicId,
+                started, questions, finished, passed, failed, correct, percentage);
+    }
+
+    private static long nz(Integer value) {
+        return value != null ? value : 0;
+    }
+}
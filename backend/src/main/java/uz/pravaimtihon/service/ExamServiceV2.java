@@ -3,13 +3,13 @@ package uz.pravaimtihon.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.pravaimtihon.config.ExamProperties;
 import uz.pravaimtihon.dto.mapper.ExamResponseMapper;
 import uz.pravaimtihon.dto.request.*;
+import uz.pravaimtihon.dto.response.CursorPageResponse;
 import uz.pravaimtihon.dto.response.exam.*;
 import uz.pravaimtihon.entity.*;
 import uz.pravaimtihon.enums.AcceptLanguage;
@@ -18,6 +18,7 @@ import uz.pravaimtihon.exception.BusinessException;
 import uz.pravaimtihon.exception.ResourceNotFoundException;
 import uz.pravaimtihon.repository.*;
 import uz.pravaimtihon.security.SecurityUtils;
+import uz.pravaimtihon.util.KeysetCursor;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -41,13 +42,18 @@ public class ExamServiceV2 {
     private final ExamAnswerRepository answerRepository;
     private final ExamPackageRepository packageRepository;
     private final QuestionRepository questionRepository;
-    private final QuestionOptionRepository optionRepository;
     private final UserRepository userRepository;
     private final UserStatisticsRepository statisticsRepository;
     private final TopicRepository topicRepository;
     private final ExamResponseMapper mapper;
     private final ExamProperties examProperties;
     private final uz.pravaimtihon.payment.service.PaymentAccessService paymentAccessService;
+    private final QuestionBankSnapshot questionBank;
+    private final ExamAnswerBatchWriter answerBatchWriter;
+    private final AnswerSheetService answerSheetService;
+    private final QuestionUsageAggregator usageAggregator;
+    private final ExamRollupService rollupService;
+    private final LeaderboardIndex leaderboardIndex;
 
     // Default passing score for marathon mode
     private static final int DEFAULT_PASSING_SCORE = 70;
@@ -107,14 +113,21 @@ public class ExamServiceV2 {
                     log.info("Yangi imtihon uchun faol sessiya abandon qilindi: sessionId={}", existing.getId());
                 });
 
-        // Paketni savollar bilan olish
-        ExamPackage examPackage = packageRepository.findByIdWithQuestionsAndOptions(request.getPackageId());
+        // PERF: avval `findByIdWithQuestionsAndOptions` paketning BARCHA
+        // savollari + variantlarini har boshlashda yuklardi. Endi faqat paket
+        // va uning savol ID'lari o'qiladi; matn/variantlar QuestionBankSnapshot'dan.
+        ExamPackage examPackage = packageRepository.findByIdWithTopic(request.getPackageId())
+                .filter(ExamPackage::getIsActive)
+                .orElseThrow(() -> new ResourceNotFoundException("error.package.not.found"));
 
-        if (examPackage == null || examPackage.getDeleted() || !examPackage.getIsActive()) {
-            throw new ResourceNotFoundException("error.package.not.found");
-        }
+        // Nusxada faqat faol, o'chirilmagan savollar bor — eski JOIN filtri bilan bir xil
+        QuestionBankSnapshot.Snapshot bank = questionBank.current();
+        List<Long> packageQuestionIds = packageRepository.findQuestionIdsByPackageId(examPackage.getId())
+                .stream()
+                .filter(bank::contains)
+                .collect(Collectors.toCollection(ArrayList::new));
 
-        if (!examPackage.hasEnoughQuestions()) {
+        if (packageQuestionIds.size() < examPackage.getQuestionCount()) {
             throw new BusinessException("error.package.insufficient.questions");
         }
 
@@ -127,16 +140,13 @@ public class ExamServiceV2 {
         }
 
         // Savollarni tanlash va aralashtirish
-        List<Question> selectedQuestions = selectAndShuffleQuestions(
-                new ArrayList<>(examPackage.getQuestions()),
+        List<Long> selectedQuestions = selectAndShuffleQuestions(
+                packageQuestionIds,
                 examPackage.getQuestionCount()
         );
 
-        // Variantlarni yuklash
-        loadOptionsForQuestions(selectedQuestions);
-
         // Sessiya yaratish - har doim saqlanadi
-        ExamSession session = createSession(user, examPackage, selectedQuestions);
+        ExamSession session = createSession(user, examPackage, selectedQuestions, bank);
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime expiresAt = now.plusMinutes(examPackage.getDurationMinutes());
@@ -157,7 +167,7 @@ public class ExamServiceV2 {
                 .expiresAt(expiresAt)
                 .isMarathonMode(false)
                 .isVisibleMode(visibleMode)
-                .questions(mapper.toQuestionResponses(selectedQuestions, visibleMode))
+                .questions(questionBank.toQuestionResponses(selectedQuestions, visibleMode))
                 .build();
     }
 
@@ -213,48 +223,30 @@ public class ExamServiceV2 {
                     log.info("Yangi marafon uchun faol sessiya abandon qilindi: sessionId={}", existing.getId());
                 });
 
-        // Mavzu bo'yicha savollarni olish (OPTIONS bilan birga - JOIN FETCH)
-        List<Question> availableQuestions;
+        // Mavzu bo'yicha savollarni olish
         Topic topic = null;
 
         // ⚠️ AUDIT — PERFORMANCE: avval `findRandomByTopicWithOptions` /
-        // `findRandomQuestionsWithOptions` ishlatilardi. Ular `LEFT JOIN FETCH`
-        // (kolleksiya) + `Pageable` bo'lgani uchun Hibernate LIMIT'ni SQL'ga
-        // qo'sha olmasdi va BUTUN savollar jadvalini xotiraga yuklab,
-        // sahifalashni Java'da bajarardi (HHH90003004). Har bir marafon
-        // boshlanishida minglab savol + variantlar JVM'ga tortilardi.
+        // `findRandomQuestionsWithOptions` ishlatilardi (butun jadval xotiraga,
+        // HHH90003004), keyin esa `ORDER BY RANDOM()` + LIMIT — bu ham har
+        // marafonda `questions` jadvalini to'liq skan qilib saralardi.
         //
-        // Endi: DB tomonda random + LIMIT bilan faqat ID'lar olinadi, keyin
-        // o'sha ID'lar uchun variantlar bitta so'rovda yuklanadi.
-        int fetchSize = request.getQuestionCount() * 2;
-        List<Long> candidateIds;
-
+        // Endi: tasodifiy ID'lar QuestionBankSnapshot'dagi mavzu massividan
+        // qisman Fisher–Yates bilan O(k) da tanlanadi, DB'ga murojaat yo'q.
         if (request.getTopicId() != null) {
             topic = topicRepository.findById(request.getTopicId())
                     .orElseThrow(() -> new ResourceNotFoundException("error.topic.not.found"));
-
-            candidateIds = questionRepository.findRandomQuestionIdsByTopic(
-                    topic, PageRequest.of(0, fetchSize));
-        } else {
-            candidateIds = questionRepository.findRandomQuestionIds(
-                    PageRequest.of(0, fetchSize));
         }
 
-        availableQuestions = candidateIds.isEmpty()
-                ? new ArrayList<>()
-                : new ArrayList<>(questionRepository.findByIdsWithOptions(candidateIds));
+        QuestionBankSnapshot.Snapshot bank = questionBank.current();
+        Long topicId = topic != null ? topic.getId() : null;
 
-        if (availableQuestions.size() < request.getQuestionCount()) {
+        if (bank.countActive(topicId) < request.getQuestionCount()) {
             throw new BusinessException("error.marathon.insufficient.questions");
         }
 
-        // Savollarni tanlash va aralashtirish
-        List<Question> selectedQuestions = selectAndShuffleQuestions(
-                availableQuestions,
-                request.getQuestionCount()
-        );
-
-        // ✅ OPTIONS allaqachon yuklangan - loadOptionsForQuestions kerak emas
+        // Tanlangan ID'lar allaqachon tasodifiy tartibda
+        List<Long> selectedQuestions = bank.sampleIds(topicId, request.getQuestionCount());
 
         // Davomiylik va o'tish balini hisoblash
         int durationMinutes = request.getDurationMinutes() != null
@@ -266,7 +258,7 @@ public class ExamServiceV2 {
                 : DEFAULT_PASSING_SCORE;
 
         // Sessiya yaratish - har doim saqlanadi
-        ExamSession session = createMarathonSession(user, selectedQuestions, durationMinutes, passingScore);
+        ExamSession session = createMarathonSession(user, selectedQuestions, durationMinutes, passingScore, bank);
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime expiresAt = now.plusMinutes(durationMinutes);
@@ -288,7 +280,7 @@ public class ExamServiceV2 {
                 .expiresAt(expiresAt)
                 .isMarathonMode(true)
                 .isVisibleMode(visibleMode)
-                .questions(mapper.toQuestionResponses(selectedQuestions, visibleMode))
+                .questions(questionBank.toQuestionResponses(selectedQuestions, visibleMode))
                 .build();
     }
 
@@ -322,8 +314,7 @@ public class ExamServiceV2 {
         if (session.getStatus() == ExamStatus.COMPLETED || session.getStatus() == ExamStatus.EXPIRED) {
             log.info("Double-submit aniqlandi: sessionId={}, status={} (idempotent javob)",
                     session.getId(), session.getStatus());
-            List<ExamAnswer> existingAnswers = answerRepository
-                    .findByExamSessionIdOrderByQuestionOrder(session.getId());
+            List<ExamAnswer> existingAnswers = answerSheetService.loadAnswers(session);
             return buildResultResponse(session, existingAnswers);
         }
 
@@ -361,7 +352,7 @@ public class ExamServiceV2 {
                         userAnswer.getSelectedOptionIndex(),
                         userAnswer.getTimeSpentSeconds()
                 );
-                question.recordAnswer(examAnswer.getIsCorrect());
+                usageAggregator.recordAnswer(question.getId(), examAnswer.getIsCorrect());
             }
         }
 
@@ -371,6 +362,7 @@ public class ExamServiceV2 {
             session.finish();
         }
         session = sessionRepository.save(session);
+        rollupService.recordFinished(session);
 
         // Statistikani yangilash
         updateUserStatisticsSafe(session);
@@ -392,16 +384,23 @@ public class ExamServiceV2 {
      * @param request Savol ID va tanlangan variant
      * @return To'g'ri/noto'g'ri + tushuntirish
      */
-    @Transactional(readOnly = true)
     public CheckAnswerResponse checkAnswer(CheckAnswerRequest request) {
         getCurrentUserIdRequired(); // Auth tekshirish
 
-        Question question = questionRepository.findById(request.getQuestionId())
-                .orElseThrow(() -> new ResourceNotFoundException("error.question.not.found"));
-
         log.debug("Javob tekshirilmoqda: questionId={}, selected={}",
                 request.getQuestionId(), request.getSelectedOptionIndex());
 
+        // Eng ko'p chaqiriladigan endpoint — faol savollar xotiradagi nusxadan
+        // (to'g'ri indeks + tushuntirish), tranzaksiya va SELECT'siz.
+        QuestionBankSnapshot.CachedQuestion cached = questionBank.current().get(request.getQuestionId());
+        if (cached != null) {
+            return cached.toCheckAnswerResponse(request.getSelectedOptionIndex());
+        }
+
+        // Nusxada yo'q (nofaol yoki endigina qo'shilgan) — bazadan
+        Question question = questionRepository.findById(request.getQuestionId())
+                .orElseThrow(() -> new ResourceNotFoundException("error.question.not.found"));
+
         return mapper.toCheckAnswerResponse(question, request.getSelectedOptionIndex());
     }
 
@@ -426,7 +425,7 @@ public class ExamServiceV2 {
             throw new BusinessException("error.exam.session.not.completed");
         }
 
-        List<ExamAnswer> answers = answerRepository.findByExamSessionIdOrderByQuestionOrder(sessionId);
+        List<ExamAnswer> answers = answerSheetService.loadAnswers(session);
 
         return buildResultResponse(session, answers);
     }
@@ -452,7 +451,7 @@ public class ExamServiceV2 {
             throw new BusinessException("error.exam.session.not.completed");
         }
 
-        List<ExamAnswer> answers = answerRepository.findByExamSessionIdOrderByQuestionOrder(sessionId);
+        List<ExamAnswer> answers = answerSheetService.loadAnswers(session);
 
         return buildStatisticsResponse(session, answers);
     }
@@ -474,6 +473,28 @@ public class ExamServiceV2 {
         return sessions.map(mapper::toHistoryResponse);
     }
 
+    /**
+     * Imtihon tarixi — keyset (cursor) sahifalash.
+     * OFFSET o'rniga oxirgi ko'rilgan {@code (startedAt, id)} dan davom etadi,
+     * jami soni faqat {@code includeTotal} bo'lsa hisoblanadi.
+     *
+     * @param cursor oldingi javobdagi {@code nextCursor}; null — birinchi sahifa
+     * @return Imtihonlar ro'yxati
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ExamHistoryResponse> getExamHistoryCursor(String cursor, int size, boolean includeTotal) {
+        Long userId = getCurrentUserIdRequired();
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<ExamSession> rows = after == null
+                ? sessionRepository.findHistoryFirst(userId, KeysetCursor.limit(pageSize))
+                : sessionRepository.findHistoryAfter(userId, after, KeysetCursor.limit(pageSize));
+        return CursorPageResponse.of(rows, pageSize,
+                session -> KeysetCursor.of(session.getStartedAt(), session.getId()).encode(),
+                mapper::toHistoryResponse,
+                includeTotal ? sessionRepository.countByUserId(userId) : null);
+    }
+
     /**
      * Status bo'yicha imtihon tarixini olish.
      *
@@ -548,7 +569,7 @@ public class ExamServiceV2 {
         // Agar allaqachon tugatilgan bo'lsa - natijani qaytarish
         if (session.getStatus() == ExamStatus.COMPLETED || session.getStatus() == ExamStatus.EXPIRED) {
             log.info("Auto-submit: sessiya allaqachon tugatilgan - sessionId={}", sessionId);
-            List<ExamAnswer> existingAnswers = answerRepository.findByExamSessionIdOrderByQuestionOrder(sessionId);
+            List<ExamAnswer> existingAnswers = answerSheetService.loadAnswers(session);
             return buildResultResponse(session, existingAnswers);
         }
 
@@ -573,7 +594,7 @@ public class ExamServiceV2 {
                             userAnswer.getSelectedOptionIndex(),
                             userAnswer.getTimeSpentSeconds()
                     );
-                    question.recordAnswer(examAnswer.getIsCorrect());
+                    usageAggregator.recordAnswer(question.getId(), examAnswer.getIsCorrect());
                 }
             }
 
@@ -583,6 +604,7 @@ public class ExamServiceV2 {
         // Sessiyani EXPIRED qilish
         session.expire();
         session = sessionRepository.save(session);
+        rollupService.recordFinished(session);
 
         // Statistikani yangilash
         updateUserStatisticsSafe(session);
@@ -613,6 +635,7 @@ public class ExamServiceV2 {
             if (session.isExpired()) {
                 session.expire();
                 sessionRepository.save(session);
+                rollupService.recordFinished(session);
                 count++;
                 log.debug("Sessiya expired qilindi: sessionId={}", session.getId());
             }
@@ -637,83 +660,69 @@ public class ExamServiceV2 {
         return userId;
     }
 
-    private List<Question> selectAndShuffleQuestions(List<Question> questions, int count) {
-        Collections.shuffle(questions);
-        return questions.stream()
+    private List<Long> selectAndShuffleQuestions(List<Long> questionIds, int count) {
+        Collections.shuffle(questionIds);
+        return questionIds.stream()
                 .limit(count)
                 .collect(Collectors.toList());
     }
 
-    private void loadOptionsForQuestions(List<Question> questions) {
-        List<Long> questionIds = questions.stream()
-                .map(Question::getId)
-                .collect(Collectors.toList());
-
-        Map<Long, List<QuestionOption>> optionsMap = optionRepository
-                .findByQuestionIdIn(questionIds)
-                .stream()
-                .filter(opt -> opt.getQuestion() != null)
-                .collect(Collectors.groupingBy(opt -> opt.getQuestion().getId()));
-
-        for (Question question : questions) {
-            if (question.getOptions() == null || question.getOptions().isEmpty()) {
-                question.setOptions(optionsMap.getOrDefault(question.getId(), new ArrayList<>()));
-            }
-        }
-    }
-
-    private ExamSession createSession(User user, ExamPackage examPackage, List<Question> questions) {
+    private ExamSession createSession(User user, ExamPackage examPackage, List<Long> questionIds,
+                                      QuestionBankSnapshot.Snapshot bank) {
         ExamSession session = ExamSession.builder()
                 .user(user)
                 .examPackage(examPackage)
                 .status(ExamStatus.NOT_STARTED)
                 .language(AcceptLanguage.UZL)
                 .durationMinutes(examPackage.getDurationMinutes())
-                .totalQuestions(questions.size())
+                .totalQuestions(questionIds.size())
                 .build();
 
         session.start();
         session = sessionRepository.save(session);
+        rollupService.recordStarted(session);
 
-        List<ExamAnswer> examAnswers = createExamAnswers(session, questions);
-        session.setAnswers(examAnswers);
+        createExamAnswers(session, questionIds, bank);
 
         return session;
     }
 
-    private ExamSession createMarathonSession(User user, List<Question> questions,
-                                               int durationMinutes, int passingScore) {
+    private ExamSession createMarathonSession(User user, List<Long> questionIds,
+                                               int durationMinutes, int passingScore,
+                                               QuestionBankSnapshot.Snapshot bank) {
         ExamSession session = ExamSession.builder()
                 .user(user)
                 .examPackage(null)
                 .status(ExamStatus.NOT_STARTED)
                 .language(AcceptLanguage.UZL)
                 .durationMinutes(durationMinutes)
-                .totalQuestions(questions.size())
+                .totalQuestions(questionIds.size())
                 .build();
 
         session.start();
         session = sessionRepository.save(session);
+        rollupService.recordStarted(session);
 
-        List<ExamAnswer> examAnswers = createExamAnswers(session, questions);
-        session.setAnswers(examAnswers);
+        createExamAnswers(session, questionIds, bank);
 
         return session;
     }
 
-    private List<ExamAnswer> createExamAnswers(ExamSession session, List<Question> questions) {
-        List<ExamAnswer> examAnswers = new ArrayList<>();
-        for (int i = 0; i < questions.size(); i++) {
-            Question question = questions.get(i);
-            ExamAnswer answer = ExamAnswer.builder()
-                    .examSession(session)
-                    .question(question)
-                    .questionOrder(i)
-                    .correctOptionIndex(question.getCorrectAnswerIndex())
-                    .build();
-            examAnswers.add(answer);
+    /**
+     * PERF: avval {@code answerRepository.saveAll(...)} — IDENTITY ID sababli
+     * har bir javob alohida INSERT (100 savol = 100 round-trip) edi.
+     * Endi bitta multi-values INSERT. Qatorlar persistence context'ga kirmaydi,
+     * shuning uchun {@code session.setAnswers(...)} qilinmaydi.
+     */
+    private void createExamAnswers(ExamSession session, List<Long> questionIds,
+                                   QuestionBankSnapshot.Snapshot bank) {
+        List<ExamAnswerBatchWriter.NewAnswer> rows = new ArrayList<>(questionIds.size());
+        for (int i = 0; i < questionIds.size(); i++) {
+            Long questionId = questionIds.get(i);
+            rows.add(new ExamAnswerBatchWriter.NewAnswer(
+                    questionId, i, bank.get(questionId).correctAnswerIndex()));
         }
-        return answerRepository.saveAll(examAnswers);
+        answerBatchWriter.insertAll(session.getId(), rows);
     }
 
     private ExamResultResponse buildResultResponse(ExamSession session, List<ExamAnswer> answers) {
@@ -847,6 +856,7 @@ public class ExamServiceV2 {
 
             stats.updateFromSession(session);
             statisticsRepository.save(stats);
+            leaderboardIndex.update(stats);
 
             log.debug("Statistika yangilandi: user={}, topic={}",
                     user.getId(), topicCode);
@@ -0,0 +1,132 @@
+package uz.pravaimtihon.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uz.pravaimtihon.dto.response.ApiResponse;
+import uz.pravaimtihon.dto.response.exam.ExamResponse;
+import uz.pravaimtihon.dto.response.exam.QuestionResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Guest imtihonlar uchun oldindan tayyorlangan (pre-serialized) hovuz.
+ * <p>
+ * {@code /api/v1/public/guest-exam} autentifikatsiyasiz va eng ko'p
+ * "scrape" qilinadigan endpoint. Har so'rovda savol tanlash + Jackson
+ * serializatsiya qilmaslik uchun N ta tayyor imtihon fonda UTF-8 JSON
+ * baytlariga (va gzip nusxasiga) aylantirib qo'yiladi; so'rov esa
+ * ulardan birini tasodifiy qaytaradi — DB ham, Jackson ham ishlamaydi.
+ * <p>
+ * Guest imtihonda sessiya yo'q, shuning uchun {@code startedAt}/{@code expiresAt}
+ * va {@code timestamp} qaytarilmaydi (frontend faqat {@code durationMinutes} ni ishlatadi).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GuestExamPool {
+
+    private static final int GUEST_QUESTION_COUNT = 20;
+    private static final int GUEST_DURATION_MINUTES = 20;
+    private static final int GUEST_PASSING_SCORE = 90;
+
+    /** Hovuzdagi tayyor imtihonlar soni. */
+    private static final int POOL_SIZE = 32;
+
+    private final QuestionBankSnapshot questionBank;
+    private final ObjectMapper objectMapper;
+
+    /** Tayyor javob: oddiy va gzip qilingan JSON baytlari. */
+    public record PooledExam(byte[] json, byte[] gzip) {}
+
+    private volatile List<PooledExam> pool;
+
+    /**
+     * Tasodifiy tayyor imtihon. Hovuz hali qurilmagan bo'lsa — shu yerda quriladi.
+     */
+    public PooledExam next() {
+        List<PooledExam> current = pool;
+        if (current == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    refresh();
+                }
+                current = pool;
+            }
+        }
+        return current.get(ThreadLocalRandom.current().nextInt(current.size()));
+    }
+
+    /**
+     * Har 2 daqiqada yangi tasodifiy to'plam — savollar banki o'zgarishlari
+     * ham shu orqali guest imtihonlarga yetib boradi.
+     */
+    @Scheduled(fixedDelay = 120_000, initialDelay = 120_000)
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // Eski hovuz ishlashda davom etadi
+            log.error("Guest exam pool refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void refresh() {
+        long t0 = System.currentTimeMillis();
+        QuestionBankSnapshot.Snapshot bank = questionBank.current();
+
+        // Bazada savol bo'lmasa — bitta bo'sh javob yetarli
+        int size = bank.size() == 0 ? 1 : POOL_SIZE;
+        List<PooledExam> built = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<Long> ids = bank.sampleIds(null, GUEST_QUESTION_COUNT);
+            built.add(serialize(buildExam(questionBank.toQuestionResponses(ids, true))));
+        }
+
+        pool = List.copyOf(built);
+
+        log.debug("Guest exam pool refreshed: exams={}, questions={}, took={}ms",
+                built.size(), bank.size(), System.currentTimeMillis() - t0);
+    }
+
+    private ExamResponse buildExam(List<QuestionResponse> questions) {
+        // Visible mode = true: to'g'ri javoblar va tushuntirishlar qaytariladi
+        return ExamResponse.builder()
+                .totalQuestions(questions.size())
+                .durationMinutes(GUEST_DURATION_MINUTES)
+                .passingScore(GUEST_PASSING_SCORE)
+                .isVisibleMode(true)
+                .isMarathonMode(false)
+                .questions(questions)
+                .build();
+    }
+
+    private PooledExam serialize(ExamResponse exam) {
+        ApiResponse<ExamResponse> body = ApiResponse.<ExamResponse>builder()
+                .success(true)
+                .data(exam)
+                .build();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new PooledExam(json, gzip(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,283 @@
+package uz.pravaimtihon.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uz.pravaimtihon.entity.User;
+import uz.pravaimtihon.entity.UserStatistics;
+import uz.pravaimtihon.util.AfterCommitBuffer;
+import uz.pravaimtihon.util.RankedSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Leaderboard uchun xotiradagi tartiblangan indeks ({@code user_statistics} nusxasi).
+ * <p>
+ * Avval har sahifa {@code user_statistics JOIN users} ustida ORDER BY + COUNT bilan
+ * o'qilardi va "mening o'rnim" uchun butun jadvalni ko'rib chiqish kerak edi.
+ * Endi har mavzu uchun va global reyting uchun {@link RankedSet} saqlanadi:
+ * sahifa, o'rin va "atrofimdagilar" — O(log n + sahifa).
+ * <p>
+ * Tartib bazadagi bilan bir xil, oxirida userId (va global uchun mavzu) —
+ * teng ballarda o'rin barqaror bo'lsin.
+ * <p>
+ * Yangilanish {@link #update(UserStatistics)} orqali commit'dan keyin qo'llanadi.
+ * Ism o'zgarishi, o'chirilgan foydalanuvchilar va admin tahrirlari davriy
+ * {@link #rebuild()} bilan tenglashadi. Qurilguncha {@link #isReady()} false —
+ * chaqiruvchi bazaga qaytadi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardIndex {
+
+    private static final String LOAD_SQL =
+            "SELECT us.user_id, us.topic, u.first_name, u.last_name, " +
+            "us.best_score, us.average_score, us.total_exams, us.current_streak " +
+            "FROM user_statistics us JOIN users u ON u.id = us.user_id";
+
+    private static final Comparator<Entry> TOPIC_ORDER = Comparator
+            .comparingDouble(Entry::bestScore).reversed()
+            .thenComparing(Comparator.comparingDouble(Entry::averageScore).reversed())
+            .thenComparingLong(Entry::userId);
+
+    private static final Comparator<Entry> GLOBAL_ORDER = Comparator
+            .comparingDouble(Entry::bestScore).reversed()
+            .thenComparing(Comparator.comparingDouble(Entry::averageScore).reversed())
+            .thenComparing(Comparator.comparingInt(Entry::totalExams).reversed())
+            .thenComparingLong(Entry::userId)
+            .thenComparing(Entry::topic);
+
+    /** Joriy tranzaksiyada yangilangan statistikalar. */
+    private final AfterCommitBuffer<Entry> pending = new AfterCommitBuffer<>(this::apply);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** lock ostida almashtiriladi */
+    private Boards boards = new Boards();
+
+    /** Qayta qurish paytida kelgan yangilanishlar — almashtirilgandan keyin qayta qo'llanadi. */
+    private List<Entry> replay;
+
+    private volatile boolean ready;
+
+    /** Reytingdagi bitta qator (bir foydalanuvchi + bir mavzu). */
+    public record Entry(long userId, String topic, String fullName, double bestScore,
+                        double averageScore, int totalExams, int currentStreak) {
+    }
+
+    /** @param rank 1 dan boshlanadi */
+    public record Ranked(int rank, Entry entry) {
+    }
+
+    /** Sahifa yoki oyna va reytingdagi jami qatorlar soni. */
+    public record Slice(List<Ranked> entries, int total) {
+    }
+
+    private static final class Boards {
+        final Map<String, RankedSet<Entry>> byTopic = new HashMap<>();
+        final RankedSet<Entry> global = new RankedSet<>(GLOBAL_ORDER);
+        /** userId → mavzu → joriy qator */
+        final Map<Long, Map<String, Entry>> byUser = new HashMap<>();
+
+        void put(Entry entry) {
+            Entry old = byUser.computeIfAbsent(entry.userId(), id -> new HashMap<>())
+                    .put(entry.topic(), entry);
+            RankedSet<Entry> topicBoard = byTopic.computeIfAbsent(entry.topic(),
+                    t -> new RankedSet<>(TOPIC_ORDER));
+            if (old != null) {
+                topicBoard.remove(old);
+                global.remove(old);
+            }
+            topicBoard.add(entry);
+            global.add(entry);
+        }
+
+        RankedSet<Entry> board(String topic) {
+            return topic == null ? global : byTopic.get(topic);
+        }
+
+        Entry entryOf(String topic, long userId) {
+            Map<String, Entry> own = byUser.get(userId);
+            if (own == null || own.isEmpty()) {
+                return null;
+            }
+            if (topic != null) {
+                return own.get(topic);
+            }
+            // global reytingda foydalanuvchining eng yuqori qatori
+            return Collections.min(own.values(), GLOBAL_ORDER);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * {@code updateFromSession()} + save() dan keyin chaqiriladi.
+     * Tranzaksiya ichida bo'lsa — commit'dan keyin qo'llanadi (rollback bo'lsa — yo'q).
+     */
+    public void update(UserStatistics stats) {
+        if (stats.getUser() == null) {
+            return;
+        }
+        Entry entry = new Entry(
+                stats.getUser().getId(),
+                stats.getTopic(),
+                stats.getUser().getFullName(),
+                orZero(stats.getBestScore()),
+                orZero(stats.getAverageScore()),
+                stats.getTotalExams() != null ? stats.getTotalExams() : 0,
+                stats.getCurrentStreak() != null ? stats.getCurrentStreak() : 0);
+        pending.add(entry);
+    }
+
+    /**
+     * Reyting sahifasi.
+     *
+     * @param topic null — global reyting
+     */
+    public Slice page(String topic, int page, int size) {
+        lock.readLock().lock();
+        try {
+            RankedSet<Entry> board = boards.board(topic);
+            if (board == null) {
+                return new Slice(List.of(), 0);
+            }
+            long from = (long) page * size;
+            if (from >= board.size()) {
+                return new Slice(List.of(), board.size());
+            }
+            return new Slice(ranked(board.range((int) from, size), (int) from), board.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Foydalanuvchining o'rni va undan yuqori/pastdagi {@code window} tadan qator.
+     *
+     * @param topic null — global reyting
+     * @return foydalanuvchi reytingda bo'lmasa — bo'sh
+     */
+    public Optional<Slice> around(String topic, long userId, int window) {
+        lock.readLock().lock();
+        try {
+            RankedSet<Entry> board = boards.board(topic);
+            Entry own = boards.entryOf(topic, userId);
+            if (board == null || own == null) {
+                return Optional.empty();
+            }
+            int rank = board.rank(own);
+            int from = Math.max(0, rank - window);
+            return Optional.of(new Slice(ranked(board.range(from, rank - from + window + 1), from), board.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Leaderboard index warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    /** Indeksni {@code user_statistics} dan qayta qurish (ism o'zgarishi, o'chirishlar). */
+    @Scheduled(fixedDelay = 30 * 60 * 1000, initialDelay = 30 * 60 * 1000)
+    public synchronized void rebuild() {
+        long t0 = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Boards fresh = new Boards();
+        try {
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                String fullName = User.builder()
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .build()
+                        .getFullName();
+                fresh.put(new Entry(
+                        rs.getLong("user_id"),
+                        rs.getString("topic"),
+                        fullName,
+                        rs.getDouble("best_score"),
+                        rs.getDouble("average_score"),
+                        rs.getInt("total_exams"),
+                        rs.getInt("current_streak")));
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int rows;
+        lock.writeLock().lock();
+        try {
+            // o'qish paytida commit bo'lgan yangilanishlar yo'qolmasin
+            replay.forEach(fresh::put);
+            replay = null;
+            boards = fresh;
+            rows = fresh.global.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        log.info("Leaderboard index rebuilt: rows={}, topics={}, {}ms",
+                rows, fresh.byTopic.size(), System.currentTimeMillis() - t0);
+    }
+
+    private void apply(List<Entry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : entries) {
+                boards.put(entry);
+                if (replay != null) {
+                    replay.add(entry);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<Ranked> ranked(List<Entry> entries, int offset) {
+        List<Ranked> result = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            result.add(new Ranked(offset + i + 1, entries.get(i)));
+        }
+        return result;
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
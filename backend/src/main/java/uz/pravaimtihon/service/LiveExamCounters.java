@@ -0,0 +1,127 @@
+package uz.pravaimtihon.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uz.pravaimtihon.util.AfterCommitBuffer;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin dashboard uchun "jonli" o'lchagichlar: faol imtihonlar, bugungi imtihonlar
+ * va bugungi faol foydalanuvchilar.
+ * <p>
+ * Dashboard javobi keshlanadi ({@code dashboard_stats}), lekin sessiya boshlanishi
+ * keshni tozalamaydi — shuning uchun bu qiymatlar eskirardi. Endi ular sessiya
+ * boshlanganda/tugaganda (commit'dan keyin) xotirada o'zgaradi va keshlangan
+ * javob ustiga qo'yiladi.
+ * <p>
+ * Boshqa instansiyalar, ABANDONED holatiga o'tish va qo'lda o'zgarishlar
+ * ko'rinmaydi — har daqiqada bazadan qayta tenglanadi ({@link #resync()}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveExamCounters {
+
+    private static final String RESYNC_SQL =
+            "SELECT COUNT(*) FILTER (WHERE status = 'IN_PROGRESS'), " +
+            "COUNT(*) FILTER (WHERE started_at > ?) " +
+            "FROM exam_sessions WHERE status = 'IN_PROGRESS' OR started_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong activeExams = new AtomicLong();
+    private final AtomicLong examsToday = new AtomicLong();
+    private volatile Set<Long> usersToday = ConcurrentHashMap.newKeySet();
+    private volatile LocalDate day = LocalDate.now();
+
+    private volatile boolean ready;
+
+    /** Joriy tranzaksiyada kutilayotgan o'zgarishlar — commit'dan keyin qo'llanadi. */
+    private final AfterCommitBuffer<Runnable> afterCommit =
+            new AfterCommitBuffer<>(actions -> actions.forEach(Runnable::run));
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long activeExams() {
+        return Math.max(0, activeExams.get());
+    }
+
+    public long examsToday() {
+        rollDay();
+        return examsToday.get();
+    }
+
+    public long activeUsersToday() {
+        rollDay();
+        return usersToday.size();
+    }
+
+    /** Sessiya IN_PROGRESS holatida yaratildi. */
+    public void onStarted(Long userId) {
+        afterCommit.add(() -> {
+            rollDay();
+            activeExams.incrementAndGet();
+            examsToday.incrementAndGet();
+            if (userId != null) {
+                usersToday.add(userId);
+            }
+        });
+    }
+
+    /** Sessiya IN_PROGRESS dan chiqdi (COMPLETED / EXPIRED). */
+    public void onFinished() {
+        afterCommit.add(activeExams::decrementAndGet);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        resync();
+    }
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public synchronized void resync() {
+        try {
+            LocalDate today = LocalDate.now();
+            Timestamp todayStart = Timestamp.valueOf(today.atStartOfDay());
+            jdbcTemplate.query(RESYNC_SQL, rs -> {
+                activeExams.set(rs.getLong(1));
+                examsToday.set(rs.getLong(2));
+            }, todayStart, todayStart);
+
+            Set<Long> users = ConcurrentHashMap.newKeySet();
+            users.addAll(jdbcTemplate.queryForList(
+                    "SELECT DISTINCT user_id FROM exam_sessions WHERE started_at > ?",
+                    Long.class, todayStart));
+            usersToday = users;
+            day = today;
+            ready = true;
+        } catch (Exception e) {
+            log.warn("Live exam counters resync failed: {}", e.getMessage());
+        }
+    }
+
+    private void rollDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(day)) {
+            synchronized (this) {
+                if (!today.equals(day)) {
+                    examsToday.set(0);
+                    usersToday = ConcurrentHashMap.newKeySet();
+                    day = today;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package uz.pravaimtihon.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.pravaimtihon.dto.mapper.ExamResponseMapper;
+import uz.pravaimtihon.dto.response.exam.CheckAnswerResponse;
+import uz.pravaimtihon.dto.response.exam.QuestionResponse;
+import uz.pravaimtihon.entity.Question;
+import uz.pravaimtihon.repository.QuestionRepository;
+import uz.pravaimtihon.util.AfterCommitBuffer;
+import uz.pravaimtihon.util.RandomSampler;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Savollar bankining o'zgarmas (immutable) xotiradagi nusxasi.
+ * <p>
+ * Imtihon/marafon/guest boshlanishida savollar va variantlar har safar
+ * Postgres'dan qayta yuklanmasligi uchun barcha faol savollar bir marta
+ * 4 tilli {@link QuestionResponse} ko'rinishida tayyorlab qo'yiladi.
+ * Shu bilan birga har bir mavzu uchun faol savol ID'lari massivi saqlanadi —
+ * tasodifiy tanlash {@code ORDER BY RANDOM()} o'rniga xotirada, O(k).
+ * <p>
+ * Nusxa versiyalangan va butunlay almashtiriladi (copy-on-write):
+ * o'quvchilar hech qachon qulflanmaydi va yarim qurilgan holatni ko'rmaydi.
+ * {@link #markDirty(Long)} savol o'zgartirilgan tranzaksiya COMMIT bo'lgach
+ * faqat o'sha savollarni qayta o'qiydi; bitta tranzaksiyadagi ko'p o'zgarish
+ * (masalan, bulk import) bitta yangilanishga birlashtiriladi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionBankSnapshot {
+
+    /** Bundan ko'p savol o'zgarsa, qisman emas — to'liq qayta quriladi. */
+    private static final int INCREMENTAL_LIMIT = 500;
+
+    private static final long[] EMPTY = new long[0];
+
+    private final QuestionRepository questionRepository;
+    private final ExamResponseMapper mapper;
+    private final PlatformTransactionManager txManager;
+
+    /** Har bir to'liq qayta qurish so'rovida oshadi. */
+    private final AtomicLong requestedVersion = new AtomicLong();
+
+    /** Joriy tranzaksiyada o'zgargan savol ID'lari (COMMIT'gacha). */
+    private final AfterCommitBuffer<Long> pendingChanges =
+            new AfterCommitBuffer<>(ids -> applyChanges(new HashSet<>(ids)));
+
+    private volatile Snapshot current;
+
+    /**
+     * Nusxadagi bitta savol. {@code template} visible rejimda qurilgan
+     * (to'g'ri javob + tushuntirish bilan) va hech qachon o'zgartirilmaydi.
+     */
+    public record CachedQuestion(Long id, Long topicId, Integer correctAnswerIndex, QuestionResponse template) {
+
+        /**
+         * Imtihon uchun yangi response — tartib raqami har sessiyada boshqacha,
+         * shuning uchun template'ning o'zi qaytarilmaydi.
+         */
+        public QuestionResponse toResponse(int order, boolean visibleMode) {
+            QuestionResponse.QuestionResponseBuilder builder = QuestionResponse.builder()
+                    .id(template.getId())
+                    .order(order)
+                    .text(template.getText())
+                    .imageUrl(template.getImageUrl())
+                    .options(template.getOptions());
+
+            if (visibleMode) {
+                builder.correctOptionIndex(template.getCorrectOptionIndex());
+                builder.explanation(template.getExplanation());
+            }
+            return builder.build();
+        }
+
+        /** Practice rejimidagi "bir bosishda tekshirish" — bazaga murojaatsiz. */
+        public CheckAnswerResponse toCheckAnswerResponse(Integer selectedIndex) {
+            return CheckAnswerResponse.builder()
+                    .questionId(id)
+                    .isCorrect(selectedIndex != null && selectedIndex.equals(correctAnswerIndex))
+                    .correctOptionIndex(correctAnswerIndex)
+                    .explanation(template.getExplanation())
+                    .build();
+        }
+    }
+
+    /**
+     * @param allIds      barcha faol savol ID'lari
+     * @param idsByTopic  mavzu ID -> shu mavzudagi faol savol ID'lari
+     */
+    public record Snapshot(long version,
+                           Map<Long, CachedQuestion> questions,
+                           long[] allIds,
+                           Map<Long, long[]> idsByTopic,
+                           LocalDateTime builtAt) {
+
+        public CachedQuestion get(Long id) {
+            return questions.get(id);
+        }
+
+        public boolean contains(Long id) {
+            return questions.containsKey(id);
+        }
+
+        public int size() {
+            return questions.size();
+        }
+
+        /** Mavzudagi faol savollar soni ({@code topicId == null} — barchasi). */
+        public int countActive(Long topicId) {
+            return pool(topicId).length;
+        }
+
+        /**
+         * k ta takrorlanmas tasodifiy savol ID'si ({@code topicId == null} — barcha mavzulardan).
+         * Yetarli savol bo'lmasa, borining hammasi (aralashtirilgan) qaytariladi.
+         */
+        public List<Long> sampleIds(Long topicId, int k) {
+            return RandomSampler.sample(pool(topicId), k);
+        }
+
+        private long[] pool(Long topicId) {
+            return topicId == null ? allIds : idsByTopic.getOrDefault(topicId, EMPTY);
+        }
+    }
+
+    // ============================================
+    // O'QISH
+    // ============================================
+
+    /**
+     * Joriy nusxa. Ilova endigina ishga tushgan bo'lsa (hali qurilmagan),
+     * shu yerning o'zida sinxron quriladi.
+     */
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (current == null) {
+                    rebuild();
+                }
+                snapshot = current;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Berilgan ID'lar uchun response'lar — berilgan tartibda.
+     * Nusxada yo'q (o'chirilgan/nofaol) savollar tashlab ketiladi.
+     */
+    public List<QuestionResponse> toQuestionResponses(List<Long> questionIds, boolean visibleMode) {
+        Snapshot snapshot = current();
+        List<QuestionResponse> result = new ArrayList<>(questionIds.size());
+        int order = 0;
+        for (Long id : questionIds) {
+            CachedQuestion cached = snapshot.get(id);
+            if (cached != null) {
+                result.add(cached.toResponse(order++, visibleMode));
+            }
+        }
+        return result;
+    }
+
+    // ============================================
+    // YANGILASH
+    // ============================================
+
+    /**
+     * Bitta savol o'zgardi (yaratildi/tahrirlandi/o'chirildi/holati o'zgardi).
+     * Tranzaksiya ichida chaqirilsa, yangilanish COMMIT'dan keyin bajariladi
+     * (ROLLBACK bo'lsa — bajarilmaydi).
+     */
+    public void markDirty(Long questionId) {
+        pendingChanges.add(questionId);
+    }
+
+    /**
+     * Savollar banki noma'lum tarzda o'zgardi — to'liq qayta qurish.
+     */
+    public void markDirty() {
+        requestedVersion.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuildIfStale();
+                }
+            });
+        } else {
+            rebuildIfStale();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuildIfStale();
+        } catch (Exception e) {
+            // Birinchi so'rovda current() qayta urinib ko'radi
+            log.warn("Question bank snapshot warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Savollar boshqa yo'llar bilan ham o'zgarishi mumkin (restore, initializer),
+     * shuning uchun nusxa vaqti-vaqti bilan to'liq yangilanadi.
+     */
+    @Scheduled(fixedDelay = 900_000, initialDelay = 900_000) // 15 daqiqa
+    public void scheduledRefresh() {
+        try {
+            requestedVersion.incrementAndGet();
+            rebuildIfStale();
+        } catch (Exception e) {
+            log.error("Question bank snapshot refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void rebuildIfStale() {
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.version() >= requestedVersion.get()) {
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Faqat o'zgargan savollarni qayta o'qib, yangi nusxani eski nusxadan
+     * ko'chirib yasaydi. Faqat ta'sirlangan mavzularning massivlari qayta tuziladi.
+     */
+    private synchronized void applyChanges(Set<Long> changedIds) {
+        Snapshot base = current;
+        if (base == null || changedIds.size() > INCREMENTAL_LIMIT) {
+            requestedVersion.incrementAndGet();
+            rebuildIfStale();
+            return;
+        }
+
+        // Faol savollar uchun yangi template; nofaol yoki topilmagan
+        // (o'chirilgan — @SQLRestriction ularni qaytarmaydi) savollar nusxadan chiqariladi
+        Map<Long, CachedQuestion> fresh = readOnlyTx().execute(status -> {
+            Map<Long, CachedQuestion> map = new HashMap<>();
+            for (Question q : questionRepository.findAllByIdInWithOptions(changedIds)) {
+                if (Boolean.TRUE.equals(q.getIsActive()) && !Boolean.TRUE.equals(q.getDeleted())) {
+                    map.put(q.getId(), toCached(q));
+                }
+            }
+            return map;
+        });
+
+        Map<Long, CachedQuestion> questions = new HashMap<>(base.questions());
+        Set<Long> touchedTopics = new HashSet<>();
+
+        for (Long id : changedIds) {
+            CachedQuestion old = questions.remove(id);
+            if (old != null) touchedTopics.add(old.topicId());
+
+            CachedQuestion cached = fresh.get(id);
+            if (cached != null) {
+                questions.put(id, cached);
+                touchedTopics.add(cached.topicId());
+            }
+        }
+
+        Map<Long, long[]> idsByTopic = new HashMap<>(base.idsByTopic());
+        Map<Long, List<Long>> rebuilt = new HashMap<>();
+        for (CachedQuestion cq : questions.values()) {
+            if (cq.topicId() != null && touchedTopics.contains(cq.topicId())) {
+                rebuilt.computeIfAbsent(cq.topicId(), t -> new ArrayList<>()).add(cq.id());
+            }
+        }
+        for (Long topicId : touchedTopics) {
+            if (topicId == null) continue;
+            List<Long> ids = rebuilt.get(topicId);
+            if (ids == null) {
+                idsByTopic.remove(topicId);
+            } else {
+                idsByTopic.put(topicId, toArray(ids));
+            }
+        }
+
+        current = new Snapshot(base.version(),
+                Collections.unmodifiableMap(questions),
+                toArray(questions.keySet()),
+                Collections.unmodifiableMap(idsByTopic),
+                LocalDateTime.now());
+
+        log.debug("Question bank snapshot updated incrementally: changed={}, questions={}",
+                changedIds.size(), questions.size());
+    }
+
+    private synchronized void rebuild() {
+        long version = requestedVersion.get();
+        long t0 = System.currentTimeMillis();
+
+        Map<Long, CachedQuestion> questions = readOnlyTx().execute(status -> {
+            List<Question> loaded = questionRepository.findAllActiveWithOptions();
+            Map<Long, CachedQuestion> map = new HashMap<>(loaded.size() * 2);
+            for (Question q : loaded) {
+                map.put(q.getId(), toCached(q));
+            }
+            return map;
+        });
+
+        Map<Long, List<Long>> byTopic = new HashMap<>();
+        for (CachedQuestion cq : questions.values()) {
+            if (cq.topicId() != null) {
+                byTopic.computeIfAbsent(cq.topicId(), t -> new ArrayList<>()).add(cq.id());
+            }
+        }
+        Map<Long, long[]> idsByTopic = new HashMap<>(byTopic.size() * 2);
+        byTopic.forEach((topicId, ids) -> idsByTopic.put(topicId, toArray(ids)));
+
+        current = new Snapshot(version,
+                Collections.unmodifiableMap(questions),
+                toArray(questions.keySet()),
+                Collections.unmodifiableMap(idsByTopic),
+                LocalDateTime.now());
+
+        log.info("Question bank snapshot rebuilt: version={}, questions={}, topics={}, took={}ms",
+                version, questions.size(), idsByTopic.size(), System.currentTimeMillis() - t0);
+    }
+
+    /**
+     * afterCommit ichida eski tranzaksiya resurslari hali bog'langan bo'ladi —
+     * shuning uchun alohida (REQUIRES_NEW) read-only tranzaksiya.
+     */
+    private TransactionTemplate readOnlyTx() {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.setReadOnly(true);
+        return tx;
+    }
+
+    private CachedQuestion toCached(Question q) {
+        return new CachedQuestion(
+                q.getId(),
+                q.getTopic() != null ? q.getTopic().getId() : null,
+                q.getCorrectAnswerIndex(),
+                mapper.toQuestionResponse(q, 0, true)
+        );
+    }
+
+    private static long[] toArray(Collection<Long> ids) {
+        long[] result = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            result[i++] = id;
+        }
+        return result;
+    }
+}
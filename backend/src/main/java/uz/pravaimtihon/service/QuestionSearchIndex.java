@@ -0,0 +1,230 @@
+package uz.pravaimtihon.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import uz.pravaimtihon.dto.response.exam.LocalizedText;
+import uz.pravaimtihon.service.QuestionBankSnapshot.CachedQuestion;
+import uz.pravaimtihon.service.QuestionBankSnapshot.Snapshot;
+import uz.pravaimtihon.util.SearchTextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Savollar matni bo'yicha xotiradagi trigram indeksi (4 til).
+ * <p>
+ * Avval admin qidiruvi {@code LOWER(col) LIKE '%x%'} ni to'rtta TEXT ustunda
+ * bajarardi — hech qaysi indeks ishlatilmaydi, har bosilgan tugma — to'liq skan.
+ * Endi {@link QuestionBankSnapshot} dagi faol savollar (qidiruv ham faqat
+ * faollarni qaytaradi) {@link SearchTextNormalizer} dan o'tkazilib trigram
+ * bo'yicha indekslanadi: kirill/lotin yozuvi va tutuq belgisi farqi ahamiyatsiz.
+ * <p>
+ * Indeks nusxaga bog'langan: nusxa almashsa (savol yaratildi/tahrirlandi —
+ * {@code markDirty}), keyingi qidiruvda qayta quriladi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionSearchIndex {
+
+    private final QuestionBankSnapshot questionBank;
+
+    private volatile Index index;
+
+    /** Natija: joriy sahifadagi savol ID'lari (reyting tartibida) va jami topilganlar. */
+    public record Result(List<Long> ids, int total) {
+    }
+
+    private record Doc(long id, Long topicId, String text) {
+    }
+
+    private record Scored(long id, int score, int length) {
+    }
+
+    private static final Comparator<Scored> RANKING = Comparator
+            .comparingInt(Scored::score).reversed()
+            .thenComparingInt(Scored::length)
+            .thenComparingLong(Scored::id);
+
+    private static final class Index {
+        final Snapshot source;
+        final Doc[] docs;
+        final Map<Long, int[]> postings;
+
+        Index(Snapshot source, Doc[] docs, Map<Long, int[]> postings) {
+            this.source = source;
+            this.docs = docs;
+            this.postings = postings;
+        }
+    }
+
+    /**
+     * Reytingli qidiruv. So'rovdagi har bir so'z savol matnida (istalgan tilda)
+     * bo'lishi kerak; to'liq ibora mos kelsa va so'zlar so'z boshidan mos kelsa
+     * yuqoriroq turadi.
+     *
+     * @param topicId null — barcha mavzular
+     */
+    public Result search(String query, Long topicId, int page, int size) {
+        String normalized = SearchTextNormalizer.normalize(query);
+        if (normalized.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        String[] tokens = normalized.split(" ");
+        Index idx = current();
+
+        List<Scored> hits = new ArrayList<>();
+        for (int d : candidates(idx, tokens)) {
+            Doc doc = idx.docs[d];
+            if (topicId != null && !topicId.equals(doc.topicId())) {
+                continue;
+            }
+            int score = score(doc.text(), normalized, tokens);
+            if (score > 0) {
+                hits.add(new Scored(doc.id(), score, doc.text().length()));
+            }
+        }
+        hits.sort(RANKING);
+
+        int from = (int) Math.min((long) page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(hits.get(i).id());
+        }
+        return new Result(ids, hits.size());
+    }
+
+    private Index current() {
+        Snapshot snapshot = questionBank.current();
+        Index idx = index;
+        if (idx != null && idx.source == snapshot) {
+            return idx;
+        }
+        synchronized (this) {
+            snapshot = questionBank.current();
+            if (index == null || index.source != snapshot) {
+                index = build(snapshot);
+            }
+            return index;
+        }
+    }
+
+    private static Index build(Snapshot snapshot) {
+        long t0 = System.currentTimeMillis();
+        Doc[] docs = new Doc[snapshot.size()];
+        Map<Long, List<Integer>> lists = new HashMap<>();
+        int d = 0;
+        for (CachedQuestion cq : snapshot.questions().values()) {
+            LocalizedText text = cq.template().getText();
+            String normalized = text == null ? "" : String.join(" \n ",
+                    SearchTextNormalizer.normalize(text.getUzl()),
+                    SearchTextNormalizer.normalize(text.getUzc()),
+                    SearchTextNormalizer.normalize(text.getEn()),
+                    SearchTextNormalizer.normalize(text.getRu()));
+            docs[d] = new Doc(cq.id(), cq.topicId(), normalized);
+            for (long gram : trigrams(normalized)) {
+                List<Integer> list = lists.computeIfAbsent(gram, g -> new ArrayList<>());
+                // trigramlar hujjat bo'yicha ketma-ket — takrorni oxirgi element bilan tekshirish yetarli
+                if (list.isEmpty() || list.get(list.size() - 1) != d) {
+                    list.add(d);
+                }
+            }
+            d++;
+        }
+        Map<Long, int[]> postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((gram, list) -> postings.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        log.info("Question search index built: docs={}, trigrams={}, {}ms",
+                docs.length, postings.size(), System.currentTimeMillis() - t0);
+        return new Index(snapshot, docs, postings);
+    }
+
+    /** Barcha so'zlarning trigramlari kesishmasi; 3 harfdan qisqa so'z — tekshiruvda. */
+    private static int[] candidates(Index idx, String[] tokens) {
+        List<int[]> lists = new ArrayList<>();
+        for (String token : tokens) {
+            for (long gram : trigrams(token)) {
+                int[] list = idx.postings.get(gram);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            // faqat qisqa so'zlar — barcha hujjatlar tekshiriladi
+            int[] all = new int[idx.docs.length];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        lists.sort(Comparator.comparingInt(a -> a.length));
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static int score(String text, String phrase, String[] tokens) {
+        int score = 0;
+        int phraseAt = text.indexOf(phrase);
+        if (phraseAt >= 0) {
+            score += 100 + (isWordStart(text, phraseAt) ? 20 : 0);
+        }
+        for (String token : tokens) {
+            int at = text.indexOf(token);
+            if (at < 0) {
+                return 0;
+            }
+            score += isWordStart(text, at) ? 10 : 5;
+        }
+        return score;
+    }
+
+    private static boolean isWordStart(String text, int at) {
+        return at == 0 || text.charAt(at - 1) == ' ';
+    }
+
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        int n = 0;
+        for (int i = 0; i + 2 < text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == ' ' || c == ' ' || b == '\n' || a == '\n' || c == '\n') {
+                continue; // so'zlar chegarasidan o'tadigan trigramlar kerak emas
+            }
+            grams[n++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        return Arrays.copyOf(grams, n);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,116 @@
+package uz.pravaimtihon.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uz.pravaimtihon.util.AfterCommitBuffer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code questions.times_used} / {@code times_answered_correctly} uchun write-behind hisoblagich.
+ * <p>
+ * Avval har submit'da {@code question.recordAnswer(...)} 100 tagacha umumiy
+ * (hamma foydalanuvchilar tegadigan) Question qatorini {@code @Version} bilan
+ * yangilardi — lock contention va OptimisticLock xatolari. Endi oshirishlar
+ * xotiradagi {@link LongAdder} larda yig'iladi va har 30 soniyada bitta
+ * batch {@code UPDATE ... SET times_used = times_used + ?} bilan yoziladi.
+ * <p>
+ * Oshirishlar tranzaksiya commit bo'lgandan keyin qo'shiladi (rollback
+ * bo'lsa — hisobga olinmaydi). Ilova to'xtaganda qoldiq yoziladi.
+ * Question entity'da bu ustunlar {@code updatable = false} — JPA ularni
+ * eski qiymat bilan ustidan yozmaydi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionUsageAggregator {
+
+    private static final String UPDATE_SQL =
+            "UPDATE questions SET " +
+            "times_used = COALESCE(times_used, 0) + ?, " +
+            "times_answered_correctly = COALESCE(times_answered_correctly, 0) + ?, " +
+            "updated_at = ? " +
+            "WHERE id = ?";
+
+    /** Joriy tranzaksiyada yig'ilgan javoblar: [questionId, correct ? 1 : 0]. */
+    private final AfterCommitBuffer<long[]> pending = new AfterCommitBuffer<>(recorded -> {
+        for (long[] r : recorded) {
+            add(r[0], 1, r[1]);
+        }
+    });
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Savol ID → hisoblagichlar. Yozuvlar o'chirilmaydi (savollar soni cheklangan) —
+     * aks holda flush va oshirish orasidagi poyga qiymat yo'qotishi mumkin.
+     */
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    private static final class Counters {
+        final LongAdder used = new LongAdder();
+        final LongAdder correct = new LongAdder();
+    }
+
+    /**
+     * Bitta javobni qayd qilish. Tranzaksiya ichida chaqirilsa — commit'dan keyin qo'shiladi.
+     */
+    public void recordAnswer(Long questionId, boolean correct) {
+        if (questionId == null) return;
+        pending.add(new long[]{questionId, correct ? 1 : 0});
+    }
+
+    /**
+     * Yig'ilgan oshirishlarni bazaga yozish. Xato bo'lsa qiymatlar qaytarib
+     * qo'yiladi va keyingi flush'da qayta uriniladi.
+     */
+    @Scheduled(fixedDelay = 30_000, initialDelay = 30_000)
+    public synchronized void flush() {
+        // id bo'yicha tartib — bir nechta instansiya bir vaqtda yozganda deadlock bo'lmasin
+        Map<Long, long[]> drained = new TreeMap<>();
+        counters.forEach((id, c) -> {
+            long used = c.used.sumThenReset();
+            long correct = c.correct.sumThenReset();
+            if (used != 0 || correct != 0) {
+                drained.put(id, new long[]{used, correct});
+            }
+        });
+        if (drained.isEmpty()) return;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(drained.size());
+        drained.forEach((id, d) -> args.add(new Object[]{d[0], d[1], now, id}));
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+            log.debug("Question usage flushed: questions={}", drained.size());
+        } catch (Exception e) {
+            drained.forEach((id, d) -> add(id, d[0], d[1]));
+            log.error("Question usage flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void add(long questionId, long used, long correct) {
+        Counters c = counters.computeIfAbsent(questionId, id -> new Counters());
+        c.used.add(used);
+        if (correct != 0) {
+            c.correct.add(correct);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 import uz.pravaimtihon.dto.mapper.ExamResponseMapper;
 import uz.pravaimtihon.dto.request.TicketCreateRequest;
 import uz.pravaimtihon.dto.request.TicketStartRequest;
+import uz.pravaimtihon.dto.response.CursorPageResponse;
 import uz.pravaimtihon.dto.response.exam.*;
 import uz.pravaimtihon.entity.*;
 import uz.pravaimtihon.enums.AcceptLanguage;
@@ -17,8 +18,8 @@ import uz.pravaimtihon.exception.BusinessException;
 import uz.pravaimtihon.exception.ResourceNotFoundException;
 import uz.pravaimtihon.repository.*;
 import uz.pravaimtihon.security.SecurityUtils;
+import uz.pravaimtihon.util.KeysetCursor;
 
-import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -46,6 +47,9 @@ public class TicketService {
     private final ExamSessionRepository sessionRepository;
     private final ExamAnswerRepository answerRepository;
     private final ExamResponseMapper mapper;
+    private final QuestionBankSnapshot questionBank;
+    private final ExamAnswerBatchWriter answerBatchWriter;
+    private final ExamRollupService rollupService;
 
     // ============================================
     // BILET YARATISH
@@ -286,6 +290,22 @@ public class TicketService {
         return tickets.map(t -> toTicketResponse(t, false));
     }
 
+    /**
+     * Barcha biletlar — keyset (cursor) sahifalash, {@code (ticketNumber, id)} ASC.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TicketResponse> getAllTicketsCursor(String cursor, int size, boolean includeTotal) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<Ticket> rows = after == null
+                ? ticketRepository.findActiveFirst(KeysetCursor.limit(pageSize))
+                : ticketRepository.findActiveAfter(after.intKey(), after.id(), KeysetCursor.limit(pageSize));
+        return CursorPageResponse.of(rows, pageSize,
+                t -> KeysetCursor.of(t.getTicketNumber(), t.getId()).encode(),
+                t -> toTicketResponse(t, false),
+                includeTotal ? ticketRepository.countActiveTickets() : null);
+    }
+
     // ============================================
     // BILET ORQALI TEST BOSHLASH
     // ============================================
@@ -355,13 +375,16 @@ public class TicketService {
             // `JOIN FETCH` + `Pageable` bo'lgani uchun Hibernate LIMIT'ni
             // SQL'ga qo'sha olmasdi va BUTUN savollar jadvalini xotiraga
             // yuklab, sahifalashni Java'da bajarardi (HHH90003004).
-            // Endi: DB tomonda random + LIMIT bilan ID'lar, so'ng o'sha
-            // ID'lar uchun variantlar bitta so'rovda.
-            List<Long> randomIds = (ticket.getTopic() != null)
-                    ? questionRepository.findRandomQuestionIdsByTopic(
-                            ticket.getTopic(), PageRequest.of(0, missing * 3))
-                    : questionRepository.findRandomQuestionIds(
-                            PageRequest.of(0, missing * 3));
+            // Endi: tasodifiy ID'lar QuestionBankSnapshot'dan (ORDER BY RANDOM()
+            // o'rniga, O(k)), so'ng o'sha ID'lar uchun variantlar bitta so'rovda.
+            // Biletdagi savollar ham tanlanib qolishi mumkin — shuning uchun zaxira bilan.
+            List<Long> randomIds = questionBank.current().sampleIds(
+                            ticket.getTopic() != null ? ticket.getTopic().getId() : null,
+                            missing + usedIds.size())
+                    .stream()
+                    .filter(id -> !usedIds.contains(id))
+                    .limit(missing)
+                    .collect(Collectors.toList());
 
             List<Question> randomQuestions = randomIds.isEmpty()
                     ? List.of()
@@ -427,9 +450,11 @@ public class TicketService {
 
         session.start();
         session = sessionRepository.save(session);
+        rollupService.recordStarted(session);
 
-        // ExamAnswer yaratish
-        List<ExamAnswer> examAnswers = new ArrayList<>();
+        // ExamAnswer yaratish — bitta multi-values INSERT (ExamAnswerBatchWriter).
+        // Qatorlar persistence context'ga kirmaydi, shuning uchun setAnswers yo'q.
+        List<ExamAnswerBatchWriter.NewAnswer> rows = new ArrayList<>(questions.size());
         int order = 0;
         for (int i = 0; i < questions.size(); i++) {
             Question question = questions.get(i);
@@ -437,16 +462,10 @@ public class TicketService {
                 log.warn("Bilet savollar ro'yxatida null element topildi: ticketId={}, index={}", session.getTicket() != null ? session.getTicket().getId() : "?", i);
                 continue;
             }
-            ExamAnswer answer = ExamAnswer.builder()
-                    .examSession(session)
-                    .question(question)
-                    .questionOrder(order++)
-                    .correctOptionIndex(question.getCorrectAnswerIndex())
-                    .build();
-            examAnswers.add(answer);
+            rows.add(new ExamAnswerBatchWriter.NewAnswer(
+                    question.getId(), order++, question.getCorrectAnswerIndex()));
         }
-        answerRepository.saveAll(examAnswers);
-        session.setAnswers(examAnswers);
+        answerBatchWriter.insertAll(session.getId(), rows);
 
         return session;
     }
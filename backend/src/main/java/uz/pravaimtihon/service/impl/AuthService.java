@@ -24,6 +24,7 @@ import uz.pravaimtihon.exception.*;
 import uz.pravaimtihon.repository.RefreshTokenRepository;
 import uz.pravaimtihon.repository.UserRepository;
 import uz.pravaimtihon.security.CustomUserDetails;
+import uz.pravaimtihon.security.CustomUserDetailsService;
 import uz.pravaimtihon.security.JwtTokenProvider;
 import uz.pravaimtihon.security.SecurityUtils;
 import uz.pravaimtihon.service.DeviceManagementService;
@@ -56,6 +57,7 @@ public class AuthService {
     private final TelegramAuthService telegramAuthService;
     private final TelegramTokenStore telegramTokenStore;
     private final DeviceManagementService deviceManagementService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Value("${app.oauth.google.auto-register:true}")
     private boolean autoRegister;
@@ -372,6 +374,7 @@ public class AuthService {
         userRepository.save(user);
 
         refreshTokenRepository.revokeAllByUserId(user.getId(), LocalDateTime.now());
+        userDetailsService.evictUser(user.getId());
 
         log.info("Password reset successfully for user: {} [lang={}]", user.getId(), language);
     }
@@ -403,6 +406,7 @@ public class AuthService {
 
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        userDetailsService.evictUser(userId);
 
         log.info("Password changed successfully for user: {} [lang={}]", userId, language);
     }
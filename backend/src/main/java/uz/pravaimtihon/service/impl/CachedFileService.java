@@ -22,35 +22,17 @@ public class CachedFileService {
     }
 
     /**
-     * ✅ Get file with caching
-     * Cache key: folder + filename
-     * TTL: 1 hour (configured in application.yaml)
+     * {@code uploads/<folder>/<filename>} yo'li (upload papkasidan chiqib ketmasligi tekshiriladi).
+     * Fayl baytlari endi keshlanmaydi — {@link MediaFileServer} diskdan to'g'ridan-to'g'ri uzatadi.
      */
-    @Cacheable(value = "fileCache", key = "#folder + ':' + #filename")
-    public byte[] getCachedFile(String folder, String filename) {
-        try {
-            Path uploadDir = this.uploadDir;
-            Path filePath = uploadDir.resolve(folder).resolve(filename).normalize();
+    public Path resolve(String folder, String filename) {
+        Path filePath = uploadDir.resolve(folder).resolve(filename).normalize();
 
-            // Security check
-            if (!filePath.startsWith(uploadDir)) {
-                throw new FileStorageException("Invalid file path");
-            }
-
-            if (!Files.exists(filePath)) {
-                log.warn("File not found: {}", filePath);
-                throw new FileStorageException("File not found: " + filename);
-            }
-
-            byte[] fileData = Files.readAllBytes(filePath);
-            log.debug("✅ File loaded (will be cached): {}/{}", folder, filename);
-
-            return fileData;
-
-        } catch (IOException e) {
-            log.error("Error reading file: {}/{}", folder, filename, e);
-            throw new FileStorageException("Failed to read file: " + e.getMessage());
+        // Security check
+        if (!filePath.startsWith(uploadDir.resolve(folder))) {
+            throw new FileStorageException("Invalid file path");
         }
+        return filePath;
     }
 
     /**
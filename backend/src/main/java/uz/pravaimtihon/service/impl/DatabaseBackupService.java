@@ -1,20 +1,38 @@
 package uz.pravaimtihon.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import uz.pravaimtihon.dto.response.DatabaseBackupResponse;
-import uz.pravaimtihon.entity.*;
-import uz.pravaimtihon.repository.*;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * @deprecated v1.0 legacy backup servisi. Endi ishlatilmaydi.
- *             Yangi tizim: {@link uz.pravaimtihon.backup.service.ProductionBackupService}
+ * v1.0 JSON backup ({@code /api/v1/admin/system/backup}) — oqimli yozuvchi.
+ * <p>
+ * Javob shakli avvalgidek: {@code {success, message, data: {backupDate, backupVersion,
+ * statistics, users: [...], topics: [...], ...}, timestamp}}. Farqi — hech bir jadval
+ * xotiraga yig'ilmaydi: har jadval server-side JDBC cursor ({@code fetchSize}) bilan
+ * o'qilib, har qator darhol {@link JsonGenerator} orqali response oqimiga yoziladi.
+ * Heap jadval hajmiga bog'liq emas.
+ * <p>
+ * Hammasi bitta REPEATABLE_READ read-only tranzaksiyada: {@code statistics} dagi sonlar
+ * va yozilgan qatorlar bir xil snapshot'dan.
+ *
+ * @deprecated v1.0 legacy backup formati. To'liq backup/restore uchun
+ *             {@link uz.pravaimtihon.backup.service.ProductionBackupService}
  *             va {@link uz.pravaimtihon.backup.service.ProductionRestoreService} ishlatilsin.
  */
 @Deprecated(since = "2.0", forRemoval = true)
@@ -23,352 +41,211 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DatabaseBackupService {
 
-    private final UserRepository userRepository;
-    private final TopicRepository topicRepository;
-    private final QuestionRepository questionRepository;
-    private final QuestionOptionRepository questionOptionRepository;
-    private final ExamPackageRepository examPackageRepository;
-    private final TicketRepository ticketRepository;
-    private final ExamSessionRepository examSessionRepository;
-    private final ExamAnswerRepository examAnswerRepository;
-    private final UserStatisticsRepository userStatisticsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager txManager;
 
     private static final String BACKUP_VERSION = "1.0";
+    private static final int FETCH_SIZE = 500;
+
+    /** BaseEntity ustunlari (audit, soft delete, version). */
+    private static final String BASE_COLUMNS =
+            "created_at AS \"createdAt\", created_by AS \"createdBy\", " +
+            "updated_at AS \"updatedAt\", updated_by AS \"updatedBy\", " +
+            "deleted AS \"deleted\", deleted_at AS \"deletedAt\", deleted_by AS \"deletedBy\", " +
+            "version AS \"version\"";
 
     /**
-     * Barcha ma'lumotlarni yig'ib backup qilish
+     * Jadval: JSON maydoni, ustunlar (JSON kalitlari alias sifatida), FROM qismi va tartib.
+     * {@code statField} — {@code statistics} dagi son maydoni (bog'lanish jadvallarida null).
      */
-    @Transactional(readOnly = true)
-    public DatabaseBackupResponse createFullBackup() {
-        log.info("DATABASE BACKUP STARTED at {}", LocalDateTime.now());
-        long startTime = System.currentTimeMillis();
-
-        // Barcha ma'lumotlarni yuklash
-        List<Map<String, Object>> users = exportUsers();
-        List<Map<String, Object>> topics = exportTopics();
-        List<Map<String, Object>> questions = exportQuestions();
-        List<Map<String, Object>> questionOptions = exportQuestionOptions();
-        List<Map<String, Object>> examPackages = exportExamPackages();
-        List<Map<String, Object>> packageQuestionIds = exportPackageQuestions();
-        List<Map<String, Object>> tickets = exportTickets();
-        List<Map<String, Object>> ticketQuestionIds = exportTicketQuestions();
-        List<Map<String, Object>> examSessions = exportExamSessions();
-        List<Map<String, Object>> examAnswers = exportExamAnswers();
-        List<Map<String, Object>> userStatistics = exportUserStatistics();
-
-        // Statistika
-        long totalRecords = users.size() + topics.size() + questions.size() +
-                questionOptions.size() + examPackages.size() + tickets.size() +
-                examSessions.size() + examAnswers.size() + userStatistics.size();
-
-        DatabaseBackupResponse.BackupStatistics statistics = DatabaseBackupResponse.BackupStatistics.builder()
-                .userCount(users.size())
-                .topicCount(topics.size())
-                .questionCount(questions.size())
-                .questionOptionCount(questionOptions.size())
-                .examPackageCount(examPackages.size())
-                .ticketCount(tickets.size())
-                .examSessionCount(examSessions.size())
-                .examAnswerCount(examAnswers.size())
-                .userStatisticsCount(userStatistics.size())
-                .totalRecords(totalRecords)
-                .build();
-
-        long duration = System.currentTimeMillis() - startTime;
-        log.info("DATABASE BACKUP COMPLETED in {} ms. Total records: {}", duration, totalRecords);
-
-        return DatabaseBackupResponse.builder()
-                .backupDate(LocalDateTime.now())
-                .backupVersion(BACKUP_VERSION)
-                .statistics(statistics)
-                .users(users)
-                .topics(topics)
-                .questions(questions)
-                .questionOptions(questionOptions)
-                .examPackages(examPackages)
-                .packageQuestionIds(packageQuestionIds)
-                .tickets(tickets)
-                .ticketQuestionIds(ticketQuestionIds)
-                .examSessions(examSessions)
-                .examAnswers(examAnswers)
-                .userStatistics(userStatistics)
-                .build();
-    }
-
-    // ============================================
-    // Export Methods - har bir entity uchun
-    // ============================================
-
-    private List<Map<String, Object>> exportUsers() {
-        return userRepository.findAll().stream()
-                .map(user -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", user.getId());
-                    map.put("firstName", user.getFirstName());
-                    map.put("lastName", user.getLastName());
-                    map.put("phoneNumber", user.getPhoneNumber());
-                    map.put("email", user.getEmail());
-                    // passwordHash ni ham saqlaymiz (backup uchun kerak)
-                    map.put("passwordHash", user.getPasswordHash());
-                    map.put("role", user.getRole() != null ? user.getRole().name() : null);
-                    map.put("preferredLanguage", user.getPreferredLanguage() != null ? user.getPreferredLanguage().name() : null);
-                    map.put("isActive", user.getIsActive());
-                    map.put("isEmailVerified", user.getIsEmailVerified());
-                    map.put("isPhoneVerified", user.getIsPhoneVerified());
-                    map.put("lastLoginAt", user.getLastLoginAt());
-                    map.put("failedLoginAttempts", user.getFailedLoginAttempts());
-                    map.put("googleId", user.getGoogleId());
-                    map.put("telegramId", user.getTelegramId());
-                    map.put("telegramUsername", user.getTelegramUsername());
-                    map.put("oauthProvider", user.getOauthProvider() != null ? user.getOauthProvider().name() : null);
-                    map.put("profileImageUrl", user.getProfileImageUrl());
-                    map.put("accountLockedUntil", user.getAccountLockedUntil());
-                    map.put("maxDevices", user.getMaxDevices());
-                    map.put("activeDeviceCount", user.getActiveDeviceCount());
-                    map.put("deviceLimitCustomized", user.getDeviceLimitCustomized());
-                    // BaseEntity fields
-                    putBaseFields(map, user);
-                    return map;
-                })
-                .collect(Collectors.toList());
+    private record Section(String field, String statField, String columns, String from, String orderBy) {
+        String selectSql() {
+            return "SELECT " + columns + " " + from + " ORDER BY " + orderBy;
+        }
+
+        String countSql() {
+            return "SELECT COUNT(*) " + from;
+        }
     }
 
-    private List<Map<String, Object>> exportTopics() {
-        return topicRepository.findAll().stream()
-                .map(topic -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", topic.getId());
-                    map.put("code", topic.getCode());
-                    map.put("nameUzl", topic.getNameUzl());
-                    map.put("nameUzc", topic.getNameUzc());
-                    map.put("nameEn", topic.getNameEn());
-                    map.put("nameRu", topic.getNameRu());
-                    map.put("descriptionUzl", topic.getDescriptionUzl());
-                    map.put("descriptionUzc", topic.getDescriptionUzc());
-                    map.put("descriptionEn", topic.getDescriptionEn());
-                    map.put("descriptionRu", topic.getDescriptionRu());
-                    map.put("isActive", topic.getIsActive());
-                    map.put("iconUrl", topic.getIconUrl());
-                    map.put("displayOrder", topic.getDisplayOrder());
-                    map.put("questionCount", topic.getQuestionCount());
-                    putBaseFields(map, topic);
-                    return map;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private List<Map<String, Object>> exportQuestions() {
-        return questionRepository.findAll().stream()
-                .map(question -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", question.getId());
-                    map.put("textUzl", question.getTextUzl());
-                    map.put("textUzc", question.getTextUzc());
-                    map.put("textEn", question.getTextEn());
-                    map.put("textRu", question.getTextRu());
-                    map.put("explanationUzl", question.getExplanationUzl());
-                    map.put("explanationUzc", question.getExplanationUzc());
-                    map.put("explanationEn", question.getExplanationEn());
-                    map.put("explanationRu", question.getExplanationRu());
-                    map.put("topicId", question.getTopic() != null ? question.getTopic().getId() : null);
-                    map.put("difficulty", question.getDifficulty() != null ? question.getDifficulty().name() : null);
-                    map.put("correctAnswerIndex", question.getCorrectAnswerIndex());
-                    map.put("imageUrl", question.getImageUrl());
-                    map.put("isActive", question.getIsActive());
-                    map.put("timesUsed", question.getTimesUsed());
-                    map.put("timesAnsweredCorrectly", question.getTimesAnsweredCorrectly());
-                    putBaseFields(map, question);
-                    return map;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private List<Map<String, Object>> exportQuestionOptions() {
-        return questionOptionRepository.findAll().stream()
-                .map(option -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", option.getId());
-                    map.put("questionId", option.getQuestion() != null ? option.getQuestion().getId() : null);
-                    map.put("optionIndex", option.getOptionIndex());
-                    map.put("textUzl", option.getTextUzl());
-                    map.put("textUzc", option.getTextUzc());
-                    map.put("textEn", option.getTextEn());
-                    map.put("textRu", option.getTextRu());
-                    putBaseFields(map, option);
-                    return map;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private List<Map<String, Object>> exportExamPackages() {
-        return examPackageRepository.findAll().stream()
-                .map(pkg -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", pkg.getId());
-                    map.put("nameUzl", pkg.getNameUzl());
-                    map.put("nameUzc", pkg.getNameUzc());
-                    map.put("nameEn", pkg.getNameEn());
-                    map.put("nameRu", pkg.getNameRu());
-                    map.put("descriptionUzl", pkg.getDescriptionUzl());
-                    map.put("descriptionUzc", pkg.getDescriptionUzc());
-                    map.put("descriptionEn", pkg.getDescriptionEn());
-                    map.put("descriptionRu", pkg.getDescriptionRu());
-                    map.put("questionCount", pkg.getQuestionCount());
-                    map.put("durationMinutes", pkg.getDurationMinutes());
-                    map.put("passingScore", pkg.getPassingScore());
-                    map.put("generationType", pkg.getGenerationType() != null ? pkg.getGenerationType().name() : null);
-                    map.put("topicId", pkg.getTopic() != null ? pkg.getTopic().getId() : null);
-                    map.put("isFree", pkg.getIsFree());
-                    map.put("price", pkg.getPrice());
-                    map.put("orderIndex", pkg.getOrderIndex());
-                    map.put("isActive", pkg.getIsActive());
-                    putBaseFields(map, pkg);
-                    return map;
-                })
-                .collect(Collectors.toList());
-    }
+    private static final Section[] SECTIONS = {
+            new Section("users", "userCount",
+                    "id AS \"id\", first_name AS \"firstName\", last_name AS \"lastName\", " +
+                    "phone_number AS \"phoneNumber\", email AS \"email\", password_hash AS \"passwordHash\", " +
+                    "role AS \"role\", preferred_language AS \"preferredLanguage\", is_active AS \"isActive\", " +
+                    "is_email_verified AS \"isEmailVerified\", is_phone_verified AS \"isPhoneVerified\", " +
+                    "last_login_at AS \"lastLoginAt\", failed_login_attempts AS \"failedLoginAttempts\", " +
+                    "google_id AS \"googleId\", telegram_id AS \"telegramId\", " +
+                    "telegram_username AS \"telegramUsername\", oauth_provider AS \"oauthProvider\", " +
+                    "profile_image_url AS \"profileImageUrl\", account_locked_until AS \"accountLockedUntil\", " +
+                    "max_devices AS \"maxDevices\", active_device_count AS \"activeDeviceCount\", " +
+                    "device_limit_customized AS \"deviceLimitCustomized\", " + BASE_COLUMNS,
+                    "FROM users", "id"),
+            new Section("topics", "topicCount",
+                    "id AS \"id\", code AS \"code\", name_uzl AS \"nameUzl\", name_uzc AS \"nameUzc\", " +
+                    "name_en AS \"nameEn\", name_ru AS \"nameRu\", description_uzl AS \"descriptionUzl\", " +
+                    "description_uzc AS \"descriptionUzc\", description_en AS \"descriptionEn\", " +
+                    "description_ru AS \"descriptionRu\", is_active AS \"isActive\", icon_url AS \"iconUrl\", " +
+                    "display_order AS \"displayOrder\", question_count AS \"questionCount\", " + BASE_COLUMNS,
+                    "FROM topics", "id"),
+            // Question — @SQLRestriction("deleted = false"): avvalgi findAll() bilan bir xil
+            new Section("questions", "questionCount",
+                    "id AS \"id\", text_uzl AS \"textUzl\", text_uzc AS \"textUzc\", text_en AS \"textEn\", " +
+                    "text_ru AS \"textRu\", explanation_uzl AS \"explanationUzl\", " +
+                    "explanation_uzc AS \"explanationUzc\", explanation_en AS \"explanationEn\", " +
+                    "explanation_ru AS \"explanationRu\", topic_id AS \"topicId\", difficulty AS \"difficulty\", " +
+                    "correct_answer_index AS \"correctAnswerIndex\", image_url AS \"imageUrl\", " +
+                    "is_active AS \"isActive\", times_used AS \"timesUsed\", " +
+                    "times_answered_correctly AS \"timesAnsweredCorrectly\", " + BASE_COLUMNS,
+                    "FROM questions WHERE deleted = false", "id"),
+            new Section("questionOptions", "questionOptionCount",
+                    "id AS \"id\", question_id AS \"questionId\", option_index AS \"optionIndex\", " +
+                    "text_uzl AS \"textUzl\", text_uzc AS \"textUzc\", text_en AS \"textEn\", " +
+                    "text_ru AS \"textRu\", " + BASE_COLUMNS,
+                    "FROM question_options", "id"),
+            new Section("examPackages", "examPackageCount",
+                    "id AS \"id\", name_uzl AS \"nameUzl\", name_uzc AS \"nameUzc\", name_en AS \"nameEn\", " +
+                    "name_ru AS \"nameRu\", description_uzl AS \"descriptionUzl\", " +
+                    "description_uzc AS \"descriptionUzc\", description_en AS \"descriptionEn\", " +
+                    "description_ru AS \"descriptionRu\", question_count AS \"questionCount\", " +
+                    "duration_minutes AS \"durationMinutes\", passing_score AS \"passingScore\", " +
+                    "generation_type AS \"generationType\", topic_id AS \"topicId\", is_free AS \"isFree\", " +
+                    "price AS \"price\", order_index AS \"orderIndex\", is_active AS \"isActive\", " + BASE_COLUMNS,
+                    "FROM exam_packages", "id"),
+            new Section("packageQuestionIds", null,
+                    "pq.package_id AS \"packageId\", pq.question_id AS \"questionId\"",
+                    "FROM package_questions pq JOIN questions q ON q.id = pq.question_id AND q.deleted = false",
+                    "pq.package_id, pq.question_id"),
+            new Section("tickets", "ticketCount",
+                    "id AS \"id\", ticket_number AS \"ticketNumber\", name_uzl AS \"nameUzl\", " +
+                    "name_uzc AS \"nameUzc\", name_en AS \"nameEn\", name_ru AS \"nameRu\", " +
+                    "description_uzl AS \"descriptionUzl\", description_uzc AS \"descriptionUzc\", " +
+                    "description_en AS \"descriptionEn\", description_ru AS \"descriptionRu\", " +
+                    "package_id AS \"examPackageId\", topic_id AS \"topicId\", " +
+                    "duration_minutes AS \"durationMinutes\", passing_score AS \"passingScore\", " +
+                    "is_active AS \"isActive\", question_count AS \"targetQuestionCount\", " + BASE_COLUMNS,
+                    "FROM tickets", "id"),
+            new Section("ticketQuestionIds", null,
+                    "tq.ticket_id AS \"ticketId\", tq.question_id AS \"questionId\", " +
+                    "tq.question_order AS \"questionOrder\"",
+                    "FROM ticket_questions tq JOIN questions q ON q.id = tq.question_id AND q.deleted = false",
+                    "tq.ticket_id, tq.question_order"),
+            new Section("examSessions", "examSessionCount",
+                    "id AS \"id\", user_id AS \"userId\", package_id AS \"examPackageId\", " +
+                    "ticket_id AS \"ticketId\", status AS \"status\", language AS \"language\", " +
+                    "started_at AS \"startedAt\", finished_at AS \"finishedAt\", expires_at AS \"expiresAt\", " +
+                    "duration_minutes AS \"durationMinutes\", total_questions AS \"totalQuestions\", " +
+                    "answered_count AS \"answeredCount\", correct_count AS \"correctCount\", " +
+                    "wrong_count AS \"wrongCount\", score AS \"score\", percentage AS \"percentage\", " +
+                    "is_passed AS \"isPassed\", answer_sheet AS \"answerSheet\", " + BASE_COLUMNS,
+                    "FROM exam_sessions", "id"),
+            new Section("examAnswers", "examAnswerCount",
+                    "id AS \"id\", exam_session_id AS \"examSessionId\", question_id AS \"questionId\", " +
+                    "question_order AS \"questionOrder\", selected_option_index AS \"selectedOptionIndex\", " +
+                    "correct_option_index AS \"correctOptionIndex\", is_correct AS \"isCorrect\", " +
+                    "answered_at AS \"answeredAt\", time_spent_seconds AS \"timeSpentSeconds\", " + BASE_COLUMNS,
+                    "FROM exam_answers", "id"),
+            new Section("userStatistics", "userStatisticsCount",
+                    "id AS \"id\", user_id AS \"userId\", topic AS \"topic\", total_exams AS \"totalExams\", " +
+                    "passed_exams AS \"passedExams\", failed_exams AS \"failedExams\", " +
+                    "total_questions AS \"totalQuestions\", correct_answers AS \"correctAnswers\", " +
+                    "average_score AS \"averageScore\", best_score AS \"bestScore\", " +
+                    "current_streak AS \"currentStreak\", longest_streak AS \"longestStreak\", " +
+                    "total_time_spent_seconds AS \"totalTimeSpentSeconds\", " + BASE_COLUMNS,
+                    "FROM user_statistics", "id"),
+    };
 
     /**
-     * Package-Question bog'lanishlarni export qilish (ManyToMany)
+     * Barcha ma'lumotlarni {@code ApiResponse} ko'rinishida {@code out} ga yozadi. Oqim yopilmaydi.
      */
-    private List<Map<String, Object>> exportPackageQuestions() {
-        return examPackageRepository.findAll().stream()
-                .flatMap(pkg -> pkg.getQuestions().stream()
-                        .map(question -> {
-                            Map<String, Object> map = new LinkedHashMap<>();
-                            map.put("packageId", pkg.getId());
-                            map.put("questionId", question.getId());
-                            return map;
-                        }))
-                .collect(Collectors.toList());
-    }
+    public void writeFullBackup(OutputStream out, String message) throws IOException {
+        log.info("DATABASE BACKUP STARTED at {}", LocalDateTime.now());
+        long startTime = System.currentTimeMillis();
 
-    private List<Map<String, Object>> exportTickets() {
-        return ticketRepository.findAll().stream()
-                .map(ticket -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", ticket.getId());
-                    map.put("ticketNumber", ticket.getTicketNumber());
-                    map.put("nameUzl", ticket.getNameUzl());
-                    map.put("nameUzc", ticket.getNameUzc());
-                    map.put("nameEn", ticket.getNameEn());
-                    map.put("nameRu", ticket.getNameRu());
-                    map.put("descriptionUzl", ticket.getDescriptionUzl());
-                    map.put("descriptionUzc", ticket.getDescriptionUzc());
-                    map.put("descriptionEn", ticket.getDescriptionEn());
-                    map.put("descriptionRu", ticket.getDescriptionRu());
-                    map.put("examPackageId", ticket.getExamPackage() != null ? ticket.getExamPackage().getId() : null);
-                    map.put("topicId", ticket.getTopic() != null ? ticket.getTopic().getId() : null);
-                    map.put("durationMinutes", ticket.getDurationMinutes());
-                    map.put("passingScore", ticket.getPassingScore());
-                    map.put("isActive", ticket.getIsActive());
-                    map.put("targetQuestionCount", ticket.getTargetQuestionCount());
-                    putBaseFields(map, ticket);
-                    return map;
-                })
-                .collect(Collectors.toList());
+        // Shu tranzaksiyaga bog'langan ulanishni ishlatadi; fetchSize + autocommit=false → PostgreSQL cursor
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(FETCH_SIZE);
+
+        TransactionTemplate roTx = new TransactionTemplate(txManager);
+        roTx.setReadOnly(true);
+        roTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        long totalRecords;
+        try (JsonGenerator gen = objectMapper.createGenerator(out)) {
+            gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+            gen.writeStartObject();
+            gen.writeBooleanField("success", true);
+            gen.writeStringField("message", message);
+            gen.writeObjectFieldStart("data");
+            gen.writeObjectField("backupDate", LocalDateTime.now());
+            gen.writeStringField("backupVersion", BACKUP_VERSION);
+
+            totalRecords = roTx.execute(status -> {
+                try {
+                    Map<String, Long> statistics = countAll();
+                    gen.writeObjectField("statistics", statistics);
+                    for (Section section : SECTIONS) {
+                        gen.writeArrayFieldStart(section.field());
+                        writeRows(cursor, gen, section.selectSql());
+                        gen.writeEndArray();
+                    }
+                    return statistics.get("totalRecords");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            gen.writeEndObject();
+            gen.writeObjectField("timestamp", LocalDateTime.now());
+            gen.writeEndObject();
+            gen.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("DATABASE BACKUP COMPLETED in {} ms. Total records: {}",
+                System.currentTimeMillis() - startTime, totalRecords);
     }
 
     /**
-     * Ticket-Question bog'lanishlarni export qilish (ManyToMany)
+     * {@code statistics} bo'limi. {@code totalRecords} — bog'lanish jadvallarisiz (avvalgidek).
      */
-    private List<Map<String, Object>> exportTicketQuestions() {
-        return ticketRepository.findAll().stream()
-                .flatMap(ticket -> {
-                    List<Question> questions = ticket.getQuestions();
-                    List<Map<String, Object>> result = new ArrayList<>();
-                    for (int i = 0; i < questions.size(); i++) {
-                        Map<String, Object> map = new LinkedHashMap<>();
-                        map.put("ticketId", ticket.getId());
-                        map.put("questionId", questions.get(i).getId());
-                        map.put("questionOrder", i);
-                        result.add(map);
-                    }
-                    return result.stream();
-                })
-                .collect(Collectors.toList());
-    }
-
-    private List<Map<String, Object>> exportExamSessions() {
-        return examSessionRepository.findAll().stream()
-                .map(session -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", session.getId());
-                    map.put("userId", session.getUser() != null ? session.getUser().getId() : null);
-                    map.put("examPackageId", session.getExamPackage() != null ? session.getExamPackage().getId() : null);
-                    map.put("ticketId", session.getTicket() != null ? session.getTicket().getId() : null);
-                    map.put("status", session.getStatus() != null ? session.getStatus().name() : null);
-                    map.put("language", session.getLanguage() != null ? session.getLanguage().name() : null);
-                    map.put("startedAt", session.getStartedAt());
-                    map.put("finishedAt", session.getFinishedAt());
-                    map.put("expiresAt", session.getExpiresAt());
-                    map.put("durationMinutes", session.getDurationMinutes());
-                    map.put("totalQuestions", session.getTotalQuestions());
-                    map.put("answeredCount", session.getAnsweredCount());
-                    map.put("correctCount", session.getCorrectCount());
-                    map.put("wrongCount", session.getWrongCount());
-                    map.put("score", session.getScore());
-                    map.put("percentage", session.getPercentage());
-                    map.put("isPassed", session.getIsPassed());
-                    putBaseFields(map, session);
-                    return map;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private List<Map<String, Object>> exportExamAnswers() {
-        return examAnswerRepository.findAll().stream()
-                .map(answer -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", answer.getId());
-                    map.put("examSessionId", answer.getExamSession() != null ? answer.getExamSession().getId() : null);
-                    map.put("questionId", answer.getQuestion() != null ? answer.getQuestion().getId() : null);
-                    map.put("questionOrder", answer.getQuestionOrder());
-                    map.put("selectedOptionIndex", answer.getSelectedOptionIndex());
-                    map.put("correctOptionIndex", answer.getCorrectOptionIndex());
-                    map.put("isCorrect", answer.getIsCorrect());
-                    map.put("answeredAt", answer.getAnsweredAt());
-                    map.put("timeSpentSeconds", answer.getTimeSpentSeconds());
-                    putBaseFields(map, answer);
-                    return map;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private List<Map<String, Object>> exportUserStatistics() {
-        return userStatisticsRepository.findAll().stream()
-                .map(stats -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", stats.getId());
-                    map.put("userId", stats.getUser() != null ? stats.getUser().getId() : null);
-                    map.put("topic", stats.getTopic());
-                    map.put("totalExams", stats.getTotalExams());
-                    map.put("passedExams", stats.getPassedExams());
-                    map.put("failedExams", stats.getFailedExams());
-                    map.put("totalQuestions", stats.getTotalQuestions());
-                    map.put("correctAnswers", stats.getCorrectAnswers());
-                    map.put("averageScore", stats.getAverageScore());
-                    map.put("bestScore", stats.getBestScore());
-                    map.put("currentStreak", stats.getCurrentStreak());
-                    map.put("longestStreak", stats.getLongestStreak());
-                    map.put("totalTimeSpentSeconds", stats.getTotalTimeSpentSeconds());
-                    putBaseFields(map, stats);
-                    return map;
-                })
-                .collect(Collectors.toList());
+    private Map<String, Long> countAll() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        long total = 0;
+        for (Section section : SECTIONS) {
+            if (section.statField() == null) continue;
+            Long count = jdbcTemplate.queryForObject(section.countSql(), Long.class);
+            long value = count != null ? count : 0L;
+            statistics.put(section.statField(), value);
+            total += value;
+        }
+        statistics.put("totalRecords", total);
+        return statistics;
     }
 
     /**
-     * BaseEntity fieldlarni qo'shish (audit, soft delete, version)
+     * Har qatorni ustun aliaslari kalit bo'lgan JSON obyekt sifatida yozadi.
+     * Timestamp → LocalDateTime (ObjectMapper formati avvalgidek), bytea → base64.
      */
-    private void putBaseFields(Map<String, Object> map, BaseEntity entity) {
-        map.put("createdAt", entity.getCreatedAt());
-        map.put("createdBy", entity.getCreatedBy());
-        map.put("updatedAt", entity.getUpdatedAt());
-        map.put("updatedBy", entity.getUpdatedBy());
-        map.put("deleted", entity.getDeleted());
-        map.put("deletedAt", entity.getDeletedAt());
-        map.put("deletedBy", entity.getDeletedBy());
-        map.put("version", entity.getVersion());
+    private void writeRows(JdbcTemplate cursor, JsonGenerator gen, String sql) {
+        cursor.query(sql, rs -> {
+            try {
+                ResultSetMetaData md = rs.getMetaData();
+                gen.writeStartObject();
+                for (int i = 1, n = md.getColumnCount(); i <= n; i++) {
+                    Object value = rs.getObject(i);
+                    if (value instanceof Timestamp ts) {
+                        value = ts.toLocalDateTime();
+                    }
+                    gen.writeObjectField(md.getColumnLabel(i), value);
+                }
+                gen.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 }
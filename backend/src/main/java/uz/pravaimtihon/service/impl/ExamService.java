@@ -48,6 +48,10 @@ public class ExamService {
     private final uz.pravaimtihon.service.TelegramNotificationService telegramNotificationService;
     private final StatisticsService statisticsService;
     private final uz.pravaimtihon.payment.service.PaymentAccessService paymentAccessService;
+    private final uz.pravaimtihon.service.QuestionUsageAggregator usageAggregator;
+    private final uz.pravaimtihon.service.ExamRollupService rollupService;
+    private final uz.pravaimtihon.service.LeaderboardIndex leaderboardIndex;
+    private final uz.pravaimtihon.service.AnswerSheetService answerSheetService;
 
     /**
      * ✅ OPTIMIZED: Start exam with minimal queries
@@ -134,6 +138,7 @@ public class ExamService {
 
         session.start();
         session = sessionRepository.save(session);
+        rollupService.recordStarted(session);
 
         // ✅ Create exam answers
         List<ExamAnswer> examAnswers = new ArrayList<>();
@@ -204,7 +209,7 @@ public class ExamService {
                         userAnswer.getSelectedOptionIndex(),
                         userAnswer.getTimeSpentSeconds()
                 );
-                examAnswer.getQuestion().recordAnswer(examAnswer.getIsCorrect());
+                usageAggregator.recordAnswer(examAnswer.getQuestion().getId(), examAnswer.getIsCorrect());
             }
         }
 
@@ -212,6 +217,7 @@ public class ExamService {
 
         session.finish();
         session = sessionRepository.save(session);
+        rollupService.recordFinished(session);
 
         updateUserStatistics(session);
 
@@ -241,7 +247,8 @@ public class ExamService {
             throw new BusinessException("error.exam.session.not.completed");
         }
 
-        return examMapper.toResultResponse(session, language);
+        // Ixchamlangan sessiyada exam_answers qatorlari yo'q — javoblar answer_sheet dan
+        return examMapper.toResultResponse(session, answerSheetService.loadAnswers(session), language);
     }
 
     /**
@@ -468,6 +475,7 @@ public class ExamService {
 
         session.start();
         session = sessionRepository.save(session);
+        rollupService.recordStarted(session);
 
         // Create exam answers
         List<ExamAnswer> examAnswers = new ArrayList<>();
@@ -508,11 +516,11 @@ public class ExamService {
             throw new BusinessException("error.exam.session.not.completed");
         }
 
-        List<ExamAnswer> answers = answerRepository.findByExamSessionIdOrderByQuestionOrder(sessionId);
+        List<ExamAnswer> answers = answerSheetService.loadAnswers(session);
 
-        long correctCount = answers.stream().filter(ExamAnswer::getIsCorrect).count();
+        long correctCount = answers.stream().filter(a -> Boolean.TRUE.equals(a.getIsCorrect())).count();
         long wrongCount = answers.stream()
-                .filter(a -> a.isAnswered() && !a.getIsCorrect())
+                .filter(a -> a.isAnswered() && !Boolean.TRUE.equals(a.getIsCorrect()))
                 .count();
         long unansweredCount = answers.stream()
                 .filter(a -> !a.isAnswered())
@@ -636,6 +644,7 @@ public class ExamService {
 
         stats.updateFromSession(session);
         statisticsRepository.save(stats);
+        leaderboardIndex.update(stats);
 
         // Evict caches after stats update
         statisticsService.evictUserCaches(session.getUser().getId());
@@ -664,6 +673,7 @@ public class ExamService {
         }
 
         sessionRepository.saveAll(expiredSessions);
+        expiredSessions.forEach(rollupService::recordFinished);
 
         log.info("✅ Cleaned {} expired sessions", expiredSessions.size());
     }
@@ -0,0 +1,262 @@
+package uz.pravaimtihon.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import uz.pravaimtihon.config.StorageProperties;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Savol rasmlarining eni bo'yicha kichraytirilgan nusxalari.
+ * <p>
+ * Asl rasm (ko'pincha 2-4 MB, 3000+ px) telefonga ham, desktop'ga ham to'liq
+ * o'lchamda yuborilardi. Endi {@code ?w=} bo'yicha eng yaqin katta "bucket"
+ * tanlanadi va {@code uploads/variants/w<eni>/<folder>/<fayl>} dan beriladi.
+ * <p>
+ * Nusxalar yuklashda ({@link #pregenerate}) yoki birinchi so'rovda kichik
+ * {@code imageVariantExecutor} pool'ida yaratiladi; tayyor bo'lguncha asl rasm
+ * qaytariladi — so'rov resize'ni kutmaydi. Asl rasmdan katta bo'lmagan yoki
+ * hajmi kichraymagan nusxalar saqlanmaydi.
+ * <p>
+ * {@code variants/} qayta yaratiladigan kesh — backup'ga kirmaydi.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    public static final String VARIANTS_DIR = "variants";
+
+    /** Faqat savol rasmlari; GIF (animatsiya) va boshqa formatlar o'zgarmaydi. */
+    private static final Set<String> FOLDERS = Set.of("questions");
+    private static final Set<String> EXTENSIONS = Set.of("jpg", "jpeg", "png");
+
+    private final StorageProperties.ImageVariants config;
+    private final ThreadPoolTaskExecutor executor;
+    private final Path uploadDir;
+    private final List<Integer> widths;
+
+    /** Navbatda yoki ishlanayotgan fayllar (folder/filename). */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    /** Nusxa kerak emas deb topilgan folder/filename:eni — qayta decode qilinmasin. */
+    private final Cache<String, Boolean> notNeeded = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .build();
+
+    public ImageVariantService(StorageProperties storageProperties,
+                               @Qualifier("imageVariantExecutor") ThreadPoolTaskExecutor executor) {
+        this.config = storageProperties.getImageVariants();
+        this.executor = executor;
+        this.uploadDir = Paths.get(storageProperties.getLocal().getUploadDir()).toAbsolutePath().normalize();
+        this.widths = config.getWidths().stream()
+                .filter(w -> w != null && w > 0)
+                .sorted()
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * {@code ?w=} uchun fayl qaysi papkadan berilishi kerak.
+     *
+     * @return nusxa tayyor bo'lsa {@code variants/w<eni>/<folder>}, aks holda {@code folder}
+     */
+    public String resolveFolder(String folder, String filename, Integer requestedWidth) {
+        if (requestedWidth == null || requestedWidth <= 0 || !supports(folder, filename)) {
+            return folder;
+        }
+        int bucket = bucketFor(requestedWidth);
+        if (bucket < 0) {
+            // eng katta nusxa ham so'ralganidan tor — asl fayl
+            return folder;
+        }
+        if (notNeeded.getIfPresent(key(folder, filename) + ":" + bucket) != null) {
+            return folder;
+        }
+        String variantFolder = variantFolder(bucket, folder);
+        if (Files.isRegularFile(uploadDir.resolve(variantFolder).resolve(filename))) {
+            return variantFolder;
+        }
+        schedule(folder, filename);
+        return folder;
+    }
+
+    /** Yangi yuklangan rasm uchun barcha nusxalarni fonda yaratish. */
+    public void pregenerate(String folder, String filename) {
+        if (supports(folder, filename)) {
+            schedule(folder, filename);
+        }
+    }
+
+    /** Asl fayl o'chirilganda uning nusxalarini ham o'chirish. */
+    public void deleteVariants(String folder, String filename) {
+        if (!supports(folder, filename)) {
+            return;
+        }
+        for (Integer width : widths) {
+            try {
+                Files.deleteIfExists(uploadDir.resolve(variantFolder(width, folder)).resolve(filename));
+            } catch (IOException e) {
+                log.warn("Failed to delete image variant w{} for {}/{}: {}", width, folder, filename, e.getMessage());
+            }
+            notNeeded.invalidate(key(folder, filename) + ":" + width);
+        }
+    }
+
+    private boolean supports(String folder, String filename) {
+        if (!config.isEnabled() || widths.isEmpty() || !FOLDERS.contains(folder)) {
+            return false;
+        }
+        int dot = filename.lastIndexOf('.');
+        return dot > 0 && EXTENSIONS.contains(filename.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /** So'ralgan enidan kichik bo'lmagan eng kichik bucket; bunday bucket bo'lmasa {@code -1}. */
+    private int bucketFor(int requestedWidth) {
+        for (Integer width : widths) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return -1;
+    }
+
+    private void schedule(String folder, String filename) {
+        String key = key(folder, filename);
+        if (!inFlight.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(folder, filename);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // navbat to'la — keyingi so'rov qayta urinadi
+            inFlight.remove(key);
+            log.debug("Image variant task rejected for {}", key);
+        }
+    }
+
+    private void generate(String folder, String filename) {
+        Path original = uploadDir.resolve(folder).resolve(filename).normalize();
+        if (!original.startsWith(uploadDir.resolve(folder)) || !Files.isRegularFile(original)) {
+            return;
+        }
+        String key = key(folder, filename);
+        long t0 = System.currentTimeMillis();
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null) {
+                widths.forEach(w -> notNeeded.put(key + ":" + w, Boolean.TRUE));
+                return;
+            }
+            long originalSize = Files.size(original);
+            String format = filename.toLowerCase(Locale.ROOT).endsWith(".png") ? "png" : "jpeg";
+            int created = 0;
+
+            for (Integer width : widths) {
+                Path target = uploadDir.resolve(variantFolder(width, folder)).resolve(filename);
+                if (Files.isRegularFile(target)) {
+                    continue;
+                }
+                if (width >= source.getWidth()) {
+                    notNeeded.put(key + ":" + width, Boolean.TRUE);
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                Path tmp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+                try {
+                    write(scaleToWidth(source, width, "png".equals(format)), format, tmp);
+                    if (Files.size(tmp) >= originalSize) {
+                        notNeeded.put(key + ":" + width, Boolean.TRUE);
+                        continue;
+                    }
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    created++;
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+            if (created > 0) {
+                log.debug("Image variants created for {}: {} in {}ms", key, created, System.currentTimeMillis() - t0);
+            }
+        } catch (Exception e) {
+            log.warn("Image variant generation failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /** Bosqichma-bosqich (har safar ko'pi bilan 2 marta) kichraytirish — bilinear'da ham sifat saqlanadi. */
+    private static BufferedImage scaleToWidth(BufferedImage source, int targetWidth, boolean keepAlpha) {
+        int type = keepAlpha && source.getColorModel().hasAlpha()
+                ? BufferedImage.TYPE_INT_ARGB
+                : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        if ("png".equals(format)) {
+            if (!ImageIO.write(image, "png", target.toFile())) {
+                throw new IOException("No PNG writer");
+            }
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(config.getJpegQuality());
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String variantFolder(int width, String folder) {
+        return VARIANTS_DIR + "/w" + width + "/" + folder;
+    }
+
+    private static String key(String folder, String filename) {
+        return folder + "/" + filename;
+    }
+}
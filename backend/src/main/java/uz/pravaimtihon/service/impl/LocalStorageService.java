@@ -29,6 +29,7 @@ import java.util.UUID;
 public class LocalStorageService implements FileStorageService {
 
     private final StorageProperties storageProperties;
+    private final ImageVariantService imageVariantService;
 
     private Path uploadDir;
 
@@ -90,6 +91,10 @@ public class LocalStorageService implements FileStorageService {
 
             Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
 
+            if (category == FileTypeUtil.FileCategory.IMAGE) {
+                imageVariantService.pregenerate(folder, fileName);
+            }
+
             // ✅ RELATIVE URL — localhost hardcode yo'q
             String fileUrl = buildRelativeUrl(folder, fileName);
 
@@ -121,6 +126,9 @@ public class LocalStorageService implements FileStorageService {
             }
 
             Files.delete(filePath);
+            imageVariantService.deleteVariants(
+                    uploadDir.relativize(filePath.getParent()).toString().replace('\\', '/'),
+                    filePath.getFileName().toString());
             log.info("✅ File deleted: {}", fileUrl);
             return true;
 
@@ -0,0 +1,369 @@
+package uz.pravaimtihon.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Katta log fayllarni butunlay xotiraga o'qimasdan ishlash.
+ * <ul>
+ *   <li><b>tail</b> — {@link FileChannel} bilan EOF dan orqaga 64KB bloklar o'qiladi,
+ *       faqat kerakli N qator dekodlanadi</li>
+ *   <li><b>qator indeksi</b> — har {@value #INDEX_STRIDE} qatorning bayt offseti (sparse).
+ *       Fayl o'sganda faqat yangi qismi skanlanadi; {@code fromLine} eng yaqin nuqtadan boshlanadi</li>
+ *   <li><b>qidiruv</b> — qatorlar qayta ishlatiladigan bayt buferda tekshiriladi, faqat mos
+ *       kelganlari {@code String} ga aylanadi. Katta-kichik harf farqi lotin (ASCII) harflari
+ *       uchun e'tiborsiz qoldiriladi</li>
+ *   <li><b>yuklab olish</b> — {@link FileChannel#transferTo} bilan oqimga</li>
+ * </ul>
+ * Fayl qisqarsa yoki almashtirilsa (rotation — boshqa fileKey) indeks qaytadan quriladi.
+ */
+@Component
+@Slf4j
+public class LogFileReader {
+
+    static final int INDEX_STRIDE = 1000;
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final ConcurrentHashMap<Path, LineIndex> indexes = new ConcurrentHashMap<>();
+
+    /** Faylning bir lahzadagi holati: shu o'lchamgacha bo'lgan qatorlar soni. */
+    public record Snapshot(long sizeBytes, long totalLines) {}
+
+    /**
+     * Indeksni fayl oxirigacha yangilaydi.
+     */
+    public Snapshot snapshot(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return indexFor(file).refresh(ch, fileKey(file));
+        }
+    }
+
+    /**
+     * Oxirgi {@code count} qator ({@code snapshot.sizeBytes} gacha).
+     */
+    public List<String> tail(Path file, Snapshot snapshot, int count) throws IOException {
+        long size = snapshot.sizeBytes();
+        if (size == 0 || count <= 0) {
+            return List.of();
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = Math.min(size, ch.size());
+            ByteBuffer buf = ByteBuffer.allocate(CHUNK_BYTES);
+
+            // Oxirgi '\n' bo'sh qator hisoblanmaydi
+            long end = size;
+            if (readByte(ch, buf, size - 1) == '\n') {
+                end = size - 1;
+            }
+
+            long start = 0;
+            int newlines = 0;
+            long pos = end;
+            search:
+            while (pos > 0) {
+                int len = (int) Math.min(CHUNK_BYTES, pos);
+                pos -= len;
+                readFully(ch, buf, pos, len);
+                for (int i = len - 1; i >= 0; i--) {
+                    if (buf.get(i) == '\n' && ++newlines == count) {
+                        start = pos + i + 1;
+                        break search;
+                    }
+                }
+            }
+            return decodeLines(ch, start, end);
+        }
+    }
+
+    /**
+     * {@code fromLine} (1 dan) dan boshlab {@code count} qator.
+     */
+    public List<String> range(Path file, Snapshot snapshot, long fromLine, int count) throws IOException {
+        long target = fromLine - 1;
+        if (count <= 0 || target >= snapshot.totalLines()) {
+            return List.of();
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long limit = Math.min(snapshot.sizeBytes(), ch.size());
+            long[] seek = indexFor(file).seek(target);
+            long offset = skipLines(ch, seek[0], target - seek[1], limit);
+
+            List<String> lines = new ArrayList<>(Math.min(count, 1024));
+            scanLines(ch, offset, limit, (bytes, len) -> {
+                lines.add(decode(bytes, len));
+                return lines.size() < count;
+            });
+            return lines;
+        }
+    }
+
+    /**
+     * Fayl boshidan {@code pattern} uchragan birinchi {@code maxResults} qator (katta-kichik harf farqsiz).
+     * ASCII pattern baytlar ustida decode qilinmasdan qidiriladi; boshqa pattern'lar
+     * (masalan kirill) uchun har qator decode qilinib {@link String#toLowerCase()} bilan solishtiriladi.
+     */
+    public List<String> search(Path file, String pattern, int maxResults) throws IOException {
+        if (pattern == null || pattern.isEmpty() || maxResults <= 0) {
+            return List.of();
+        }
+        LinePredicate matcher = isAscii(pattern) ? asciiMatcher(pattern) : unicodeMatcher(pattern);
+
+        List<String> matches = new ArrayList<>(Math.min(maxResults, 1024));
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            scanLines(ch, 0, ch.size(), (bytes, len) -> {
+                if (matcher.test(bytes, len)) {
+                    matches.add(decode(bytes, len));
+                }
+                return matches.size() < maxResults;
+            });
+        }
+        return matches;
+    }
+
+    private static LinePredicate asciiMatcher(String pattern) {
+        byte[] needle = pattern.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < needle.length; i++) {
+            needle[i] = foldAscii(needle[i]);
+        }
+        return (bytes, len) -> containsIgnoreCase(bytes, len, needle);
+    }
+
+    private static LinePredicate unicodeMatcher(String pattern) {
+        String needle = pattern.toLowerCase();
+        return (bytes, len) -> decode(bytes, len).toLowerCase().contains(needle);
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Faylni {@code out} ga ko'chiradi (Java heap orqali emas, {@code transferTo}).
+     *
+     * @return yozilgan baytlar
+     */
+    public long copyTo(Path file, OutputStream out) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            WritableByteChannel target = Channels.newChannel(out);
+            long pos = 0;
+            while (pos < size) {
+                long n = ch.transferTo(pos, size - pos, target);
+                if (n <= 0) break;
+                pos += n;
+            }
+            return pos;
+        }
+    }
+
+    /** Fayl tozalangandan keyin chaqiriladi. */
+    public void invalidate(Path file) {
+        indexes.remove(file.toAbsolutePath().normalize());
+    }
+
+    // ─── Scanning ───────────────────────────────────────────────────────────
+
+    @FunctionalInterface
+    private interface LineSink {
+        /** @return false — skanerlashni to'xtatish */
+        boolean accept(byte[] line, int length);
+    }
+
+    @FunctionalInterface
+    private interface LinePredicate {
+        boolean test(byte[] line, int length);
+    }
+
+    /**
+     * {@code [from, to)} oralig'idagi qatorlarni bitta qayta ishlatiladigan buferda beradi.
+     * Oxirgi, {@code '\n'} siz qator ham beriladi.
+     */
+    private static void scanLines(FileChannel ch, long from, long to, LineSink sink) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK_BYTES);
+        byte[] line = new byte[1024];
+        int lineLen = 0;
+        long pos = from;
+        while (pos < to) {
+            int len = (int) Math.min(CHUNK_BYTES, to - pos);
+            readFully(ch, buf, pos, len);
+            byte[] chunk = buf.array();
+            int lineStart = 0;
+            for (int i = 0; i < len; i++) {
+                if (chunk[i] != '\n') continue;
+                int part = i - lineStart;
+                if (lineLen + part > line.length) {
+                    line = Arrays.copyOf(line, Math.max(line.length * 2, lineLen + part));
+                }
+                System.arraycopy(chunk, lineStart, line, lineLen, part);
+                lineLen += part;
+                if (lineLen > 0 && line[lineLen - 1] == '\r') lineLen--;
+                if (!sink.accept(line, lineLen)) return;
+                lineLen = 0;
+                lineStart = i + 1;
+            }
+            int rest = len - lineStart;
+            if (lineLen + rest > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, lineLen + rest));
+            }
+            System.arraycopy(chunk, lineStart, line, lineLen, rest);
+            lineLen += rest;
+            pos += len;
+        }
+        if (lineLen > 0) {
+            if (line[lineLen - 1] == '\r') lineLen--;
+            sink.accept(line, lineLen);
+        }
+    }
+
+    /** {@code offset} dan {@code lines} ta qatorni o'tkazib, keyingi qator boshini qaytaradi. */
+    private static long skipLines(FileChannel ch, long offset, long lines, long limit) throws IOException {
+        if (lines <= 0) return offset;
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK_BYTES);
+        long pos = offset;
+        long skipped = 0;
+        while (pos < limit) {
+            int len = (int) Math.min(CHUNK_BYTES, limit - pos);
+            readFully(ch, buf, pos, len);
+            byte[] chunk = buf.array();
+            for (int i = 0; i < len; i++) {
+                if (chunk[i] == '\n' && ++skipped == lines) {
+                    return pos + i + 1;
+                }
+            }
+            pos += len;
+        }
+        return limit;
+    }
+
+    private static List<String> decodeLines(FileChannel ch, long start, long end) throws IOException {
+        int len = (int) (end - start);
+        ByteBuffer buf = ByteBuffer.allocate(len);
+        readFully(ch, buf, start, len);
+        return new String(buf.array(), 0, len, StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static boolean containsIgnoreCase(byte[] line, int len, byte[] needle) {
+        int last = len - needle.length;
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (foldAscii(line[i + j]) != needle[j]) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte foldAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
+    private static String decode(byte[] bytes, int len) {
+        return new String(bytes, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private static byte readByte(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        readFully(ch, buf, pos, 1);
+        return buf.get(0);
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos, int len) throws IOException {
+        buf.clear().limit(len);
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos + buf.position());
+            if (n < 0) {
+                Arrays.fill(buf.array(), buf.position(), len, (byte) 0);
+                break;
+            }
+        }
+    }
+
+    // ─── Sparse line index ──────────────────────────────────────────────────
+
+    private LineIndex indexFor(Path file) {
+        return indexes.computeIfAbsent(file.toAbsolutePath().normalize(), k -> new LineIndex());
+    }
+
+    private static Object fileKey(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@code checkpoints[k]} — {@code k * INDEX_STRIDE}-qator (0 dan) boshlanadigan bayt offset.
+     */
+    private static final class LineIndex {
+        private Object fileKey;
+        private long scannedBytes;
+        private long newlines;
+        private boolean endsWithNewline = true;
+        private long[] checkpoints = new long[64];
+        private int checkpointCount = 1;
+
+        synchronized Snapshot refresh(FileChannel ch, Object key) throws IOException {
+            long size = ch.size();
+            if (!Objects.equals(key, fileKey) || size < scannedBytes) {
+                if (scannedBytes > 0) {
+                    log.debug("Log index reset (rotated or truncated), old size={} new size={}", scannedBytes, size);
+                }
+                fileKey = key;
+                scannedBytes = 0;
+                newlines = 0;
+                endsWithNewline = true;
+                checkpointCount = 1;
+                checkpoints[0] = 0;
+            }
+
+            ByteBuffer buf = ByteBuffer.allocate(CHUNK_BYTES);
+            long pos = scannedBytes;
+            while (pos < size) {
+                int len = (int) Math.min(CHUNK_BYTES, size - pos);
+                readFully(ch, buf, pos, len);
+                byte[] chunk = buf.array();
+                for (int i = 0; i < len; i++) {
+                    if (chunk[i] == '\n' && ++newlines % INDEX_STRIDE == 0) {
+                        if (checkpointCount == checkpoints.length) {
+                            checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+                        }
+                        checkpoints[checkpointCount++] = pos + i + 1;
+                    }
+                }
+                endsWithNewline = chunk[len - 1] == '\n';
+                pos += len;
+            }
+            scannedBytes = size;
+
+            long total = newlines + (size > 0 && !endsWithNewline ? 1 : 0);
+            return new Snapshot(size, total);
+        }
+
+        /** @return {offset, shu offsetdagi qator raqami (0 dan)} — {@code line} dan oshmaydigan eng yaqin nuqta */
+        synchronized long[] seek(long line) {
+            int k = (int) Math.min(line / INDEX_STRIDE, checkpointCount - 1);
+            return new long[]{checkpoints[k], (long) k * INDEX_STRIDE};
+        }
+    }
+}
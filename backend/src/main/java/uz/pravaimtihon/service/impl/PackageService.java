@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.pravaimtihon.dto.request.PackageRequest;
 import uz.pravaimtihon.dto.request.PackagePatchRequest;
+import uz.pravaimtihon.dto.response.CursorPageResponse;
 import uz.pravaimtihon.dto.response.PackageDetailResponse;
 import uz.pravaimtihon.dto.response.PackageResponse;
 import uz.pravaimtihon.dto.response.PageResponse;
@@ -23,9 +24,11 @@ import uz.pravaimtihon.repository.ExamPackageRepository;
 import uz.pravaimtihon.repository.ExamSessionRepository;
 import uz.pravaimtihon.dto.mapper.PackageMapper;
 import uz.pravaimtihon.service.MessageService;
+import uz.pravaimtihon.util.KeysetCursor;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -265,6 +268,23 @@ public class PackageService {
         return packageMapper.toPageResponse(page, language);
     }
 
+    /**
+     * Admin paketlar ro'yxati — keyset (cursor) sahifalash, {@code (orderIndex, id)} ASC.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PackageResponse> getAllPackagesAdminCursor(String cursor, int size, boolean includeTotal,
+                                                                         AcceptLanguage language) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<ExamPackage> rows = after == null
+                ? packageRepository.findNotDeletedFirst(KeysetCursor.limit(pageSize))
+                : packageRepository.findNotDeletedAfter(after.intKey(), after.id(), KeysetCursor.limit(pageSize));
+        return CursorPageResponse.of(rows, pageSize,
+                pkg -> KeysetCursor.of(pkg.getOrderIndex(), pkg.getId()).encode(),
+                pkg -> packageMapper.toResponse(pkg, language),
+                includeTotal ? packageRepository.countByDeletedFalse() : null);
+    }
+
     @Transactional(readOnly = true)
     public PageResponse<PackageResponse> getFreePackages(Pageable pageable, AcceptLanguage language) {
         log.debug("📖 Getting free packages (Language: {})", language.getCode());
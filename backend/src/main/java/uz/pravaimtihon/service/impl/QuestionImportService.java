@@ -0,0 +1,583 @@
+package uz.pravaimtihon.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.pravaimtihon.dto.mapper.QuestionMapper;
+import uz.pravaimtihon.dto.request.QuestionOptionRequest;
+import uz.pravaimtihon.dto.request.QuestionRequest;
+import uz.pravaimtihon.dto.response.BulkQuestionResponse;
+import uz.pravaimtihon.dto.response.QuestionImportJobStatus;
+import uz.pravaimtihon.dto.response.QuestionResponse;
+import uz.pravaimtihon.entity.Question;
+import uz.pravaimtihon.entity.QuestionOption;
+import uz.pravaimtihon.entity.Topic;
+import uz.pravaimtihon.enums.AcceptLanguage;
+import uz.pravaimtihon.exception.BaseException;
+import uz.pravaimtihon.repository.TopicRepository;
+import uz.pravaimtihon.service.MessageService;
+import uz.pravaimtihon.service.QuestionBankSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Savollarni ommaviy import qilish.
+ * <p>
+ * Avval har savol uchun {@code createQuestion} chaqirilardi: dublikat tekshiruvi,
+ * mavzu o'qish, savol va variantlarni alohida saqlash, mavzu hisoblagichi —
+ * har biri alohida so'rov. Endi:
+ * <ul>
+ *   <li>fayl Jackson streaming parser bilan o'qiladi (JSON massiv,
+ *       {@code {"questions": [...]}} yoki NDJSON) — butun fayl xotiraga olinmaydi;</li>
+ *   <li>{@value #CHUNK_SIZE} talik bo'laklar parallel validatsiya qilinadi;</li>
+ *   <li>dublikatlar {@code (topic, textUzl)} bo'yicha xotiradagi to'plamdan tekshiriladi
+ *       (fayl ichidagi takrorlar ham);</li>
+ *   <li>savol va variantlar JDBC batch bilan yoziladi, ID'lar sequence'dan oldindan olinadi;</li>
+ *   <li>keshlar oxirida bir marta tozalanadi.</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionImportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private static final String[] EVICT_CACHES = {
+            "questions", "questionsByTopic", "activeQuestions", "packages",
+            "topics", "topicsSimple", "topic_stats", "dashboard_stats"};
+
+    private static final String EXISTING_KEYS_SQL =
+            "SELECT topic_id, text_uzl FROM questions " +
+            "WHERE deleted = false AND topic_id IS NOT NULL AND text_uzl IS NOT NULL";
+
+    private static final String INSERT_QUESTION_SQL =
+            "INSERT INTO questions (id, text_uzl, text_uzc, text_en, text_ru, " +
+            "explanation_uzl, explanation_uzc, explanation_en, explanation_ru, " +
+            "topic_id, difficulty, correct_answer_index, image_url, is_active, " +
+            "times_used, times_answered_correctly, created_at, created_by, updated_at, updated_by, " +
+            "deleted, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?, ?, ?, false, 0)";
+
+    private static final String INSERT_OPTION_SQL =
+            "INSERT INTO question_options (id, question_id, option_index, text_uzl, text_uzc, text_en, text_ru, " +
+            "created_at, created_by, updated_at, updated_by, deleted, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager txManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TopicRepository topicRepository;
+    private final QuestionMapper questionMapper;
+    private final MessageService messageService;
+    private final CacheManager cacheManager;
+    private final QuestionBankSnapshot questionBank;
+
+    private final Map<String, QuestionImportJobStatus> jobs = new ConcurrentHashMap<>();
+
+    /** Fayldagi bitta element (1 dan raqamlangan); {@code error} — tarjima qilingan xato yoki null. */
+    private record Item(int number, QuestionRequest request, String error) {
+    }
+
+    private record NewOption(long id, long questionId, QuestionOptionRequest request) {
+    }
+
+    /** Bitta import jarayonining holati. */
+    private static final class ImportRun {
+        final AcceptLanguage language;
+        final String actor;
+        final Map<Long, Topic> topics;
+        final Map<String, Long> topicIdsByCode = new HashMap<>();
+        final Set<String> existingKeys;
+        final boolean collectResponses;
+        final Consumer<String> errorSink;
+        final List<QuestionResponse> created = new ArrayList<>();
+        int processed;
+        int imported;
+        int duplicates;
+        int failed;
+
+        ImportRun(AcceptLanguage language, String actor, Map<Long, Topic> topics, Set<String> existingKeys,
+                  boolean collectResponses, Consumer<String> errorSink) {
+            this.language = language;
+            this.actor = actor;
+            this.topics = topics;
+            topics.values().forEach(t -> topicIdsByCode.put(t.getCode(), t.getId()));
+            this.existingKeys = existingKeys;
+            this.collectResponses = collectResponses;
+            this.errorSink = errorSink;
+        }
+    }
+
+    // ============================================
+    // SYNC: POST /bulk (JSON body)
+    // ============================================
+
+    /**
+     * Ro'yxatni bo'laklab import qiladi. Xato/dublikat savollar o'tkazib yuboriladi,
+     * qolganlari saqlanadi.
+     */
+    public BulkQuestionResponse importQuestions(List<QuestionRequest> requests, AcceptLanguage language, String actor) {
+        List<String> errors = new ArrayList<>();
+        if (requests == null || requests.isEmpty()) {
+            return new BulkQuestionResponse(0, 0, 0, new ArrayList<>(), errors);
+        }
+        log.info("Bulk importing {} questions with language: {}", requests.size(), language);
+
+        ImportRun run = newRun(language, actor, true, errors::add);
+        for (int from = 0; from < requests.size(); from += CHUNK_SIZE) {
+            List<Item> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, requests.size()); i++) {
+                chunk.add(new Item(i + 1, requests.get(i), null));
+            }
+            processChunk(run, chunk);
+        }
+        evictCaches();
+
+        log.info("Bulk import completed: {} success, {} failed ({} duplicates)",
+                run.imported, run.failed + run.duplicates, run.duplicates);
+        return new BulkQuestionResponse(requests.size(), run.imported, run.failed + run.duplicates,
+                run.created, errors);
+    }
+
+    // ============================================
+    // ASYNC: fayldan streaming import
+    // ============================================
+
+    public QuestionImportJobStatus createJob(String requestedBy, String fileName) {
+        QuestionImportJobStatus job = new QuestionImportJobStatus(UUID.randomUUID().toString(), requestedBy, fileName);
+        jobs.put(job.getJobId(), job);
+        return job;
+    }
+
+    public Optional<QuestionImportJobStatus> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Yuklangan faylni fonda import qiladi; fayl oxirida o'chiriladi.
+     *
+     * @param ndjson true — har qatorda bitta savol (NDJSON / JSON Lines)
+     */
+    @Async
+    public CompletableFuture<Void> runJob(String jobId, Path file, boolean ndjson, AcceptLanguage language) {
+        QuestionImportJobStatus job = jobs.get(jobId);
+        long t0 = System.currentTimeMillis();
+        try {
+            if (job == null) {
+                // cleanupJobs allaqachon olib tashlagan — faqat faylni o'chiramiz
+                log.warn("Question import {} not found, dropping uploaded file", jobId);
+                return CompletableFuture.completedFuture(null);
+            }
+            job.markRunning("Loading existing questions");
+            ImportRun run = newRun(language, job.getRequestedBy(), false, job::addError);
+            long size = Math.max(1, Files.size(file));
+
+            try (InputStream in = Files.newInputStream(file);
+                 JsonParser parser = objectMapper.getFactory().createParser(in)) {
+                job.updateProgress(1, "Importing");
+                readItems(run, parser, ndjson, chunk -> {
+                    processChunk(run, chunk);
+                    long offset = parser.currentLocation().getByteOffset();
+                    job.setProcessed(run.processed);
+                    job.setImported(run.imported);
+                    job.setDuplicates(run.duplicates);
+                    job.setFailed(run.failed);
+                    job.updateProgress((int) Math.min(99, offset * 100 / size), "Importing");
+                });
+            }
+            evictCaches();
+
+            job.setProcessed(run.processed);
+            job.setImported(run.imported);
+            job.setDuplicates(run.duplicates);
+            job.setFailed(run.failed);
+            job.markCompleted("Import complete");
+            log.info("Question import {} completed: processed={}, imported={}, duplicates={}, failed={}, {}ms",
+                    jobId, run.processed, run.imported, run.duplicates, run.failed, System.currentTimeMillis() - t0);
+        } catch (Exception e) {
+            log.error("Question import {} failed", jobId, e);
+            // oldingi bo'laklar commit bo'lgan — keshlar baribir yangilansin
+            evictCaches();
+            if (job != null) {
+                job.markFailed(e.getMessage());
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /** 2 soatdan eski tugagan joblarni tozalash. */
+    @Scheduled(fixedDelay = 1_800_000)
+    public void cleanupJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(2);
+        jobs.values().removeIf(j -> j.getCompletedAt() != null && j.getCompletedAt().isBefore(cutoff));
+    }
+
+    // ============================================
+    // ENGINE
+    // ============================================
+
+    /**
+     * JSON massiv, {@code {"questions": [...]}} yoki NDJSON'dan savollarni
+     * {@value #CHUNK_SIZE} talik bo'laklar bilan o'qiydi.
+     */
+    private void readItems(ImportRun run, JsonParser parser, boolean ndjson,
+                           Consumer<List<Item>> sink) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return;
+        }
+        if (!ndjson) {
+            if (token == JsonToken.START_OBJECT) {
+                token = seekField(parser, "questions");
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of questions or {\"questions\": [...]}");
+            }
+            token = parser.nextToken();
+        }
+
+        List<Item> chunk = new ArrayList<>(CHUNK_SIZE);
+        int number = 0;
+        while (token != null && token != JsonToken.END_ARRAY) {
+            number++;
+            // avval daraxt — noto'g'ri element (masalan noma'lum enum) butun faylni to'xtatmasin
+            JsonNode node = parser.readValueAsTree();
+            try {
+                chunk.add(toItem(run, number, node));
+            } catch (JsonProcessingException e) {
+                chunk.add(new Item(number, null, e.getOriginalMessage()));
+            } catch (IllegalArgumentException e) {
+                chunk.add(new Item(number, null, e.getMessage()));
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                sink.accept(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+            token = parser.nextToken();
+        }
+        if (!chunk.isEmpty()) {
+            sink.accept(chunk);
+        }
+    }
+
+    /**
+     * Eksport fayllarida (import_data/*.json) mavzu ID emas, {@code topicCode} bilan beriladi.
+     */
+    private Item toItem(ImportRun run, int number, JsonNode node) throws JsonProcessingException {
+        QuestionRequest request = objectMapper.treeToValue(node, QuestionRequest.class);
+        if (request.getTopicId() == null && node.hasNonNull("topicCode")) {
+            Long topicId = run.topicIdsByCode.get(node.get("topicCode").asText());
+            if (topicId == null) {
+                return new Item(number, request, translate("error.topic.not.found", run.language));
+            }
+            request.setTopicId(topicId);
+        }
+        return new Item(number, request, null);
+    }
+
+    /** Ildiz obyektda {@code field} ni topib, uning qiymatiga o'tadi (boshqa maydonlar o'tkaziladi). */
+    private static JsonToken seekField(JsonParser parser, String field) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            token = parser.nextToken();
+            if (field.equals(name)) {
+                return token;
+            }
+            parser.skipChildren();
+        }
+        return token;
+    }
+
+    private void processChunk(ImportRun run, List<Item> chunk) {
+        // 1. Validatsiya — parallel (Validator va MessageSource thread-safe)
+        List<Item> validated = IntStream.range(0, chunk.size()).parallel()
+                .mapToObj(i -> validate(run, chunk.get(i)))
+                .toList();
+
+        // 2. Dublikatlar — ketma-ket, fayl tartibida
+        List<Item> accepted = new ArrayList<>(validated.size());
+        for (Item item : validated) {
+            run.processed++;
+            if (item.error() != null) {
+                run.failed++;
+                run.errorSink.accept(String.format("Question #%d: %s", item.number(), item.error()));
+                continue;
+            }
+            QuestionRequest q = item.request();
+            if (q.getTopicId() != null && q.getTextUzl() != null
+                    && !run.existingKeys.add(key(q.getTopicId(), q.getTextUzl()))) {
+                run.duplicates++;
+                run.errorSink.accept(String.format("Question #%d: %s", item.number(),
+                        translate("error.question.duplicate", run.language)));
+                continue;
+            }
+            accepted.add(item);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // 3. Batch insert — bo'lak bitta tranzaksiyada
+        try {
+            List<QuestionResponse> responses = new TransactionTemplate(txManager).execute(status -> insert(run, accepted));
+            run.imported += accepted.size();
+            if (run.collectResponses && responses != null) {
+                run.created.addAll(responses);
+            }
+        } catch (RuntimeException e) {
+            // bo'lak saqlanmadi — dublikat kalitlari qaytariladi, keyingi bo'laklar davom etadi
+            for (Item item : accepted) {
+                QuestionRequest q = item.request();
+                if (q.getTopicId() != null && q.getTextUzl() != null) {
+                    run.existingKeys.remove(key(q.getTopicId(), q.getTextUzl()));
+                }
+                run.failed++;
+                run.errorSink.accept(String.format("Question #%d: %s - %s",
+                        item.number(), e.getClass().getSimpleName(), e.getMessage()));
+            }
+            log.error("Question import chunk failed ({} questions): {}", accepted.size(), e.getMessage());
+        }
+    }
+
+    private Item validate(ImportRun run, Item item) {
+        if (item.error() != null) {
+            return item;
+        }
+        QuestionRequest q = item.request();
+        Set<ConstraintViolation<QuestionRequest>> violations = validator.validate(q);
+        if (!violations.isEmpty()) {
+            return new Item(item.number(), q, translate(violations.iterator().next().getMessage(), run.language));
+        }
+        try {
+            QuestionService.validateQuestionRequest(q);
+        } catch (BaseException e) {
+            return new Item(item.number(), q, messageService.getMessage(e.getMessageKey(), e.getArgs(), run.language));
+        }
+        if (q.getTopicId() != null && !run.topics.containsKey(q.getTopicId())) {
+            return new Item(item.number(), q, translate("error.topic.not.found", run.language));
+        }
+        return item;
+    }
+
+    private List<QuestionResponse> insert(ImportRun run, List<Item> items) {
+        List<Long> questionIds = nextIds("questions", items.size());
+        List<NewOption> options = new ArrayList<>();
+        int optionCount = items.stream()
+                .mapToInt(i -> i.request().getOptions() != null ? i.request().getOptions().size() : 0)
+                .sum();
+        List<Long> optionIds = nextIds("question_options", optionCount);
+
+        Map<Long, Integer> perTopic = new HashMap<>();
+        int o = 0;
+        for (int i = 0; i < items.size(); i++) {
+            QuestionRequest q = items.get(i).request();
+            if (q.getOptions() != null) {
+                for (QuestionOptionRequest opt : q.getOptions()) {
+                    options.add(new NewOption(optionIds.get(o++), questionIds.get(i), opt));
+                }
+            }
+            if (q.getTopicId() != null) {
+                perTopic.merge(q.getTopicId(), 1, Integer::sum);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_QUESTION_SQL, indices(items.size()), CHUNK_SIZE, (ps, i) -> {
+            QuestionRequest q = items.get(i).request();
+            ps.setLong(1, questionIds.get(i));
+            ps.setString(2, q.getTextUzl());
+            ps.setString(3, q.getTextUzc());
+            ps.setString(4, q.getTextEn());
+            ps.setString(5, q.getTextRu());
+            ps.setString(6, q.getExplanationUzl());
+            ps.setString(7, q.getExplanationUzc());
+            ps.setString(8, q.getExplanationEn());
+            ps.setString(9, q.getExplanationRu());
+            ps.setObject(10, q.getTopicId());
+            ps.setString(11, q.getDifficulty() != null ? q.getDifficulty().name() : null);
+            ps.setObject(12, q.getCorrectAnswerIndex());
+            ps.setString(13, q.getImageUrl());
+            ps.setBoolean(14, q.getIsActive() == null || q.getIsActive());
+            ps.setTimestamp(15, now);
+            ps.setString(16, run.actor);
+            ps.setTimestamp(17, now);
+            ps.setString(18, run.actor);
+        });
+
+        if (!options.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OPTION_SQL, options, CHUNK_SIZE, (ps, opt) -> {
+                ps.setLong(1, opt.id());
+                ps.setLong(2, opt.questionId());
+                ps.setObject(3, opt.request().getOptionIndex());
+                ps.setString(4, opt.request().getTextUzl());
+                ps.setString(5, opt.request().getTextUzc());
+                ps.setString(6, opt.request().getTextEn());
+                ps.setString(7, opt.request().getTextRu());
+                ps.setTimestamp(8, now);
+                ps.setString(9, run.actor);
+                ps.setTimestamp(10, now);
+                ps.setString(11, run.actor);
+            });
+        }
+
+        if (!perTopic.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE topics SET question_count = COALESCE(question_count, 0) + ?, updated_at = ? WHERE id = ?",
+                    perTopic.entrySet(), perTopic.size(), (ps, e) -> {
+                        ps.setLong(1, e.getValue());
+                        ps.setTimestamp(2, now);
+                        ps.setLong(3, e.getKey());
+                    });
+        }
+
+        questionIds.forEach(questionBank::markDirty);
+
+        if (!run.collectResponses) {
+            return null;
+        }
+        List<QuestionResponse> responses = new ArrayList<>(items.size());
+        int opt = 0;
+        for (int i = 0; i < items.size(); i++) {
+            QuestionRequest q = items.get(i).request();
+            Question question = toEntity(q, run.topics.get(q.getTopicId()));
+            question.setId(questionIds.get(i));
+            if (q.getOptions() != null) {
+                for (QuestionOptionRequest ignored : q.getOptions()) {
+                    NewOption newOption = options.get(opt++);
+                    QuestionOption option = QuestionOption.builder()
+                            .question(question)
+                            .optionIndex(newOption.request().getOptionIndex())
+                            .textUzl(newOption.request().getTextUzl())
+                            .textUzc(newOption.request().getTextUzc())
+                            .textEn(newOption.request().getTextEn())
+                            .textRu(newOption.request().getTextRu())
+                            .build();
+                    option.setId(newOption.id());
+                    question.getOptions().add(option);
+                }
+            }
+            responses.add(questionMapper.toResponse(question, run.language));
+        }
+        return responses;
+    }
+
+    private static Question toEntity(QuestionRequest q, Topic topic) {
+        return Question.builder()
+                .textUzl(q.getTextUzl())
+                .textUzc(q.getTextUzc())
+                .textEn(q.getTextEn())
+                .textRu(q.getTextRu())
+                .explanationUzl(q.getExplanationUzl())
+                .explanationUzc(q.getExplanationUzc())
+                .explanationEn(q.getExplanationEn())
+                .explanationRu(q.getExplanationRu())
+                .topic(topic)
+                .difficulty(q.getDifficulty())
+                .correctAnswerIndex(q.getCorrectAnswerIndex())
+                .imageUrl(q.getImageUrl())
+                .isActive(q.getIsActive() == null || q.getIsActive())
+                .build();
+    }
+
+    private ImportRun newRun(AcceptLanguage language, String actor, boolean collectResponses,
+                             Consumer<String> errorSink) {
+        Map<Long, Topic> topics = new HashMap<>();
+        for (Topic topic : topicRepository.findAll()) {
+            if (!Boolean.TRUE.equals(topic.getDeleted())) {
+                topics.put(topic.getId(), topic);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(EXISTING_KEYS_SQL, rs -> {
+            existing.add(key(rs.getLong(1), rs.getString(2)));
+        });
+        return new ImportRun(language, actor != null ? actor : "system", topics, existing,
+                collectResponses, errorSink);
+    }
+
+    /** ID'lar sequence'dan oldindan — savol va variantlarni bitta batch'da bog'lash uchun. */
+    private List<Long> nextIds(String table, int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)",
+                Long.class, table, count);
+    }
+
+    /** Tranzaksiya ichida bo'lsa — commit'dan keyin, bir marta. */
+    private void evictCaches() {
+        Runnable evict = () -> {
+            for (String name : EVICT_CACHES) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    private String translate(String key, AcceptLanguage language) {
+        return messageService.getMessage(key, null, language);
+    }
+
+    private static Collection<Integer> indices(int size) {
+        return IntStream.range(0, size).boxed().toList();
+    }
+
+    private static String key(Long topicId, String textUzl) {
+        return topicId + "\u0000" + textUzl;
+    }
+}
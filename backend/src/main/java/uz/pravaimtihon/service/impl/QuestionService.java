@@ -2,12 +2,15 @@ package uz.pravaimtihon.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import uz.pravaimtihon.dto.mapper.QuestionMapper;
@@ -20,18 +23,20 @@ import uz.pravaimtihon.entity.QuestionOption;
 import uz.pravaimtihon.entity.Topic;
 import uz.pravaimtihon.enums.AcceptLanguage;
 import uz.pravaimtihon.enums.QuestionDifficulty;
-import uz.pravaimtihon.exception.BaseException;
 import uz.pravaimtihon.exception.BusinessException;
 import uz.pravaimtihon.exception.ResourceNotFoundException;
 import uz.pravaimtihon.repository.QuestionOptionRepository;
 import uz.pravaimtihon.repository.QuestionRepository;
 import uz.pravaimtihon.repository.TopicRepository;
 import uz.pravaimtihon.security.SecurityUtils;
-import uz.pravaimtihon.service.MessageService;
+import uz.pravaimtihon.service.QuestionBankSnapshot;
+import uz.pravaimtihon.service.QuestionSearchIndex;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -45,8 +50,13 @@ public class QuestionService {
     private final TopicRepository topicRepository;
     private final QuestionMapper questionMapper;
     private final TopicService topicService;
-    private final MessageService messageService;
     private final FileStorageManager fileStorageManager;
+    private final QuestionBankSnapshot questionBank;
+    private final QuestionImportService questionImportService;
+    private final QuestionSearchIndex questionSearchIndex;
+
+    @Value("${app.questions.search.index-enabled:true}")
+    private boolean searchIndexEnabled;
 
 
     // AUDIT: "activeQuestions" qo'shildi — u @Cacheable bilan to'ldirilardi,
@@ -110,6 +120,8 @@ public class QuestionService {
             topicService.incrementQuestionCount(topic.getId());
         }
 
+        questionBank.markDirty(question.getId());
+
         log.info("Question created: {} for topic: {}", question.getId(), topic != null ? topic.getCode() : "none");
 
         return questionMapper.toResponse(question, language);
@@ -186,6 +198,7 @@ public class QuestionService {
         }
 
         questionRepository.save(question);
+        questionBank.markDirty(id);
 
         log.info("Question updated: {}", id);
         return questionMapper.toResponse(question, language);
@@ -250,10 +263,11 @@ public class QuestionService {
 
     @Transactional(readOnly = true)
     public PageResponse<QuestionResponse> getQuestionsByTopicId(Long topicId, String query, Pageable pageable, AcceptLanguage language) {
-        Page<Question> page = (query != null && !query.trim().isEmpty())
-                ? questionRepository.searchQuestionsByTopicId(topicId, query.trim(), pageable)
-                : questionRepository.findByTopicIdAndDeletedFalseAndIsActiveTrue(topicId, pageable);
-        return questionMapper.toPageResponse(page, language);
+        if (query == null || query.trim().isEmpty()) {
+            Page<Question> page = questionRepository.findByTopicIdAndDeletedFalseAndIsActiveTrue(topicId, pageable);
+            return questionMapper.toPageResponse(page, language);
+        }
+        return questionMapper.toPageResponse(search(query.trim(), topicId, pageable), language);
     }
 
     @Transactional(readOnly = true)
@@ -261,130 +275,50 @@ public class QuestionService {
         if (query == null || query.trim().isEmpty()) {
             return getAllQuestions(pageable, language);
         }
-        Page<Question> page = questionRepository.searchQuestions(query.trim(), pageable);
-        return questionMapper.toPageResponse(page, language);
+        return questionMapper.toPageResponse(search(query.trim(), null, pageable), language);
     }
 
     /**
-     * ✅ FINAL FIX: Bulk import with proper i18n error messages
-     * Muammo: Exception catch qilinganda locale context bilan ishlash
+     * Matn bo'yicha qidiruv: {@link QuestionSearchIndex} (reytingli, 4 til, kirill/lotin farqsiz)
+     * yoki {@code app.questions.search.index-enabled=false} bo'lsa — eski SQL LIKE.
+     * Indeks natijasi reyting tartibida, {@code pageable} dagi sort e'tiborga olinmaydi.
      */
-    // AUDIT: "activeQuestions" qo'shildi — u @Cacheable bilan to'ldirilardi,
-    // lekin evict ro'yxatida yo'q edi, ya'ni savol o'zgartirilgach eskirgan
-    // ro'yxat qaytarilaverardi.
-    @CacheEvict(value = {"questions", "questionsByTopic", "activeQuestions", "packages", "topics", "topicsSimple", "topic_stats", "dashboard_stats"}, allEntries = true)
-    public BulkQuestionResponse bulkImportQuestions(BulkQuestionRequest request, AcceptLanguage language) {
-        List<QuestionResponse> successList = new ArrayList<>();
-        List<String> errorList = new ArrayList<>();
-
-        if (request.getQuestions() == null || request.getQuestions().isEmpty()) {
-            return new BulkQuestionResponse(0, 0, 0, successList, errorList);
-        }
-
-        log.info("Bulk importing {} questions with language: {}", request.getQuestions().size(), language);
-
-        // ✅ KEY FIX: Locale ni method boshida olish va saqlash
-        Locale targetLocale = language.toLocale();
-        log.debug("Target locale for errors: {}", targetLocale);
-
-        for (int i = 0; i < request.getQuestions().size(); i++) {
-            try {
-                QuestionRequest qr = request.getQuestions().get(i);
-                validateQuestionRequest(qr);
-                QuestionResponse response = createQuestion(qr, language);
-                successList.add(response);
-
-            } catch (BusinessException e) {
-                // ✅ BusinessException - messageKey orqali tarjima qilish
-                String messageKey = e.getMessageKey();
-                Object[] args = e.getArgs();
-
-                String translatedMessage;
-                if (messageKey != null) {
-                    // MessageKey mavjud - to'g'ridan-to'g'ri messageService orqali tarjima
-                    translatedMessage = messageService.getMessage(messageKey, args, targetLocale);
-                    log.debug("Translated '{}' to: '{}'", messageKey, translatedMessage);
-                } else {
-                    // MessageKey yo'q - getMessage() dan tekshirish
-                    String rawMessage = e.getMessage();
-                    if (rawMessage != null &&
-                            (rawMessage.startsWith("validation.") || rawMessage.startsWith("error."))) {
-                        translatedMessage = messageService.getMessage(rawMessage, args, targetLocale);
-                    } else {
-                        translatedMessage = rawMessage;
-                    }
-                }
-
-                String error = String.format("Question #%d: %s", i + 1, translatedMessage);
-                errorList.add(error);
-                log.error("Error importing question #{}: {}", i + 1, translatedMessage);
-
-            } catch (ResourceNotFoundException e) {
-                // ✅ ResourceNotFoundException
-                String messageKey = e.getMessageKey();
-                Object[] args = e.getArgs();
-
-                String translatedMessage;
-                if (messageKey != null) {
-                    translatedMessage = messageService.getMessage(messageKey, args, targetLocale);
-                } else {
-                    String rawMessage = e.getMessage();
-                    if (rawMessage != null &&
-                            (rawMessage.startsWith("validation.") || rawMessage.startsWith("error."))) {
-                        translatedMessage = messageService.getMessage(rawMessage, args, targetLocale);
-                    } else {
-                        translatedMessage = rawMessage;
-                    }
-                }
-
-                String error = String.format("Question #%d: %s", i + 1, translatedMessage);
-                errorList.add(error);
-                log.error("Error importing question #{}: {}", i + 1, translatedMessage);
-
-            } catch (BaseException e) {
-                // ✅ Boshqa BaseException subclass'lari
-                String messageKey = e.getMessageKey();
-                Object[] args = e.getArgs();
-
-                String translatedMessage;
-                if (messageKey != null) {
-                    translatedMessage = messageService.getMessage(messageKey, args, targetLocale);
-                } else {
-                    String rawMessage = e.getMessage();
-                    if (rawMessage != null &&
-                            (rawMessage.startsWith("validation.") || rawMessage.startsWith("error."))) {
-                        translatedMessage = messageService.getMessage(rawMessage, args, targetLocale);
-                    } else {
-                        translatedMessage = rawMessage;
-                    }
-                }
-
-                String error = String.format("Question #%d: %s", i + 1, translatedMessage);
-                errorList.add(error);
-                log.error("Error importing question #{}: {}", i + 1, translatedMessage);
-
-            } catch (Exception e) {
-                // ✅ Umuman boshqa exception'lar
-                String error = String.format("Question #%d: %s - %s",
-                        i + 1,
-                        e.getClass().getSimpleName(),
-                        e.getMessage()
-                );
-                errorList.add(error);
-                log.error("Unexpected error importing question #{}: {}", i + 1, e.getMessage(), e);
-            }
+    private Page<Question> search(String query, Long topicId, Pageable pageable) {
+        long t0 = System.nanoTime();
+        Page<Question> page;
+        if (searchIndexEnabled) {
+            QuestionSearchIndex.Result result = questionSearchIndex.search(
+                    query, topicId, pageable.getPageNumber(), pageable.getPageSize());
+            Map<Long, Question> byId = questionRepository.findAllById(result.ids()).stream()
+                    .collect(Collectors.toMap(Question::getId, Function.identity()));
+            List<Question> content = result.ids().stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            page = new PageImpl<>(content, pageable, result.total());
+        } else {
+            page = topicId != null
+                    ? questionRepository.searchQuestionsByTopicId(topicId, query, pageable)
+                    : questionRepository.searchQuestions(query, pageable);
         }
+        log.debug("Question search [{}] '{}' topic={}: {} hits in {}µs",
+                searchIndexEnabled ? "index" : "like", query, topicId,
+                page.getTotalElements(), (System.nanoTime() - t0) / 1000);
+        return page;
+    }
 
-        log.info("Bulk import completed: {} success, {} failed", successList.size(), errorList.size());
-
-        return new BulkQuestionResponse(
-                request.getQuestions().size(),
-                successList.size(),
-                errorList.size(),
-                successList,
-                errorList
-        );
+    /**
+     * Bulk import — {@link QuestionImportService} orqali: parallel validatsiya,
+     * xotiradagi dublikat tekshiruvi, JDBC batch insert va keshlarni bir marta tozalash.
+     * Har bo'lak alohida tranzaksiyada, shuning uchun bu metod tranzaksiyasiz.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkQuestionResponse bulkImportQuestions(BulkQuestionRequest request, AcceptLanguage language) {
+        var user = SecurityUtils.getCurrentUser();
+        return questionImportService.importQuestions(request.getQuestions(), language,
+                user != null ? user.getUsername() : null);
     }
+
     @Transactional(readOnly = true)
     public List<QuestionResponse> getRandomQuestions(Long topicId, Integer count, AcceptLanguage language) {
         Pageable pageable = Pageable.ofSize(count);
@@ -410,6 +344,7 @@ public class QuestionService {
 
         question.setIsActive(!question.getIsActive());
         questionRepository.save(question);
+        questionBank.markDirty(id);
 
         log.info("Question {} status toggled to: {}", id, question.getIsActive());
     }
@@ -480,7 +415,7 @@ public class QuestionService {
                 .collect(Collectors.toList());
     }
 
-    private void validateQuestionRequest(QuestionRequest request) {
+    static void validateQuestionRequest(QuestionRequest request) {
         // correctAnswerIndex va options mavjud bo'lsa tekshirish
         if (request.getCorrectAnswerIndex() != null && request.getOptions() != null && !request.getOptions().isEmpty()) {
             if (request.getCorrectAnswerIndex() < 0 || request.getCorrectAnswerIndex() >= request.getOptions().size()) {
@@ -626,6 +561,7 @@ public class QuestionService {
             //    catch blokda uni o'chiramiz.
             try {
                 questionRepository.save(question);
+                questionBank.markDirty(id);
             } catch (Exception dbEx) {
                 log.warn("DB save failed for question {}, rolling back uploaded file {}", id, newlyUploadedUrl);
                 deleteImageSafely(newlyUploadedUrl);
@@ -671,6 +607,7 @@ public class QuestionService {
             deleteImageSafely(imageUrl);
             question.setImageUrl(null);
             questionRepository.save(question);
+            questionBank.markDirty(id);
             log.info("Question image deleted: {}", imageUrl);
         } else {
             log.warn("No image to delete for question: {}", id);
@@ -723,6 +660,7 @@ public class QuestionService {
 
         question.softDelete(deletedBy);
         questionRepository.save(question);
+        questionBank.markDirty(id);
 
         if (question.getTopic() != null) {
             topicService.decrementQuestionCount(question.getTopic().getId());
@@ -22,11 +22,14 @@ import uz.pravaimtihon.exception.BusinessException;
 import uz.pravaimtihon.exception.ResourceNotFoundException;
 import uz.pravaimtihon.repository.ExamPackageRepository;
 import uz.pravaimtihon.repository.ExamSessionRepository;
+import uz.pravaimtihon.repository.ExamSessionStatisticsRepository;
 import uz.pravaimtihon.repository.QuestionRepository;
 import uz.pravaimtihon.repository.TicketRepository;
-import uz.pravaimtihon.repository.UserRepository;
 import uz.pravaimtihon.repository.UserStatisticsRepository;
 import uz.pravaimtihon.security.SecurityUtils;
+import uz.pravaimtihon.service.LeaderboardIndex;
+import uz.pravaimtihon.service.LiveExamCounters;
+import uz.pravaimtihon.util.KeysetCursor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -49,10 +52,12 @@ public class StatisticsService {
     private final UserStatisticsRepository statisticsRepository;
     private final ExamSessionRepository sessionRepository;
     private final QuestionRepository questionRepository;
-    private final UserRepository userRepository;
     private final ExamPackageRepository packageRepository;
     private final TicketRepository ticketRepository;
     private final StatisticsMapper statisticsMapper;
+    private final LeaderboardIndex leaderboardIndex;
+    private final LiveExamCounters liveCounters;
+    private final ExamSessionStatisticsRepository sessionStatisticsRepository;
 
     // ============================================
     // Cache Eviction
@@ -63,7 +68,6 @@ public class StatisticsService {
      */
     @Caching(evict = {
             @CacheEvict(value = "user_stats", allEntries = true),
-            @CacheEvict(value = "leaderboard", allEntries = true),
             @CacheEvict(value = "dashboard_stats", allEntries = true)
     })
     public void evictUserCaches(Long userId) {
@@ -120,49 +124,94 @@ public class StatisticsService {
     /**
      * ✅ Get leaderboard by topic with pagination
      */
-    @Cacheable(value = "leaderboard", key = "#topic + '-' + #pageable.pageNumber + '-' + #pageable.pageSize + '-' + #language.code")
     public PageResponse<LeaderboardEntryResponse> getLeaderboard(String topic, Pageable pageable, AcceptLanguage language, Long currentUserId) {
-        Page<UserStatistics> page = statisticsRepository.findLeaderboardByTopicPaginated(topic, pageable);
+        if (leaderboardIndex.isReady()) {
+            return toPageResponse(leaderboardIndex.page(topic, pageable.getPageNumber(), pageable.getPageSize()),
+                    pageable, currentUserId);
+        }
+        return toPageResponse(statisticsRepository.findLeaderboardByTopicPaginated(topic, pageable),
+                pageable, currentUserId);
+    }
 
-        List<UserStatistics> content = page.getContent();
-        // PERF: was `page.getContent().indexOf(stats)` inside the map — O(n^2)
-        // over the page. IntStream.range gives each row its index directly, O(n).
-        List<LeaderboardEntryResponse> entries = IntStream.range(0, content.size())
-                .mapToObj(i -> {
-                    UserStatistics stats = content.get(i);
-                    String name = stats.getUser().getFullName();
-                    return LeaderboardEntryResponse.builder()
-                        .rank(pageable.getPageNumber() * pageable.getPageSize() + i + 1)
-                        .userId(stats.getUser().getId())
-                        .userName(name)
-                        .fullName(name)
-                        .bestScore(stats.getBestScore())
-                        .averageScore(stats.getAverageScore())
-                        .totalExams(stats.getTotalExams())
-                        .currentStreak(stats.getCurrentStreak())
-                        .isCurrentUser(currentUserId != null && currentUserId.equals(stats.getUser().getId()))
-                        .build();
-                })
-                .collect(Collectors.toList());
+    /**
+     * ✅ Get global leaderboard with pagination
+     */
+    public PageResponse<LeaderboardEntryResponse> getGlobalLeaderboard(Pageable pageable, AcceptLanguage language, Long currentUserId) {
+        if (leaderboardIndex.isReady()) {
+            return toPageResponse(leaderboardIndex.page(null, pageable.getPageNumber(), pageable.getPageSize()),
+                    pageable, currentUserId);
+        }
+        return toPageResponse(statisticsRepository.findGlobalLeaderboardPaginated(pageable),
+                pageable, currentUserId);
+    }
 
+    /**
+     * ✅ Joriy foydalanuvchining reytingdagi o'rni va atrofidagilar
+     *
+     * @param topic  null — global reyting
+     * @param window yuqori va pastdan nechtadan qator
+     */
+    public LeaderboardPositionResponse getMyLeaderboardPosition(String topic, int window, Long currentUserId) {
+        if (currentUserId == null) {
+            return LeaderboardPositionResponse.builder().neighbours(List.of()).build();
+        }
+        int clamped = Math.max(0, Math.min(window, 50));
+        return leaderboardIndex.around(topic, currentUserId, clamped)
+                .map(slice -> LeaderboardPositionResponse.builder()
+                        .rank(slice.entries().stream()
+                                .filter(r -> r.entry().userId() == currentUserId)
+                                .map(LeaderboardIndex.Ranked::rank)
+                                .findFirst()
+                                .orElse(null))
+                        .totalParticipants(slice.total())
+                        .neighbours(slice.entries().stream()
+                                .map(r -> toEntryResponse(r, currentUserId))
+                                .collect(Collectors.toList()))
+                        .build())
+                .orElseGet(() -> LeaderboardPositionResponse.builder()
+                        .neighbours(List.of())
+                        .build());
+    }
+
+    private PageResponse<LeaderboardEntryResponse> toPageResponse(LeaderboardIndex.Slice slice, Pageable pageable,
+                                                                  Long currentUserId) {
+        int size = pageable.getPageSize();
+        int totalPages = size > 0 ? (slice.total() + size - 1) / size : 0;
         return PageResponse.<LeaderboardEntryResponse>builder()
-                .content(entries)
-                .page(page.getNumber())
-                .size(page.getSize())
-                .totalElements(page.getTotalElements())
-                .totalPages(page.getTotalPages())
-                .last(page.isLast())
+                .content(slice.entries().stream()
+                        .map(r -> toEntryResponse(r, currentUserId))
+                        .collect(Collectors.toList()))
+                .page(pageable.getPageNumber())
+                .size(size)
+                .totalElements((long) slice.total())
+                .totalPages(totalPages)
+                .last(pageable.getPageNumber() + 1 >= totalPages)
+                .build();
+    }
+
+    private LeaderboardEntryResponse toEntryResponse(LeaderboardIndex.Ranked ranked, Long currentUserId) {
+        LeaderboardIndex.Entry entry = ranked.entry();
+        return LeaderboardEntryResponse.builder()
+                .rank(ranked.rank())
+                .userId(entry.userId())
+                .userName(entry.fullName())
+                .fullName(entry.fullName())
+                .bestScore(entry.bestScore())
+                .averageScore(entry.averageScore())
+                .totalExams(entry.totalExams())
+                .currentStreak(entry.currentStreak())
+                .isCurrentUser(currentUserId != null && currentUserId == entry.userId())
                 .build();
     }
 
     /**
-     * ✅ Get global leaderboard with pagination
+     * Indeks hali qurilmagan bo'lsa (ilova endi ishga tushgan) — bazadan.
      */
-    @Cacheable(value = "leaderboard", key = "'global-' + #pageable.pageNumber + '-' + #pageable.pageSize + '-' + #language.code")
-    public PageResponse<LeaderboardEntryResponse> getGlobalLeaderboard(Pageable pageable, AcceptLanguage language, Long currentUserId) {
-        Page<UserStatistics> page = statisticsRepository.findGlobalLeaderboardPaginated(pageable);
-
+    private PageResponse<LeaderboardEntryResponse> toPageResponse(Page<UserStatistics> page, Pageable pageable,
+                                                                  Long currentUserId) {
         List<UserStatistics> content = page.getContent();
+        // PERF: was `page.getContent().indexOf(stats)` inside the map — O(n^2)
+        // over the page. IntStream.range gives each row its index directly, O(n).
         List<LeaderboardEntryResponse> entries = IntStream.range(0, content.size())
                 .mapToObj(i -> {
                     UserStatistics stats = content.get(i);
@@ -325,97 +374,93 @@ public class StatisticsService {
      */
     @Cacheable(value = "dashboard_stats", key = "#language.code")
     public DashboardStatsResponse getDashboardStats(AcceptLanguage language) {
-        long totalUsers = userRepository.countActiveUsers();
-        long totalQuestions = questionRepository.count();
-        long totalPackages = packageRepository.countActivePackages();
-        long totalTickets = ticketRepository.countActiveTickets();
-        long totalExams = sessionRepository.count();
-        long completedExams = sessionRepository.countByStatus(ExamStatus.COMPLETED);
-        long activeExams = sessionRepository.countByStatus(ExamStatus.IN_PROGRESS);
-
-        Double averageScore = sessionRepository.calculateAverageScore();
-        if (averageScore == null) {
-            averageScore = 0.0;
-        }
-
         LocalDateTime today = LocalDate.now().atStartOfDay();
-        LocalDateTime weekStart = today.minusDays(7);
-        LocalDateTime monthStart = today.minusDays(30);
-
-        long examsToday = sessionRepository.countByStartedAtAfter(today);
-        long examsThisWeek = sessionRepository.countByStartedAtAfter(weekStart);
-        long examsThisMonth = sessionRepository.countByStartedAtAfter(monthStart);
-        long activeUsersToday = sessionRepository.countActiveUsersToday(today);
-
-        // Imtihon turlari bo'yicha
-        long ticketExams = sessionRepository.countTicketSessions();
-        long marathonExams = sessionRepository.countMarathonSessions();
-        long packageExams = totalExams - ticketExams - marathonExams;
-
-        // O'tish statistikasi
-        long passedExams = sessionRepository.countByStatus(ExamStatus.COMPLETED);
-        // TODO: Add isPassed count query if needed
-        double passRate = completedExams > 0 ? (passedExams * 100.0 / completedExams) : 0.0;
-
-        // Mashhur paketlar (top 5)
-        Page<Object[]> popularPkgs = sessionRepository.findMostUsedPackages(
+        ExamSessionStatisticsRepository.Dashboard d = sessionStatisticsRepository.dashboard(
+                today, today.minusDays(7), today.minusDays(30));
+
+        long packageExams = d.totalExams() - d.ticketExams() - d.marathonExams();
+        double passRate = d.completed() > 0 ? (d.passed() * 100.0 / d.completed()) : 0.0;
+
+        // Mashhur paketlar (top 5) — nomlar bitta findAllById bilan
+        List<Object[]> popularPkgs = sessionRepository.findMostUsedPackages(
                 org.springframework.data.domain.PageRequest.of(0, 5));
-        List<DashboardStatsResponse.PopularPackageItem> popularPackages = popularPkgs.getContent().stream()
+        Map<Long, ExamPackage> packages = packageRepository.findAllById(firstColumnIds(popularPkgs)).stream()
+                .collect(Collectors.toMap(ExamPackage::getId, Function.identity()));
+        List<DashboardStatsResponse.PopularPackageItem> popularPackages = popularPkgs.stream()
                 .map(row -> {
                     Long pkgId = (Long) row[0];
-                    Long count = (Long) row[1];
-                    ExamPackage pkg = packageRepository.findById(pkgId).orElse(null);
+                    ExamPackage pkg = packages.get(pkgId);
                     return DashboardStatsResponse.PopularPackageItem.builder()
                             .packageId(pkgId)
                             .packageName(pkg != null ? LocalizedText.of(
                                     pkg.getNameUzl(), pkg.getNameUzc(),
                                     pkg.getNameEn(), pkg.getNameRu()) : null)
-                            .usageCount(count)
+                            .usageCount((Long) row[1])
                             .build();
                 })
                 .toList();
 
         // Mashhur biletlar (top 5)
-        Page<Object[]> popularTkts = sessionRepository.findMostUsedTickets(
+        List<Object[]> popularTkts = sessionRepository.findMostUsedTickets(
                 org.springframework.data.domain.PageRequest.of(0, 5));
-        List<DashboardStatsResponse.PopularTicketItem> popularTickets = popularTkts.getContent().stream()
+        Map<Long, Ticket> tickets = ticketRepository.findAllById(firstColumnIds(popularTkts)).stream()
+                .collect(Collectors.toMap(Ticket::getId, Function.identity()));
+        List<DashboardStatsResponse.PopularTicketItem> popularTickets = popularTkts.stream()
                 .map(row -> {
                     Long ticketId = (Long) row[0];
-                    Long count = (Long) row[1];
-                    Ticket ticket = ticketRepository.findById(ticketId).orElse(null);
+                    Ticket ticket = tickets.get(ticketId);
                     return DashboardStatsResponse.PopularTicketItem.builder()
                             .ticketId(ticketId)
                             .ticketNumber(ticket != null ? ticket.getTicketNumber() : null)
                             .ticketName(ticket != null ? LocalizedText.of(
                                     ticket.getNameUzl(), ticket.getNameUzc(),
                                     ticket.getNameEn(), ticket.getNameRu()) : null)
-                            .usageCount(count)
+                            .usageCount((Long) row[1])
                             .build();
                 })
                 .toList();
 
         return DashboardStatsResponse.builder()
-                .totalUsers(totalUsers)
-                .totalQuestions(totalQuestions)
-                .totalPackages(totalPackages)
-                .totalTickets(totalTickets)
-                .totalExams(totalExams)
-                .completedExams(completedExams)
-                .activeExams(activeExams)
-                .averageScore(averageScore)
-                .examsToday(examsToday)
-                .examsThisWeek(examsThisWeek)
-                .examsThisMonth(examsThisMonth)
-                .activeUsersToday(activeUsersToday)
+                .totalUsers(d.totalUsers())
+                .totalQuestions(d.totalQuestions())
+                .totalPackages(d.totalPackages())
+                .totalTickets(d.totalTickets())
+                .totalExams(d.totalExams())
+                .completedExams(d.completed())
+                .activeExams(d.inProgress())
+                .averageScore(d.averageScore() != null ? d.averageScore() : 0.0)
+                .examsToday(d.today())
+                .examsThisWeek(d.thisWeek())
+                .examsThisMonth(d.thisMonth())
+                .activeUsersToday(d.activeUsersToday())
                 .packageExams(packageExams)
-                .ticketExams(ticketExams)
-                .marathonExams(marathonExams)
+                .ticketExams(d.ticketExams())
+                .marathonExams(d.marathonExams())
                 .passRate(passRate)
                 .popularPackages(popularPackages)
                 .popularTickets(popularTickets)
                 .build();
     }
 
+    /**
+     * Keshlangan dashboard ustiga jonli o'lchagichlarni qo'yish (faol/bugungi).
+     * Kesh obyekti o'zgartirilmaydi — nusxa qaytariladi.
+     */
+    public DashboardStatsResponse withLiveCounters(DashboardStatsResponse stats) {
+        if (!liveCounters.isReady()) {
+            return stats;
+        }
+        return stats.toBuilder()
+                .activeExams(liveCounters.activeExams())
+                .examsToday(liveCounters.examsToday())
+                .activeUsersToday(liveCounters.activeUsersToday())
+                .build();
+    }
+
+    private static List<Long> firstColumnIds(List<Object[]> rows) {
+        return rows.stream().map(row -> (Long) row[0]).toList();
+    }
+
     /**
      * ✅ Get topic statistics
      */
@@ -522,6 +567,61 @@ public class StatisticsService {
                 .build();
     }
 
+    // ============================================
+    // Exam History - Keyset (cursor) pagination
+    // ============================================
+
+    /**
+     * ✅ Recent completed exams, cursor bo'yicha (Admin).
+     * OFFSET/COUNT'siz: {@code (started_at, id)} DESC, {@code idx_session_status_started}.
+     */
+    public CursorPageResponse<ExamSessionResponse> getRecentExamsCursor(String cursor, int size, boolean includeTotal,
+                                                                        AcceptLanguage language) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<ExamSession> rows = after == null
+                ? sessionRepository.findByStatusFirst(ExamStatus.COMPLETED, KeysetCursor.limit(pageSize))
+                : sessionRepository.findByStatusAfter(ExamStatus.COMPLETED, after, KeysetCursor.limit(pageSize));
+        return toSessionCursorPage(rows, pageSize, language,
+                includeTotal ? sessionRepository.countByStatus(ExamStatus.COMPLETED) : null);
+    }
+
+    /**
+     * ✅ My exam history, cursor bo'yicha.
+     */
+    public CursorPageResponse<ExamSessionResponse> getMyExamHistoryCursor(String cursor, int size, boolean includeTotal,
+                                                                          AcceptLanguage language) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (userId == null) {
+            throw new BusinessException("error.auth.required");
+        }
+        return getUserExamHistoryCursor(userId, cursor, size, includeTotal, language);
+    }
+
+    /**
+     * ✅ User exam history by user ID, cursor bo'yicha (Admin).
+     * {@code idx_session_user_started (user_id, started_at DESC NULLS LAST, id DESC)}.
+     */
+    public CursorPageResponse<ExamSessionResponse> getUserExamHistoryCursor(Long userId, String cursor, int size,
+                                                                            boolean includeTotal,
+                                                                            AcceptLanguage language) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<ExamSession> rows = after == null
+                ? sessionRepository.findHistoryFirst(userId, KeysetCursor.limit(pageSize))
+                : sessionRepository.findHistoryAfter(userId, after, KeysetCursor.limit(pageSize));
+        return toSessionCursorPage(rows, pageSize, language,
+                includeTotal ? sessionRepository.countByUserId(userId) : null);
+    }
+
+    private CursorPageResponse<ExamSessionResponse> toSessionCursorPage(List<ExamSession> rows, int pageSize,
+                                                                        AcceptLanguage language, Long total) {
+        return CursorPageResponse.of(rows, pageSize,
+                session -> KeysetCursor.of(session.getStartedAt(), session.getId()).encode(),
+                session -> toExamSessionResponse(session, language),
+                total);
+    }
+
     // ============================================
     // Count Methods for Dashboard
     // ============================================
@@ -7,6 +7,7 @@ import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 import uz.pravaimtihon.dto.response.LogResponse;
 import uz.pravaimtihon.dto.response.ServerInfoResponse;
+import uz.pravaimtihon.security.CustomUserDetailsService;
 
 import javax.sql.DataSource;
 import java.io.*;
@@ -23,8 +24,6 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -33,6 +32,8 @@ public class SystemMonitorService {
 
     private final Environment environment;
     private final DataSource dataSource;
+    private final CustomUserDetailsService userDetailsService;
+    private final LogFileReader logFileReader;
 
     @Value("${logging.file.name:logs/prava-online.log}")
     private String logFilePath;
@@ -122,6 +123,8 @@ public class SystemMonitorService {
                 .logFileSizeMB(logSizeMB)
                 // Database Info
                 .databaseInfo(getDatabaseInfo())
+                // Cache Info
+                .principalCache(userDetailsService.getCacheStats())
                 .build();
     }
 
@@ -167,22 +170,23 @@ public class SystemMonitorService {
                     ZoneId.systemDefault()
             );
 
-            List<String> allLines = Files.readAllLines(logPath);
-            long totalLines = allLines.size();
+            // Butun fayl o'qilmaydi: tail — EOF dan orqaga, fromLine — sparse qator indeksidan
+            LogFileReader.Snapshot snapshot = logFileReader.snapshot(logPath);
+            long totalLines = snapshot.totalLines();
 
             List<String> resultLines;
             int from, to;
 
             if (fromLine != null && fromLine > 0) {
                 // Get specific range
-                from = Math.max(0, fromLine - 1);
-                to = Math.min((int) totalLines, from + lines);
-                resultLines = allLines.subList(from, to);
+                resultLines = logFileReader.range(logPath, snapshot, fromLine, lines);
+                from = (int) Math.min(totalLines, fromLine - 1);
+                to = from + resultLines.size();
             } else {
                 // Get last N lines
-                from = Math.max(0, (int) totalLines - lines);
+                resultLines = logFileReader.tail(logPath, snapshot, lines);
                 to = (int) totalLines;
-                resultLines = allLines.subList(from, to);
+                from = Math.max(0, to - resultLines.size());
             }
 
             return LogResponse.builder()
@@ -223,13 +227,7 @@ public class SystemMonitorService {
         try {
             long fileSize = Files.size(logPath);
 
-            List<String> matchingLines;
-            try (Stream<String> stream = Files.lines(logPath)) {
-                matchingLines = stream
-                        .filter(line -> line.toLowerCase().contains(pattern.toLowerCase()))
-                        .limit(maxResults)
-                        .collect(Collectors.toList());
-            }
+            List<String> matchingLines = logFileReader.search(logPath, pattern, maxResults);
 
             return LogResponse.builder()
                     .logFilePath(logFilePath)
@@ -272,6 +270,7 @@ public class SystemMonitorService {
 
             // Truncate the log file
             new FileWriter(logPath.toFile(), false).close();
+            logFileReader.invalidate(logPath);
 
             log.info("Log file cleared. Old size: {} MB, Backup saved to: {}",
                     String.format("%.2f", oldSize / (1024.0 * 1024.0)), backupName);
@@ -296,14 +295,16 @@ public class SystemMonitorService {
     }
 
     /**
-     * Download log file as bytes
+     * Log faylni {@code out} ga oqim bilan yozadi (heap'ga to'liq o'qilmaydi)
+     *
+     * @return yozilgan baytlar
      */
-    public byte[] downloadLogs() throws IOException {
+    public long writeLogs(OutputStream out) throws IOException {
         Path logPath = Paths.get(logFilePath);
         if (!Files.exists(logPath)) {
             throw new FileNotFoundException("Log file not found: " + logFilePath);
         }
-        return Files.readAllBytes(logPath);
+        return logFileReader.copyTo(logPath, out);
     }
 
     /**
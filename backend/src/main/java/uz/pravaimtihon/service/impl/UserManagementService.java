@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -11,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import uz.pravaimtihon.dto.mapper.UserMapper;
 import uz.pravaimtihon.dto.request.CreateUserRequest;
 import uz.pravaimtihon.dto.request.UpdateUserRequest;
+import uz.pravaimtihon.dto.response.CursorPageResponse;
 import uz.pravaimtihon.dto.response.UserResponse;
 import uz.pravaimtihon.entity.User;
 import uz.pravaimtihon.enums.AcceptLanguage;
@@ -20,9 +22,12 @@ import uz.pravaimtihon.exception.ConflictException;
 import uz.pravaimtihon.exception.ForbiddenException;
 import uz.pravaimtihon.exception.ResourceNotFoundException;
 import uz.pravaimtihon.repository.UserRepository;
+import uz.pravaimtihon.security.CustomUserDetailsService;
 import uz.pravaimtihon.security.SecurityUtils;
+import uz.pravaimtihon.util.KeysetCursor;
 
 import jakarta.persistence.criteria.Predicate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,6 +44,7 @@ public class UserManagementService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final CustomUserDetailsService userDetailsService;
 
     /**
      * ✅ Get all users with filters and pagination
@@ -54,7 +60,56 @@ public class UserManagementService {
         Long currentUserId = SecurityUtils.getCurrentUserId();
         User currentUser = getUserOrThrow(currentUserId);
 
-        Specification<User> spec = (root, query, cb) -> {
+        Specification<User> spec = userFilter(search, role, isActive, currentUser);
+
+        return userRepository.findAll(spec, pageable)
+                .map(user -> userMapper.toResponse(user, language));
+    }
+
+    /**
+     * ✅ Get all users — keyset (cursor) sahifalash, {@code (createdAt, id)} DESC.
+     * Filtrlar {@link #getAllUsers} bilan bir xil; OFFSET va har sahifada COUNT yo'q.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserResponse> getAllUsersCursor(
+            String cursor,
+            int size,
+            boolean includeTotal,
+            String search,
+            Role role,
+            Boolean isActive,
+            AcceptLanguage language
+    ) {
+        Long currentUserId = SecurityUtils.getCurrentUserId();
+        User currentUser = getUserOrThrow(currentUserId);
+
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Specification<User> filter = userFilter(search, role, isActive, currentUser);
+
+        Specification<User> spec = filter;
+        if (after != null) {
+            LocalDateTime createdAt = after.timeKey();
+            Long id = after.id();
+            spec = filter.and((root, query, cb) -> cb.or(
+                    cb.lessThan(root.<LocalDateTime>get("createdAt"), createdAt),
+                    cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.<Long>get("id"), id))
+            ));
+        }
+
+        List<User> rows = userRepository.findBy(spec, q -> q
+                .sortBy(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(pageSize + 1)
+                .all());
+
+        return CursorPageResponse.of(rows, pageSize,
+                user -> KeysetCursor.of(user.getCreatedAt(), user.getId()).encode(),
+                user -> userMapper.toResponse(user, language),
+                includeTotal ? userRepository.count(filter) : null);
+    }
+
+    private Specification<User> userFilter(String search, Role role, Boolean isActive, User currentUser) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Not deleted
@@ -88,9 +143,6 @@ public class UserManagementService {
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
-
-        return userRepository.findAll(spec, pageable)
-                .map(user -> userMapper.toResponse(user, language));
     }
 
     /**
@@ -196,6 +248,7 @@ public class UserManagementService {
         }
 
         targetUser = userRepository.save(targetUser);
+        userDetailsService.evictUser(targetUser.getId());
         log.info("User updated: {}", targetUser.getId());
 
         return userMapper.toResponse(targetUser, language);
@@ -221,6 +274,7 @@ public class UserManagementService {
 
         targetUser.setRole(newRole);
         targetUser = userRepository.save(targetUser);
+        userDetailsService.evictUser(targetUser.getId());
 
         log.info("User role changed: {} -> {}", targetUser.getId(), newRole);
 
@@ -243,6 +297,7 @@ public class UserManagementService {
 
         targetUser.setIsActive(isActive);
         targetUser = userRepository.save(targetUser);
+        userDetailsService.evictUser(targetUser.getId());
 
         log.info("User status changed: {} -> {}", targetUser.getId(), isActive);
 
@@ -269,6 +324,7 @@ public class UserManagementService {
 
         targetUser.softDelete(currentUser.getEmail() != null ? currentUser.getEmail() : currentUser.getPhoneNumber());
         userRepository.save(targetUser);
+        userDetailsService.evictUser(targetUser.getId());
 
         log.info("User deleted: {}", targetUser.getId());
     }
@@ -0,0 +1,62 @@
+package uz.pravaimtihon.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Joriy tranzaksiyada yig'ilgan elementlarni COMMIT'dan keyin bitta ro'yxat qilib beradi.
+ * <p>
+ * Tranzaksiya bo'lmasa element darhol uzatiladi. ROLLBACK bo'lsa ro'yxat tashlab yuboriladi.
+ * Ro'yxat {@link TransactionSynchronizationManager#bindResource} bilan tranzaksiyaga bog'lanadi
+ * (kalit — buffer'ning o'zi): {@code REQUIRES_NEW} tashqi tranzaksiyani to'xtatganda ro'yxat ham
+ * ajratiladi, ichki tranzaksiya o'z ro'yxatini o'z COMMIT'ida beradi, tashqisi esa davom etganda qaytariladi.
+ */
+public final class AfterCommitBuffer<T> {
+
+    private final Consumer<List<T>> onCommit;
+
+    public AfterCommitBuffer(Consumer<List<T>> onCommit) {
+        this.onCommit = onCommit;
+    }
+
+    public void add(T item) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.accept(List.of(item));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> items = (List<T>) TransactionSynchronizationManager.getResource(this);
+        if (items == null) {
+            List<T> recorded = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, recorded);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(AfterCommitBuffer.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(AfterCommitBuffer.this, recorded);
+                }
+
+                @Override
+                public void afterCommit() {
+                    onCommit.accept(recorded);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AfterCommitBuffer.this);
+                }
+            });
+            items = recorded;
+        }
+        items.add(item);
+    }
+}
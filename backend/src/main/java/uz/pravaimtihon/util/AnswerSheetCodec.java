@@ -0,0 +1,120 @@
+package uz.pravaimtihon.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tugagan sessiya javoblarini ixcham ("packed") ko'rinishga o'tkazish.
+ * <p>
+ * {@code exam_answers} da har savol — alohida qator (BaseEntity audit ustunlari,
+ * {@code @Version}, ikkita index). Bu yerda butun javob varag'i bitta
+ * {@code bytea} qiymatga yoziladi — har savolga 23 bayt.
+ * <pre>
+ * header : version(1) count(4) baseEpochSecond(8)
+ * entry  : questionId(8) questionOrder(4) selected(1) correct(1) flags(1)
+ *          timeSpentSeconds(4) answeredAtOffset(4)
+ * </pre>
+ * {@code null} qiymatlar -1 bilan belgilanadi; {@code answeredAt} soniya
+ * aniqligida, {@code base} dan siljish sifatida saqlanadi.
+ */
+@UtilityClass
+public class AnswerSheetCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 1 + 4 + 8;
+    private static final int ENTRY_BYTES = 8 + 4 + 1 + 1 + 1 + 4 + 4;
+
+    private static final int FLAG_HAS_IS_CORRECT = 1;
+    private static final int FLAG_IS_CORRECT = 1 << 1;
+
+    /** Varaqdagi bitta javob — {@code ExamAnswer} ning saqlanadigan maydonlari. */
+    public record Entry(Long questionId,
+                        Integer questionOrder,
+                        Integer selectedOptionIndex,
+                        Integer correctOptionIndex,
+                        Boolean isCorrect,
+                        LocalDateTime answeredAt,
+                        Long timeSpentSeconds) {}
+
+    public static byte[] encode(List<Entry> entries) {
+        long base = entries.stream()
+                .map(Entry::answeredAt)
+                .filter(t -> t != null)
+                .mapToLong(t -> t.toEpochSecond(ZoneOffset.UTC))
+                .min()
+                .orElse(0L);
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + entries.size() * ENTRY_BYTES);
+        buf.put(FORMAT_VERSION);
+        buf.putInt(entries.size());
+        buf.putLong(base);
+
+        for (Entry e : entries) {
+            buf.putLong(e.questionId());
+            buf.putInt(e.questionOrder());
+            buf.put(toByte(e.selectedOptionIndex()));
+            buf.put(toByte(e.correctOptionIndex()));
+
+            int flags = 0;
+            if (e.isCorrect() != null) {
+                flags |= FLAG_HAS_IS_CORRECT;
+                if (e.isCorrect()) flags |= FLAG_IS_CORRECT;
+            }
+            buf.put((byte) flags);
+
+            buf.putInt(e.timeSpentSeconds() == null ? -1
+                    : (int) Math.min(Math.max(e.timeSpentSeconds(), 0L), Integer.MAX_VALUE));
+            buf.putInt(e.answeredAt() == null ? -1
+                    : (int) Math.min(e.answeredAt().toEpochSecond(ZoneOffset.UTC) - base, Integer.MAX_VALUE));
+        }
+        return buf.array();
+    }
+
+    public static List<Entry> decode(byte[] data) {
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        byte version = buf.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported answer sheet format: " + version);
+        }
+        int count = buf.getInt();
+        long base = buf.getLong();
+
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long questionId = buf.getLong();
+            int order = buf.getInt();
+            Integer selected = fromByte(buf.get());
+            Integer correct = fromByte(buf.get());
+            int flags = buf.get();
+            int timeSpent = buf.getInt();
+            int answeredOffset = buf.getInt();
+
+            entries.add(new Entry(
+                    questionId,
+                    order,
+                    selected,
+                    correct,
+                    (flags & FLAG_HAS_IS_CORRECT) != 0 ? (flags & FLAG_IS_CORRECT) != 0 : null,
+                    answeredOffset < 0 ? null : LocalDateTime.ofEpochSecond(base + answeredOffset, 0, ZoneOffset.UTC),
+                    timeSpent < 0 ? null : (long) timeSpent));
+        }
+        return entries;
+    }
+
+    private static byte toByte(Integer optionIndex) {
+        if (optionIndex == null) return -1;
+        if (optionIndex < 0 || optionIndex > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Option index out of range: " + optionIndex);
+        }
+        return optionIndex.byteValue();
+    }
+
+    private static Integer fromByte(byte value) {
+        return value < 0 ? null : (int) value;
+    }
+}
@@ -0,0 +1,89 @@
+package uz.pravaimtihon.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import uz.pravaimtihon.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset (cursor) sahifalash uchun shaffof bo'lmagan kursor.
+ * <p>
+ * Ichida oxirgi qatorning saralash kaliti va ID'si: {@code base64url("<kalit>|<id>")}.
+ * Keyingi sahifa {@code (kalit, id) < (:key, :id)} sharti bilan indeksdan o'qiladi —
+ * OFFSET kabi oldingi qatorlarni o'tkazib yubormaydi va har sahifada {@code COUNT(*)} yo'q.
+ * <p>
+ * Mijoz kursorni o'zgartirmasdan qaytarishi kerak; noto'g'ri kursor —
+ * {@code error.pagination.cursor.invalid}.
+ */
+public record KeysetCursor(String key, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /** {@code key} null bo'lishi mumkin (masalan {@code started_at}) — bo'sh kalit sifatida kodlanadi. */
+    public static KeysetCursor of(LocalDateTime key, Long id) {
+        return new KeysetCursor(key == null ? "" : key.toString(), id);
+    }
+
+    public static KeysetCursor of(Integer key, Long id) {
+        return new KeysetCursor(String.valueOf(key == null ? 0 : key), id);
+    }
+
+    /**
+     * @return null — birinchi sahifa (kursor berilmagan)
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(DECODER.decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep < 0) {
+                throw new BusinessException("error.pagination.cursor.invalid");
+            }
+            return new KeysetCursor(raw.substring(0, sep), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("error.pagination.cursor.invalid");
+        }
+    }
+
+    /** Sahifa hajmi 1..{@link Constants#MAX_PAGE_SIZE} oralig'ida. */
+    public static int pageSize(int size) {
+        return Math.max(1, Math.min(size, Constants.MAX_PAGE_SIZE));
+    }
+
+    /** {@code size + 1} qator — ortiqchasi keyingi sahifa borligini bildiradi (COUNT'siz). */
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    public String encode() {
+        return ENCODER.encodeToString((key + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime timeKey() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("error.pagination.cursor.invalid");
+        }
+    }
+
+    /** {@link #of(LocalDateTime, Long)} da null kalit bilan yaratilgan kursor uchun null. */
+    public LocalDateTime nullableTimeKey() {
+        return key.isEmpty() ? null : timeKey();
+    }
+
+    public int intKey() {
+        try {
+            return Integer.parseInt(key);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("error.pagination.cursor.invalid");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package uz.pravaimtihon.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Massivdan k ta takrorlanmas elementni tasodifiy tanlash.
+ * <p>
+ * Qisman (partial) Fisher–Yates: faqat birinchi k qadam bajariladi, O(k).
+ * Manba massiv UMUMIY (bir nechta thread o'qiydi), shuning uchun u
+ * o'zgartirilmaydi — almashtirishlar kichik "virtual" map'da saqlanadi.
+ */
+@UtilityClass
+public class RandomSampler {
+
+    /**
+     * @param pool manba (o'zgartirilmaydi)
+     * @param k    kerakli soni; pool'dan katta bo'lsa, pool hajmicha qaytariladi
+     * @return tasodifiy tartibdagi k ta element
+     */
+    public static List<Long> sample(long[] pool, int k) {
+        int n = pool.length;
+        int count = Math.min(Math.max(k, 0), n);
+        List<Long> result = new ArrayList<>(count);
+        if (count == 0) {
+            return result;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // index -> almashtirilgan index (faqat tegilgan pozitsiyalar)
+        Map<Integer, Integer> swapped = new HashMap<>(count * 2);
+
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(n - i);
+            int atJ = swapped.getOrDefault(j, j);
+            int atI = swapped.getOrDefault(i, i);
+            swapped.put(j, atI);
+            result.add(pool[atJ]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package uz.pravaimtihon.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tartiblangan to'plam + o'rin (rank) bo'yicha murojaat — order-statistic treap.
+ * <p>
+ * Har tugun o'z qism daraxti hajmini saqlaydi, shuning uchun qo'shish, o'chirish,
+ * {@link #rank(Object)} va {@link #range(int, int)} boshlanishi O(log n).
+ * Comparator to'liq tartib berishi kerak (teng elementlar bitta deb hisoblanadi).
+ * <p>
+ * Thread-safe EMAS — chaqiruvchi qulf bilan himoyalaydi.
+ */
+public class RankedSet<E> {
+
+    private static final class Node<E> {
+        final E value;
+        final int priority;
+        Node<E> left;
+        Node<E> right;
+        int size = 1;
+
+        Node(E value) {
+            this.value = value;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private Node<E> root;
+
+    public RankedSet(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void add(E value) {
+        Node<E>[] parts = split(root, value);
+        // teng element bo'lsa — almashtiriladi
+        Node<E>[] rest = splitAfterEqual(parts[1], value);
+        root = merge(merge(parts[0], new Node<>(value)), rest[1]);
+    }
+
+    public boolean remove(E value) {
+        Node<E>[] parts = split(root, value);
+        Node<E>[] rest = splitAfterEqual(parts[1], value);
+        root = merge(parts[0], rest[1]);
+        return rest[0] != null;
+    }
+
+    /**
+     * @return elementdan oldin turganlar soni (0 dan boshlanadi); element to'plamda
+     * bo'lmasa — u qo'yiladigan joy
+     */
+    public int rank(E value) {
+        int rank = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(value, node.value);
+            if (cmp <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * {@code from} o'rindan boshlab ko'pi bilan {@code count} ta element, tartib bo'yicha.
+     */
+    public List<E> range(int from, int count) {
+        List<E> result = new ArrayList<>(Math.max(0, Math.min(count, size() - from)));
+        if (from < 0 || count <= 0) {
+            return result;
+        }
+        collect(root, from, count, result);
+        return result;
+    }
+
+    private void collect(Node<E> node, int skip, int count, List<E> out) {
+        if (node == null || out.size() >= count) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if (skip < leftSize) {
+            collect(node.left, skip, count, out);
+        }
+        if (out.size() >= count) {
+            return;
+        }
+        if (skip <= leftSize) {
+            out.add(node.value);
+        }
+        collect(node.right, Math.max(0, skip - leftSize - 1), count, out);
+    }
+
+    /** [< value], [>= value] */
+    private Node<E>[] split(Node<E> node, E value) {
+        if (node == null) {
+            return pair(null, null);
+        }
+        if (comparator.compare(node.value, value) < 0) {
+            Node<E>[] parts = split(node.right, value);
+            node.right = parts[0];
+            update(node);
+            return pair(node, parts[1]);
+        }
+        Node<E>[] parts = split(node.left, value);
+        node.left = parts[1];
+        update(node);
+        return pair(parts[0], node);
+    }
+
+    /** [<= value], [> value] */
+    private Node<E>[] splitAfterEqual(Node<E> node, E value) {
+        if (node == null) {
+            return pair(null, null);
+        }
+        if (comparator.compare(node.value, value) <= 0) {
+            Node<E>[] parts = splitAfterEqual(node.right, value);
+            node.right = parts[0];
+            update(node);
+            return pair(node, parts[1]);
+        }
+        Node<E>[] parts = splitAfterEqual(node.left, value);
+        node.left = parts[1];
+        update(node);
+        return pair(parts[0], node);
+    }
+
+    private Node<E> merge(Node<E> a, Node<E> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static <E> int size(Node<E> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static <E> void update(Node<E> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E>[] pair(Node<E> a, Node<E> b) {
+        return new Node[]{a, b};
+    }
+}
@@ -0,0 +1,67 @@
+package uz.pravaimtihon.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Qidiruv uchun matnni bir xil ko'rinishga keltirish.
+ * <p>
+ * Kichik harf, kirill → lotin (o'zbek imlosi bo'yicha: ў → o, қ → q, ғ → g, ҳ → h;
+ * rus harflari ham shu jadval bilan), tutuq belgilari (' ʻ ʼ ‘ ’ `) olib tashlanadi,
+ * harf/raqam bo'lmagan belgilar bitta bo'shliqqa aylanadi.
+ * Natijada "Йўл белгиси", "Yo'l belgisi" va "yoʻl belgisi" bir xil matnga aylanadi.
+ * <p>
+ * Indeks ham, so'rov ham shu funksiyadan o'tadi — faqat izchillik muhim.
+ */
+@UtilityClass
+public class SearchTextNormalizer {
+
+    private static final String[] CYRILLIC = new String[0x500];
+
+    static {
+        String[][] map = {
+                {"а", "a"}, {"б", "b"}, {"в", "v"}, {"г", "g"}, {"д", "d"}, {"е", "e"}, {"ё", "yo"},
+                {"ж", "j"}, {"з", "z"}, {"и", "i"}, {"й", "y"}, {"к", "k"}, {"л", "l"}, {"м", "m"},
+                {"н", "n"}, {"о", "o"}, {"п", "p"}, {"р", "r"}, {"с", "s"}, {"т", "t"}, {"у", "u"},
+                {"ф", "f"}, {"х", "x"}, {"ц", "ts"}, {"ч", "ch"}, {"ш", "sh"}, {"щ", "sh"}, {"ъ", ""},
+                {"ы", "i"}, {"ь", ""}, {"э", "e"}, {"ю", "yu"}, {"я", "ya"}, {"ў", "o"}, {"қ", "q"},
+                {"ғ", "g"}, {"ҳ", "h"}
+        };
+        for (String[] pair : map) {
+            CYRILLIC[pair[0].charAt(0)] = pair[1];
+        }
+    }
+
+    /** @return normallashtirilgan matn; null uchun bo'sh satr */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (isApostrophe(c)) {
+                continue;
+            }
+            if (c < CYRILLIC.length && CYRILLIC[c] != null) {
+                sb.append(CYRILLIC[c]);
+                space = false;
+            } else if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') {
+            sb.setLength(end - 1);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isApostrophe(char c) {
+        return c == '\'' || c == '`' || c == 'ʻ' || c == 'ʼ' || c == '‘' || c == '’';
+    }
+}
@@ -0,0 +1,5 @@
+-- V10: Incremental backup indekslari
+-- Delta eksport "updated_at > watermark OR id > maxId" bilan o'qiydi — eng katta jadvallarda to'liq skan bo'lmasligi uchun
+
+CREATE INDEX IF NOT EXISTS idx_session_updated ON exam_sessions(updated_at);
+CREATE INDEX IF NOT EXISTS idx_answer_updated ON exam_answers(updated_at);
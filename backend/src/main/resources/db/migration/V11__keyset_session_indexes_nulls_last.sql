@@ -0,0 +1,7 @@
+-- V11: Sessiya keyset indekslari NULLS LAST bilan
+-- started_at NULL bo'lishi mumkin; sahifalash (started_at DESC NULLS LAST, id DESC) tartibida — indeks ham shu tartibda bo'lsin
+
+DROP INDEX IF EXISTS idx_session_user_started;
+DROP INDEX IF EXISTS idx_session_status_started;
+CREATE INDEX IF NOT EXISTS idx_session_user_started ON exam_sessions(user_id, started_at DESC NULLS LAST, id DESC);
+CREATE INDEX IF NOT EXISTS idx_session_status_started ON exam_sessions(status, started_at DESC NULLS LAST, id DESC);
@@ -0,0 +1,23 @@
+-- V7: Kunlik imtihon faolligi yig'indisi (ExamRollupService)
+-- Statistika trend va davr (bugun/hafta/oy) so'rovlari exam_sessions o'rniga shu jadvalni o'qiydi
+
+CREATE TABLE IF NOT EXISTS daily_exam_rollup (
+    id              BIGSERIAL PRIMARY KEY,
+    day             DATE NOT NULL,
+    user_id         BIGINT NOT NULL,
+    mode            VARCHAR(10) NOT NULL,
+    package_id      BIGINT NOT NULL DEFAULT 0,
+    ticket_id       BIGINT NOT NULL DEFAULT 0,
+    topic_id        BIGINT NOT NULL DEFAULT 0,
+    started_count   BIGINT NOT NULL DEFAULT 0,
+    total_questions BIGINT NOT NULL DEFAULT 0,
+    finished_count  BIGINT NOT NULL DEFAULT 0,
+    passed_count    BIGINT NOT NULL DEFAULT 0,
+    failed_count    BIGINT NOT NULL DEFAULT 0,
+    correct_count   BIGINT NOT NULL DEFAULT 0,
+    sum_percentage  DOUBLE PRECISION NOT NULL DEFAULT 0,
+    CONSTRAINT uq_rollup_key UNIQUE (day, user_id, mode, package_id, ticket_id, topic_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rollup_day ON daily_exam_rollup(day);
+CREATE INDEX IF NOT EXISTS idx_rollup_user_day ON daily_exam_rollup(user_id, day);
@@ -0,0 +1,11 @@
+-- V8: Umumiy rate-limit holati (JdbcRateLimiter, app.security.rate-limit.store=jdbc)
+-- Har (scope, kalit) uchun GCRA "theoretical arrival time" — mikrosekund, epoch
+
+CREATE TABLE IF NOT EXISTS rate_limit_state (
+    scope       VARCHAR(20)  NOT NULL,
+    client_key  VARCHAR(255) NOT NULL,
+    tat         BIGINT       NOT NULL,
+    PRIMARY KEY (scope, client_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_tat ON rate_limit_state(tat);
@@ -0,0 +1,8 @@
+-- V9: Keyset (cursor) sahifalash indekslari
+-- Tarix va admin ro'yxatlari OFFSET o'rniga (kalit, id) dan davom etadi — indeksdan to'g'ridan-to'g'ri o'qiladi
+
+CREATE INDEX IF NOT EXISTS idx_session_user_started ON exam_sessions(user_id, started_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_session_status_started ON exam_sessions(status, started_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_user_created_id ON users(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_ticket_number_id ON tickets(ticket_number, id);
+CREATE INDEX IF NOT EXISTS idx_package_order_id ON exam_packages(order_index, id);
@@ -0,0 +1,247 @@
+package uz.pravaimtihon.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uz.pravaimtihon.dto.request.StatisticsFilterRequest;
+import uz.pravaimtihon.dto.request.StatisticsFilterRequest.ExamMode;
+import uz.pravaimtihon.repository.ExamSessionStatisticsRepository.Summary;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * SQL agregatlari avvalgi Java hisobi (findAll + stream'lar) bilan bir xil natija beradimi.
+ * Kutilgan qiymatlar {@code ComprehensiveStatisticsService.calculateSummary} ning eski
+ * formulalari bilan hisoblanadi — jumladan median: o'sish tartibida {@code sorted.get(n / 2)}.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ExamSessionStatisticsRepositoryTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String[] STATUSES = {"COMPLETED", "COMPLETED", "COMPLETED", "IN_PROGRESS", "ABANDONED", "EXPIRED"};
+
+    /** package/ticket id → topic id (0 — mavzusiz, Map.of null qabul qilmaydi). */
+    private static final Map<Long, Long> PACKAGE_TOPICS = Map.of(1L, 10L, 2L, 11L, 3L, 0L);
+    private static final Map<Long, Long> TICKET_TOPICS = Map.of(1L, 10L, 2L, 11L, 3L, 12L, 4L, 0L);
+
+    private record Row(long id, long userId, Long packageId, Long ticketId, String status, Boolean isPassed,
+                       Integer totalQuestions, Integer correct, Integer wrong, Double percentage,
+                       LocalDateTime startedAt, LocalDateTime finishedAt) {
+    }
+
+    private static final List<Row> rows = new ArrayList<>();
+    private static ExamSessionStatisticsRepository repository;
+
+    @BeforeAll
+    static void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE exam_packages (id BIGINT PRIMARY KEY, topic_id BIGINT)");
+        jdbc.execute("CREATE TABLE tickets (id BIGINT PRIMARY KEY, topic_id BIGINT)");
+        jdbc.execute("CREATE TABLE exam_sessions (" +
+                " id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, package_id BIGINT, ticket_id BIGINT," +
+                " status VARCHAR(20) NOT NULL, is_passed BOOLEAN, total_questions INTEGER," +
+                " correct_count INTEGER, wrong_count INTEGER, percentage DOUBLE PRECISION," +
+                " started_at TIMESTAMP, finished_at TIMESTAMP)");
+        PACKAGE_TOPICS.forEach((id, topic) -> jdbc.update("INSERT INTO exam_packages VALUES (?, ?)", id, topicOrNull(topic)));
+        TICKET_TOPICS.forEach((id, topic) -> jdbc.update("INSERT INTO tickets VALUES (?, ?)", id, topicOrNull(topic)));
+
+        // 1-foydalanuvchi: juft sonli, 2-foydalanuvchi: toq sonli natijalar
+        add(1, null, null, "COMPLETED", 90.0);
+        add(1, null, null, "COMPLETED", 50.0);
+        add(1, null, null, "COMPLETED", 70.0);
+        add(1, null, null, "COMPLETED", 60.0);
+        add(2, null, null, "COMPLETED", 40.0);
+        add(2, null, null, "COMPLETED", 80.0);
+        add(2, null, null, "COMPLETED", 80.0);
+        add(2, null, null, "COMPLETED", 20.0);
+        add(2, null, null, "COMPLETED", 95.0);
+        add(2, null, null, "IN_PROGRESS", null);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            int kind = random.nextInt(3);
+            Long packageId = kind == 1 ? 1L + random.nextInt(3) : null;
+            Long ticketId = kind == 2 ? 1L + random.nextInt(4) : null;
+            String status = STATUSES[random.nextInt(STATUSES.length)];
+            Double percentage = "IN_PROGRESS".equals(status) ? null : (double) random.nextInt(21) * 5;
+            add(3 + random.nextInt(5), packageId, ticketId, status, percentage);
+        }
+
+        for (Row r : rows) {
+            jdbc.update("INSERT INTO exam_sessions VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    r.id(), r.userId(), r.packageId(), r.ticketId(), r.status(), r.isPassed(),
+                    r.totalQuestions(), r.correct(), r.wrong(), r.percentage(),
+                    timestamp(r.startedAt()), timestamp(r.finishedAt()));
+        }
+        repository = new ExamSessionStatisticsRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @Test
+    void medianOfEvenCountIsUpperMiddle() {
+        Summary summary = summarize(StatisticsFilterRequest.builder().userId(1L).build());
+
+        assertEquals(70.0, summary.medianScore());
+        assertEquals(legacyMedian(r -> r.userId() == 1), summary.medianScore());
+    }
+
+    @Test
+    void medianOfOddCountIgnoresUnscoredSessions() {
+        Summary summary = summarize(StatisticsFilterRequest.builder().userId(2L).build());
+
+        assertEquals(80.0, summary.medianScore());
+        assertEquals(legacyMedian(r -> r.userId() == 2), summary.medianScore());
+        assertEquals(6, summary.total());
+    }
+
+    @Test
+    void emptySelectionHasNoScores() {
+        Summary summary = summarize(StatisticsFilterRequest.builder().userId(999L).build());
+
+        assertEquals(0, summary.total());
+        assertNull(summary.averageScore());
+        assertNull(summary.medianScore());
+    }
+
+    @Test
+    void summaryMatchesLegacyComputation() {
+        List<StatisticsFilterRequest> requests = List.of(
+                new StatisticsFilterRequest(),
+                StatisticsFilterRequest.builder().mode(ExamMode.MARATHON).build(),
+                StatisticsFilterRequest.builder().mode(ExamMode.TICKET).build(),
+                StatisticsFilterRequest.builder().mode(ExamMode.PACKAGE).build(),
+                StatisticsFilterRequest.builder().topicId(10L).build(),
+                StatisticsFilterRequest.builder().topicId(11L).completedOnly(true).build(),
+                StatisticsFilterRequest.builder().userId(4L).passedOnly(true).build(),
+                StatisticsFilterRequest.builder().packageId(2L).build(),
+                StatisticsFilterRequest.builder().ticketId(3L).build(),
+                StatisticsFilterRequest.builder()
+                        .fromDate(LocalDateTime.of(2024, 3, 1, 0, 0))
+                        .toDate(LocalDateTime.of(2024, 6, 30, 23, 59))
+                        .build());
+
+        for (StatisticsFilterRequest request : requests) {
+            List<Row> selected = rows.stream().filter(legacyFilter(request)).toList();
+            List<Double> scores = selected.stream()
+                    .filter(r -> r.percentage() != null)
+                    .map(Row::percentage)
+                    .sorted()
+                    .toList();
+            Summary summary = summarize(request);
+            String label = request.toString();
+
+            assertEquals(selected.size(), summary.total(), label);
+            assertEquals(countStatus(selected, "COMPLETED"), summary.completed(), label);
+            assertEquals(countStatus(selected, "IN_PROGRESS"), summary.inProgress(), label);
+            assertEquals(countStatus(selected, "ABANDONED"), summary.abandoned(), label);
+            assertEquals(countStatus(selected, "EXPIRED"), summary.expired(), label);
+            assertEquals(selected.stream().filter(r -> Boolean.TRUE.equals(r.isPassed())).count(),
+                    summary.passed(), label);
+            assertEquals(selected.stream().mapToLong(r -> r.totalQuestions() != null ? r.totalQuestions() : 0).sum(),
+                    summary.totalQuestions(), label);
+            assertEquals(selected.stream().mapToLong(r -> r.correct() != null ? r.correct() : 0).sum(),
+                    summary.correct(), label);
+            assertEquals(selected.stream().mapToLong(r -> r.wrong() != null ? r.wrong() : 0).sum(),
+                    summary.wrong(), label);
+            assertEquals(scores.stream().mapToDouble(d -> d).average().orElseThrow(), summary.averageScore(), 1e-9, label);
+            assertEquals(scores.get(scores.size() - 1), summary.bestScore(), label);
+            assertEquals(scores.get(0), summary.worstScore(), label);
+            assertEquals(scores.get(scores.size() / 2), summary.medianScore(), label);
+            assertEquals(selected.stream().mapToLong(ExamSessionStatisticsRepositoryTest::durationSeconds).sum(),
+                    summary.totalTimeSeconds(), label);
+        }
+    }
+
+    private static Summary summarize(StatisticsFilterRequest request) {
+        return repository.summary(repository.filterOf(request));
+    }
+
+    private static void add(long userId, Long packageId, Long ticketId, String status, Double percentage) {
+        long id = rows.size() + 1;
+        // har 25-sessiyaning boshlanish vaqti yo'q — sana filtri ularni o'tkazishi kerak
+        LocalDateTime startedAt = id % 25 == 0 ? null : LocalDateTime.of(2024, 1, 1, 8, 0).plusHours(id * 7);
+        boolean finished = !"IN_PROGRESS".equals(status);
+        LocalDateTime finishedAt = finished && startedAt != null ? startedAt.plusSeconds(300 + id * 13 % 900) : null;
+        int total = 20;
+        Integer correct = percentage == null ? null : (int) Math.round(percentage * total / 100);
+        rows.add(new Row(id, userId, packageId, ticketId, status,
+                finished ? percentage != null && percentage >= 90 : null,
+                total, correct, correct == null ? null : total - correct, percentage,
+                startedAt, finishedAt));
+    }
+
+    // ============================================
+    // Avvalgi Java hisobi
+    // ============================================
+
+    private static Predicate<Row> legacyFilter(StatisticsFilterRequest request) {
+        return r -> (request.getUserId() == null || request.getUserId() == r.userId())
+                && (request.getPackageId() == null || request.getPackageId().equals(r.packageId()))
+                && (request.getTicketId() == null || request.getTicketId().equals(r.ticketId()))
+                && (request.getTopicId() == null || request.getTopicId().equals(topicOf(r)))
+                && switch (request.getMode()) {
+                    case MARATHON -> r.packageId() == null && r.ticketId() == null;
+                    case TICKET -> r.ticketId() != null;
+                    case PACKAGE -> r.packageId() != null && r.ticketId() == null;
+                    case ALL -> true;
+                }
+                && (request.getFromDate() == null || r.startedAt() == null || !r.startedAt().isBefore(request.getFromDate()))
+                && (request.getToDate() == null || r.startedAt() == null || !r.startedAt().isAfter(request.getToDate()))
+                && (!request.getCompletedOnly() || "COMPLETED".equals(r.status()))
+                && (!request.getPassedOnly() || Boolean.TRUE.equals(r.isPassed()));
+    }
+
+    private static Double legacyMedian(Predicate<Row> filter) {
+        List<Double> scores = rows.stream()
+                .filter(filter)
+                .filter(r -> r.percentage() != null)
+                .map(Row::percentage)
+                .sorted()
+                .toList();
+        return scores.get(scores.size() / 2);
+    }
+
+    private static Long topicOf(Row r) {
+        if (r.packageId() != null) {
+            return topicOrNull(PACKAGE_TOPICS.get(r.packageId()));
+        }
+        return r.ticketId() != null ? topicOrNull(TICKET_TOPICS.get(r.ticketId())) : null;
+    }
+
+    private static long countStatus(List<Row> selected, String status) {
+        return selected.stream().filter(r -> status.equals(r.status())).count();
+    }
+
+    private static long durationSeconds(Row r) {
+        if (r.startedAt() == null || r.finishedAt() == null) {
+            return 0L;
+        }
+        return Duration.between(r.startedAt(), r.finishedAt()).getSeconds();
+    }
+
+    private static Long topicOrNull(Long topic) {
+        return topic == 0L ? null : topic;
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
@@ -0,0 +1,137 @@
+package uz.pravaimtihon.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long MINUTE = 60 * SECOND;
+
+    // ============================================
+    // GCRA (consume)
+    // ============================================
+
+    @Test
+    void fullBucketAllowsBurstOfPermitsThenDenies() {
+        AtomicLong tat = new AtomicLong();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(InMemoryRateLimiter.consume(tat, 0, 5), "request " + i);
+        }
+        assertFalse(InMemoryRateLimiter.consume(tat, 0, 5));
+    }
+
+    @Test
+    void deniedRequestDoesNotMoveTat() {
+        AtomicLong tat = new AtomicLong();
+        for (int i = 0; i < 5; i++) {
+            InMemoryRateLimiter.consume(tat, 0, 5);
+        }
+        long before = tat.get();
+
+        assertFalse(InMemoryRateLimiter.consume(tat, 0, 5));
+        assertEquals(before, tat.get());
+    }
+
+    @Test
+    void oneIntervalLaterAllowsExactlyOneMore() {
+        AtomicLong tat = new AtomicLong();
+        for (int i = 0; i < 5; i++) {
+            InMemoryRateLimiter.consume(tat, 0, 5);
+        }
+        long interval = MINUTE / 5;
+
+        assertFalse(InMemoryRateLimiter.consume(tat, interval - 1, 5));
+        assertTrue(InMemoryRateLimiter.consume(tat, interval, 5));
+        assertFalse(InMemoryRateLimiter.consume(tat, interval, 5));
+    }
+
+    @Test
+    void idleMinuteRefillsWholeBucket() {
+        AtomicLong tat = new AtomicLong();
+        for (int i = 0; i < 5; i++) {
+            InMemoryRateLimiter.consume(tat, 0, 5);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(InMemoryRateLimiter.consume(tat, MINUTE, 5), "request " + i);
+        }
+        assertFalse(InMemoryRateLimiter.consume(tat, MINUTE, 5));
+    }
+
+    @Test
+    void singlePermitMeansOneRequestPerMinute() {
+        AtomicLong tat = new AtomicLong();
+
+        assertTrue(InMemoryRateLimiter.consume(tat, 0, 1));
+        assertFalse(InMemoryRateLimiter.consume(tat, 59 * SECOND, 1));
+        assertTrue(InMemoryRateLimiter.consume(tat, MINUTE, 1));
+    }
+
+    @Test
+    void nonPositivePermitsAreTreatedAsOne() {
+        AtomicLong tat = new AtomicLong();
+
+        assertTrue(InMemoryRateLimiter.consume(tat, 0, 0));
+        assertFalse(InMemoryRateLimiter.consume(tat, 0, -3));
+    }
+
+    // ============================================
+    // tryAcquire
+    // ============================================
+
+    @Test
+    void keysAndScopesAreLimitedSeparately() {
+        InMemoryRateLimiter limiter = new InMemoryRateLimiter(10_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(RateLimitScope.AUTH, "10.0.0.1", 3));
+        }
+        assertFalse(limiter.tryAcquire(RateLimitScope.AUTH, "10.0.0.1", 3));
+
+        assertTrue(limiter.tryAcquire(RateLimitScope.AUTH, "10.0.0.2", 3));
+        assertTrue(limiter.tryAcquire(RateLimitScope.GENERAL, "10.0.0.1", 3));
+    }
+
+    @Test
+    void fullStripeSendsNewKeysToSharedOverflowBucket() {
+        // har bo'lakda bittagina kalit
+        InMemoryRateLimiter limiter = new InMemoryRateLimiter(1);
+        String[] keys = keysInSameStripe(4);
+
+        assertTrue(limiter.tryAcquire(RateLimitScope.USER, keys[0], 2));
+
+        // keys[1..3] bitta overflow bucket'ni bo'lishadi — limit nollanmaydi
+        assertTrue(limiter.tryAcquire(RateLimitScope.USER, keys[1], 2));
+        assertTrue(limiter.tryAcquire(RateLimitScope.USER, keys[2], 2));
+        assertFalse(limiter.tryAcquire(RateLimitScope.USER, keys[3], 2));
+
+        // kuzatilayotgan kalit o'z bucket'ida qoladi
+        assertTrue(limiter.tryAcquire(RateLimitScope.USER, keys[0], 2));
+        assertFalse(limiter.tryAcquire(RateLimitScope.USER, keys[0], 2));
+    }
+
+    @Test
+    void storeTypeIsMemory() {
+        assertEquals("memory", new InMemoryRateLimiter(100).getStoreType());
+    }
+
+    /** InMemoryRateLimiter'dagi bo'lak tanlash formulasi (16 bo'lak). */
+    private static String[] keysInSameStripe(int count) {
+        String[] keys = new String[count];
+        int found = 0;
+        for (int i = 0; found < count; i++) {
+            String key = "192.168.0." + i;
+            if ((key.hashCode() & 0x7fffffff) % 16 == 0) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,116 @@
+package uz.pravaimtihon.security.ratelimit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Umumiy (JDBC) store haqiqiy PostgreSQL'da — UPSERT va {@code RETURNING} H2'da yo'q.
+ * Docker bo'lmasa o'tkazib yuboriladi.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class JdbcRateLimiterTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbc;
+
+    private JdbcRateLimiter limiter;
+
+    @BeforeAll
+    static void createSchema() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        // V8__add_rate_limit_state.sql
+        jdbc.execute("CREATE TABLE rate_limit_state (" +
+                " scope VARCHAR(20) NOT NULL, client_key VARCHAR(255) NOT NULL, tat BIGINT NOT NULL," +
+                " PRIMARY KEY (scope, client_key))");
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("TRUNCATE rate_limit_state");
+        limiter = new JdbcRateLimiter(jdbc);
+    }
+
+    @Test
+    void fullBucketAllowsBurstOfPermitsThenDenies() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(RateLimitScope.AUTH, "10.0.0.1", 5), "request " + i);
+        }
+        assertFalse(limiter.tryAcquire(RateLimitScope.AUTH, "10.0.0.1", 5));
+    }
+
+    @Test
+    void deniedRequestDoesNotMoveTat() {
+        limiter.tryAcquire(RateLimitScope.AUTH, "10.0.0.1", 1);
+        long before = tatOf(RateLimitScope.AUTH, "10.0.0.1");
+
+        assertFalse(limiter.tryAcquire(RateLimitScope.AUTH, "10.0.0.1", 1));
+        assertEquals(before, tatOf(RateLimitScope.AUTH, "10.0.0.1"));
+    }
+
+    @Test
+    void keysAndScopesAreLimitedSeparately() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(RateLimitScope.USER, "+998901234567", 3));
+        }
+        assertFalse(limiter.tryAcquire(RateLimitScope.USER, "+998901234567", 3));
+
+        assertTrue(limiter.tryAcquire(RateLimitScope.USER, "+998907654321", 3));
+        assertTrue(limiter.tryAcquire(RateLimitScope.GENERAL, "+998901234567", 3));
+    }
+
+    @Test
+    void elapsedIntervalAllowsOneMore() {
+        for (int i = 0; i < 2; i++) {
+            limiter.tryAcquire(RateLimitScope.GENERAL, "10.0.0.1", 2);
+        }
+        assertFalse(limiter.tryAcquire(RateLimitScope.GENERAL, "10.0.0.1", 2));
+
+        // bitta interval (30 s) o'tganini TAT'ni orqaga surib taqlid qilamiz
+        jdbc.update("UPDATE rate_limit_state SET tat = tat - 30000000");
+
+        assertTrue(limiter.tryAcquire(RateLimitScope.GENERAL, "10.0.0.1", 2));
+        assertFalse(limiter.tryAcquire(RateLimitScope.GENERAL, "10.0.0.1", 2));
+    }
+
+    @Test
+    void purgeRemovesOnlyExpiredRows() {
+        limiter.tryAcquire(RateLimitScope.AUTH, "active", 5);
+        jdbc.update("INSERT INTO rate_limit_state (scope, client_key, tat) VALUES ('AUTH', 'expired', 0)");
+
+        limiter.purgeExpired();
+
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM rate_limit_state", Integer.class));
+        assertEquals(1, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM rate_limit_state WHERE client_key = 'active'", Integer.class));
+    }
+
+    @Test
+    void unavailableStoreFailsOpen() {
+        jdbc.execute("ALTER TABLE rate_limit_state RENAME TO rate_limit_state_off");
+        try {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(limiter.tryAcquire(RateLimitScope.AUTH, "10.0.0.1", 1));
+            }
+        } finally {
+            jdbc.execute("ALTER TABLE rate_limit_state_off RENAME TO rate_limit_state");
+        }
+    }
+
+    private static long tatOf(RateLimitScope scope, String key) {
+        return jdbc.queryForObject("SELECT tat FROM rate_limit_state WHERE scope = ? AND client_key = ?",
+                Long.class, scope.name(), key);
+    }
+}
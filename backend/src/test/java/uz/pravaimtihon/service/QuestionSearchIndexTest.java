@@ -0,0 +1,165 @@
+package uz.pravaimtihon.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uz.pravaimtihon.dto.response.exam.LocalizedText;
+import uz.pravaimtihon.dto.response.exam.QuestionResponse;
+import uz.pravaimtihon.service.QuestionBankSnapshot.CachedQuestion;
+import uz.pravaimtihon.service.QuestionBankSnapshot.Snapshot;
+import uz.pravaimtihon.service.QuestionSearchIndex.Result;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuestionSearchIndexTest {
+
+    /** Bazasiz nusxa: {@link QuestionSearchIndex} faqat {@code current()} ni chaqiradi. */
+    private static final class FixedQuestionBank extends QuestionBankSnapshot {
+
+        private Snapshot snapshot;
+
+        FixedQuestionBank() {
+            super(null, null, null);
+        }
+
+        @Override
+        public Snapshot current() {
+            return snapshot;
+        }
+    }
+
+    private final FixedQuestionBank questionBank = new FixedQuestionBank();
+    private final QuestionSearchIndex index = new QuestionSearchIndex(questionBank);
+    private final Map<Long, CachedQuestion> questions = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        add(1, 1, LocalizedText.of("Yo'l belgisi qanday ma'noni bildiradi?", "Йўл белгиси қандай маънони билдиради?",
+                "What does the road sign mean?", "Что означает дорожный знак?"));
+        add(2, 1, LocalizedText.of("Svetofor yashil chirog'i yonganda haydovchi nima qiladi?",
+                "Светофор яшил чироғи ёнганда ҳайдовчи нима қилади?", null, null));
+        add(3, 2, LocalizedText.ofUzl("Chorrahada qaysi belgi ustunlik beradi?"));
+        add(4, 2, LocalizedText.ofUzl("Ogohlantiruvchi belgilar yo'l chetiga o'rnatiladi"));
+        add(5, 3, LocalizedText.ofUzl("Aholi punktida ruxsat etilgan tezlik 60 km/soat"));
+        publish();
+    }
+
+    @Test
+    void cyrillicQueryFindsLatinTextAndViceVersa() {
+        assertEquals(List.of(1L), search("йўл белгиси").ids());
+        assertEquals(List.of(1L), search("YO‘L BELGISI").ids());
+        assertEquals(List.of(2L), search("ҳайдовчи").ids());
+        assertEquals(List.of(2L), search("haydovchi").ids());
+    }
+
+    @Test
+    void everyLanguageIsSearchable() {
+        assertEquals(List.of(1L), search("road sign").ids());
+        assertEquals(List.of(1L), search("дорожный знак").ids());
+        assertEquals(List.of(1L), search("znak").ids());
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        assertEquals(3, search("belgi").total());
+        assertEquals(List.of(4L), search("belgi chetiga").ids());
+        assertEquals(0, search("belgi svetofor").total());
+    }
+
+    @Test
+    void wordsAreMatchedAsPrefixesAndInfixes() {
+        assertEquals(List.of(3L), search("chorraha").ids());
+        assertEquals(List.of(3L), search("orrah").ids());
+    }
+
+    @Test
+    void phraseAtWordStartRanksFirst() {
+        questions.clear();
+        add(10, 1, LocalizedText.ofUzl("Yo'li sirpanchiq bo'lsa tormoz qanday bosiladi"));
+        add(11, 1, LocalizedText.ofUzl("Avtotormoz yo'li qayerda"));
+        add(12, 1, LocalizedText.ofUzl("Tormoz yo'li uzunligi nimaga bog'liq"));
+        publish();
+
+        // 12: ibora so'z boshida; 11: ibora so'z ichida; 10: faqat alohida so'zlar
+        assertEquals(List.of(12L, 11L, 10L), search("tormoz yo'li").ids());
+    }
+
+    @Test
+    void equalScoresPreferShorterTextThenLowerId() {
+        questions.clear();
+        add(22, 1, LocalizedText.ofUzl("Belgi"));
+        add(21, 1, LocalizedText.ofUzl("Belgi va chiziq"));
+        add(20, 1, LocalizedText.ofUzl("Belgi"));
+        publish();
+
+        assertEquals(List.of(20L, 22L, 21L), search("belgi").ids());
+    }
+
+    @Test
+    void topicFilterNarrowsResults() {
+        assertEquals(List.of(3L, 4L), sorted(index.search("belgi", 2L, 0, 10).ids()));
+        assertEquals(List.of(1L), index.search("belgi", 1L, 0, 10).ids());
+        assertEquals(0, index.search("belgi", 99L, 0, 10).total());
+    }
+
+    @Test
+    void pagesSliceTheRankedList() {
+        List<Long> all = search("belgi").ids();
+
+        Result first = index.search("belgi", null, 0, 2);
+        Result second = index.search("belgi", null, 1, 2);
+        Result beyond = index.search("belgi", null, 5, 2);
+
+        assertEquals(all.subList(0, 2), first.ids());
+        assertEquals(all.subList(2, 3), second.ids());
+        assertEquals(List.of(), beyond.ids());
+        assertEquals(3, beyond.total());
+    }
+
+    @Test
+    void shortTokensAreCheckedWithoutTrigrams() {
+        assertEquals(List.of(5L), search("60").ids());
+        assertEquals(List.of(5L), search("60 km").ids());
+    }
+
+    @Test
+    void blankOrUnknownQueryFindsNothing() {
+        assertEquals(0, search("").total());
+        assertEquals(0, search(" ?! ").total());
+        assertEquals(0, search("avtobus").total());
+    }
+
+    @Test
+    void newSnapshotRebuildsIndex() {
+        assertEquals(0, search("trolleybus").total());
+
+        add(6, 3, LocalizedText.ofUzl("Trolleybus bekatida to'xtash"));
+        publish();
+
+        assertEquals(List.of(6L), search("trolleybus").ids());
+    }
+
+    private Result search(String query) {
+        return index.search(query, null, 0, 20);
+    }
+
+    private void add(long id, long topicId, LocalizedText text) {
+        QuestionResponse template = QuestionResponse.builder().id(id).text(text).build();
+        questions.put(id, new CachedQuestion(id, topicId, 0, template));
+    }
+
+    /** Yangi nusxa — haqiqiy markDirty'dan keyingidek boshqa obyekt. */
+    private void publish() {
+        long[] ids = questions.keySet().stream().mapToLong(Long::longValue).toArray();
+        questionBank.snapshot = new Snapshot(System.nanoTime(), Map.copyOf(questions), ids, Map.of(),
+                LocalDateTime.now());
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().toList();
+    }
+}
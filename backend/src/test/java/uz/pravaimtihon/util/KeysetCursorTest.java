@@ -0,0 +1,96 @@
+package uz.pravaimtihon.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import uz.pravaimtihon.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void timeCursorRoundTrips() {
+        LocalDateTime startedAt = LocalDateTime.of(2024, 5, 17, 14, 3, 9, 123_456_000);
+        String encoded = KeysetCursor.of(startedAt, 981L).encode();
+
+        KeysetCursor decoded = KeysetCursor.decode(encoded);
+
+        assertEquals(startedAt, decoded.timeKey());
+        assertEquals(startedAt, decoded.nullableTimeKey());
+        assertEquals(981L, decoded.id());
+    }
+
+    @Test
+    void nullTimeKeyRoundTrips() {
+        String encoded = KeysetCursor.of((LocalDateTime) null, 42L).encode();
+
+        KeysetCursor decoded = KeysetCursor.decode(encoded);
+
+        assertNull(decoded.nullableTimeKey());
+        assertEquals(42L, decoded.id());
+        assertThrows(BusinessException.class, decoded::timeKey);
+    }
+
+    @Test
+    void intCursorRoundTrips() {
+        KeysetCursor decoded = KeysetCursor.decode(KeysetCursor.of(87, 5L).encode());
+
+        assertEquals(87, decoded.intKey());
+        assertEquals(5L, decoded.id());
+        assertEquals(0, KeysetCursor.decode(KeysetCursor.of((Integer) null, 5L).encode()).intKey());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = KeysetCursor.of(LocalDateTime.of(2024, 1, 1, 0, 0), Long.MAX_VALUE).encode();
+
+        assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="), encoded);
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(""));
+        assertNull(KeysetCursor.decode("   "));
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        assertInvalid("not base64 !");
+        assertInvalid(encode("no-separator"));
+        assertInvalid(encode("2024-01-01T00:00|abc"));
+        assertThrows(BusinessException.class, () -> KeysetCursor.decode(encode("garbage|1")).timeKey());
+        assertThrows(BusinessException.class, () -> KeysetCursor.decode(encode("garbage|1")).intKey());
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        assertEquals(1, KeysetCursor.pageSize(0));
+        assertEquals(20, KeysetCursor.pageSize(20));
+        assertEquals(Constants.MAX_PAGE_SIZE, KeysetCursor.pageSize(10_000));
+    }
+
+    @Test
+    void limitFetchesOneExtraRow() {
+        Pageable limit = KeysetCursor.limit(20);
+
+        assertEquals(0, limit.getPageNumber());
+        assertEquals(21, limit.getPageSize());
+    }
+
+    private static void assertInvalid(String cursor) {
+        BusinessException e = assertThrows(BusinessException.class, () -> KeysetCursor.decode(cursor));
+        assertEquals("error.pagination.cursor.invalid", e.getMessage());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,49 @@
+package uz.pravaimtihon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchTextNormalizerTest {
+
+    @Test
+    void cyrillicLatinAndApostropheVariantsAreEqual() {
+        assertEquals("yol belgisi", SearchTextNormalizer.normalize("Йўл белгиси"));
+        assertEquals("yol belgisi", SearchTextNormalizer.normalize("Yo'l belgisi"));
+        assertEquals("yol belgisi", SearchTextNormalizer.normalize("yoʻl belgisi"));
+        assertEquals("yol belgisi", SearchTextNormalizer.normalize("YO’L BELGISI"));
+        assertEquals("yol belgisi", SearchTextNormalizer.normalize("yo`l belgisi"));
+    }
+
+    @Test
+    void uzbekSpecificLettersMapToLatinSpelling() {
+        assertEquals("ozbekiston", SearchTextNormalizer.normalize("Ўзбекистон"));
+        assertEquals("haydovchi", SearchTextNormalizer.normalize("Ҳайдовчи"));
+        assertEquals("chorraha", SearchTextNormalizer.normalize("Чорраҳа"));
+        assertEquals("qoida", SearchTextNormalizer.normalize("Қоида"));
+        assertEquals("gildirak", SearchTextNormalizer.normalize("Ғилдирак"));
+    }
+
+    @Test
+    void russianLettersUseTheSameTable() {
+        assertEquals("svetofor", SearchTextNormalizer.normalize("Светофор"));
+        assertEquals("shosse", SearchTextNormalizer.normalize("Шоссе"));
+        assertEquals("yolka", SearchTextNormalizer.normalize("Ёлка"));
+        assertEquals("podezd", SearchTextNormalizer.normalize("Подъезд"));
+        assertEquals("tsentr", SearchTextNormalizer.normalize("Центр"));
+        assertEquals("yug", SearchTextNormalizer.normalize("Юг"));
+    }
+
+    @Test
+    void punctuationCollapsesToSingleSpaces() {
+        assertEquals("60 km soat tezlik", SearchTextNormalizer.normalize("  60 km/soat — tezlik!!  "));
+        assertEquals("a b", SearchTextNormalizer.normalize("a,\n\tb."));
+    }
+
+    @Test
+    void nullAndBlankBecomeEmpty() {
+        assertEquals("", SearchTextNormalizer.normalize(null));
+        assertEquals("", SearchTextNormalizer.normalize(""));
+        assertEquals("", SearchTextNormalizer.normalize(" ?! "));
+    }
+}